@@ -18,6 +18,10 @@ public class AccessConstants {
   public final static String LOGBACK_STATUS_MANAGER_KEY = "LOGBACK_STATUS_MANAGER";
   public static final String LB_INPUT_BUFFER = "LB_INPUT_BUFFER";
   public static final String LB_OUTPUT_BUFFER = "LB_OUTPUT_BUFFER";
+  public static final String LB_INPUT_BUFFER_TRUNCATED = "LB_INPUT_BUFFER_TRUNCATED";
+  public static final String LB_OUTPUT_BUFFER_TRUNCATED = "LB_OUTPUT_BUFFER_TRUNCATED";
+
+  public final static String TRUNCATION_MARKER = "...[truncated]";
   
   public final static String X_WWW_FORM_URLECODED = "application/x-www-form-urlencoded";
   
@@ -31,5 +35,10 @@ public class AccessConstants {
 
     public final static String TEE_FILTER_INCLUDES_PARAM = "includes";
     public final static String TEE_FILTER_EXCLUDES_PARAM = "excludes";
+    public final static String TEE_FILTER_MAX_REQUEST_CAPTURE_SIZE_PARAM = "maxRequestCaptureSize";
+    public final static String TEE_FILTER_MAX_RESPONSE_CAPTURE_SIZE_PARAM = "maxResponseCaptureSize";
+    public final static String TEE_FILTER_EXCLUDED_URL_PATTERNS_PARAM = "excludedURLPatterns";
+    public final static String TEE_FILTER_EXCLUDED_CONTENT_TYPES_PARAM = "excludedContentTypes";
+    public final static int TEE_FILTER_DEFAULT_MAX_CAPTURE_SIZE = 64 * 1024;
 
 }
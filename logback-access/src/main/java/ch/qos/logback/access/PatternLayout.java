@@ -13,9 +13,12 @@
  */
 package ch.qos.logback.access;
 
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
+import ch.qos.logback.access.pattern.AccessConverter;
 import ch.qos.logback.access.pattern.ContentLengthConverter;
 import ch.qos.logback.access.pattern.DateConverter;
 import ch.qos.logback.access.pattern.EnsureLineSeparation;
@@ -41,7 +44,12 @@ import ch.qos.logback.access.pattern.ResponseContentConverter;
 import ch.qos.logback.access.pattern.ResponseHeaderConverter;
 import ch.qos.logback.access.pattern.ServerNameConverter;
 import ch.qos.logback.access.pattern.StatusCodeConverter;
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
+import ch.qos.logback.access.spi.RequiredFields;
+import ch.qos.logback.core.pattern.CompositeConverter;
+import ch.qos.logback.core.pattern.Converter;
+import ch.qos.logback.core.pattern.LiteralConverter;
 import ch.qos.logback.core.pattern.PatternLayoutBase;
 import ch.qos.logback.core.pattern.parser.Parser;
 
@@ -183,5 +191,33 @@ public class PatternLayout extends PatternLayoutBase<IAccessEvent> {
       setPattern(COMBINED_PATTERN);
     }
     super.start();
+    if (isStarted() && getContext() != null) {
+      RequiredFields.of(getContext()).add(this, getRequiredFields());
+    }
+  }
+
+  /**
+   * @return the event fields read by the converters of this layout
+   * @since 0.9.31
+   */
+  public Set<AccessEventField> getRequiredFields() {
+    Set<AccessEventField> fields = EnumSet.noneOf(AccessEventField.class);
+    addRequiredFields(getHeadConverter(), fields);
+    return fields;
+  }
+
+  private void addRequiredFields(Converter<IAccessEvent> head,
+      Set<AccessEventField> fields) {
+    for (Converter<IAccessEvent> c = head; c != null; c = c.getNext()) {
+      if (c instanceof AccessConverter) {
+        fields.addAll(((AccessConverter) c).getRequiredFields());
+      } else if (c instanceof CompositeConverter) {
+        addRequiredFields(((CompositeConverter<IAccessEvent>) c)
+            .getChildConverter(), fields);
+      } else if (!(c instanceof LiteralConverter)) {
+        // unknown converters may read anything
+        fields.addAll(AccessEventField.ALL);
+      }
+    }
   }
 }
@@ -24,6 +24,7 @@ public class PatternLayoutEncoder extends PatternLayoutEncoderBase<IAccessEvent>
     PatternLayout patternLayout = new PatternLayout();
     patternLayout.setContext(context);
     patternLayout.setPattern(getPattern());
+    patternLayout.setCompileToBytecode(isCompileToBytecode());
     patternLayout.start();
     this.layout = patternLayout;
     super.start();
@@ -13,10 +13,18 @@
  */
 package ch.qos.logback.access;
 
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import ch.qos.logback.access.filter.HeavyHitterFilter;
+import ch.qos.logback.core.helpers.Transform;
 import ch.qos.logback.core.status.StatusManager;
 import ch.qos.logback.core.status.ViewStatusMessagesServletBase;
 
@@ -49,4 +57,51 @@ public class ViewStatusMessagesServlet extends ViewStatusMessagesServletBase {
   protected String getPageTitle(HttpServletRequest req, HttpServletResponse resp) {
     return "<h2>Status messages for logback-access</h2>\r\n";
   }
+
+  static final String[] HEAVY_HITTER_ATTRIBUTES = {
+      "LastMinuteTopRequestURIsByCount", "LastMinuteTopRequestURIsByBytes",
+      "LastMinuteTopRemoteAddressesByCount",
+      "LastMinuteTopRemoteAddressesByBytes", "LastMinuteTopUserAgentsByCount",
+      "LastMinuteTopUserAgentsByBytes", "LastHourTopRequestURIsByCount",
+      "LastHourTopRequestURIsByBytes", "LastHourTopRemoteAddressesByCount",
+      "LastHourTopRemoteAddressesByBytes", "LastHourTopUserAgentsByCount",
+      "LastHourTopUserAgentsByBytes" };
+
+  /**
+   * Print the statistics of the {@link HeavyHitterFilter} instances
+   * registered with the platform's MBean server.
+   */
+  @Override
+  protected void printAdditionalContent(PrintWriter output,
+      HttpServletRequest req) {
+    MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+    Set<ObjectName> nameSet;
+    try {
+      nameSet = mbs.queryNames(new ObjectName("*:Type="
+          + HeavyHitterFilter.TYPE + ",*"), null);
+    } catch (Exception e) {
+      return;
+    }
+    for (ObjectName on : nameSet) {
+      output.append("<h2>Heavy hitters for ").append(
+          Transform.escapeTags(on.getKeyProperty("Name"))).append("</h2>\r\n");
+      for (String attribute : HEAVY_HITTER_ATTRIBUTES) {
+        String[] entries;
+        try {
+          entries = (String[]) mbs.getAttribute(on, attribute);
+        } catch (Exception e) {
+          continue;
+        }
+        output.append("<table>\r\n");
+        output.append("  <tr class=\"header\"><th>").append(attribute)
+            .append("</th></tr>\r\n");
+        for (int i = 0; i < entries.length; i++) {
+          output.append("  <tr class=\"").append(i % 2 == 0 ? "even" : "odd")
+              .append("\"><td>").append(Transform.escapeTags(entries[i]))
+              .append("</td></tr>\r\n");
+        }
+        output.append("</table>\r\n");
+      }
+    }
+  }
 }
@@ -14,9 +14,14 @@
 package ch.qos.logback.access.boolex;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
 
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
+import ch.qos.logback.access.spi.RequiredFields;
 import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.boolex.JaninoEventEvaluatorBase;
 import ch.qos.logback.core.boolex.Matcher;
@@ -32,10 +37,55 @@ public class JaninoEventEvaluator extends JaninoEventEvaluatorBase<IAccessEvent>
   }
 
 
+  // calls of the form event.someMethod(
+  static final Pattern EVENT_METHOD_CALL = Pattern
+      .compile("\\bevent\\s*\\.\\s*(\\w+)\\s*\\(");
+  static final Pattern EVENT_REFERENCE = Pattern.compile("\\bevent\\b");
+
   public JaninoEventEvaluator() {
 
   }
 
+  @Override
+  public void start() {
+    super.start();
+    if (isStarted()) {
+      RequiredFields.of(getContext()).add(this, getRequiredFields());
+    }
+  }
+
+  /**
+   * The event fields read by the expression, as determined by the
+   * <code>event</code> methods it calls. If the event is used otherwise, for
+   * example passed as an argument, all fields are assumed to be required.
+   * 
+   * @since 0.9.31
+   */
+  public Set<AccessEventField> getRequiredFields() {
+    String expression = getExpression();
+    Set<AccessEventField> fields = EnumSet.noneOf(AccessEventField.class);
+
+    int callCount = 0;
+    java.util.regex.Matcher m = EVENT_METHOD_CALL.matcher(expression);
+    while (m.find()) {
+      callCount++;
+      AccessEventField field = AccessEventField.forGetter(m.group(1));
+      if (field != null) {
+        fields.add(field);
+      }
+    }
+
+    int referenceCount = 0;
+    m = EVENT_REFERENCE.matcher(expression);
+    while (m.find()) {
+      referenceCount++;
+    }
+    if (referenceCount > callCount) {
+      return AccessEventField.ALL;
+    }
+    return fields;
+  }
+
   protected String getDecoratedExpression() {
     String expression = getExpression();
     if (!expression.contains("return")) {
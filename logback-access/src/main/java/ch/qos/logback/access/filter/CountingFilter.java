@@ -13,20 +13,32 @@
  */
  package ch.qos.logback.access.filter;
 
+import ch.qos.logback.access.spi.AccessEventField;
+import ch.qos.logback.access.spi.IAccessEvent;
+import ch.qos.logback.access.spi.RequiredFields;
 import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.metrics.StripedCounter;
 import ch.qos.logback.core.spi.FilterReply;
 
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
 import javax.management.StandardMBean;
 import java.lang.management.ManagementFactory;
+import java.util.EnumSet;
 
+/**
+ * Counts requests and records their latencies, exposing the results over JMX
+ * through {@link StatisticalView}. Counts and latencies can additionally be
+ * broken down by status class and by HTTP method.
+ */
 public class CountingFilter extends Filter {
 
-  long total = 0;
+  final StripedCounter total = new StripedCounter();
   final StatisticalViewImpl accessStatsImpl;
   
   String domain = "ch.qos.logback.access";
+  boolean statusClassDimension = false;
+  boolean methodDimension = false;
   
   public CountingFilter() {
     accessStatsImpl = new StatisticalViewImpl(this);
@@ -34,18 +46,25 @@ public class CountingFilter extends Filter {
   
   @Override
   public FilterReply decide(Object event) {
-    total++;
-    accessStatsImpl.update();
+    total.increment();
+    IAccessEvent accessEvent = (event instanceof IAccessEvent) ? (IAccessEvent) event
+        : null;
+    accessStatsImpl.update(System.currentTimeMillis(), accessEvent);
     return FilterReply.NEUTRAL;
   }
 
   public long getTotal() {
-    return total;
+    return total.sum();
   }
   
   
   @Override
   public void start() {
+    if (getContext() != null) {
+      RequiredFields.of(getContext()).add(this,
+          EnumSet.of(AccessEventField.ELAPSED_TIME,
+              AccessEventField.STATUS_CODE, AccessEventField.METHOD));
+    }
     MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
     try {
       ObjectName on = new ObjectName(domain+":Name="+getName());
@@ -79,5 +98,28 @@ public class CountingFilter extends Filter {
   public void setDomain(String domain) {
     this.domain = domain;
   }
+
+  public boolean isStatusClassDimension() {
+    return statusClassDimension;
+  }
+
+  /**
+   * Whether requests should also be accounted per status class, i.e. 2xx,
+   * 3xx, etc.
+   */
+  public void setStatusClassDimension(boolean statusClassDimension) {
+    this.statusClassDimension = statusClassDimension;
+  }
+
+  public boolean isMethodDimension() {
+    return methodDimension;
+  }
+
+  /**
+   * Whether requests should also be accounted per HTTP method.
+   */
+  public void setMethodDimension(boolean methodDimension) {
+    this.methodDimension = methodDimension;
+  }
   
 }
@@ -0,0 +1,161 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.access.filter;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumSet;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import javax.servlet.http.HttpServletRequest;
+
+import ch.qos.logback.access.spi.AccessEventField;
+import ch.qos.logback.access.spi.IAccessEvent;
+import ch.qos.logback.access.spi.RequiredFields;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * Tracks the request URIs, remote addresses and user agents with the most
+ * requests and the most response bytes, using a fixed amount of memory, and
+ * exposes them over JMX through {@link HeavyHitterView}.
+ *
+ * <p>The user agent is read from the request itself, so that the request
+ * headers need not be captured for deferred processing. Once the event is
+ * detached from its request, e.g. when the filter is attached to an appender
+ * processing events asynchronously, user agents are only tracked if another
+ * component requires the request headers.
+ *
+ * @since 0.9.31
+ */
+public class HeavyHitterFilter extends Filter {
+
+  public static final String TYPE = "HeavyHitters";
+  static final String USER_AGENT_HEADER = "User-Agent";
+
+  public static final int DEFAULT_CAPACITY = 100;
+  public static final int DEFAULT_TOP_COUNT = 10;
+
+  String domain = "ch.qos.logback.access";
+  int capacity = DEFAULT_CAPACITY;
+  int topCount = DEFAULT_TOP_COUNT;
+
+  HeavyHitterViewImpl heavyHitterViewImpl;
+  ObjectName objectName;
+
+  @Override
+  public FilterReply decide(Object event) {
+    HeavyHitterViewImpl viewImpl = heavyHitterViewImpl;
+    if (!isStarted() || viewImpl == null || !(event instanceof IAccessEvent)) {
+      return FilterReply.NEUTRAL;
+    }
+    IAccessEvent ae = (IAccessEvent) event;
+    viewImpl.update(System.currentTimeMillis(), ae.getRequestURI(), ae
+        .getRemoteAddr(), getUserAgent(ae), ae.getContentLength());
+    return FilterReply.NEUTRAL;
+  }
+
+  static String getUserAgent(IAccessEvent ae) {
+    String userAgent;
+    HttpServletRequest request = ae.getRequest();
+    if (request != null) {
+      // avoids copying all the headers of the request
+      userAgent = request.getHeader(USER_AGENT_HEADER);
+    } else {
+      userAgent = ae.getRequestHeader(USER_AGENT_HEADER);
+    }
+    if (IAccessEvent.NA.equals(userAgent)) {
+      return null;
+    }
+    return userAgent;
+  }
+
+  @Override
+  public void start() {
+    if (topCount < 1 || capacity < topCount) {
+      addError("capacity [" + capacity + "] must be at least topCount ["
+          + topCount + "], which must be positive");
+      return;
+    }
+    if (getContext() != null) {
+      RequiredFields.of(getContext()).add(this,
+          EnumSet.of(AccessEventField.REQUEST_URI,
+              AccessEventField.REMOTE_ADDR, AccessEventField.CONTENT_LENGTH));
+    }
+    heavyHitterViewImpl = new HeavyHitterViewImpl(this);
+    MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+    try {
+      objectName = new ObjectName(domain + ":Type=" + TYPE + ",Name="
+          + getName());
+      StandardMBean mbean = new StandardMBean(heavyHitterViewImpl,
+          HeavyHitterView.class);
+      if (mbs.isRegistered(objectName)) {
+        mbs.unregisterMBean(objectName);
+      }
+      mbs.registerMBean(mbean, objectName);
+      super.start();
+    } catch (Exception e) {
+      addError("Failed to create mbean", e);
+    }
+  }
+
+  @Override
+  public void stop() {
+    super.stop();
+    heavyHitterViewImpl = null;
+    if (objectName == null) {
+      return;
+    }
+    try {
+      MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+      if (mbs.isRegistered(objectName)) {
+        mbs.unregisterMBean(objectName);
+      }
+    } catch (Exception e) {
+      addError("Failed to unregister mbean", e);
+    }
+  }
+
+  public String getDomain() {
+    return domain;
+  }
+
+  public void setDomain(String domain) {
+    this.domain = domain;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * The number of counters kept per tracked dimension and metric. The larger
+   * the capacity, the more accurate the totals.
+   */
+  public void setCapacity(int capacity) {
+    this.capacity = capacity;
+  }
+
+  public int getTopCount() {
+    return topCount;
+  }
+
+  /**
+   * The number of entries reported per tracked dimension and metric.
+   */
+  public void setTopCount(int topCount) {
+    this.topCount = topCount;
+  }
+}
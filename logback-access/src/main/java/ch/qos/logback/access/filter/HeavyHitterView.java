@@ -0,0 +1,38 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.access.filter;
+
+/**
+ * The busiest request URIs, remote addresses and user agents, by number of
+ * requests and by response bytes, over the last completed minute and hour, as
+ * exposed through JMX. Each entry reads as the total followed by the key.
+ * Totals may be overestimated by the amount shown in parentheses.
+ */
+public interface HeavyHitterView {
+
+  String[] getLastMinuteTopRequestURIsByCount();
+  String[] getLastMinuteTopRequestURIsByBytes();
+  String[] getLastMinuteTopRemoteAddressesByCount();
+  String[] getLastMinuteTopRemoteAddressesByBytes();
+  String[] getLastMinuteTopUserAgentsByCount();
+  String[] getLastMinuteTopUserAgentsByBytes();
+
+  String[] getLastHourTopRequestURIsByCount();
+  String[] getLastHourTopRequestURIsByBytes();
+  String[] getLastHourTopRemoteAddressesByCount();
+  String[] getLastHourTopRemoteAddressesByBytes();
+  String[] getLastHourTopUserAgentsByCount();
+  String[] getLastHourTopUserAgentsByBytes();
+
+}
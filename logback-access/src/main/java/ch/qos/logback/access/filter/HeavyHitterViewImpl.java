@@ -0,0 +1,104 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.access.filter;
+
+import java.util.List;
+
+import ch.qos.logback.access.filter.PeriodicHeavyHitters.Dimension;
+import ch.qos.logback.access.filter.PeriodicHeavyHitters.Metric;
+
+public class HeavyHitterViewImpl implements HeavyHitterView {
+
+  final HeavyHitterFilter heavyHitterFilter;
+
+  HeavyHittersByMinute heavyHittersByMinute;
+  HeavyHittersByHour heavyHittersByHour;
+
+  HeavyHitterViewImpl(HeavyHitterFilter heavyHitterFilter) {
+    this.heavyHitterFilter = heavyHitterFilter;
+    reset(System.currentTimeMillis());
+  }
+
+  void reset(long now) {
+    int capacity = heavyHitterFilter.getCapacity();
+    heavyHittersByMinute = new HeavyHittersByMinute(capacity, now);
+    heavyHittersByHour = new HeavyHittersByHour(capacity, now);
+  }
+
+  void update(long now, String requestURI, String remoteAddr,
+      String userAgent, long bytes) {
+    heavyHittersByMinute.record(now, requestURI, remoteAddr, userAgent, bytes);
+    heavyHittersByHour.record(now, requestURI, remoteAddr, userAgent, bytes);
+  }
+
+  String[] top(PeriodicHeavyHitters heavyHitters, Dimension dimension,
+      Metric metric) {
+    List<SpaceSaving.Entry> entryList = heavyHitters.getLastTop(System
+        .currentTimeMillis(), dimension, metric, heavyHitterFilter
+        .getTopCount());
+    String[] result = new String[entryList.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = entryList.get(i).toString();
+    }
+    return result;
+  }
+
+  public String[] getLastMinuteTopRequestURIsByCount() {
+    return top(heavyHittersByMinute, Dimension.REQUEST_URI, Metric.COUNT);
+  }
+
+  public String[] getLastMinuteTopRequestURIsByBytes() {
+    return top(heavyHittersByMinute, Dimension.REQUEST_URI, Metric.BYTES);
+  }
+
+  public String[] getLastMinuteTopRemoteAddressesByCount() {
+    return top(heavyHittersByMinute, Dimension.REMOTE_ADDR, Metric.COUNT);
+  }
+
+  public String[] getLastMinuteTopRemoteAddressesByBytes() {
+    return top(heavyHittersByMinute, Dimension.REMOTE_ADDR, Metric.BYTES);
+  }
+
+  public String[] getLastMinuteTopUserAgentsByCount() {
+    return top(heavyHittersByMinute, Dimension.USER_AGENT, Metric.COUNT);
+  }
+
+  public String[] getLastMinuteTopUserAgentsByBytes() {
+    return top(heavyHittersByMinute, Dimension.USER_AGENT, Metric.BYTES);
+  }
+
+  public String[] getLastHourTopRequestURIsByCount() {
+    return top(heavyHittersByHour, Dimension.REQUEST_URI, Metric.COUNT);
+  }
+
+  public String[] getLastHourTopRequestURIsByBytes() {
+    return top(heavyHittersByHour, Dimension.REQUEST_URI, Metric.BYTES);
+  }
+
+  public String[] getLastHourTopRemoteAddressesByCount() {
+    return top(heavyHittersByHour, Dimension.REMOTE_ADDR, Metric.COUNT);
+  }
+
+  public String[] getLastHourTopRemoteAddressesByBytes() {
+    return top(heavyHittersByHour, Dimension.REMOTE_ADDR, Metric.BYTES);
+  }
+
+  public String[] getLastHourTopUserAgentsByCount() {
+    return top(heavyHittersByHour, Dimension.USER_AGENT, Metric.COUNT);
+  }
+
+  public String[] getLastHourTopUserAgentsByBytes() {
+    return top(heavyHittersByHour, Dimension.USER_AGENT, Metric.BYTES);
+  }
+}
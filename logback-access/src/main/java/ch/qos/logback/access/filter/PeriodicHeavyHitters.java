@@ -0,0 +1,194 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.access.filter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ch.qos.logback.core.metrics.StripedCounter;
+
+/**
+ * The request URIs, remote addresses and user agents with the most requests
+ * and the most response bytes over the last completed period, each tracked
+ * with a {@link SpaceSaving} summary of bounded size.
+ *
+ * <p>Request threads record into a few stripes, each guarded by its own lock,
+ * which are merged when read. A stripe rolls over to a new period when it is
+ * next recorded into or read, so that an idle stripe does not report a stale
+ * period as the last one.
+ *
+ * @since 0.9.31
+ */
+abstract public class PeriodicHeavyHitters {
+
+  public enum Dimension {
+    REQUEST_URI, REMOTE_ADDR, USER_AGENT
+  }
+
+  public enum Metric {
+    COUNT, BYTES
+  }
+
+  // longer keys, e.g. user agents, are truncated
+  static final int MAX_KEY_LENGTH = 256;
+
+  // each stripe holds two sets of summaries, so keep their number modest
+  static final int MAX_STRIPES = 8;
+
+  final int capacity;
+  final Stripe[] stripes;
+  final int mask;
+
+  PeriodicHeavyHitters(int capacity, long now) {
+    this(capacity, now, Math.min(StripedCounter.defaultStripeCount(),
+        MAX_STRIPES));
+  }
+
+  PeriodicHeavyHitters(int capacity, long now, int stripeCount) {
+    this.capacity = capacity;
+    this.mask = stripeCount - 1;
+    this.stripes = new Stripe[stripeCount];
+    long nextPeriodBegins = computeStartOfNextPeriod(now);
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe(nextPeriodBegins);
+    }
+  }
+
+  private SpaceSaving[][] createSummaries() {
+    SpaceSaving[][] summaries = new SpaceSaving[Dimension.values().length][Metric
+        .values().length];
+    for (int d = 0; d < summaries.length; d++) {
+      for (int m = 0; m < summaries[d].length; m++) {
+        summaries[d][m] = new SpaceSaving(capacity);
+      }
+    }
+    return summaries;
+  }
+
+  private static void clear(SpaceSaving[][] summaries) {
+    for (SpaceSaving[] byMetric : summaries) {
+      for (SpaceSaving summary : byMetric) {
+        summary.clear();
+      }
+    }
+  }
+
+  void record(long now, String requestURI, String remoteAddr,
+      String userAgent, long bytes) {
+    Stripe stripe = stripes[(mask == 0) ? 0 : StripedCounter.stripeIndex(mask)];
+    synchronized (stripe) {
+      rollOver(stripe, now);
+      offer(stripe.current, Dimension.REQUEST_URI, requestURI, bytes);
+      offer(stripe.current, Dimension.REMOTE_ADDR, remoteAddr, bytes);
+      offer(stripe.current, Dimension.USER_AGENT, userAgent, bytes);
+    }
+  }
+
+  // the caller must hold the lock of the stripe
+  private void rollOver(Stripe stripe, long now) {
+    if (now < stripe.nextPeriodBegins) {
+      return;
+    }
+    long nextPeriodBegins = computeStartOfNextPeriod(now);
+    // recycle the summaries of the period before last
+    SpaceSaving[][] recycled = stripe.last;
+    clear(recycled);
+    if (computeStartOfNextPeriod(stripe.nextPeriodBegins) != nextPeriodBegins) {
+      // more than one period elapsed, the current summaries are stale too
+      clear(stripe.current);
+    }
+    stripe.last = stripe.current;
+    stripe.current = recycled;
+    stripe.nextPeriodBegins = nextPeriodBegins;
+  }
+
+  private void offer(SpaceSaving[][] summaries, Dimension dimension,
+      String key, long bytes) {
+    if (key == null) {
+      return;
+    }
+    if (key.length() > MAX_KEY_LENGTH) {
+      key = key.substring(0, MAX_KEY_LENGTH);
+    }
+    SpaceSaving[] byMetric = summaries[dimension.ordinal()];
+    byMetric[Metric.COUNT.ordinal()].offer(key, 1);
+    byMetric[Metric.BYTES.ordinal()].offer(key, bytes);
+  }
+
+  /**
+   * @return at most <code>n</code> entries of the last period completed
+   *         before <code>now</code>, by decreasing total. Totals and errors
+   *         are summed over the stripes.
+   */
+  public List<SpaceSaving.Entry> getLastTop(long now, Dimension dimension,
+      Metric metric, int n) {
+    Map<String, long[]> mergedMap = new HashMap<String, long[]>();
+    for (Stripe stripe : stripes) {
+      List<SpaceSaving.Entry> entryList;
+      synchronized (stripe) {
+        rollOver(stripe, now);
+        entryList = stripe.last[dimension.ordinal()][metric.ordinal()]
+            .getTop(capacity);
+      }
+      for (SpaceSaving.Entry entry : entryList) {
+        long[] merged = mergedMap.get(entry.key);
+        if (merged == null) {
+          mergedMap.put(entry.key, new long[] { entry.total, entry.error });
+        } else {
+          merged[0] += entry.total;
+          merged[1] += entry.error;
+        }
+      }
+    }
+
+    List<SpaceSaving.Entry> mergedList = new ArrayList<SpaceSaving.Entry>(
+        mergedMap.size());
+    for (Map.Entry<String, long[]> e : mergedMap.entrySet()) {
+      long[] merged = e.getValue();
+      mergedList.add(new SpaceSaving.Entry(e.getKey(), merged[0], merged[1]));
+    }
+    Collections.sort(mergedList, BY_DECREASING_TOTAL);
+    if (mergedList.size() > n) {
+      mergedList = mergedList.subList(0, n);
+    }
+    return Collections.unmodifiableList(mergedList);
+  }
+
+  abstract long computeStartOfNextPeriod(long now);
+
+  static final Comparator<SpaceSaving.Entry> BY_DECREASING_TOTAL = new Comparator<SpaceSaving.Entry>() {
+    public int compare(SpaceSaving.Entry e0, SpaceSaving.Entry e1) {
+      if (e0.total != e1.total) {
+        return e0.total > e1.total ? -1 : 1;
+      }
+      return e0.key.compareTo(e1.key);
+    }
+  };
+
+  // ================================================================
+  class Stripe {
+    long nextPeriodBegins;
+    SpaceSaving[][] current = createSummaries();
+    SpaceSaving[][] last = createSummaries();
+
+    Stripe(long nextPeriodBegins) {
+      this.nextPeriodBegins = nextPeriodBegins;
+    }
+  }
+
+}
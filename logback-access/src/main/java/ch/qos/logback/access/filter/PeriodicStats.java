@@ -13,15 +13,27 @@
  */
 package ch.qos.logback.access.filter;
 
+import ch.qos.logback.core.metrics.LatencyHistogram;
 
+/**
+ * Counts of requests and their latencies over the last completed period.
+ *
+ * <p>Latencies are recorded, or merged from shorter periods, into the
+ * histogram of the current period, which becomes the last period's histogram
+ * once the period ends. Rolling over to the next period is synchronized, but
+ * checking whether the period has ended only costs a volatile read.
+ */
 abstract public class PeriodicStats {
   
-  private long nextPeriodBegins = 0;
+  private volatile long nextPeriodBegins = 0;
   private long lastTotal = 0;
-  private long lastCount = 0;
+  private volatile long lastCount = 0;
 
-  private double average;
+  private volatile double average;
   private int n;
+
+  private volatile LatencyHistogram currentHistogram;
+  private volatile LatencyHistogram lastHistogram;
  
   PeriodicStats() {
     this(System.currentTimeMillis());
@@ -29,15 +41,43 @@ abstract public class PeriodicStats {
   
   PeriodicStats(long now) {
     nextPeriodBegins = computeStartOfNextPeriod(now);
+    currentHistogram = createHistogram();
+    lastHistogram = createHistogram();
   }
- 
-  void update(long now, long total) {
+
+  LatencyHistogram createHistogram() {
+    return new LatencyHistogram();
+  }
+
+  boolean isPeriodOver(long now) {
+    return now > nextPeriodBegins;
+  }
+
+  /**
+   * @return true if a new period began
+   */
+  synchronized boolean update(long now, long total) {
     if (now > nextPeriodBegins) {     
       lastCount = total - lastTotal;
       lastTotal = total;
       average = (average * n + lastCount) / (++n);
+      // recycle the histogram of the period before last
+      LatencyHistogram recycled = lastHistogram;
+      recycled.reset();
+      lastHistogram = currentHistogram;
+      currentHistogram = recycled;
       nextPeriodBegins = computeStartOfNextPeriod(now);
+      return true;
     }
+    return false;
+  }
+
+  void record(long elapsedTime) {
+    currentHistogram.record(elapsedTime);
+  }
+
+  void merge(LatencyHistogram histogram) {
+    currentHistogram.add(histogram);
   }
 
   public double getAverage() {
@@ -47,13 +87,27 @@ abstract public class PeriodicStats {
   public long getLastCount() {
     return lastCount;
   }
+
+  /**
+   * @return the latency, in milliseconds, at the given percentile over the
+   *         last completed period
+   */
+  public long getLastPercentile(double percentile) {
+    return lastHistogram.getValueAtPercentile(percentile);
+  }
+
+  LatencyHistogram getLastHistogram() {
+    return lastHistogram;
+  }
   
-  void reset(long now) {
+  synchronized void reset(long now) {
     nextPeriodBegins = computeStartOfNextPeriod(now);
     lastTotal = 0;
     lastCount = 0;
     average = 0.0;
     n = 0;
+    currentHistogram.reset();
+    lastHistogram.reset();
   }
   
   void reset() {
@@ -0,0 +1,197 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.access.filter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the keys with the largest total weight in a stream using at most
+ * <code>capacity</code> counters, as described in Metwally, Agrawal and El
+ * Abbadi's "Efficient Computation of Frequent and Top-k Elements in Data
+ * Streams". Once all counters are in use, a new key takes over the counter
+ * with the smallest total, whose value it inherits as a possible
+ * overestimation.
+ *
+ * <p>Counters are kept in a min-heap so that each offer costs O(log
+ * capacity). This class is not thread-safe.
+ *
+ * @since 0.9.31
+ */
+public class SpaceSaving {
+
+  final int capacity;
+  final Map<String, Counter> counterMap;
+  final Counter[] heap;
+  int size = 0;
+
+  public SpaceSaving(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+    this.capacity = capacity;
+    this.counterMap = new HashMap<String, Counter>(capacity * 2);
+    this.heap = new Counter[capacity];
+  }
+
+  public void offer(String key, long weight) {
+    if (key == null || weight <= 0) {
+      return;
+    }
+    Counter counter = counterMap.get(key);
+    if (counter != null) {
+      counter.total += weight;
+      siftDown(counter.index);
+    } else if (size < capacity) {
+      counter = new Counter(key, weight);
+      counter.index = size;
+      heap[size++] = counter;
+      counterMap.put(key, counter);
+      siftUp(counter.index);
+    } else {
+      // evict the smallest counter
+      counter = heap[0];
+      counterMap.remove(counter.key);
+      counter.key = key;
+      counter.error = counter.total;
+      counter.total += weight;
+      counterMap.put(key, counter);
+      siftDown(0);
+    }
+  }
+
+  /**
+   * @return at most <code>n</code> entries, by decreasing total
+   */
+  public List<Entry> getTop(int n) {
+    Counter[] sorted = new Counter[size];
+    System.arraycopy(heap, 0, sorted, 0, size);
+    Arrays.sort(sorted, BY_DECREASING_TOTAL);
+    List<Entry> result = new ArrayList<Entry>(Math.min(n, size));
+    for (int i = 0; i < sorted.length && i < n; i++) {
+      Counter c = sorted[i];
+      result.add(new Entry(c.key, c.total, c.error));
+    }
+    return Collections.unmodifiableList(result);
+  }
+
+  public void clear() {
+    Arrays.fill(heap, null);
+    counterMap.clear();
+    size = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  private void siftUp(int i) {
+    Counter counter = heap[i];
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (heap[parent].total <= counter.total) {
+        break;
+      }
+      place(heap[parent], i);
+      i = parent;
+    }
+    place(counter, i);
+  }
+
+  private void siftDown(int i) {
+    Counter counter = heap[i];
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      int right = child + 1;
+      if (right < size && heap[right].total < heap[child].total) {
+        child = right;
+      }
+      if (counter.total <= heap[child].total) {
+        break;
+      }
+      place(heap[child], i);
+      i = child;
+    }
+    place(counter, i);
+  }
+
+  private void place(Counter counter, int i) {
+    heap[i] = counter;
+    counter.index = i;
+  }
+
+  static final Comparator<Counter> BY_DECREASING_TOTAL = new Comparator<Counter>() {
+    public int compare(Counter c0, Counter c1) {
+      if (c0.total != c1.total) {
+        return c0.total > c1.total ? -1 : 1;
+      }
+      return c0.key.compareTo(c1.key);
+    }
+  };
+
+  // ================================================================
+  static class Counter {
+    String key;
+    long total;
+    long error;
+    int index;
+
+    Counter(String key, long total) {
+      this.key = key;
+      this.total = total;
+    }
+  }
+
+  /**
+   * A key and its total, which may be overestimated by at most
+   * <code>error</code>.
+   */
+  public static class Entry {
+    final String key;
+    final long total;
+    final long error;
+
+    Entry(String key, long total, long error) {
+      this.key = key;
+      this.total = total;
+      this.error = error;
+    }
+
+    public String getKey() {
+      return key;
+    }
+
+    public long getTotal() {
+      return total;
+    }
+
+    public long getError() {
+      return error;
+    }
+
+    @Override
+    public String toString() {
+      if (error == 0) {
+        return total + " " + key;
+      }
+      return total + " (+/-" + error + ") " + key;
+    }
+  }
+}
@@ -13,6 +13,12 @@
  */
 package ch.qos.logback.access.filter;
 
+import java.util.Map;
+
+/**
+ * Request counts and latencies, in milliseconds, over the last completed
+ * minute, hour, day, week and month, as exposed through JMX.
+ */
 public interface StatisticalView {
 
   
@@ -20,20 +26,44 @@ public interface StatisticalView {
   
   long getLastMinuteCount();
   double getMinuteAverage();
+  long getLastMinuteLatencyP50();
+  long getLastMinuteLatencyP95();
+  long getLastMinuteLatencyP99();
   
   
   long getLastHoursCount();
   double getHourlyAverage();
+  long getLastHoursLatencyP50();
+  long getLastHoursLatencyP95();
+  long getLastHoursLatencyP99();
   
   
   long getLastDaysCount();
   double getDailyAverage();
+  long getLastDaysLatencyP50();
+  long getLastDaysLatencyP95();
+  long getLastDaysLatencyP99();
  
   
   long getLastWeeksCount();
   double getWeeklyAverage();
+  long getLastWeeksLatencyP50();
+  long getLastWeeksLatencyP95();
+  long getLastWeeksLatencyP99();
   
   long getLastMonthsCount();
   double getMonthlyAverage();
+  long getLastMonthsLatencyP50();
+  long getLastMonthsLatencyP95();
+  long getLastMonthsLatencyP99();
+
+  // the following are empty unless the corresponding dimension is enabled
+  // on the CountingFilter
+
+  Map<String, Long> getLastMinuteCountByStatusClass();
+  Map<String, Long> getLastMinuteLatencyP95ByStatusClass();
+
+  Map<String, Long> getLastMinuteCountByMethod();
+  Map<String, Long> getLastMinuteLatencyP95ByMethod();
   
 }
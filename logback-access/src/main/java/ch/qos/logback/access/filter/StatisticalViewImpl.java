@@ -13,10 +13,26 @@
  */
 package ch.qos.logback.access.filter;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import ch.qos.logback.access.spi.IAccessEvent;
+import ch.qos.logback.core.metrics.LatencyHistogram;
+import ch.qos.logback.core.metrics.StripedCounter;
 import ch.qos.logback.core.spi.LifeCycle;
 
 public class StatisticalViewImpl implements StatisticalView, LifeCycle {
 
+  static final String OTHER = "OTHER";
+  static final Set<String> KNOWN_METHODS = new HashSet<String>(Arrays.asList(
+      "GET", "HEAD", "POST", "PUT", "DELETE", "OPTIONS", "TRACE", "CONNECT",
+      "PATCH"));
+
   final CountingFilter countingFilter;
   boolean started;
 
@@ -25,6 +41,9 @@ public class StatisticalViewImpl implements StatisticalView, LifeCycle {
   StatsByDay statsByDay = new StatsByDay();
   StatsByWeek statsByWeek = new StatsByWeek();
   StatsByMonth statsByMonth = new StatsByMonth();
+
+  final ConcurrentMap<String, Dimension> statusClassMap = new ConcurrentHashMap<String, Dimension>();
+  final ConcurrentMap<String, Dimension> methodMap = new ConcurrentHashMap<String, Dimension>();
   
   StatisticalViewImpl(CountingFilter countingFilter) {
     this.countingFilter = countingFilter;
@@ -58,19 +77,83 @@ public class StatisticalViewImpl implements StatisticalView, LifeCycle {
     return statsByWeek.getLastCount();
   }
 
+  /**
+   * Account for an event which was already added to the total. The event may
+   * be null.
+   */
+  void update(long now, IAccessEvent event) {
+    long elapsedTime = (event == null) ? IAccessEvent.SENTINEL : event
+        .getElapsedTime();
+    statsByMinute.record(elapsedTime);
+    if (event != null && countingFilter.isStatusClassDimension()) {
+      record(statusClassMap, statusClassOf(event.getStatusCode()), now,
+          elapsedTime);
+    }
+    if (event != null && countingFilter.isMethodDimension()) {
+      record(methodMap, methodOf(event.getMethod()), now, elapsedTime);
+    }
+    if (statsByMinute.isPeriodOver(now)) {
+      rollOver(now);
+    }
+  }
+
   void update(long now) {
+    update(now, null);
+  }
+
+  void update() {
+    long now = System.currentTimeMillis();
+    update(now);
+  }
+
+  private synchronized void rollOver(long now) {
     long total = getTotal();
-    statsByMinute.update(now, total);
+    if (statsByMinute.update(now, total)) {
+      // longer periods are fed with the latencies of each completed minute
+      LatencyHistogram lastMinute = statsByMinute.getLastHistogram();
+      statsByHour.merge(lastMinute);
+      statsByDay.merge(lastMinute);
+      statsByWeek.merge(lastMinute);
+      statsByMonth.merge(lastMinute);
+    }
     statsByHour.update(now, total);
     statsByDay.update(now, total);
     statsByWeek.update(now, total);
     statsByMonth.update(now, total);
-    
+    for (Dimension dimension : statusClassMap.values()) {
+      dimension.update(now);
+    }
+    for (Dimension dimension : methodMap.values()) {
+      dimension.update(now);
+    }
   }
 
-  void update() {
-    long now = System.currentTimeMillis();
-    update(now);
+  private void record(ConcurrentMap<String, Dimension> map, String key,
+      long now, long elapsedTime) {
+    Dimension dimension = map.get(key);
+    if (dimension == null) {
+      Dimension fresh = new Dimension(now);
+      dimension = map.putIfAbsent(key, fresh);
+      if (dimension == null) {
+        dimension = fresh;
+      }
+    }
+    dimension.record(elapsedTime);
+  }
+
+  static String statusClassOf(int statusCode) {
+    int statusClass = statusCode / 100;
+    if (statusClass < 1 || statusClass > 5) {
+      return OTHER;
+    }
+    return statusClass + "xx";
+  }
+
+  static String methodOf(String method) {
+    if (method == null || !KNOWN_METHODS.contains(method)) {
+      return OTHER;
+    }
+    return method;
   }
 
   public void start() {
@@ -95,6 +178,8 @@ public class StatisticalViewImpl implements StatisticalView, LifeCycle {
     statsByDay.reset();
     statsByWeek.reset();
     statsByMonth.reset();
+    statusClassMap.clear();
+    methodMap.clear();
   }
 
   public long getLastMinuteCount() {
@@ -113,4 +198,127 @@ public class StatisticalViewImpl implements StatisticalView, LifeCycle {
     return  statsByHour.getLastCount();
   }
 
+  public long getLastMinuteLatencyP50() {
+    return statsByMinute.getLastPercentile(50);
+  }
+
+  public long getLastMinuteLatencyP95() {
+    return statsByMinute.getLastPercentile(95);
+  }
+
+  public long getLastMinuteLatencyP99() {
+    return statsByMinute.getLastPercentile(99);
+  }
+
+  public long getLastHoursLatencyP50() {
+    return statsByHour.getLastPercentile(50);
+  }
+
+  public long getLastHoursLatencyP95() {
+    return statsByHour.getLastPercentile(95);
+  }
+
+  public long getLastHoursLatencyP99() {
+    return statsByHour.getLastPercentile(99);
+  }
+
+  public long getLastDaysLatencyP50() {
+    return statsByDay.getLastPercentile(50);
+  }
+
+  public long getLastDaysLatencyP95() {
+    return statsByDay.getLastPercentile(95);
+  }
+
+  public long getLastDaysLatencyP99() {
+    return statsByDay.getLastPercentile(99);
+  }
+
+  public long getLastWeeksLatencyP50() {
+    return statsByWeek.getLastPercentile(50);
+  }
+
+  public long getLastWeeksLatencyP95() {
+    return statsByWeek.getLastPercentile(95);
+  }
+
+  public long getLastWeeksLatencyP99() {
+    return statsByWeek.getLastPercentile(99);
+  }
+
+  public long getLastMonthsLatencyP50() {
+    return statsByMonth.getLastPercentile(50);
+  }
+
+  public long getLastMonthsLatencyP95() {
+    return statsByMonth.getLastPercentile(95);
+  }
+
+  public long getLastMonthsLatencyP99() {
+    return statsByMonth.getLastPercentile(99);
+  }
+
+  public Map<String, Long> getLastMinuteCountByStatusClass() {
+    return lastCounts(statusClassMap);
+  }
+
+  public Map<String, Long> getLastMinuteLatencyP95ByStatusClass() {
+    return lastPercentiles(statusClassMap, 95);
+  }
+
+  public Map<String, Long> getLastMinuteCountByMethod() {
+    return lastCounts(methodMap);
+  }
+
+  public Map<String, Long> getLastMinuteLatencyP95ByMethod() {
+    return lastPercentiles(methodMap, 95);
+  }
+
+  private Map<String, Long> lastCounts(Map<String, Dimension> map) {
+    Map<String, Long> result = new TreeMap<String, Long>();
+    for (Map.Entry<String, Dimension> entry : map.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().stats.getLastCount());
+    }
+    return result;
+  }
+
+  private Map<String, Long> lastPercentiles(Map<String, Dimension> map,
+      double percentile) {
+    Map<String, Long> result = new TreeMap<String, Long>();
+    for (Map.Entry<String, Dimension> entry : map.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().stats
+          .getLastPercentile(percentile));
+    }
+    return result;
+  }
+
+  // ================================================================
+  /**
+   * Per minute statistics of the requests sharing a status class or a method.
+   */
+  static class Dimension {
+    final StripedCounter counter = new StripedCounter();
+    final StatsByMinute stats;
+
+    Dimension(long now) {
+      // traffic is split between dimensions, so stripes are not worth their
+      // memory here
+      stats = new StatsByMinute(now) {
+        @Override
+        LatencyHistogram createHistogram() {
+          return new LatencyHistogram();
+        }
+      };
+    }
+
+    void record(long elapsedTime) {
+      counter.increment();
+      stats.record(elapsedTime);
+    }
+
+    void update(long now) {
+      stats.update(now, counter.sum());
+    }
+  }
+
 }
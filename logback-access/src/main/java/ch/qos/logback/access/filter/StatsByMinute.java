@@ -13,6 +13,8 @@
  */
 package ch.qos.logback.access.filter;
 
+import ch.qos.logback.core.metrics.LatencyHistogram;
+import ch.qos.logback.core.metrics.StripedCounter;
 import ch.qos.logback.core.util.TimeUtil;
 
 public class StatsByMinute extends PeriodicStats {
@@ -30,4 +32,11 @@ public class StatsByMinute extends PeriodicStats {
     return TimeUtil.computeStartOfNextMinute(now);
   }
 
+  // latencies are recorded by every request thread, while longer periods
+  // only merge the histograms of completed minutes
+  @Override
+  LatencyHistogram createHistogram() {
+    return new LatencyHistogram(StripedCounter.defaultStripeCount());
+  }
+
 }
@@ -59,7 +59,7 @@ public class HTMLLayout extends HTMLLayoutBase<IAccessEvent> {
   }
 
   public String doLayout(IAccessEvent event) {
-    StringBuilder buf = new StringBuilder();
+    StringBuilder buf = getLayoutBuffer();
     startNewTableIfLimitReached(buf);
 
     boolean odd = true;
@@ -90,7 +90,7 @@ public class HTMLLayout extends HTMLLayoutBase<IAccessEvent> {
   private void appendEventToBuffer(StringBuilder buf, Converter<IAccessEvent> c,
       IAccessEvent event) {
     buf.append("<td class=\"");
-    buf.append(computeConverterName(c));
+    buf.append(getConverterName(c));
     buf.append("\">");
     c.write(buf, event);
     buf.append("</td>");
@@ -24,7 +24,9 @@ import org.mortbay.jetty.Response;
 
 import ch.qos.logback.access.joran.JoranConfigurator;
 import ch.qos.logback.access.spi.AccessEvent;
+import ch.qos.logback.access.spi.AccessEventDispatcher;
 import ch.qos.logback.access.spi.IAccessEvent;
+import ch.qos.logback.access.spi.RequiredFields;
 import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.ContextBase;
 import ch.qos.logback.core.CoreConstants;
@@ -118,20 +120,26 @@ public class RequestLogImpl extends ContextBase implements RequestLog,
   FilterAttachableImpl<IAccessEvent> fai = new FilterAttachableImpl<IAccessEvent>();
   String filename;
   boolean started = false;
+  AccessEventDispatcher dispatcher = new AccessEventDispatcher(aai);
+  boolean async = false;
 
   public RequestLogImpl() {
     putObject(CoreConstants.EVALUATOR_MAP, new HashMap());
+    RequiredFields.of(this);
+    dispatcher.setContext(this);
   }
 
   public void log(Request jettyRequest, Response jettyResponse) {
     JettyServerAdapter adapter = new JettyServerAdapter(jettyRequest,
         jettyResponse);
-    IAccessEvent accessEvent = new AccessEvent(jettyRequest, jettyResponse,
+    AccessEvent accessEvent = new AccessEvent(jettyRequest, jettyResponse,
         adapter);
+    accessEvent.setRequiredFields((RequiredFields) getObject(
+        RequiredFields.REQUIRED_FIELDS_KEY));
     if (getFilterChainDecision(accessEvent) == FilterReply.DENY) {
       return;
     }
-    aai.appendLoopOnAppenders(accessEvent);
+    dispatcher.dispatch(accessEvent);
   }
 
   public void start() {
@@ -159,6 +167,10 @@ public class RequestLogImpl extends ContextBase implements RequestLog,
       if (getName() == null) {
         setName("LogbackRequestLog");
       }
+      RequiredFields.of(this).requireUndeclared(aai);
+      if (async) {
+        dispatcher.start();
+      }
       RequestLogRegistry.register(this);
       getStatusManager().add(
           new InfoStatus("RequestLog added to RequestLogRegistry with name: "
@@ -172,10 +184,51 @@ public class RequestLogImpl extends ContextBase implements RequestLog,
   }
 
   public void stop() {
+    dispatcher.stop();
     aai.detachAndStopAllAppenders();
+    stopScheduledExecutorService();
     started = false;
   }
 
+  /**
+   * Whether access events should be passed to the appenders on a background
+   * thread. See {@link AccessEventDispatcher}.
+   */
+  public void setAsync(boolean async) {
+    this.async = async;
+  }
+
+  public boolean isAsync() {
+    return async;
+  }
+
+  public void setQueueSize(int queueSize) {
+    dispatcher.setQueueSize(queueSize);
+  }
+
+  public int getQueueSize() {
+    return dispatcher.getQueueSize();
+  }
+
+  /**
+   * Either BLOCK or DROP, see {@link AccessEventDispatcher.OverflowPolicy}.
+   */
+  public void setOverflowPolicy(String overflowPolicy) {
+    dispatcher.setOverflowPolicy(overflowPolicy);
+  }
+
+  public String getOverflowPolicy() {
+    return dispatcher.getOverflowPolicy().toString();
+  }
+
+  /**
+   * @return the number of access events dropped because the queue of the
+   *         asynchronous dispatcher was full
+   */
+  public long getDroppedCount() {
+    return dispatcher.getDroppedCount();
+  }
+
   public boolean isRunning() {
     return started;
   }
@@ -16,7 +16,9 @@ package ch.qos.logback.access.net;
 
 import java.net.InetAddress;
 
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
+import ch.qos.logback.access.spi.RequiredFields;
 import ch.qos.logback.core.net.SocketAppenderBase;
 import ch.qos.logback.core.spi.PreSerializationTransformer;
 
@@ -57,6 +59,15 @@ public class SocketAppender extends SocketAppenderBase<IAccessEvent> {
     this.remoteHost = host;
   }
   
+  @Override
+  public void start() {
+    super.start();
+    if (isStarted()) {
+      // serialized events must carry every field
+      RequiredFields.of(getContext()).add(this, AccessEventField.ALL);
+    }
+  }
+
   @Override
   protected void postProcessEvent(IAccessEvent event) {
     event.prepareForDeferredProcessing();
@@ -13,6 +13,9 @@
  */
 package ch.qos.logback.access.pattern;
 
+import java.util.Set;
+
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
 import ch.qos.logback.core.Context;
 import ch.qos.logback.core.pattern.DynamicConverter;
@@ -27,6 +30,16 @@ abstract public class AccessConverter extends DynamicConverter<IAccessEvent> imp
   public final static char QUESTION_CHAR = '?';
   
   ContextAwareBase cab = new ContextAwareBase();
+
+  /**
+   * The event fields read by this converter. Unless overridden, all fields
+   * are assumed to be required.
+   * 
+   * @since 0.9.31
+   */
+  public Set<AccessEventField> getRequiredFields() {
+    return AccessEventField.ALL;
+  }
   
   public void setContext(Context context) {
    cab.setContext(context);
@@ -13,17 +13,31 @@
  */
 package ch.qos.logback.access.pattern;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
 
 public class ContentLengthConverter extends AccessConverter {
 
   public String convert(IAccessEvent accessEvent) {
+    return appendToString(accessEvent);
+  }
+
+  @Override
+  public void append(StringBuilder buf, IAccessEvent accessEvent) {
     long len = accessEvent.getContentLength();
     if(len == IAccessEvent.SENTINEL) {
-      return IAccessEvent.NA;
+      buf.append(IAccessEvent.NA);
     } else {
-    return Long.toString(len);
+      buf.append(len);
     } 
   }
 
+  @Override
+  public Set<AccessEventField> getRequiredFields() {
+    return EnumSet.of(AccessEventField.CONTENT_LENGTH);
+  }
+
 }
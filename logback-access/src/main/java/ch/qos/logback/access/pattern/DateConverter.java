@@ -14,8 +14,10 @@
 package ch.qos.logback.access.pattern;
 
 import java.util.List;
+import java.util.Set;
 import java.util.TimeZone;
 
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
 import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.util.CachingDateFormatter;
@@ -61,4 +63,9 @@ public class DateConverter extends AccessConverter {
     long timestamp = accessEvent.getTimeStamp();
     return cachingDateFormatter.format(timestamp);
   }
+
+  @Override
+  public Set<AccessEventField> getRequiredFields() {
+    return AccessEventField.NONE;
+  }
 }
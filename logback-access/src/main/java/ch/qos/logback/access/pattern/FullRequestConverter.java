@@ -13,8 +13,11 @@
  */
 package ch.qos.logback.access.pattern;
 
+import java.util.EnumSet;
 import java.util.Enumeration;
+import java.util.Set;
 
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
 import ch.qos.logback.core.CoreConstants;
 
@@ -31,7 +34,11 @@ public class FullRequestConverter extends AccessConverter {
 
   @Override
   public String convert(IAccessEvent ae) {
-    StringBuffer buf = new StringBuffer();
+    return appendToString(ae);
+  }
+
+  @Override
+  public void append(StringBuilder buf, IAccessEvent ae) {
     buf.append(ae.getRequestURL());
     buf.append(CoreConstants.LINE_SEPARATOR);
     
@@ -45,7 +52,13 @@ public class FullRequestConverter extends AccessConverter {
     }
     buf.append(CoreConstants.LINE_SEPARATOR);
     buf.append(ae.getRequestContent());
-    return buf.toString();
+  }
+
+  @Override
+  public Set<AccessEventField> getRequiredFields() {
+    return EnumSet.of(AccessEventField.REQUEST_URL,
+        AccessEventField.REQUEST_HEADERS,
+        AccessEventField.REQUEST_CONTENT);
   }
 
 }
@@ -13,8 +13,11 @@
  */
 package ch.qos.logback.access.pattern;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
 import ch.qos.logback.core.CoreConstants;
 
@@ -22,8 +25,11 @@ public class FullResponseConverter extends AccessConverter {
 
   @Override
   public String convert(IAccessEvent ae) {
-    StringBuffer buf = new StringBuffer();
-    
+    return appendToString(ae);
+  }
+
+  @Override
+  public void append(StringBuilder buf, IAccessEvent ae) {
     buf.append("HTTP/1.1 ");
     int statusCode = ae.getStatusCode();
     buf.append(statusCode);
@@ -41,7 +47,6 @@ public class FullResponseConverter extends AccessConverter {
     buf.append(CoreConstants.LINE_SEPARATOR);
     buf.append(ae.getResponseContent());
     buf.append(CoreConstants.LINE_SEPARATOR);
-    return buf.toString();
   }
 
   static String getStatusCodeDescription(int sc) {
@@ -88,4 +93,11 @@ public class FullResponseConverter extends AccessConverter {
     default: return "NA";
     }
   }
+
+  @Override
+  public Set<AccessEventField> getRequiredFields() {
+    return EnumSet.of(AccessEventField.STATUS_CODE,
+        AccessEventField.RESPONSE_HEADERS,
+        AccessEventField.RESPONSE_CONTENT);
+  }
 }
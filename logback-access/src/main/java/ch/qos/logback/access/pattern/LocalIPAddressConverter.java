@@ -15,7 +15,9 @@ package ch.qos.logback.access.pattern;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Set;
 
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
 
 public class LocalIPAddressConverter extends AccessConverter {
@@ -34,4 +36,9 @@ public class LocalIPAddressConverter extends AccessConverter {
     return localIPAddressStr;
   }
 
+  @Override
+  public Set<AccessEventField> getRequiredFields() {
+    return AccessEventField.NONE;
+  }
+
 }
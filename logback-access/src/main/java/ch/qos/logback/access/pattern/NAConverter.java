@@ -13,6 +13,9 @@
  */
 package ch.qos.logback.access.pattern;
 
+import java.util.Set;
+
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
 
 /**
@@ -27,4 +30,9 @@ public class NAConverter extends AccessConverter {
       return IAccessEvent.NA;
   }
 
+  @Override
+  public Set<AccessEventField> getRequiredFields() {
+    return AccessEventField.NONE;
+  }
+
 }
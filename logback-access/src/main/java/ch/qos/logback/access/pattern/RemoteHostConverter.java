@@ -13,6 +13,10 @@
  */
 package ch.qos.logback.access.pattern;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
 
 public class RemoteHostConverter extends AccessConverter {
@@ -22,4 +26,9 @@ public class RemoteHostConverter extends AccessConverter {
     return accessEvent.getRemoteHost();
   }
 
+  @Override
+  public Set<AccessEventField> getRequiredFields() {
+    return EnumSet.of(AccessEventField.REMOTE_HOST);
+  }
+
 }
@@ -13,6 +13,10 @@
  */
 package ch.qos.logback.access.pattern;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
 
 public class RemoteIPAddressConverter extends AccessConverter {
@@ -21,4 +25,9 @@ public class RemoteIPAddressConverter extends AccessConverter {
     return accessEvent.getRemoteAddr();
   }
 
+  @Override
+  public Set<AccessEventField> getRequiredFields() {
+    return EnumSet.of(AccessEventField.REMOTE_ADDR);
+  }
+
 }
@@ -13,6 +13,10 @@
  */
 package ch.qos.logback.access.pattern;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
 
 /**
@@ -31,4 +35,9 @@ public class RequestContentConverter extends AccessConverter {
     return accessEvent.getRequestContent();
   }
 
+  @Override
+  public Set<AccessEventField> getRequiredFields() {
+    return EnumSet.of(AccessEventField.REQUEST_CONTENT);
+  }
+
 }
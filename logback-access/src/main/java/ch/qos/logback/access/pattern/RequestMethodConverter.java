@@ -13,6 +13,10 @@
  */
 package ch.qos.logback.access.pattern;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
 
 public class RequestMethodConverter extends AccessConverter {
@@ -21,4 +25,9 @@ public class RequestMethodConverter extends AccessConverter {
   public String convert(IAccessEvent accessEvent) {
     return accessEvent.getMethod();
   }
+
+  @Override
+  public Set<AccessEventField> getRequiredFields() {
+    return EnumSet.of(AccessEventField.METHOD);
+  }
 }
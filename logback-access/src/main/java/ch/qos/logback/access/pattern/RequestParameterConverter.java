@@ -14,7 +14,10 @@
 package ch.qos.logback.access.pattern;
 
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
 
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
 import ch.qos.logback.core.util.OptionHelper;
 
@@ -46,4 +49,32 @@ public class RequestParameterConverter extends AccessConverter {
     }
   }
 
+  @Override
+  public void append(StringBuilder buf, IAccessEvent accessEvent) {
+    if (!isStarted()) {
+      super.append(buf, accessEvent);
+      return;
+    }
+
+    String[] paramArray = accessEvent.getRequestParameter(key);
+    if (paramArray.length == 1) {
+      buf.append(paramArray[0]);
+    } else {
+      // same output as Arrays.toString(paramArray)
+      buf.append('[');
+      for (int i = 0; i < paramArray.length; i++) {
+        if (i > 0) {
+          buf.append(", ");
+        }
+        buf.append(paramArray[i]);
+      }
+      buf.append(']');
+    }
+  }
+
+  @Override
+  public Set<AccessEventField> getRequiredFields() {
+    return EnumSet.of(AccessEventField.REQUEST_PARAMETERS);
+  }
+
 }
@@ -13,6 +13,10 @@
  */
 package ch.qos.logback.access.pattern;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
 
 /**
@@ -25,4 +29,9 @@ public class RequestURLConverter extends AccessConverter {
   public String convert(IAccessEvent accessEvent) {
     return accessEvent.getRequestURL();
   }
+
+  @Override
+  public Set<AccessEventField> getRequiredFields() {
+    return EnumSet.of(AccessEventField.REQUEST_URL);
+  }
 }
@@ -13,6 +13,10 @@
  */
 package ch.qos.logback.access.pattern;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
 
 /**
@@ -31,4 +35,9 @@ public class ResponseContentConverter extends AccessConverter {
     return accessEvent.getResponseContent();
   }
 
+  @Override
+  public Set<AccessEventField> getRequiredFields() {
+    return EnumSet.of(AccessEventField.RESPONSE_CONTENT);
+  }
+
 }
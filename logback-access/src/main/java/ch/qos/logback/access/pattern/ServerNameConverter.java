@@ -13,6 +13,10 @@
  */
 package ch.qos.logback.access.pattern;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
 
 public class ServerNameConverter extends AccessConverter {
@@ -20,4 +24,9 @@ public class ServerNameConverter extends AccessConverter {
   public String convert(IAccessEvent accessEvent) {
     return accessEvent.getServerName();
   }
+
+  @Override
+  public Set<AccessEventField> getRequiredFields() {
+    return EnumSet.of(AccessEventField.SERVER_NAME);
+  }
 }
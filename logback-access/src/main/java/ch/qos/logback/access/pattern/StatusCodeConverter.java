@@ -13,12 +13,26 @@
  */
 package ch.qos.logback.access.pattern;
 
+import java.util.EnumSet;
+import java.util.Set;
+
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
 
 public class StatusCodeConverter extends AccessConverter {
 
   public String convert(IAccessEvent accessEvent) {
-    return Integer.toString(accessEvent.getStatusCode());
+    return appendToString(accessEvent);
+  }
+
+  @Override
+  public void append(StringBuilder buf, IAccessEvent accessEvent) {
+    buf.append(accessEvent.getStatusCode());
+  }
+
+  @Override
+  public Set<AccessEventField> getRequiredFields() {
+    return EnumSet.of(AccessEventField.STATUS_CODE);
   }
 
 }
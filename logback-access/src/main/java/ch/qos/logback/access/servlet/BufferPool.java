@@ -0,0 +1,68 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.access.servlet;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of fixed size byte arrays, used as chunks by {@link CaptureBuffer}
+ * so that capturing request and response bodies does not allocate and grow
+ * new arrays for every request.
+ *
+ * @since 0.9.31
+ */
+class BufferPool {
+
+  static final int DEFAULT_CHUNK_SIZE = 4096;
+  static final int DEFAULT_MAX_POOLED_CHUNKS = 256;
+
+  final int chunkSize;
+  final int maxPooledChunks;
+
+  final Queue<byte[]> chunkQueue = new ConcurrentLinkedQueue<byte[]>();
+  final AtomicInteger pooledCount = new AtomicInteger();
+
+  BufferPool() {
+    this(DEFAULT_CHUNK_SIZE, DEFAULT_MAX_POOLED_CHUNKS);
+  }
+
+  BufferPool(int chunkSize, int maxPooledChunks) {
+    this.chunkSize = chunkSize;
+    this.maxPooledChunks = maxPooledChunks;
+  }
+
+  byte[] take() {
+    byte[] chunk = chunkQueue.poll();
+    if (chunk == null) {
+      return new byte[chunkSize];
+    }
+    pooledCount.decrementAndGet();
+    return chunk;
+  }
+
+  void release(byte[] chunk) {
+    // the count may briefly exceed the maximum when threads race, which is
+    // harmless
+    if (pooledCount.get() < maxPooledChunks) {
+      pooledCount.incrementAndGet();
+      chunkQueue.offer(chunk);
+    }
+  }
+
+  int getPooledCount() {
+    return pooledCount.get();
+  }
+}
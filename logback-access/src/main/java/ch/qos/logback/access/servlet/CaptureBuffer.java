@@ -0,0 +1,108 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.access.servlet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accumulates up to <code>limit</code> bytes in chunks borrowed from a
+ * {@link BufferPool}. Bytes written past the limit are dropped and the buffer
+ * is marked as truncated.
+ *
+ * <p>Instances are meant to be used by a single thread, and must be
+ * {@link #release() released} once their contents are no longer needed.
+ *
+ * @since 0.9.31
+ */
+class CaptureBuffer {
+
+  final BufferPool pool;
+  final int limit;
+
+  final List<byte[]> chunkList = new ArrayList<byte[]>();
+  int count = 0;
+  boolean truncated = false;
+
+  CaptureBuffer(BufferPool pool, int limit) {
+    this.pool = pool;
+    this.limit = limit;
+  }
+
+  void write(int b) {
+    if (count >= limit) {
+      truncated = true;
+      return;
+    }
+    int offsetInChunk = count % pool.chunkSize;
+    if (offsetInChunk == 0) {
+      chunkList.add(pool.take());
+    }
+    chunkList.get(chunkList.size() - 1)[offsetInChunk] = (byte) b;
+    count++;
+  }
+
+  void write(byte[] byteArray, int offset, int length) {
+    int remaining = limit - count;
+    if (length > remaining) {
+      truncated = true;
+      length = remaining;
+    }
+    while (length > 0) {
+      int offsetInChunk = count % pool.chunkSize;
+      if (offsetInChunk == 0) {
+        chunkList.add(pool.take());
+      }
+      int n = Math.min(length, pool.chunkSize - offsetInChunk);
+      System.arraycopy(byteArray, offset, chunkList.get(chunkList.size() - 1),
+          offsetInChunk, n);
+      count += n;
+      offset += n;
+      length -= n;
+    }
+  }
+
+  /**
+   * @return a copy of the captured bytes
+   */
+  byte[] toByteArray() {
+    byte[] result = new byte[count];
+    int copied = 0;
+    for (byte[] chunk : chunkList) {
+      int n = Math.min(chunk.length, count - copied);
+      System.arraycopy(chunk, 0, result, copied, n);
+      copied += n;
+    }
+    return result;
+  }
+
+  boolean isTruncated() {
+    return truncated;
+  }
+
+  int size() {
+    return count;
+  }
+
+  /**
+   * Return the chunks of this buffer to the pool. The captured bytes are lost.
+   */
+  void release() {
+    for (byte[] chunk : chunkList) {
+      pool.release(chunk);
+    }
+    chunkList.clear();
+    count = 0;
+  }
+}
@@ -29,14 +29,28 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import static ch.qos.logback.access.AccessConstants.LB_OUTPUT_BUFFER;
+import static ch.qos.logback.access.AccessConstants.LB_OUTPUT_BUFFER_TRUNCATED;
+import static ch.qos.logback.access.AccessConstants.TEE_FILTER_DEFAULT_MAX_CAPTURE_SIZE;
+import static ch.qos.logback.access.AccessConstants.TEE_FILTER_EXCLUDED_CONTENT_TYPES_PARAM;
+import static ch.qos.logback.access.AccessConstants.TEE_FILTER_EXCLUDED_URL_PATTERNS_PARAM;
 import static ch.qos.logback.access.AccessConstants.TEE_FILTER_INCLUDES_PARAM;
 import static ch.qos.logback.access.AccessConstants.TEE_FILTER_EXCLUDES_PARAM;
+import static ch.qos.logback.access.AccessConstants.TEE_FILTER_MAX_REQUEST_CAPTURE_SIZE_PARAM;
+import static ch.qos.logback.access.AccessConstants.TEE_FILTER_MAX_RESPONSE_CAPTURE_SIZE_PARAM;
 
 
 public class TeeFilter implements Filter {
 
     boolean active;
 
+    int maxRequestCaptureSize = TEE_FILTER_DEFAULT_MAX_CAPTURE_SIZE;
+    int maxResponseCaptureSize = TEE_FILTER_DEFAULT_MAX_CAPTURE_SIZE;
+    List<String> excludedURLPatterns = new ArrayList<String>();
+    List<String> excludedContentTypes = new ArrayList<String>();
+
+    // capture buffers are recycled across requests
+    final BufferPool bufferPool = new BufferPool();
+
     public void destroy() {
         // NOP
     }
@@ -44,12 +58,16 @@ public class TeeFilter implements Filter {
     public void doFilter(ServletRequest request, ServletResponse response,
                          FilterChain filterChain) throws IOException, ServletException {
 
-        if (active && request instanceof HttpServletRequest) {
+        if (active && request instanceof HttpServletRequest
+                && !isExcludedURL((HttpServletRequest) request)) {
+            TeeHttpServletResponse teeResponse = null;
             try {
                 TeeHttpServletRequest teeRequest = new TeeHttpServletRequest(
-                        (HttpServletRequest) request);
-                TeeHttpServletResponse teeResponse = new TeeHttpServletResponse(
-                        (HttpServletResponse) response);
+                        (HttpServletRequest) request, bufferPool,
+                        maxRequestCaptureSize, excludedContentTypes);
+                teeResponse = new TeeHttpServletResponse(
+                        (HttpServletResponse) response, bufferPool,
+                        maxResponseCaptureSize, excludedContentTypes);
 
                 //System.out.println("BEFORE TeeFilter. filterChain.doFilter()");
                 filterChain.doFilter(teeRequest, teeResponse);
@@ -60,12 +78,19 @@ public class TeeFilter implements Filter {
                 // logback-access-logging
                 teeRequest.setAttribute(LB_OUTPUT_BUFFER, teeResponse
                         .getOutputBuffer());
+                if (teeResponse.isOutputTruncated()) {
+                    teeRequest.setAttribute(LB_OUTPUT_BUFFER_TRUNCATED, Boolean.TRUE);
+                }
             } catch (IOException e) {
                 e.printStackTrace();
                 throw e;
             } catch (ServletException e) {
                 e.printStackTrace();
                 throw e;
+            } finally {
+                if (teeResponse != null) {
+                    teeResponse.releaseBuffer();
+                }
             }
         } else {
             filterChain.doFilter(request, response);
@@ -84,6 +109,81 @@ public class TeeFilter implements Filter {
         else
             System.out.println("TeeFilter will be DISABLED on this host [" + localhostName + "]");
 
+        maxRequestCaptureSize = parseSize(filterConfig
+                .getInitParameter(TEE_FILTER_MAX_REQUEST_CAPTURE_SIZE_PARAM));
+        maxResponseCaptureSize = parseSize(filterConfig
+                .getInitParameter(TEE_FILTER_MAX_RESPONSE_CAPTURE_SIZE_PARAM));
+        excludedURLPatterns = extractNameList(filterConfig
+                .getInitParameter(TEE_FILTER_EXCLUDED_URL_PATTERNS_PARAM));
+        excludedContentTypes = extractNameList(filterConfig
+                .getInitParameter(TEE_FILTER_EXCLUDED_CONTENT_TYPES_PARAM));
+    }
+
+    static int parseSize(String sizeAsStr) {
+        if (sizeAsStr == null || sizeAsStr.trim().length() == 0) {
+            return TEE_FILTER_DEFAULT_MAX_CAPTURE_SIZE;
+        }
+        try {
+            int size = Integer.parseInt(sizeAsStr.trim());
+            return size < 0 ? TEE_FILTER_DEFAULT_MAX_CAPTURE_SIZE : size;
+        } catch (NumberFormatException e) {
+            System.out.println("TeeFilter could not parse capture size [" + sizeAsStr + "], using default");
+            return TEE_FILTER_DEFAULT_MAX_CAPTURE_SIZE;
+        }
+    }
+
+    boolean isExcludedURL(HttpServletRequest request) {
+        if (excludedURLPatterns.isEmpty()) {
+            return false;
+        }
+        String path = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        if (path != null && contextPath != null && path.startsWith(contextPath)) {
+            path = path.substring(contextPath.length());
+        }
+        return matchesURLPattern(path, excludedURLPatterns);
+    }
+
+    /**
+     * Match a path against servlet style URL patterns, i.e. exact paths,
+     * path prefixes ending with "/*" and extensions of the form "*.ext".
+     */
+    static boolean matchesURLPattern(String path, List<String> patternList) {
+        if (path == null) {
+            return false;
+        }
+        for (String pattern : patternList) {
+            if (pattern.endsWith("/*")) {
+                String prefix = pattern.substring(0, pattern.length() - 2);
+                if (path.equals(prefix) || path.startsWith(prefix + "/")) {
+                    return true;
+                }
+            } else if (pattern.startsWith("*.")) {
+                if (path.endsWith(pattern.substring(1))) {
+                    return true;
+                }
+            } else if (path.equals(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Content types are matched by prefix, so that "image/" excludes all
+     * images and "text/html" ignores any charset parameter.
+     */
+    static boolean matchesContentType(String contentType, List<String> contentTypeList) {
+        if (contentType == null || contentTypeList.isEmpty()) {
+            return false;
+        }
+        String lowerCaseContentType = contentType.toLowerCase();
+        for (String prefix : contentTypeList) {
+            if (lowerCaseContentType.startsWith(prefix.toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     static List<String> extractNameList(String nameListAsStr) {
@@ -16,12 +16,16 @@ package ch.qos.logback.access.servlet;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.util.Collections;
+import java.util.List;
 
 import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
 
 import static ch.qos.logback.access.AccessConstants.LB_INPUT_BUFFER;
+import static ch.qos.logback.access.AccessConstants.LB_INPUT_BUFFER_TRUNCATED;
 import static ch.qos.logback.access.AccessConstants.X_WWW_FORM_URLECODED;
 /**
  * As the "tee" program on Unix, duplicate the request's input stream.
@@ -33,32 +37,61 @@ class TeeHttpServletRequest extends HttpServletRequestWrapper {
   private TeeServletInputStream inStream;
   private BufferedReader reader;
   boolean postedParametersMode = false;
+  // the body is passed through without being captured
+  boolean bypassMode = false;
 
   TeeHttpServletRequest(HttpServletRequest request) {
+    this(request, new BufferPool(), Integer.MAX_VALUE, Collections
+        .<String> emptyList());
+  }
+
+  TeeHttpServletRequest(HttpServletRequest request, BufferPool pool,
+      int maxCaptureSize, List<String> excludedContentTypes) {
     super(request);
     // we can't access the input stream and access the request parameters
     // at the same time
     if (Util.isFormUrlEncoded(request)) {
       postedParametersMode = true;
+    } else if (TeeFilter.matchesContentType(request.getContentType(),
+        excludedContentTypes)) {
+      bypassMode = true;
     } else {
-      inStream = new TeeServletInputStream(request);
+      inStream = new TeeServletInputStream(request, pool, maxCaptureSize);
       // add the contents of the input buffer as an attribute of the request
       request.setAttribute(LB_INPUT_BUFFER, inStream.getInputBuffer());
-      reader = new BufferedReader(new InputStreamReader(inStream));
+      if (inStream.isTruncated()) {
+        request.setAttribute(LB_INPUT_BUFFER_TRUNCATED, Boolean.TRUE);
+      }
+      reader = new BufferedReader(createReader(request, inStream));
     }
+  }
 
+  private static InputStreamReader createReader(HttpServletRequest request,
+      TeeServletInputStream inStream) {
+    String encoding = request.getCharacterEncoding();
+    if (encoding != null) {
+      try {
+        return new InputStreamReader(inStream, encoding);
+      } catch (UnsupportedEncodingException e) {
+        // fall back to the default encoding
+      }
+    }
+    return new InputStreamReader(inStream);
   }
 
   byte[] getInputBuffer() {
     if (postedParametersMode) {
       throw new IllegalStateException("Call disallowed in postedParametersMode");
     }
+    if (bypassMode) {
+      return null;
+    }
     return inStream.getInputBuffer();
   }
 
   @Override
   public ServletInputStream getInputStream() throws IOException {
-    if (!postedParametersMode) {
+    if (inStream != null) {
       return inStream;
     } else {
       return super.getInputStream();
@@ -69,7 +102,7 @@ class TeeHttpServletRequest extends HttpServletRequestWrapper {
 
   @Override
   public BufferedReader getReader() throws IOException {
-    if (!postedParametersMode) {
+    if (reader != null) {
       return reader;
     } else {
       return super.getReader();
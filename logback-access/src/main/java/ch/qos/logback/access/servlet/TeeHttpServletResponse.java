@@ -16,6 +16,8 @@ package ch.qos.logback.access.servlet;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.List;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletResponse;
@@ -23,17 +25,31 @@ import javax.servlet.http.HttpServletResponseWrapper;
 
 public class TeeHttpServletResponse extends HttpServletResponseWrapper {
 
+  final BufferPool pool;
+  final int maxCaptureSize;
+  final List<String> excludedContentTypes;
+
   TeeServletOutputStream teeServletOutputStream;
   PrintWriter teeWriter;
 
   public TeeHttpServletResponse(HttpServletResponse httpServletResponse) {
+    this(httpServletResponse, new BufferPool(), Integer.MAX_VALUE,
+        Collections.<String> emptyList());
+  }
+
+  TeeHttpServletResponse(HttpServletResponse httpServletResponse,
+      BufferPool pool, int maxCaptureSize, List<String> excludedContentTypes) {
     super(httpServletResponse);
+    this.pool = pool;
+    this.maxCaptureSize = maxCaptureSize;
+    this.excludedContentTypes = excludedContentTypes;
   }
 
   @Override
   public ServletOutputStream getOutputStream() throws IOException {
     if (teeServletOutputStream == null) {
-      teeServletOutputStream = new TeeServletOutputStream(this.getResponse());
+      teeServletOutputStream = new TeeServletOutputStream(this.getResponse(),
+          pool, maxCaptureSize, excludedContentTypes);
     }
     return teeServletOutputStream;
   }
@@ -41,8 +57,12 @@ public class TeeHttpServletResponse extends HttpServletResponseWrapper {
   @Override
   public PrintWriter getWriter() throws IOException {
     if (this.teeWriter == null) {
-      this.teeWriter = new PrintWriter(new OutputStreamWriter(getOutputStream()),
-          true);
+      // encode as the container's own writer would
+      String encoding = getCharacterEncoding();
+      OutputStreamWriter osw = (encoding == null) ? new OutputStreamWriter(
+          getOutputStream()) : new OutputStreamWriter(getOutputStream(),
+          encoding);
+      this.teeWriter = new PrintWriter(osw, true);
     }
     return this.teeWriter;
   }
@@ -64,6 +84,17 @@ public class TeeHttpServletResponse extends HttpServletResponseWrapper {
     }
   }
 
+  boolean isOutputTruncated() {
+    return teeServletOutputStream != null
+        && teeServletOutputStream.isTruncated();
+  }
+
+  void releaseBuffer() {
+    if (teeServletOutputStream != null) {
+      teeServletOutputStream.releaseBuffer();
+    }
+  }
+
   void finish() throws IOException {
     if (this.teeWriter != null) {
       this.teeWriter.close();
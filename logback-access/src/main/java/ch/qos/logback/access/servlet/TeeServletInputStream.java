@@ -14,22 +14,27 @@
 package ch.qos.logback.access.servlet;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.SequenceInputStream;
 
 import javax.servlet.ServletInputStream;
 import javax.servlet.http.HttpServletRequest;
 
+/**
+ * Captures up to a given number of bytes of the request's input stream ahead
+ * of the application, and replays them followed by the remainder of the
+ * stream.
+ */
 class TeeServletInputStream extends ServletInputStream {
 
   InputStream in;
   byte[] inputBuffer;
+  boolean truncated;
 
-  TeeServletInputStream(HttpServletRequest request) {
-    duplicateInputStream(request);
+  TeeServletInputStream(HttpServletRequest request, BufferPool pool,
+      int maxCaptureSize) {
+    duplicateInputStream(request, pool, maxCaptureSize);
   }
 
   @Override
@@ -37,31 +42,72 @@ class TeeServletInputStream extends ServletInputStream {
     return in.read();
   }
 
-  private void duplicateInputStream(HttpServletRequest request) {
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    return in.read(b, off, len);
+  }
+
+  @Override
+  public int available() throws IOException {
+    return in.available();
+  }
+
+  private void duplicateInputStream(HttpServletRequest request,
+      BufferPool pool, int maxCaptureSize) {
     ServletInputStream originalSIS = null;
+    CaptureBuffer captureBuffer = new CaptureBuffer(pool, maxCaptureSize);
+    boolean fullyConsumed = true;
     try {
       originalSIS = request.getInputStream();
-      inputBuffer = consumeBufferAndReturnAsByteArray(originalSIS);
-      this.in = new ByteArrayInputStream(inputBuffer);
+      int next = consumeUpToLimit(originalSIS, captureBuffer);
+      inputBuffer = captureBuffer.toByteArray();
+      if (next == -1) {
+        this.in = new ByteArrayInputStream(inputBuffer);
+      } else {
+        // the rest of the body is passed through without being captured
+        truncated = true;
+        fullyConsumed = false;
+        this.in = new SequenceInputStream(new SequenceInputStream(
+            new ByteArrayInputStream(inputBuffer), new ByteArrayInputStream(
+                new byte[] { (byte) next })), originalSIS);
+      }
     } catch (IOException e) {
       e.printStackTrace();
     } finally {
-      closeStrean(originalSIS);
+      captureBuffer.release();
+      if (fullyConsumed) {
+        closeStrean(originalSIS);
+      }
     }
   }
 
-  byte[] consumeBufferAndReturnAsByteArray(InputStream is) throws IOException {
-    int len = 1024;
-    byte[] temp = new byte[len];
-    int c = -1;
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    while ((c = is.read(temp, 0, len)) != -1) {
-      baos.write(temp, 0, c);
+  /**
+   * Read <code>is</code> into <code>captureBuffer</code> until its limit is
+   * reached.
+   * 
+   * @return the first byte past the limit, or -1 if the stream ended before
+   */
+  int consumeUpToLimit(InputStream is, CaptureBuffer captureBuffer)
+      throws IOException {
+    byte[] temp = captureBuffer.pool.take();
+    try {
+      while (true) {
+        int len = Math.min(temp.length, captureBuffer.limit
+            - captureBuffer.size());
+        if (len == 0) {
+          return is.read();
+        }
+        int c = is.read(temp, 0, len);
+        if (c == -1) {
+          return -1;
+        }
+        captureBuffer.write(temp, 0, c);
+      }
+    } finally {
+      captureBuffer.pool.release(temp);
     }
-    return baos.toByteArray();
   }
 
-
   void closeStrean(ServletInputStream is) {
     if (is != null) {
       try {
@@ -74,4 +120,8 @@ class TeeServletInputStream extends ServletInputStream {
   byte[] getInputBuffer() {
     return inputBuffer;
   }
+
+  boolean isTruncated() {
+    return truncated;
+  }
 }
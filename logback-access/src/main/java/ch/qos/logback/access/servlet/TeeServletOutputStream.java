@@ -13,8 +13,8 @@
  */
 package ch.qos.logback.access.servlet;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.List;
 
 import javax.servlet.ServletOutputStream;
 import javax.servlet.ServletResponse;
@@ -22,24 +22,52 @@ import javax.servlet.ServletResponse;
 public class TeeServletOutputStream extends ServletOutputStream {
 
   final ServletOutputStream underlyingStream;
-  final ByteArrayOutputStream baosCopy;
+  final ServletResponse response;
+  final CaptureBuffer captureBuffer;
+  final List<String> excludedContentTypes;
 
-  TeeServletOutputStream(ServletResponse httpServletResponse)
+  // decided on the first write, once the content type is known
+  boolean contentTypeChecked = false;
+  boolean capturing = true;
+
+  TeeServletOutputStream(ServletResponse httpServletResponse, BufferPool pool,
+      int maxCaptureSize, List<String> excludedContentTypes)
       throws IOException {
     // System.out.println("TeeServletOutputStream.constructor() called");
     this.underlyingStream = httpServletResponse.getOutputStream();
-    baosCopy = new ByteArrayOutputStream();
+    this.response = httpServletResponse;
+    this.captureBuffer = new CaptureBuffer(pool, maxCaptureSize);
+    this.excludedContentTypes = excludedContentTypes;
   }
 
   byte[] getOutputStreamAsByteArray() {
-    return baosCopy.toByteArray();
+    return captureBuffer.toByteArray();
+  }
+
+  boolean isTruncated() {
+    return captureBuffer.isTruncated();
+  }
+
+  void releaseBuffer() {
+    captureBuffer.release();
+  }
+
+  private boolean isCapturing() {
+    if (!contentTypeChecked) {
+      contentTypeChecked = true;
+      capturing = !TeeFilter.matchesContentType(response.getContentType(),
+          excludedContentTypes);
+    }
+    return capturing;
   }
 
   @Override
   public void write(int val) throws IOException {
     if (underlyingStream != null) {
       underlyingStream.write(val);
-      baosCopy.write(val);
+      if (isCapturing()) {
+        captureBuffer.write(val);
+      }
     }
   }
 
@@ -62,7 +90,9 @@ public class TeeServletOutputStream extends ServletOutputStream {
     // called");
     // System.out.println(new String(byteArray, offset, length));
     underlyingStream.write(byteArray, offset, length);
-    baosCopy.write(byteArray, offset, length);
+    if (isCapturing()) {
+      captureBuffer.write(byteArray, offset, length);
+    }
   }
 
   @Override
@@ -83,6 +113,5 @@ public class TeeServletOutputStream extends ServletOutputStream {
     }
     // System.out.println("FLUSH TeeServletOutputStream.flush() called");
     underlyingStream.flush();
-    baosCopy.flush();
   }
 }
@@ -13,10 +13,15 @@
  */
 package ch.qos.logback.access.sift;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
+import ch.qos.logback.access.spi.RequiredFields;
 import ch.qos.logback.core.sift.Discriminator;
 import ch.qos.logback.core.spi.ContextAwareBase;
 
@@ -124,6 +129,28 @@ public class AccessEventDiscriminator extends ContextAwareBase implements
     return started;
   }
 
+  /**
+   * The event fields read by this discriminator. Cookies and attributes are
+   * read from the request directly.
+   * 
+   * @since 0.9.31
+   */
+  public Set<AccessEventField> getRequiredFields() {
+    if (fieldName == null) {
+      return AccessEventField.NONE;
+    }
+    switch (fieldName) {
+    case REMOTE_ADDRESS:
+      return EnumSet.of(AccessEventField.REMOTE_ADDR);
+    case LOCAL_PORT:
+      return EnumSet.of(AccessEventField.LOCAL_PORT);
+    case REQUEST_URI:
+      return EnumSet.of(AccessEventField.REQUEST_URI);
+    default:
+      return AccessEventField.NONE;
+    }
+  }
+
   public void start() {
 
     int errorCount = 0;
@@ -149,6 +176,7 @@ public class AccessEventDiscriminator extends ContextAwareBase implements
 
     if (errorCount == 0) {
       started = true;
+      RequiredFields.of(getContext()).add(this, getRequiredFields());
     }
   }
 
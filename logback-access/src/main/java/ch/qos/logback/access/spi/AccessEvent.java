@@ -14,11 +14,13 @@
 package ch.qos.logback.access.spi;
 
 import java.io.Serializable;
+import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.Vector;
 
@@ -48,8 +50,9 @@ public class AccessEvent implements Serializable, IAccessEvent {
   
   private static final String EMPTY = "";
 
-  private transient final HttpServletRequest httpRequest;
-  private transient final HttpServletResponse httpResponse;
+  // cleared by detachFromRequest()
+  private transient HttpServletRequest httpRequest;
+  private transient HttpServletResponse httpResponse;
 
   String requestURI;
   String requestURL;
@@ -65,12 +68,18 @@ public class AccessEvent implements Serializable, IAccessEvent {
   Map<String, String> requestHeaderMap;
   Map<String, String[]> requestParameterMap;
   Map<String, String> responseHeaderMap;
+  // attributes and cookies are captured for deferred processing only and are
+  // not serialized
+  transient Map<String, String> attributeMap;
+  transient Map<String, String> cookieMap;
 
   long contentLength = SENTINEL;
   int statusCode = SENTINEL;
   int localPort = SENTINEL;
+  long elapsedTime = SENTINEL;
 
   transient ServerAdapter serverAdapter;
+  transient RequiredFields requiredFields;
 
   /**
    * The number of milliseconds elapsed from 1/1/1970 until logging event was
@@ -262,6 +271,9 @@ public class AccessEvent implements Serializable, IAccessEvent {
     // according to RFC 2616 header names are case insensitive
     // latest versions of Tomcat return header names in lower-case
     requestHeaderMap = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+    if (httpRequest == null) {
+      return;
+    }
     Enumeration e = httpRequest.getHeaderNames();
     if (e == null) {
       return;
@@ -274,6 +286,9 @@ public class AccessEvent implements Serializable, IAccessEvent {
 
   public void buildRequestParameterMap() {
     requestParameterMap = new HashMap<String, String[]>();
+    if (httpRequest == null) {
+      return;
+    }
     Enumeration e = httpRequest.getParameterNames();
     if (e == null) {
       return;
@@ -291,8 +306,45 @@ public class AccessEvent implements Serializable, IAccessEvent {
     return requestParameterMap;
   }
 
+  public void buildAttributeMap() {
+    attributeMap = new HashMap<String, String>();
+    if (httpRequest == null) {
+      return;
+    }
+    Enumeration e = httpRequest.getAttributeNames();
+    if (e == null) {
+      return;
+    }
+    while (e.hasMoreElements()) {
+      String key = (String) e.nextElement();
+      Object value = httpRequest.getAttribute(key);
+      if (value != null) {
+        attributeMap.put(key, value.toString());
+      }
+    }
+  }
+
+  public void buildCookieMap() {
+    cookieMap = new HashMap<String, String>();
+    if (httpRequest == null) {
+      return;
+    }
+    Cookie[] cookieArray = httpRequest.getCookies();
+    if (cookieArray == null) {
+      return;
+    }
+    for (Cookie cookie : cookieArray) {
+      // the first cookie of a given name wins, as in getCookie()
+      if (!cookieMap.containsKey(cookie.getName())) {
+        cookieMap.put(cookie.getName(), cookie.getValue());
+      }
+    }
+  }
+
   /**
-   * Attributes are not serialized
+   * Attributes are not serialized. Once the request has completed, only the
+   * attributes captured by {@link #prepareForDeferredProcessing()} are
+   * available.
    * 
    * @param key
    */
@@ -304,21 +356,27 @@ public class AccessEvent implements Serializable, IAccessEvent {
       } else {
         return value.toString();
       }
+    } else if (attributeMap != null) {
+      String value = attributeMap.get(key);
+      return (value == null) ? NA : value;
     } else {
       return NA;
     }
   }
 
   public String[] getRequestParameter(String key) {
+    String[] value;
     if (httpRequest != null) {
-      String[] value = httpRequest.getParameterValues(key);
-      if (value == null) {
-        return new String[] { NA };
-      } else {
-        return value;
-      }
+      value = httpRequest.getParameterValues(key);
+    } else if (requestParameterMap != null) {
+      value = requestParameterMap.get(key);
     } else {
+      value = null;
+    }
+    if (value == null) {
       return new String[] { NA };
+    } else {
+      return value;
     }
   }
 
@@ -335,6 +393,11 @@ public class AccessEvent implements Serializable, IAccessEvent {
           return cookie.getValue();
         }
       }
+    } else if (cookieMap != null) {
+      String value = cookieMap.get(key);
+      if (value != null) {
+        return value;
+      }
     }
     return NA;
   }
@@ -358,10 +421,26 @@ public class AccessEvent implements Serializable, IAccessEvent {
     return statusCode;
   }
 
+  public long getElapsedTime() {
+    if (elapsedTime == SENTINEL) {
+      if (serverAdapter != null) {
+        long requestTimestamp = serverAdapter.getRequestTimestamp();
+        if (requestTimestamp > 0) {
+          elapsedTime = Math.max(0, getTimeStamp() - requestTimestamp);
+        }
+      }
+    }
+    return elapsedTime;
+  }
+
   public String getRequestContent() {
     if (requestContent != null) {
       return requestContent;
     }
+    if (httpRequest == null) {
+      requestContent = EMPTY;
+      return requestContent;
+    }
 
     if (Util.isFormUrlEncoded(httpRequest)) {
       StringBuffer buf = new StringBuffer();
@@ -399,7 +478,8 @@ public class AccessEvent implements Serializable, IAccessEvent {
           .getAttribute(AccessConstants.LB_INPUT_BUFFER);
 
       if (inputBuffer != null) {
-        requestContent = new String(inputBuffer);
+        requestContent = decode(inputBuffer, httpRequest.getCharacterEncoding(),
+            AccessConstants.LB_INPUT_BUFFER_TRUNCATED);
       }
 
       if (requestContent == null || requestContent.length() == 0) {
@@ -414,6 +494,10 @@ public class AccessEvent implements Serializable, IAccessEvent {
     if (responseContent != null) {
       return responseContent;
     }
+    if (httpRequest == null || httpResponse == null) {
+      responseContent = EMPTY;
+      return responseContent;
+    }
 
     if (Util.isImageResponse(httpResponse)) {
       responseContent = "[IMAGE CONTENTS SUPPRESSED]";
@@ -424,7 +508,8 @@ public class AccessEvent implements Serializable, IAccessEvent {
           .getAttribute(AccessConstants.LB_OUTPUT_BUFFER);
 
       if (outputBuffer != null) {
-        responseContent = new String(outputBuffer);
+        responseContent = decode(outputBuffer, httpResponse
+            .getCharacterEncoding(), AccessConstants.LB_OUTPUT_BUFFER_TRUNCATED);
       }
       if (responseContent == null || responseContent.length() == 0) {
         responseContent = EMPTY;
@@ -434,6 +519,29 @@ public class AccessEvent implements Serializable, IAccessEvent {
     return responseContent;
   }
 
+  /**
+   * Decode a buffer captured by TeeFilter using the given character encoding,
+   * or the platform's default if the encoding is unknown or unsupported.
+   */
+  private String decode(byte[] buffer, String encoding, String truncatedKey) {
+    String result = null;
+    if (encoding != null) {
+      try {
+        result = new String(buffer, encoding);
+      } catch (UnsupportedEncodingException e) {
+        // fall back to the default encoding
+      }
+    }
+    if (result == null) {
+      result = new String(buffer);
+    }
+    if (result.length() != 0
+        && Boolean.TRUE.equals(httpRequest.getAttribute(truncatedKey))) {
+      result += AccessConstants.TRUNCATION_MARKER;
+    }
+    return result;
+  }
+
   public int getLocalPort() {
     if (localPort == SENTINEL) {
       if (httpRequest != null) {
@@ -455,7 +563,11 @@ public class AccessEvent implements Serializable, IAccessEvent {
 
   void buildResponseHeaderMap() {
     if (responseHeaderMap == null) {
-      responseHeaderMap = serverAdapter.buildResponseHeaderMap();
+      if (serverAdapter != null) {
+        responseHeaderMap = serverAdapter.buildResponseHeaderMap();
+      } else {
+        responseHeaderMap = new HashMap<String, String>();
+      }
     }
   }
 
@@ -469,24 +581,102 @@ public class AccessEvent implements Serializable, IAccessEvent {
     return new ArrayList<String>(responseHeaderMap.keySet());
   }
 
+  /**
+   * Set the fields captured by {@link #prepareForDeferredProcessing()}. If
+   * not set, all fields are captured.
+   *
+   * @since 0.9.31
+   */
+  public void setRequiredFields(RequiredFields requiredFields) {
+    this.requiredFields = requiredFields;
+  }
+
+  /**
+   * Capture the fields required by the components of the access context, see
+   * {@link RequiredFields}, so that they remain available once the request
+   * has completed.
+   */
   public void prepareForDeferredProcessing() {
-    buildRequestHeaderMap();
-    buildRequestParameterMap();
-    buildResponseHeaderMap();
-    getLocalPort();
-    getMethod();
-    getProtocol();
-    getRemoteAddr();
-    getRemoteHost();
-    getRemoteUser();
-    getRequestURI();
-    getRequestURL();
-    getServerName();
     getTimeStamp();
+    Set<AccessEventField> fields = (requiredFields == null) ? AccessEventField.ALL
+        : requiredFields.getFields();
+    for (AccessEventField field : fields) {
+      prepare(field);
+    }
+  }
 
-    getStatusCode();
-    getContentLength();
-    getRequestContent();
-    getResponseContent();
+  /**
+   * Release the references to the request, the response and the server
+   * adapter, as containers may recycle these objects once the request has
+   * completed. Fields which were not captured beforehand become unavailable.
+   *
+   * @since 0.9.31
+   */
+  void detachFromRequest() {
+    httpRequest = null;
+    httpResponse = null;
+    serverAdapter = null;
+  }
+
+  private void prepare(AccessEventField field) {
+    switch (field) {
+    case REQUEST_URI:
+      getRequestURI();
+      break;
+    case REQUEST_URL:
+      getRequestURL();
+      break;
+    case REMOTE_HOST:
+      getRemoteHost();
+      break;
+    case REMOTE_USER:
+      getRemoteUser();
+      break;
+    case REMOTE_ADDR:
+      getRemoteAddr();
+      break;
+    case PROTOCOL:
+      getProtocol();
+      break;
+    case METHOD:
+      getMethod();
+      break;
+    case SERVER_NAME:
+      getServerName();
+      break;
+    case LOCAL_PORT:
+      getLocalPort();
+      break;
+    case STATUS_CODE:
+      getStatusCode();
+      break;
+    case ELAPSED_TIME:
+      getElapsedTime();
+      break;
+    case CONTENT_LENGTH:
+      getContentLength();
+      break;
+    case REQUEST_HEADERS:
+      buildRequestHeaderMap();
+      break;
+    case REQUEST_PARAMETERS:
+      buildRequestParameterMap();
+      break;
+    case REQUEST_ATTRIBUTES:
+      buildAttributeMap();
+      break;
+    case COOKIES:
+      buildCookieMap();
+      break;
+    case RESPONSE_HEADERS:
+      buildResponseHeaderMap();
+      break;
+    case REQUEST_CONTENT:
+      getRequestContent();
+      break;
+    case RESPONSE_CONTENT:
+      getResponseContent();
+      break;
+    }
   }
 }
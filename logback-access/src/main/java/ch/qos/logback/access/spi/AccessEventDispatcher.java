@@ -0,0 +1,296 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.access.spi;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import ch.qos.logback.core.spi.ContextAwareBase;
+import ch.qos.logback.core.spi.LifeCycle;
+
+/**
+ * Hands access events over to a background worker which passes them to the
+ * appenders, so that access logging does not extend the time container
+ * threads spend on each request.
+ *
+ * <p>On the container thread, the fields declared in {@link RequiredFields}
+ * are captured and the event is detached from the request before being
+ * queued. Components which read other fields will therefore see them as
+ * unavailable.
+ *
+ * <p>When the queue is full, the {@link OverflowPolicy} determines whether the
+ * container thread waits for room in the queue or drops the event. Dropped
+ * events are counted, see {@link #getDroppedCount()}.
+ *
+ * <p>Until started, or once stopped, events are passed to the appenders on
+ * the calling thread. Stopping waits for container threads which are queueing
+ * events, so that every queued event is eventually passed to the appenders.
+ *
+ * @since 0.9.31
+ */
+public class AccessEventDispatcher extends ContextAwareBase implements
+    LifeCycle {
+
+  public enum OverflowPolicy {
+    /**
+     * Wait until the worker makes room in the queue.
+     */
+    BLOCK,
+    /**
+     * Drop the event.
+     */
+    DROP
+  }
+
+  public static final int DEFAULT_QUEUE_SIZE = 1024;
+  public static final int DEFAULT_MAX_FLUSH_TIME = 1000;
+
+  static final long POLL_PERIOD_MILLIS = 100;
+
+  final AppenderAttachableImpl<IAccessEvent> aai;
+
+  int queueSize = DEFAULT_QUEUE_SIZE;
+  int maxFlushTime = DEFAULT_MAX_FLUSH_TIME;
+  OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+  BlockingQueue<AccessEvent> queue;
+  Worker worker;
+  volatile boolean started = false;
+  // set when stop() begins, so that producers waiting for room give up
+  volatile boolean stopping = false;
+
+  // held for reading while queueing an event, for writing while changing
+  // the started state
+  final ReadWriteLock lifeCycleLock = new ReentrantReadWriteLock();
+
+  final AtomicLong droppedCount = new AtomicLong();
+
+  public AccessEventDispatcher(AppenderAttachableImpl<IAccessEvent> aai) {
+    this.aai = aai;
+  }
+
+  public void dispatch(AccessEvent event) {
+    lifeCycleLock.readLock().lock();
+    try {
+      if (!started) {
+        aai.appendLoopOnAppenders(event);
+        return;
+      }
+      event.prepareForDeferredProcessing();
+      event.detachFromRequest();
+
+      switch (overflowPolicy) {
+      case DROP:
+        if (!queue.offer(event)) {
+          dropped();
+        }
+        break;
+      case BLOCK:
+        if (!offerUntilStopping(event)) {
+          // the dispatcher is stopping, bypass the queue
+          append(event);
+        }
+        break;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      dropped();
+    } finally {
+      lifeCycleLock.readLock().unlock();
+    }
+  }
+
+  private boolean offerUntilStopping(AccessEvent event)
+      throws InterruptedException {
+    while (!stopping) {
+      if (queue.offer(event, POLL_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void dropped() {
+    if (droppedCount.getAndIncrement() == 0) {
+      addWarn("Access event queue is full. Dropping events.");
+    }
+  }
+
+  public void start() {
+    if (started) {
+      return;
+    }
+    if (queueSize < 1) {
+      addError("Invalid queue size [" + queueSize + "]");
+      return;
+    }
+    queue = new ArrayBlockingQueue<AccessEvent>(queueSize);
+    stopping = false;
+    lifeCycleLock.writeLock().lock();
+    try {
+      started = true;
+    } finally {
+      lifeCycleLock.writeLock().unlock();
+    }
+    worker = new Worker();
+    worker.start();
+    addInfo("Dispatching access events asynchronously, queue size is "
+        + queueSize + ", overflow policy is " + overflowPolicy);
+  }
+
+  /**
+   * Stop the worker after it has passed the queued events to the appenders,
+   * waiting at most {@link #getMaxFlushTime() maxFlushTime} milliseconds.
+   */
+  public void stop() {
+    if (!started) {
+      return;
+    }
+    stopping = true;
+    // wait for producers queueing events, later ones append directly
+    lifeCycleLock.writeLock().lock();
+    try {
+      started = false;
+    } finally {
+      lifeCycleLock.writeLock().unlock();
+    }
+    try {
+      worker.join(maxFlushTime);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (worker.isAlive()) {
+      addWarn("Worker did not finish within " + maxFlushTime
+          + " ms, the remaining " + queue.size() + " events may be lost");
+    } else {
+      // events queued while the worker was finishing
+      flushQueue();
+    }
+    long dropped = droppedCount.get();
+    if (dropped > 0) {
+      addInfo("Dropped " + dropped + " access events in total");
+    }
+  }
+
+  public boolean isStarted() {
+    return started;
+  }
+
+  void flushQueue() {
+    AccessEvent event;
+    while ((event = queue.poll()) != null) {
+      append(event);
+    }
+  }
+
+  void append(AccessEvent event) {
+    try {
+      aai.appendLoopOnAppenders(event);
+    } catch (RuntimeException e) {
+      addError("Failed to append access event", e);
+    }
+  }
+
+  /**
+   * @return the number of events dropped since this dispatcher was created
+   */
+  public long getDroppedCount() {
+    return droppedCount.get();
+  }
+
+  /**
+   * @return the number of events waiting to be passed to the appenders
+   */
+  public int getQueuedCount() {
+    BlockingQueue<AccessEvent> q = queue;
+    return (q == null) ? 0 : q.size();
+  }
+
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  /**
+   * The maximum number of events waiting for the worker. Takes effect on
+   * {@link #start()}.
+   */
+  public void setQueueSize(int queueSize) {
+    this.queueSize = queueSize;
+  }
+
+  public OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
+  }
+
+  public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  /**
+   * Set the overflow policy by name, either BLOCK or DROP, ignoring case. An
+   * unknown name is reported as an error and leaves the policy unchanged.
+   */
+  public void setOverflowPolicy(String policyName) {
+    if (policyName == null) {
+      addError("Missing overflow policy, keeping " + overflowPolicy);
+      return;
+    }
+    try {
+      this.overflowPolicy = OverflowPolicy.valueOf(policyName.trim()
+          .toUpperCase());
+    } catch (IllegalArgumentException e) {
+      addError("Unknown overflow policy [" + policyName + "], expected one of "
+          + Arrays.toString(OverflowPolicy.values()) + ". Keeping "
+          + overflowPolicy);
+    }
+  }
+
+  public int getMaxFlushTime() {
+    return maxFlushTime;
+  }
+
+  public void setMaxFlushTime(int maxFlushTime) {
+    this.maxFlushTime = maxFlushTime;
+  }
+
+  // ================================================================
+  class Worker extends Thread {
+
+    Worker() {
+      super("logback-access-dispatcher-" + getContext().getName());
+      setDaemon(true);
+    }
+
+    public void run() {
+      while (started) {
+        AccessEvent event;
+        try {
+          event = queue.poll(POLL_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          break;
+        }
+        if (event != null) {
+          append(event);
+        }
+      }
+      flushQueue();
+    }
+  }
+}
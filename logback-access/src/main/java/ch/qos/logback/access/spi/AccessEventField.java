@@ -0,0 +1,82 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.access.spi;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The fields of an {@link IAccessEvent} which can be captured by
+ * {@link IAccessEvent#prepareForDeferredProcessing()}, together with the
+ * names of the methods reading them.
+ *
+ * @since 0.9.31
+ */
+public enum AccessEventField {
+
+  REQUEST_URI("getRequestURI"),
+  REQUEST_URL("getRequestURL"),
+  REMOTE_HOST("getRemoteHost"),
+  REMOTE_USER("getRemoteUser"),
+  REMOTE_ADDR("getRemoteAddr"),
+  PROTOCOL("getProtocol"),
+  METHOD("getMethod"),
+  SERVER_NAME("getServerName"),
+  LOCAL_PORT("getLocalPort"),
+  STATUS_CODE("getStatusCode"),
+  ELAPSED_TIME("getElapsedTime"),
+  CONTENT_LENGTH("getContentLength"),
+  REQUEST_HEADERS("getRequestHeader", "getRequestHeaderMap",
+      "getRequestHeaderNames"),
+  REQUEST_PARAMETERS("getRequestParameter", "getRequestParameterMap"),
+  REQUEST_ATTRIBUTES("getAttribute"),
+  COOKIES("getCookie"),
+  RESPONSE_HEADERS("getResponseHeader", "getResponseHeaderMap",
+      "getResponseHeaderNameList"),
+  REQUEST_CONTENT("getRequestContent"),
+  RESPONSE_CONTENT("getResponseContent");
+
+  public static final Set<AccessEventField> ALL = Collections
+      .unmodifiableSet(EnumSet.allOf(AccessEventField.class));
+  public static final Set<AccessEventField> NONE = Collections
+      .unmodifiableSet(EnumSet.noneOf(AccessEventField.class));
+
+  private static final Map<String, AccessEventField> FIELD_BY_GETTER = new HashMap<String, AccessEventField>();
+
+  static {
+    for (AccessEventField field : values()) {
+      for (String getterName : field.getterNames) {
+        FIELD_BY_GETTER.put(getterName, field);
+      }
+    }
+  }
+
+  private final String[] getterNames;
+
+  private AccessEventField(String... getterNames) {
+    this.getterNames = getterNames;
+  }
+
+  /**
+   * @return the field read by the {@link IAccessEvent} method called
+   *         <code>getterName</code>, or null if the method does not read a
+   *         captured field
+   */
+  public static AccessEventField forGetter(String getterName) {
+    return FIELD_BY_GETTER.get(getterName);
+  }
+}
@@ -102,6 +102,14 @@ public interface IAccessEvent extends DeferredProcessingAware {
 
   int getStatusCode();
 
+  /**
+   * @return the number of milliseconds elapsed between the reception of the
+   *         request and the creation of this event, or {@link #SENTINEL} if
+   *         unknown
+   * @since 0.9.31
+   */
+  long getElapsedTime();
+
   String getRequestContent();
 
   String getResponseContent();
@@ -0,0 +1,181 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.access.spi;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import ch.qos.logback.core.filter.EvaluatorFilter;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.status.InfoStatus;
+
+/**
+ * The union of the {@link AccessEventField fields} required by the components
+ * of an access context. Layouts, evaluators, discriminators and appenders
+ * declare the fields they use when they start, so that
+ * {@link AccessEvent#prepareForDeferredProcessing()} captures only those.
+ *
+ * <p>As long as no component declared anything, all fields are captured.
+ * Components processing events after the request completes, for example on
+ * another thread, should therefore declare every field they use, or
+ * {@link AccessEventField#ALL} if unsure. Once the configuration is complete,
+ * {@link #requireUndeclared(AppenderAttachable)} inspects the attached
+ * appenders and requires all fields as soon as one of them, or one of their
+ * filters, encoders, layouts or evaluators, declared nothing.
+ *
+ * @since 0.9.31
+ */
+public class RequiredFields {
+
+  public static final String REQUIRED_FIELDS_KEY = "ACCESS_REQUIRED_FIELDS";
+
+  private final Context context;
+  private volatile Set<AccessEventField> fieldSet = null;
+  // components which declared their fields, weakly held as they are
+  // discarded on reconfiguration
+  private final Set<Object> declarers = Collections
+      .newSetFromMap(new WeakHashMap<Object, Boolean>());
+
+  RequiredFields(Context context) {
+    this.context = context;
+  }
+
+  /**
+   * Return the instance held by <code>context</code>, creating it if
+   * necessary.
+   */
+  public static RequiredFields of(Context context) {
+    synchronized (RequiredFields.class) {
+      RequiredFields requiredFields = (RequiredFields) context
+          .getObject(REQUIRED_FIELDS_KEY);
+      if (requiredFields == null) {
+        requiredFields = new RequiredFields(context);
+        context.putObject(REQUIRED_FIELDS_KEY, requiredFields);
+      }
+      return requiredFields;
+    }
+  }
+
+  /**
+   * Declare that <code>component</code> requires the given fields.
+   */
+  public synchronized void add(Object component, Set<AccessEventField> fields) {
+    declarers.add(component);
+    EnumSet<AccessEventField> union = EnumSet.noneOf(AccessEventField.class);
+    if (fieldSet != null) {
+      union.addAll(fieldSet);
+    }
+    union.addAll(fields);
+    fieldSet = Collections.unmodifiableSet(union);
+  }
+
+  /**
+   * @return true if <code>component</code> declared its fields
+   */
+  public synchronized boolean isDeclared(Object component) {
+    return declarers.contains(component);
+  }
+
+  /**
+   * Require all fields if one of the given appenders, or one of the
+   * components they delegate to, did not declare its fields. Only appenders
+   * known not to access the event otherwise are vouched for by the
+   * declarations of their layout.
+   */
+  public void requireUndeclared(AppenderAttachable<IAccessEvent> appenders) {
+    if (!isDeclared()) {
+      return;
+    }
+    Iterator<Appender<IAccessEvent>> it = appenders.iteratorForAppenders();
+    while (it.hasNext()) {
+      Appender<IAccessEvent> appender = it.next();
+      Object undeclared = findUndeclared(appender);
+      if (undeclared != null) {
+        context.getStatusManager().add(
+            new InfoStatus("[" + undeclared.getClass().getName()
+                + "] does not declare the access event fields it uses, "
+                + "all of them will be captured", this));
+        add(undeclared, AccessEventField.ALL);
+        return;
+      }
+    }
+  }
+
+  private Object findUndeclared(Appender<IAccessEvent> appender) {
+    for (Filter<IAccessEvent> filter : appender.getCopyOfAttachedFiltersList()) {
+      if (isDeclared(filter)) {
+        continue;
+      }
+      if (filter.getClass() != EvaluatorFilter.class) {
+        return filter;
+      }
+      Object evaluator = ((EvaluatorFilter<IAccessEvent>) filter).getEvaluator();
+      if (evaluator != null && !isDeclared(evaluator)) {
+        return evaluator;
+      }
+    }
+    if (isDeclared(appender)) {
+      return null;
+    }
+    if (!isLayoutDriven(appender.getClass())) {
+      return appender;
+    }
+    Encoder<IAccessEvent> encoder = ((OutputStreamAppender<IAccessEvent>) appender)
+        .getEncoder();
+    if (!(encoder instanceof LayoutWrappingEncoder)) {
+      return encoder;
+    }
+    Object layout = ((LayoutWrappingEncoder<IAccessEvent>) encoder).getLayout();
+    if (layout != null && !isDeclared(layout)) {
+      return layout;
+    }
+    return null;
+  }
+
+  // appenders which only pass events to their encoder, subclasses may not
+  private static boolean isLayoutDriven(Class<?> appenderClass) {
+    return appenderClass == OutputStreamAppender.class
+        || appenderClass == ConsoleAppender.class
+        || appenderClass == FileAppender.class
+        || appenderClass == RollingFileAppender.class;
+  }
+
+  /**
+   * @return true if at least one component declared its fields
+   */
+  public boolean isDeclared() {
+    return fieldSet != null;
+  }
+
+  /**
+   * @return the fields to capture, all of them if no component declared its
+   *         fields
+   */
+  public Set<AccessEventField> getFields() {
+    Set<AccessEventField> fields = fieldSet;
+    return (fields == null) ? AccessEventField.ALL : fields;
+  }
+}
@@ -26,5 +26,13 @@ public interface ServerAdapter {
 
   long getContentLength();
   int getStatusCode();
+
+  /**
+   * @return the time at which the request was received, in milliseconds since
+   *         1/1/1970, or a value smaller than 1 if unknown
+   * @since 0.9.31
+   */
+  long getRequestTimestamp();
+
   Map<String, String> buildResponseHeaderMap();
 }
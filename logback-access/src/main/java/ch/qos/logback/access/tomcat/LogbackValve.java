@@ -19,11 +19,13 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
 
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 
 import ch.qos.logback.access.spi.IAccessEvent;
+import ch.qos.logback.access.spi.RequiredFields;
 import org.apache.catalina.Lifecycle;
 import org.apache.catalina.LifecycleListener;
 import org.apache.catalina.connector.Request;
@@ -32,6 +34,7 @@ import org.apache.catalina.valves.ValveBase;
 
 import ch.qos.logback.access.AccessConstants;
 import ch.qos.logback.access.joran.JoranConfigurator;
+import ch.qos.logback.access.spi.AccessEventDispatcher;
 import ch.qos.logback.access.spi.AccessEvent;
 import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.BasicStatusManager;
@@ -47,6 +50,7 @@ import ch.qos.logback.core.spi.FilterReply;
 import ch.qos.logback.core.status.InfoStatus;
 import ch.qos.logback.core.status.StatusManager;
 import ch.qos.logback.core.status.WarnStatus;
+import ch.qos.logback.core.util.ExecutorServiceUtil;
 import ch.qos.logback.core.util.OptionHelper;
 import ch.qos.logback.core.util.StatusPrinter;
 
@@ -70,6 +74,7 @@ public class LogbackValve extends ValveBase implements Lifecycle, Context,
 
   private long birthTime = System.currentTimeMillis();
   Object configurationLock = new Object();
+  private ScheduledExecutorService scheduledExecutorService;
 
   // Attributes from ContextBase:
   private String name;
@@ -86,9 +91,13 @@ public class LogbackValve extends ValveBase implements Lifecycle, Context,
   boolean quiet;
   boolean started;
   boolean alreadySetLogbackStatusManager = false;
+  AccessEventDispatcher dispatcher = new AccessEventDispatcher(aai);
+  boolean async = false;
 
   public LogbackValve() {
     putObject(CoreConstants.EVALUATOR_MAP, new HashMap());
+    RequiredFields.of(this);
+    dispatcher.setContext(this);
   }
 
   public void start() {
@@ -101,6 +110,10 @@ public class LogbackValve extends ValveBase implements Lifecycle, Context,
           new InfoStatus("filename property not set. Assuming [" + filename
               + "]", this));
     }
+    // components look up the executor service of contexts not extending
+    // ContextBase in the object map
+    putObject(CoreConstants.SCHEDULED_EXECUTOR_SERVICE_KEY,
+        getScheduledExecutorService());
     File configFile = new File(filename);
     if (configFile.exists()) {
       try {
@@ -116,6 +129,11 @@ public class LogbackValve extends ValveBase implements Lifecycle, Context,
           new WarnStatus("[" + filename + "] does not exist", this));
     }
 
+    RequiredFields.of(this).requireUndeclared(aai);
+    if (async) {
+      dispatcher.start();
+    }
+
     if (!quiet) {
       StatusPrinter.print(getStatusManager());
     }
@@ -139,6 +157,45 @@ public class LogbackValve extends ValveBase implements Lifecycle, Context,
     this.quiet = quiet;
   }
 
+  /**
+   * Whether access events should be passed to the appenders on a background
+   * thread. See {@link AccessEventDispatcher}.
+   */
+  public void setAsync(boolean async) {
+    this.async = async;
+  }
+
+  public boolean isAsync() {
+    return async;
+  }
+
+  public void setQueueSize(int queueSize) {
+    dispatcher.setQueueSize(queueSize);
+  }
+
+  public int getQueueSize() {
+    return dispatcher.getQueueSize();
+  }
+
+  /**
+   * Either BLOCK or DROP, see {@link AccessEventDispatcher.OverflowPolicy}.
+   */
+  public void setOverflowPolicy(String overflowPolicy) {
+    dispatcher.setOverflowPolicy(overflowPolicy);
+  }
+
+  public String getOverflowPolicy() {
+    return dispatcher.getOverflowPolicy().toString();
+  }
+
+  /**
+   * @return the number of access events dropped because the queue of the
+   *         asynchronous dispatcher was full
+   */
+  public long getDroppedCount() {
+    return dispatcher.getDroppedCount();
+  }
+
   public void invoke(Request request, Response response) throws IOException,
       ServletException {
 
@@ -159,20 +216,28 @@ public class LogbackValve extends ValveBase implements Lifecycle, Context,
       getNext().invoke(request, response);
 
       TomcatServerAdapter adapter = new TomcatServerAdapter(request, response);
-      IAccessEvent accessEvent = new AccessEvent(request, response, adapter);
+      AccessEvent accessEvent = new AccessEvent(request, response, adapter);
+      accessEvent.setRequiredFields((RequiredFields) getObject(
+          RequiredFields.REQUIRED_FIELDS_KEY));
 
       if (getFilterChainDecision(accessEvent) == FilterReply.DENY) {
         return;
       }
 
       // TODO better exception handling
-      aai.appendLoopOnAppenders(accessEvent);
+      dispatcher.dispatch(accessEvent);
     } finally {
       request.removeAttribute(AccessConstants.LOGBACK_STATUS_MANAGER_KEY);
     }
   }
 
   public void stop() {
+    dispatcher.stop();
+    synchronized (this) {
+      ExecutorServiceUtil.shutdown(scheduledExecutorService);
+      scheduledExecutorService = null;
+      putObject(CoreConstants.SCHEDULED_EXECUTOR_SERVICE_KEY, null);
+    }
     started = false;
   }
 
@@ -274,6 +339,14 @@ public class LogbackValve extends ValveBase implements Lifecycle, Context,
     return configurationLock;
   }
 
+  public synchronized ScheduledExecutorService getScheduledExecutorService() {
+    if (scheduledExecutorService == null) {
+      scheduledExecutorService = ExecutorServiceUtil
+          .newScheduledExecutorService(getName());
+    }
+    return scheduledExecutorService;
+  }
+
   // ====== Methods from catalina Lifecycle =====
 
   public void addLifecycleListener(LifecycleListener arg0) {
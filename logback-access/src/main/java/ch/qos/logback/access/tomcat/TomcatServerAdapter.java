@@ -44,6 +44,10 @@ public class TomcatServerAdapter implements ServerAdapter {
     return response.getStatus();
   }
 
+  public long getRequestTimestamp() {
+    return request.getCoyoteRequest().getStartTime();
+  }
+
   
   public Map<String, String> buildResponseHeaderMap() {
     Map<String, String> responseHeaderMap = new HashMap<String, String>();
@@ -13,11 +13,13 @@
  */
 package ch.qos.logback.access.boolex;
 
+import java.util.EnumSet;
 
 import ch.qos.logback.access.dummy.DummyRequest;
 import ch.qos.logback.access.dummy.DummyResponse;
 import ch.qos.logback.access.dummy.DummyServerAdapter;
 import ch.qos.logback.access.spi.AccessEvent;
+import ch.qos.logback.access.spi.AccessEventField;
 import ch.qos.logback.access.spi.IAccessEvent;
 import ch.qos.logback.core.Context;
 import ch.qos.logback.core.ContextBase;
@@ -25,6 +27,7 @@ import ch.qos.logback.core.boolex.EvaluationException;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -76,4 +79,18 @@ public class JaninoEventEvaluatorTest {
    } catch (IllegalStateException e) {
    }
   }
+  @Test
+  public void requiredFieldsOfGetterCalls() {
+    evaluator.setExpression("event.getStatusCode() >= 400 && "
+        + "event.getRequestHeader(\"x\") != null && event.getCookie(\"c\") != null");
+    assertEquals(EnumSet.of(AccessEventField.STATUS_CODE,
+        AccessEventField.REQUEST_HEADERS, AccessEventField.COOKIES),
+        evaluator.getRequiredFields());
+  }
+
+  @Test
+  public void eventPassedAsArgumentRequiresAllFields() {
+    evaluator.setExpression("String.valueOf(event).length() > 0");
+    assertEquals(AccessEventField.ALL, evaluator.getRequiredFields());
+  }
 }
@@ -162,7 +162,9 @@ public class DummyRequest implements HttpServletRequest {
   }
 
   public Enumeration getAttributeNames() {
-    return null;
+    Hashtable<String, Object> attributes = new Hashtable<String, Object>();
+    attributes.put("testKey", "testKey");
+    return attributes.keys();
   }
 
   public String getCharacterEncoding() {
@@ -0,0 +1,73 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.access.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.access.dummy.DummyAccessEventBuilder;
+import ch.qos.logback.access.spi.AccessContext;
+import ch.qos.logback.access.spi.AccessEventField;
+import ch.qos.logback.access.spi.IAccessEvent;
+import ch.qos.logback.access.spi.RequiredFields;
+import ch.qos.logback.core.spi.FilterReply;
+
+public class HeavyHitterFilterTest {
+
+  AccessContext context = new AccessContext();
+  HeavyHitterFilter filter = new HeavyHitterFilter();
+
+  @Before
+  public void setUp() {
+    filter.setContext(context);
+    filter.setName("test");
+  }
+
+  @After
+  public void tearDown() {
+    filter.stop();
+  }
+
+  @Test
+  public void requestHeadersAreNotRequired() {
+    filter.start();
+    assertTrue(filter.isStarted());
+    RequiredFields requiredFields = RequiredFields.of(context);
+    assertTrue(requiredFields.getFields().contains(
+        AccessEventField.REQUEST_URI));
+    assertFalse(requiredFields.getFields().contains(
+        AccessEventField.REQUEST_HEADERS));
+  }
+
+  @Test
+  public void stoppedFilterIgnoresEvents() {
+    filter.start();
+    filter.stop();
+    assertNull(filter.heavyHitterViewImpl);
+    IAccessEvent event = DummyAccessEventBuilder.buildNewAccessEvent();
+    assertEquals(FilterReply.NEUTRAL, filter.decide(event));
+  }
+
+  @Test
+  public void absentUserAgentIsNotTracked() {
+    IAccessEvent event = DummyAccessEventBuilder.buildNewAccessEvent();
+    assertNull(HeavyHitterFilter.getUserAgent(event));
+  }
+}
@@ -20,6 +20,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({StatsByDayTest.class})
+@SuiteClasses({StatsByDayTest.class, StatisticalViewImplTest.class,
+    SpaceSavingTest.class, HeavyHitterFilterTest.class})
 public class PackageTest extends TestCase {
 }
\ No newline at end of file
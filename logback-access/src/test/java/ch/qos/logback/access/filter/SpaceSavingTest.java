@@ -0,0 +1,163 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.access.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ch.qos.logback.access.filter.PeriodicHeavyHitters.Dimension;
+import ch.qos.logback.access.filter.PeriodicHeavyHitters.Metric;
+import ch.qos.logback.core.util.TimeUtil;
+
+public class SpaceSavingTest {
+
+  @Test
+  public void exactWhileUnderCapacity() {
+    SpaceSaving ss = new SpaceSaving(10);
+    ss.offer("a", 1);
+    ss.offer("b", 5);
+    ss.offer("a", 1);
+    ss.offer("c", 0);
+    ss.offer(null, 1);
+    List<SpaceSaving.Entry> top = ss.getTop(10);
+    assertEquals(2, top.size());
+    assertEquals("b", top.get(0).getKey());
+    assertEquals(5, top.get(0).getTotal());
+    assertEquals("a", top.get(1).getKey());
+    assertEquals(2, top.get(1).getTotal());
+    assertEquals(0, top.get(1).getError());
+  }
+
+  @Test
+  public void smallestCounterIsEvicted() {
+    SpaceSaving ss = new SpaceSaving(2);
+    ss.offer("a", 3);
+    ss.offer("b", 1);
+    ss.offer("c", 1);
+    List<SpaceSaving.Entry> top = ss.getTop(2);
+    assertEquals("a", top.get(0).getKey());
+    assertEquals("c", top.get(1).getKey());
+    // c inherits the total of b
+    assertEquals(2, top.get(1).getTotal());
+    assertEquals(1, top.get(1).getError());
+  }
+
+  @Test
+  public void heavyHittersAreFoundInSkewedStreams() {
+    SpaceSaving ss = new SpaceSaving(20);
+    Random random = new Random(42);
+    for (int i = 0; i < 100000; i++) {
+      if (i % 4 == 0) {
+        ss.offer("hot", 1);
+      } else if (i % 10 == 1) {
+        ss.offer("warm", 1);
+      } else {
+        ss.offer("cold" + random.nextInt(10000), 1);
+      }
+    }
+    List<SpaceSaving.Entry> top = ss.getTop(2);
+    assertEquals("hot", top.get(0).getKey());
+    assertEquals("warm", top.get(1).getKey());
+    SpaceSaving.Entry hot = top.get(0);
+    assertTrue(hot.getTotal() >= 25000);
+    assertTrue(hot.getTotal() - hot.getError() <= 25000);
+    assertEquals(20, ss.size());
+  }
+
+  @Test
+  public void lastCompletedPeriodIsReported() {
+    // Tue Nov 21 18:05:36 CET 2006
+    long now = 1164128736369L;
+    HeavyHittersByMinute byMinute = new HeavyHittersByMinute(10, now);
+    byMinute.record(now, "/a", "1.2.3.4", "agent", 100);
+    byMinute.record(now, "/a", "1.2.3.4", null, 100);
+    byMinute.record(now, "/b", "5.6.7.8", "agent", 1000);
+    assertTrue(byMinute.getLastTop(now, Dimension.REQUEST_URI, Metric.COUNT, 10)
+        .isEmpty());
+
+    now = TimeUtil.computeStartOfNextMinute(now) + 1;
+    byMinute.record(now, "/c", "1.2.3.4", "agent", 1);
+
+    List<SpaceSaving.Entry> byCount = byMinute.getLastTop(now,
+        Dimension.REQUEST_URI, Metric.COUNT, 10);
+    assertEquals("/a", byCount.get(0).getKey());
+    assertEquals(2, byCount.get(0).getTotal());
+    List<SpaceSaving.Entry> byBytes = byMinute.getLastTop(now,
+        Dimension.REQUEST_URI, Metric.BYTES, 10);
+    assertEquals("/b", byBytes.get(0).getKey());
+    assertEquals(1000, byBytes.get(0).getTotal());
+    assertEquals(2, byMinute.getLastTop(now, Dimension.USER_AGENT, Metric.COUNT,
+        10).get(0).getTotal());
+  }
+
+  @Test
+  public void periodsRollOverWhenRead() {
+    long now = 1164128736369L;
+    HeavyHittersByMinute byMinute = new HeavyHittersByMinute(10, now, 4);
+    byMinute.record(now, "/a", "1.2.3.4", "agent", 100);
+
+    long nextMinute = TimeUtil.computeStartOfNextMinute(now);
+    List<SpaceSaving.Entry> byCount = byMinute.getLastTop(nextMinute + 1,
+        Dimension.REQUEST_URI, Metric.COUNT, 10);
+    assertEquals(1, byCount.size());
+    assertEquals("/a", byCount.get(0).getKey());
+
+    // the period before last is not reported
+    long minuteAfter = TimeUtil.computeStartOfNextMinute(nextMinute + 1);
+    assertTrue(byMinute.getLastTop(minuteAfter + 1, Dimension.REQUEST_URI,
+        Metric.COUNT, 10).isEmpty());
+  }
+
+  @Test
+  public void stalePeriodsAreNotReported() {
+    long now = 1164128736369L;
+    HeavyHittersByMinute byMinute = new HeavyHittersByMinute(10, now);
+    byMinute.record(now, "/a", "1.2.3.4", "agent", 100);
+    now = TimeUtil.computeStartOfNextMinute(now) + 1;
+    now = TimeUtil.computeStartOfNextMinute(now) + 1;
+    byMinute.record(now, "/b", "1.2.3.4", "agent", 100);
+    assertTrue(byMinute.getLastTop(now, Dimension.REQUEST_URI, Metric.COUNT,
+        10).isEmpty());
+  }
+
+  @Test
+  public void stripesAreMerged() throws InterruptedException {
+    final long now = 1164128736369L;
+    final HeavyHittersByMinute byMinute = new HeavyHittersByMinute(10, now, 4);
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread() {
+        public void run() {
+          for (int j = 0; j < 100; j++) {
+            byMinute.record(now, "/a", "1.2.3.4", "agent", 10);
+          }
+        }
+      };
+      threads[i].start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+    long nextMinute = TimeUtil.computeStartOfNextMinute(now);
+    List<SpaceSaving.Entry> byBytes = byMinute.getLastTop(nextMinute,
+        Dimension.REQUEST_URI, Metric.BYTES, 10);
+    assertEquals(1, byBytes.size());
+    assertEquals(4000, byBytes.get(0).getTotal());
+  }
+}
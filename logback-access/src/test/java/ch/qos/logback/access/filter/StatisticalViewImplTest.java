@@ -0,0 +1,101 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.access.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.access.dummy.DummyAccessEventBuilder;
+import ch.qos.logback.access.spi.IAccessEvent;
+import ch.qos.logback.core.util.TimeUtil;
+
+public class StatisticalViewImplTest {
+
+  // Tue Nov 21 18:05:36 CET 2006
+  long now = 1164128736369L;
+
+  CountingFilter countingFilter = new CountingFilter();
+  StatisticalViewImpl view = countingFilter.accessStatsImpl;
+
+  @Before
+  public void setUp() {
+    view.statsByMinute = new StatsByMinute(now);
+    view.statsByHour = new StatsByHour(now);
+  }
+
+  void decide(IAccessEvent event) {
+    countingFilter.total.increment();
+    view.update(now, event);
+  }
+
+  @Test
+  public void latenciesOfTheLastMinute() {
+    for (int i = 0; i < 10; i++) {
+      decide(null);
+    }
+    now = TimeUtil.computeStartOfNextMinute(now) + 1;
+    decide(null);
+    assertEquals(11, view.getLastMinuteCount());
+    // no latencies were recorded
+    assertEquals(0, view.getLastMinuteLatencyP99());
+  }
+
+  @Test
+  public void latenciesAreMergedIntoLongerPeriods() {
+    view.statsByMinute.record(20);
+    view.statsByMinute.record(30);
+    long nextHour = TimeUtil.computeStartOfNextHour(now) + 1;
+    now = nextHour;
+    decide(null);
+    assertEquals(30, view.getLastMinuteLatencyP99());
+    assertEquals(20, view.getLastHoursLatencyP50());
+    assertEquals(30, view.getLastHoursLatencyP99());
+  }
+
+  @Test
+  public void dimensions() {
+    countingFilter.setStatusClassDimension(true);
+    countingFilter.setMethodDimension(true);
+    IAccessEvent event = DummyAccessEventBuilder.buildNewAccessEvent();
+    decide(event);
+    decide(event);
+    now = TimeUtil.computeStartOfNextMinute(now) + 1;
+    decide(event);
+
+    String statusClass = StatisticalViewImpl.statusClassOf(event
+        .getStatusCode());
+    Map<String, Long> byStatusClass = view.getLastMinuteCountByStatusClass();
+    assertEquals(Long.valueOf(3), byStatusClass.get(statusClass));
+    Map<String, Long> byMethod = view.getLastMinuteCountByMethod();
+    assertEquals(1, byMethod.size());
+    assertTrue(byMethod.values().contains(Long.valueOf(3)));
+  }
+
+  @Test
+  public void dimensionNames() {
+    assertEquals("2xx", StatisticalViewImpl.statusClassOf(200));
+    assertEquals("5xx", StatisticalViewImpl.statusClassOf(503));
+    assertEquals(StatisticalViewImpl.OTHER, StatisticalViewImpl
+        .statusClassOf(-1));
+    assertEquals("GET", StatisticalViewImpl.methodOf("GET"));
+    assertEquals(StatisticalViewImpl.OTHER, StatisticalViewImpl
+        .methodOf("FOO"));
+    assertEquals(StatisticalViewImpl.OTHER, StatisticalViewImpl.methodOf(null));
+  }
+}
@@ -58,6 +58,20 @@ public class ConverterTest  {
     assertEquals(Long.toString(event.getServerAdapter().getContentLength()), result);
   }
 
+  @Test
+  public void appendMatchesConvert() {
+    AccessConverter[] converters = { new ContentLengthConverter(),
+        new StatusCodeConverter(), new LocalPortConverter(),
+        new FullRequestConverter(), new FullResponseConverter() };
+    for (AccessConverter converter : converters) {
+      converter.start();
+      String converted = converter.convert(event);
+      StringBuilder buf = new StringBuilder("prefix");
+      converter.write(buf, event);
+      assertEquals("prefix" + converted, buf.toString());
+    }
+  }
+
   @Test
   public void testDateConverter() {
     DateConverter converter = new DateConverter();
@@ -0,0 +1,124 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.access.servlet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.Test;
+
+import ch.qos.logback.access.dummy.DummyRequest;
+
+public class CaptureBufferTest {
+
+  BufferPool pool = new BufferPool(8, 4);
+
+  byte[] bytes(int length) {
+    byte[] result = new byte[length];
+    for (int i = 0; i < length; i++) {
+      result[i] = (byte) i;
+    }
+    return result;
+  }
+
+  HttpServletRequest requestWithBody(byte[] body) {
+    final InputStream in = new ByteArrayInputStream(body);
+    return new DummyRequest() {
+      @Override
+      public ServletInputStream getInputStream() {
+        return new ServletInputStream() {
+          @Override
+          public int read() throws IOException {
+            return in.read();
+          }
+        };
+      }
+    };
+  }
+
+  @Test
+  public void spansSeveralChunks() {
+    CaptureBuffer cb = new CaptureBuffer(pool, 100);
+    byte[] input = bytes(20);
+    cb.write(input, 0, 5);
+    cb.write(input[5]);
+    cb.write(input, 6, 14);
+    assertArrayEquals(input, cb.toByteArray());
+    assertFalse(cb.isTruncated());
+  }
+
+  @Test
+  public void truncatesAtLimit() {
+    CaptureBuffer cb = new CaptureBuffer(pool, 10);
+    byte[] input = bytes(20);
+    cb.write(input, 0, 20);
+    cb.write(1);
+    assertEquals(10, cb.size());
+    assertTrue(cb.isTruncated());
+    byte[] expected = new byte[10];
+    System.arraycopy(input, 0, expected, 0, 10);
+    assertArrayEquals(expected, cb.toByteArray());
+  }
+
+  @Test
+  public void chunksAreRecycled() {
+    CaptureBuffer cb = new CaptureBuffer(pool, 100);
+    cb.write(bytes(20), 0, 20);
+    assertEquals(0, pool.getPooledCount());
+    cb.release();
+    assertEquals(3, pool.getPooledCount());
+    assertEquals(0, cb.size());
+
+    cb = new CaptureBuffer(pool, 100);
+    cb.write(bytes(50), 0, 50);
+    cb.release();
+    // the pool retains at most 4 chunks
+    assertEquals(4, pool.getPooledCount());
+  }
+
+  @Test
+  public void truncatedInputIsReplayedInFull() throws IOException {
+    byte[] body = bytes(30);
+    HttpServletRequest request = requestWithBody(body);
+    TeeServletInputStream tsis = new TeeServletInputStream(request, pool, 12);
+    assertTrue(tsis.isTruncated());
+    assertEquals(12, tsis.getInputBuffer().length);
+
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    int c;
+    while ((c = tsis.read()) != -1) {
+      baos.write(c);
+    }
+    assertArrayEquals(body, baos.toByteArray());
+  }
+
+  @Test
+  public void shortInputIsNotTruncated() throws IOException {
+    byte[] body = bytes(12);
+    HttpServletRequest request = requestWithBody(body);
+    TeeServletInputStream tsis = new TeeServletInputStream(request, pool, 12);
+    assertFalse(tsis.isTruncated());
+    assertArrayEquals(body, tsis.getInputBuffer());
+  }
+}
@@ -20,6 +20,6 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({TeeFilterTest.class})
+@SuiteClasses({TeeFilterTest.class, CaptureBufferTest.class})
 public class PackageTest extends TestCase {
 }
\ No newline at end of file
@@ -15,6 +15,8 @@ package ch.qos.logback.access.servlet;
 
 import org.junit.Test;
 
+import ch.qos.logback.access.AccessConstants;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -67,4 +69,35 @@ public class TeeFilterTest {
 
     }
 
+    @Test
+    public void urlPatterns() {
+        List<String> patternList = TeeFilter.extractNameList("/static/*, *.css, /health");
+        assertTrue(TeeFilter.matchesURLPattern("/static", patternList));
+        assertTrue(TeeFilter.matchesURLPattern("/static/a/b.js", patternList));
+        assertTrue(TeeFilter.matchesURLPattern("/x/style.css", patternList));
+        assertTrue(TeeFilter.matchesURLPattern("/health", patternList));
+        assertFalse(TeeFilter.matchesURLPattern("/staticx", patternList));
+        assertFalse(TeeFilter.matchesURLPattern("/health/check", patternList));
+        assertFalse(TeeFilter.matchesURLPattern(null, patternList));
+    }
+
+    @Test
+    public void contentTypes() {
+        List<String> contentTypeList = TeeFilter.extractNameList("image/, application/octet-stream");
+        assertTrue(TeeFilter.matchesContentType("image/png", contentTypeList));
+        assertTrue(TeeFilter.matchesContentType("Application/Octet-Stream", contentTypeList));
+        assertFalse(TeeFilter.matchesContentType("text/html; charset=UTF-8", contentTypeList));
+        assertFalse(TeeFilter.matchesContentType(null, contentTypeList));
+        assertFalse(TeeFilter.matchesContentType("image/png", new ArrayList<String>()));
+    }
+
+    @Test
+    public void captureSizes() {
+        assertEquals(AccessConstants.TEE_FILTER_DEFAULT_MAX_CAPTURE_SIZE, TeeFilter.parseSize(null));
+        assertEquals(AccessConstants.TEE_FILTER_DEFAULT_MAX_CAPTURE_SIZE, TeeFilter.parseSize("x"));
+        assertEquals(AccessConstants.TEE_FILTER_DEFAULT_MAX_CAPTURE_SIZE, TeeFilter.parseSize("-1"));
+        assertEquals(0, TeeFilter.parseSize("0"));
+        assertEquals(1024, TeeFilter.parseSize(" 1024 "));
+    }
+
 }
@@ -0,0 +1,180 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.access.spi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.access.dummy.DummyAccessEventBuilder;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import ch.qos.logback.core.status.Status;
+import ch.qos.logback.core.status.StatusChecker;
+
+public class AccessEventDispatcherTest {
+
+  AccessContext context = new AccessContext();
+  AppenderAttachableImpl<IAccessEvent> aai = new AppenderAttachableImpl<IAccessEvent>();
+  AccessEventDispatcher dispatcher = new AccessEventDispatcher(aai);
+  ListAppender<IAccessEvent> listAppender = new ListAppender<IAccessEvent>();
+  RequiredFields requiredFields = RequiredFields.of(context);
+
+  @Before
+  public void setUp() {
+    context.setName("test");
+    dispatcher.setContext(context);
+    listAppender.setContext(context);
+    listAppender.start();
+    aai.addAppender(listAppender);
+  }
+
+  @After
+  public void tearDown() {
+    dispatcher.stop();
+  }
+
+  AccessEvent buildEvent() {
+    AccessEvent ae = (AccessEvent) DummyAccessEventBuilder.buildNewAccessEvent();
+    ae.setRequiredFields(requiredFields);
+    return ae;
+  }
+
+  @Test
+  public void synchronousUntilStarted() {
+    AccessEvent ae = buildEvent();
+    dispatcher.dispatch(ae);
+    assertEquals(1, listAppender.list.size());
+    assertSame(ae, listAppender.list.get(0));
+    assertNotNull(ae.getRequest());
+  }
+
+  @Test
+  public void eventsAreAppendedByTheWorker() {
+    requiredFields.add(this, EnumSet.of(AccessEventField.PROTOCOL));
+    dispatcher.start();
+    for (int i = 0; i < 100; i++) {
+      dispatcher.dispatch(buildEvent());
+    }
+    dispatcher.stop();
+
+    assertEquals(100, listAppender.list.size());
+    IAccessEvent ae = listAppender.list.get(0);
+    assertNull(ae.getRequest());
+    assertEquals("testProtocol", ae.getProtocol());
+    // not declared, hence not captured
+    assertEquals(IAccessEvent.NA, ae.getRemoteHost());
+    assertEquals(0, dispatcher.getDroppedCount());
+  }
+
+  @Test
+  public void eventsAreDroppedWhenTheQueueIsFull() throws InterruptedException {
+    BlockingAppender blockingAppender = new BlockingAppender();
+    blockingAppender.setContext(context);
+    blockingAppender.start();
+    aai.addAppender(blockingAppender);
+
+    dispatcher.setQueueSize(1);
+    dispatcher.setOverflowPolicy(AccessEventDispatcher.OverflowPolicy.DROP);
+    dispatcher.start();
+
+    dispatcher.dispatch(buildEvent());
+    assertTrue(blockingAppender.entered.await(5, TimeUnit.SECONDS));
+    // the worker is blocked, fill the queue and then overflow it
+    for (int i = 0; i < 4; i++) {
+      dispatcher.dispatch(buildEvent());
+    }
+    assertEquals(3, dispatcher.getDroppedCount());
+
+    blockingAppender.release.countDown();
+    dispatcher.stop();
+    assertEquals(2, listAppender.list.size());
+  }
+
+  @Test
+  public void stopWaitsForBlockedProducers() throws InterruptedException {
+    BlockingAppender blockingAppender = new BlockingAppender();
+    blockingAppender.setContext(context);
+    blockingAppender.start();
+    aai.addAppender(blockingAppender);
+
+    dispatcher.setQueueSize(1);
+    dispatcher.start();
+
+    dispatcher.dispatch(buildEvent());
+    assertTrue(blockingAppender.entered.await(5, TimeUnit.SECONDS));
+    dispatcher.dispatch(buildEvent());
+    // the queue is full, the producer waits for room
+    Thread producer = new Thread() {
+      public void run() {
+        dispatcher.dispatch(buildEvent());
+      }
+    };
+    producer.start();
+    producer.join(2 * AccessEventDispatcher.POLL_PERIOD_MILLIS);
+    assertTrue(producer.isAlive());
+
+    Thread stopper = new Thread() {
+      public void run() {
+        dispatcher.stop();
+      }
+    };
+    stopper.start();
+    blockingAppender.release.countDown();
+    stopper.join(5000);
+    producer.join(5000);
+    assertFalse(producer.isAlive());
+    assertFalse(stopper.isAlive());
+    assertEquals(3, listAppender.list.size());
+  }
+
+  @Test
+  public void unknownOverflowPolicyIsReported() {
+    dispatcher.setOverflowPolicy("drop");
+    assertEquals(AccessEventDispatcher.OverflowPolicy.DROP,
+        dispatcher.getOverflowPolicy());
+    dispatcher.setOverflowPolicy("BLOKC");
+    assertEquals(AccessEventDispatcher.OverflowPolicy.DROP,
+        dispatcher.getOverflowPolicy());
+    assertTrue(new StatusChecker(context).containsMatch(Status.ERROR,
+        "Unknown overflow policy"));
+  }
+
+  static class BlockingAppender extends AppenderBase<IAccessEvent> {
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    protected void append(IAccessEvent e) {
+      entered.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,186 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.access.spi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumSet;
+
+import org.junit.Test;
+
+import ch.qos.logback.access.PatternLayout;
+import ch.qos.logback.access.dummy.DummyAccessEventBuilder;
+import ch.qos.logback.access.dummy.DummyResponse;
+import ch.qos.logback.access.sift.AccessEventDiscriminator;
+import ch.qos.logback.access.sift.AccessEventDiscriminator.FieldName;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.boolex.EvaluationException;
+import ch.qos.logback.core.boolex.EventEvaluatorBase;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import ch.qos.logback.core.filter.EvaluatorFilter;
+import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+public class RequiredFieldsTest {
+
+  AccessContext context = new AccessContext();
+  RequiredFields requiredFields = RequiredFields.of(context);
+
+  AppenderAttachableImpl<IAccessEvent> aai = new AppenderAttachableImpl<IAccessEvent>();
+
+  AccessEvent buildPreparedEvent() {
+    AccessEvent ae = (AccessEvent) DummyAccessEventBuilder.buildNewAccessEvent();
+    ae.setRequiredFields(requiredFields);
+    ae.prepareForDeferredProcessing();
+    return ae;
+  }
+
+  @Test
+  public void allFieldsAreCapturedByDefault() {
+    assertFalse(requiredFields.isDeclared());
+    AccessEvent ae = buildPreparedEvent();
+    assertNotNull(ae.requestHeaderMap);
+    assertNotNull(ae.requestParameterMap);
+    assertNotNull(ae.responseHeaderMap);
+    assertNotNull(ae.requestContent);
+    assertNotNull(ae.responseContent);
+    assertNotNull(ae.requestURL);
+  }
+
+  @Test
+  public void onlyDeclaredFieldsAreCaptured() {
+    requiredFields.add(this, EnumSet.of(AccessEventField.STATUS_CODE,
+        AccessEventField.PROTOCOL));
+    AccessEvent ae = buildPreparedEvent();
+    assertNull(ae.requestHeaderMap);
+    assertNull(ae.requestParameterMap);
+    assertNull(ae.responseHeaderMap);
+    assertNull(ae.requestContent);
+    assertNull(ae.responseContent);
+    assertNull(ae.requestURL);
+    assertEquals("testProtocol", ae.protocol);
+    assertEquals(DummyResponse.DUMMY_DEFAULT_STATUS, ae.statusCode);
+  }
+
+  @Test
+  public void declarationsAreMerged() {
+    requiredFields.add(this, EnumSet.of(AccessEventField.STATUS_CODE));
+    requiredFields.add(this, EnumSet.of(AccessEventField.METHOD));
+    assertEquals(EnumSet.of(AccessEventField.STATUS_CODE,
+        AccessEventField.METHOD), requiredFields.getFields());
+  }
+
+  @Test
+  public void patternLayoutDeclaresItsFields() {
+    PatternLayout pl = new PatternLayout();
+    pl.setContext(context);
+    pl.setPattern("common");
+    pl.start();
+    assertEquals(EnumSet.of(AccessEventField.REMOTE_HOST,
+        AccessEventField.REMOTE_USER, AccessEventField.REQUEST_URL,
+        AccessEventField.STATUS_CODE, AccessEventField.CONTENT_LENGTH),
+        requiredFields.getFields());
+  }
+
+  @Test
+  public void compositeConvertersAreInspected() {
+    PatternLayout pl = new PatternLayout();
+    pl.setContext(context);
+    pl.setPattern("%replace(%requestURL){'\\?.*', ''} %i{Referer}");
+    pl.start();
+    assertEquals(EnumSet.of(AccessEventField.REQUEST_URL,
+        AccessEventField.REQUEST_HEADERS), requiredFields.getFields());
+  }
+
+  @Test
+  public void keyedRequestConvertersDeclareTheirFields() {
+    PatternLayout pl = new PatternLayout();
+    pl.setContext(context);
+    pl.setPattern("%reqParameter{p} %reqAttribute{testKey} %reqCookie{testName}");
+    pl.start();
+    assertEquals(EnumSet.of(AccessEventField.REQUEST_PARAMETERS,
+        AccessEventField.REQUEST_ATTRIBUTES, AccessEventField.COOKIES),
+        requiredFields.getFields());
+
+    AccessEvent ae = buildPreparedEvent();
+    ae.detachFromRequest();
+    assertEquals("- testKey testCookie", pl.doLayout(ae).trim());
+    ae.requestParameterMap.put("p", new String[] { "v" });
+    assertEquals("v testKey testCookie", pl.doLayout(ae).trim());
+  }
+
+  @Test
+  public void discriminatorDeclaresItsField() {
+    AccessEventDiscriminator discriminator = new AccessEventDiscriminator();
+    discriminator.setContext(context);
+    discriminator.setFieldName(FieldName.REMOTE_ADDRESS);
+    discriminator.setDefaultValue("NA");
+    discriminator.start();
+    assertEquals(EnumSet.of(AccessEventField.REMOTE_ADDR), requiredFields
+        .getFields());
+  }
+
+  ConsoleAppender<IAccessEvent> buildConsoleAppender(String pattern) {
+    PatternLayout pl = new PatternLayout();
+    pl.setContext(context);
+    pl.setPattern(pattern);
+    pl.start();
+    LayoutWrappingEncoder<IAccessEvent> encoder = new LayoutWrappingEncoder<IAccessEvent>();
+    encoder.setContext(context);
+    encoder.setLayout(pl);
+    ConsoleAppender<IAccessEvent> appender = new ConsoleAppender<IAccessEvent>();
+    appender.setContext(context);
+    appender.setEncoder(encoder);
+    return appender;
+  }
+
+  @Test
+  public void appendersWritingDeclaredLayoutsKeepTheDeclaredFields() {
+    aai.addAppender(buildConsoleAppender("%s %m"));
+    requiredFields.requireUndeclared(aai);
+    assertEquals(EnumSet.of(AccessEventField.STATUS_CODE,
+        AccessEventField.METHOD), requiredFields.getFields());
+  }
+
+  @Test
+  public void undeclaredAppenderRequiresAllFields() {
+    aai.addAppender(buildConsoleAppender("%s"));
+    ListAppender<IAccessEvent> listAppender = new ListAppender<IAccessEvent>();
+    listAppender.setContext(context);
+    aai.addAppender(listAppender);
+    requiredFields.requireUndeclared(aai);
+    assertEquals(AccessEventField.ALL, requiredFields.getFields());
+    assertTrue(requiredFields.isDeclared(listAppender));
+  }
+
+  @Test
+  public void undeclaredEvaluatorRequiresAllFields() {
+    ConsoleAppender<IAccessEvent> appender = buildConsoleAppender("%s");
+    EvaluatorFilter<IAccessEvent> filter = new EvaluatorFilter<IAccessEvent>();
+    filter.setContext(context);
+    filter.setEvaluator(new EventEvaluatorBase<IAccessEvent>() {
+      public boolean evaluate(IAccessEvent event) throws EvaluationException {
+        return event.getRequestHeader("Referer") != null;
+      }
+    });
+    appender.addFilter(filter);
+    aai.addAppender(appender);
+    requiredFields.requireUndeclared(aai);
+    assertEquals(AccessEventField.ALL, requiredFields.getFields());
+  }
+}
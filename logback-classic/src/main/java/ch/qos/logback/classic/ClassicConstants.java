@@ -35,6 +35,11 @@ public class ClassicConstants {
    * The default stack data depth computed during caller data extraction.
    */
   public static final int DEFAULT_MAX_CALLEDER_DATA_DEPTH = 8;
+
+  /**
+   * The number of loggers listed in periodic reports of logger statistics.
+   */
+  public static final int DEFAULT_NOISIEST_LOGGER_COUNT = 10;
   
   public final static String REQUEST_REMOTE_HOST_MDC_KEY = "req.remoteHost";
   public final static String REQUEST_USER_AGENT_MDC_KEY = "req.userAgent";
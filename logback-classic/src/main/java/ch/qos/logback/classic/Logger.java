@@ -26,12 +26,16 @@ import org.slf4j.spi.LocationAwareLogger;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.LoggerRemoteView;
+import ch.qos.logback.classic.spi.LoggerStatistics;
+import ch.qos.logback.classic.spi.LoggerStatisticsSummary;
 import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.spi.TurboFilterList;
 import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.spi.AppenderAttachable;
 import ch.qos.logback.core.spi.AppenderAttachableImpl;
 import ch.qos.logback.core.spi.FilterReply;
+import ch.qos.logback.core.status.WarnStatus;
 
 public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
     AppenderAttachable<ILoggingEvent>, Serializable {
@@ -74,26 +78,22 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
   private List<Logger> childrenList;
 
   /**
-   * It is assumed that once the 'aai' variable is set to a non-null value, it
-   * will never be reset to null. it is further assumed that only place where
-   * the 'aai'ariable is set is within the addAppender method. This method is
-   * synchronized on 'this' (Logger) protecting against simultaneous
-   * re-configuration of this logger (a very unlikely scenario).
+   * The 'appenderBinding' variable is only written while holding the lock on
+   * 'this' (Logger), either within the addAppender method or when the
+   * appenders of a reconfigured context are swapped in by
+   * {@link #applyStagedSettings}. A swap binds a new AppenderAttachableImpl
+   * instance, possibly null, to the next appender generation of the context
+   * while keeping the previous one for events of earlier generations, so that
+   * each event observes either the old or the new appenders of all loggers.
    * 
    * <p>
    * It is further assumed that the AppenderAttachableImpl is responsible for
    * its internal synchronization and thread safety. Thus, we can get away with
-   * *not* synchronizing on the 'aai' (check null/ read) because
-   * <p>
-   * 1) the 'aai' variable is immutable once set to non-null
-   * <p>
-   * 2) 'aai' is getAndSet only within addAppender which is synchronized
-   * <p>
-   * 3) all the other methods check whether 'aai' is null
-   * <p>
-   * 4) AppenderAttachableImpl is thread safe
+   * *not* synchronizing on the 'appenderBinding' because all the other methods
+   * read the volatile variable once into a local variable and check whether
+   * it is null.
    */
-  private transient AppenderAttachableImpl<ILoggingEvent> aai;
+  private transient volatile AppenderBinding appenderBinding;
   /**
    * Additivity is set to true by default, that is children inherit the
    * appenders of their ancestors by default. If this variable is set to
@@ -109,10 +109,21 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
   // of changes in LoggerContext
   LoggerRemoteView loggerRemoteView;
 
+  // decisions of the turbo filter chain known in advance for calls made
+  // through this logger without a marker
+  private transient volatile StaticTurboFilterDecisions staticTurboFilterDecisions;
+
+  // counts of the events logged through this logger, null unless statistics
+  // are enabled in the logger context
+  private transient volatile LoggerStatistics statistics;
+
   Logger(String name, Logger parent, LoggerContext loggerContext) {
     this.name = name;
     this.parent = parent;
     this.loggerContext = loggerContext;
+    if (loggerContext.isLoggerStatisticsEnabled()) {
+      statistics = new LoggerStatistics();
+    }
     buildRemoteView();
     instanceCount++;
   }
@@ -160,6 +171,16 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
   }
 
   public synchronized void setLevel(Level newLevel) {
+    StagedConfiguration staged = loggerContext.getStagedConfiguration();
+    if (staged != null) {
+      if (newLevel == null && isRootLogger()) {
+        throw new IllegalArgumentException(
+            "The level of the root logger cannot be set to null");
+      }
+      staged.setLevel(this, newLevel);
+      return;
+    }
+    loggerContext.recordLevelChangeDuringReconfiguration(this, newLevel);
     if (level == newLevel) {
       // nothing to do;
       return;
@@ -217,47 +238,73 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
    * This is useful when re-reading configuration information.
    */
   public void detachAndStopAllAppenders() {
-    if (aai != null) {
-      aai.detachAndStopAllAppenders();
+    AppenderAttachableImpl<ILoggingEvent> a = currentAppenders();
+    if (a != null) {
+      a.detachAndStopAllAppenders();
     }
   }
 
   public boolean detachAppender(String name) {
-    if (aai == null) {
+    AppenderAttachableImpl<ILoggingEvent> a = currentAppenders();
+    if (a == null) {
       return false;
     }
-    return aai.detachAppender(name);
+    return a.detachAppender(name);
   }
 
-  // this method MUST be synchronized. See comments on 'aai' field for further
+  // this method MUST be synchronized. See comments on 'appenderBinding' field for further
   // details.
   public synchronized void addAppender(Appender<ILoggingEvent> newAppender) {
-    if (aai == null) {
-      aai = new AppenderAttachableImpl<ILoggingEvent>();
+    StagedConfiguration staged = loggerContext.getStagedConfiguration();
+    if (staged != null) {
+      if (newAppender == null) {
+        throw new IllegalArgumentException("Null argument disallowed");
+      }
+      staged.addAppender(this, newAppender);
+      return;
+    }
+    AppenderBinding binding = appenderBinding;
+    if (binding == null) {
+      // valid for events of any generation
+      binding = new AppenderBinding(0,
+          new AppenderAttachableImpl<ILoggingEvent>(), null);
+      appenderBinding = binding;
+    } else if (binding.aai == null) {
+      binding = new AppenderBinding(binding.generation,
+          new AppenderAttachableImpl<ILoggingEvent>(), binding.previous);
+      appenderBinding = binding;
     }
-    aai.addAppender(newAppender);
+    binding.aai.addAppender(newAppender);
+  }
+
+  private AppenderAttachableImpl<ILoggingEvent> currentAppenders() {
+    AppenderBinding binding = appenderBinding;
+    return (binding == null) ? null : binding.aai;
   }
 
   public boolean isAttached(Appender<ILoggingEvent> appender) {
-    if (aai == null) {
+    AppenderAttachableImpl<ILoggingEvent> a = currentAppenders();
+    if (a == null) {
       return false;
     }
-    return aai.isAttached(appender);
+    return a.isAttached(appender);
   }
 
   @SuppressWarnings("unchecked")
   public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
-    if (aai == null) {
+    AppenderAttachableImpl<ILoggingEvent> a = currentAppenders();
+    if (a == null) {
       return Collections.EMPTY_LIST.iterator();
     }
-    return aai.iteratorForAppenders();
+    return a.iteratorForAppenders();
   }
 
   public Appender<ILoggingEvent> getAppender(String name) {
-    if (aai == null) {
+    AppenderAttachableImpl<ILoggingEvent> a = currentAppenders();
+    if (a == null) {
       return null;
     }
-    return aai.getAppender(name);
+    return a.getAppender(name);
   }
 
   /**
@@ -268,34 +315,50 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
    */
   public void callAppenders(ILoggingEvent event) {
     int writes = 0;
-    for (Logger l = this; l != null; l = l.parent) {
-      writes += l.appendLoopOnAppenders(event);
-      if (!l.additive) {
-        break;
+    LoggerContext.AppenderGeneration generation = loggerContext
+        .enterAppenderGeneration();
+    try {
+      for (Logger l = this; l != null; l = l.parent) {
+        writes += l.appendLoopOnAppenders(event, generation.number);
+        if (!l.additive) {
+          break;
+        }
       }
+    } finally {
+      loggerContext.exitAppenderGeneration(generation);
     }
     // No appenders in hierarchy
     if (writes == 0) {
       loggerContext.noAppenderDefinedWarning(this);
+    } else {
+      LoggerStatistics s = statistics;
+      if (s != null) {
+        s.record(LoggerStatistics.APPENDED, event.getLevel());
+      }
     }
   }
 
-  private int appendLoopOnAppenders(ILoggingEvent event) {
-    if (aai != null) {
-      return aai.appendLoopOnAppenders(event);
-    } else {
+  private int appendLoopOnAppenders(ILoggingEvent event, long generation) {
+    AppenderBinding binding = appenderBinding;
+    // skip appenders bound after the event entered its generation
+    while (binding != null && binding.generation > generation) {
+      binding = binding.previous;
+    }
+    if (binding == null || binding.aai == null) {
       return 0;
     }
+    return binding.aai.appendLoopOnAppenders(event);
   }
 
   /**
    * Remove the appender passed as parameter form the list of appenders.
    */
   public boolean detachAppender(Appender<ILoggingEvent> appender) {
-    if (aai == null) {
+    AppenderAttachableImpl<ILoggingEvent> a = currentAppenders();
+    if (a == null) {
       return false;
     }
-    return aai.detachAppender(appender);
+    return a.detachAppender(appender);
   }
 
   static int getSeparatorIndexOf(String name) {
@@ -377,6 +440,101 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
     }
   }
 
+  /**
+   * Replace the level, additivity and appenders of this logger and of its
+   * descendants by those staged in <code>staged</code>, or by their default
+   * values for loggers absent from <code>staged</code>. The new appenders are
+   * bound to the appender generation <code>generation</code>, and only
+   * become visible once the context enters that generation. The replaced
+   * appender lists are added to <code>retiredList</code>, and the loggers
+   * whose level was staged to <code>levelChangedList</code>. A level set by
+   * another thread while the reconfiguration was staged is kept, unless the
+   * new configuration sets a level for the same logger.
+   * 
+   * <p>
+   * Must be invoked on the root logger. The lock of each logger is held only
+   * while updating that logger, children being visited once it is released.
+   */
+  void applyStagedSettings(StagedConfiguration staged, long generation,
+      List<AppenderAttachableImpl<ILoggingEvent>> retiredList,
+      List<Logger> levelChangedList) {
+    List<Logger> children;
+    synchronized (this) {
+      applyStagedSettingsToThis(staged, generation, retiredList,
+          levelChangedList);
+      // children created from now on inherit the new effective level
+      if (childrenList == null) {
+        return;
+      }
+      children = new ArrayList<Logger>(childrenList);
+    }
+    for (Logger child : children) {
+      child.applyStagedSettings(staged, generation, retiredList,
+          levelChangedList);
+    }
+  }
+
+  private void applyStagedSettingsToThis(StagedConfiguration staged,
+      long generation,
+      List<AppenderAttachableImpl<ILoggingEvent>> retiredList,
+      List<Logger> levelChangedList) {
+    StagedConfiguration.LoggerSettings settings = staged.getLoggerSettings(this);
+    if (settings != null && settings.levelSet) {
+      if (staged.isLevelSetConcurrently(this) && settings.level != level) {
+        loggerContext.getStatusManager().add(
+            new WarnStatus("Level of logger [" + name + "] set to [" + level
+                + "] during the reconfiguration is replaced by ["
+                + settings.level + "]", this));
+      }
+      level = settings.level;
+      levelChangedList.add(this);
+    } else if (!staged.isLevelSetConcurrently(this)) {
+      level = isRootLogger() ? Level.DEBUG : null;
+    }
+    if (level != null) {
+      effectiveLevelInt = level.levelInt;
+    } else {
+      effectiveLevelInt = parent.effectiveLevelInt;
+    }
+    additive = (settings == null) || settings.additive;
+
+    AppenderAttachableImpl<ILoggingEvent> newAai = null;
+    if (settings != null && !settings.appenderList.isEmpty()) {
+      newAai = new AppenderAttachableImpl<ILoggingEvent>();
+      for (Appender<ILoggingEvent> appender : settings.appenderList) {
+        newAai.addAppender(appender);
+      }
+    }
+    AppenderBinding oldBinding = appenderBinding;
+    appenderBinding = new AppenderBinding(generation, newAai, oldBinding);
+    if (oldBinding != null && oldBinding.aai != null) {
+      retiredList.add(oldBinding.aai);
+    }
+  }
+
+  /**
+   * Forget the appenders replaced by {@link #applyStagedSettings}, in this
+   * logger and its descendants, once no event of an earlier generation is
+   * being appended.
+   */
+  void dropPreviousAppenders() {
+    List<Logger> children;
+    synchronized (this) {
+      AppenderBinding binding = appenderBinding;
+      if (binding != null && binding.previous != null) {
+        appenderBinding = new AppenderBinding(binding.generation, binding.aai,
+            null);
+      }
+      if (childrenList == null) {
+        return;
+      }
+      children = new ArrayList<Logger>(childrenList);
+    }
+    for (Logger child : children) {
+      child.dropPreviousAppenders();
+    }
+  }
+
   /**
    * The default size of child list arrays. The JDK 1.5 default is 10. We use a
    * smaller value to save a little space.
@@ -412,15 +570,18 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
       final Marker marker, final Level level, final String msg,
       final Object[] params, final Throwable t) {
 
-    final FilterReply decision = loggerContext
-        .getTurboFilterChainDecision_0_3OrMore(marker, this, level, msg,
-            params, t);
+    FilterReply decision = getStaticTurboFilterDecision(marker, level);
+    if (decision == null) {
+      decision = loggerContext.getTurboFilterChainDecision_0_3OrMore(marker,
+          this, level, msg, params, t);
+    }
 
     if (decision == FilterReply.NEUTRAL) {
       if (effectiveLevelInt > level.levelInt) {
         return;
       }
     } else if (decision == FilterReply.DENY) {
+      countDenied(level);
       return;
     }
 
@@ -431,14 +592,18 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
       final Marker marker, final Level level, final String msg,
       final Object param, final Throwable t) {
 
-    final FilterReply decision = loggerContext.getTurboFilterChainDecision_1(
-        marker, this, level, msg, param, t);
+    FilterReply decision = getStaticTurboFilterDecision(marker, level);
+    if (decision == null) {
+      decision = loggerContext.getTurboFilterChainDecision_1(
+          marker, this, level, msg, param, t);
+    }
 
     if (decision == FilterReply.NEUTRAL) {
       if (effectiveLevelInt > level.levelInt) {
         return;
       }
     } else if (decision == FilterReply.DENY) {
+      countDenied(level);
       return;
     }
 
@@ -450,14 +615,18 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
       final Marker marker, final Level level, final String msg,
       final Object param1, final Object param2, final Throwable t) {
 
-    final FilterReply decision = loggerContext.getTurboFilterChainDecision_2(
-        marker, this, level, msg, param1, param2, t);
+    FilterReply decision = getStaticTurboFilterDecision(marker, level);
+    if (decision == null) {
+      decision = loggerContext.getTurboFilterChainDecision_2(
+          marker, this, level, msg, param1, param2, t);
+    }
 
     if (decision == FilterReply.NEUTRAL) {
       if (effectiveLevelInt > level.levelInt) {
         return;
       }
     } else if (decision == FilterReply.DENY) {
+      countDenied(level);
       return;
     }
 
@@ -468,11 +637,94 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
   private void buildLoggingEventAndAppend(final String localFQCN,
       final Marker marker, final Level level, final String msg,
       final Object[] params, final Throwable t) {
+    LoggerStatistics s = statistics;
+    if (s != null) {
+      s.record(LoggerStatistics.ENABLED, level);
+    }
     LoggingEvent le = new LoggingEvent(localFQCN, this, level, msg, t, params);
     le.setMarker(marker);
     callAppenders(le);
   }
 
+  private void countDenied(final Level level) {
+    LoggerStatistics s = statistics;
+    if (s != null) {
+      s.record(LoggerStatistics.DENIED, level);
+    }
+  }
+
+  /**
+   * Create or discard the statistics of this logger and its descendants.
+   * Statistics already present are kept when enabling.
+   */
+  void setStatisticsEnabled(boolean enabled) {
+    List<Logger> children;
+    synchronized (this) {
+      if (!enabled) {
+        statistics = null;
+      } else if (statistics == null) {
+        statistics = new LoggerStatistics();
+      }
+      // children are added while holding the lock on their parent, and read
+      // the setting of the context once created
+      if (childrenList == null) {
+        return;
+      }
+      children = new ArrayList<Logger>(childrenList);
+    }
+    for (Logger child : children) {
+      child.setStatisticsEnabled(enabled);
+    }
+  }
+
+  /**
+   * @return the statistics of this logger, null if disabled
+   */
+  public LoggerStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Sum the counts of this logger and its descendants, adding a summary to
+   * <code>summaryList</code> for this logger and each descendant having
+   * counted events.
+   * 
+   * @return the counts of this logger and its descendants
+   */
+  long[] collectStatistics(List<LoggerStatisticsSummary> summaryList) {
+    long[] ownCounts = new long[LoggerStatistics.COUNT_LENGTH];
+    LoggerStatistics s = statistics;
+    if (s != null) {
+      s.addTo(ownCounts);
+    }
+    List<Logger> children = null;
+    synchronized (this) {
+      if (childrenList != null) {
+        children = new ArrayList<Logger>(childrenList);
+      }
+    }
+    long[] counts = ownCounts.clone();
+    if (children != null) {
+      for (Logger child : children) {
+        long[] childCounts = child.collectStatistics(summaryList);
+        for (int i = 0; i < counts.length; i++) {
+          counts[i] += childCounts[i];
+        }
+      }
+    }
+    boolean empty = true;
+    for (long c : counts) {
+      if (c != 0) {
+        empty = false;
+        break;
+      }
+    }
+    if (!empty) {
+      summaryList.add(new LoggerStatisticsSummary(name, counts, ownCounts));
+    }
+    return counts;
+  }
+
   public void trace(String msg) {
     filterAndLog_0_Or3Plus(FQCN, null, Level.TRACE, msg, null, null);
   }
@@ -781,6 +1033,11 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
   }
 
   public void setAdditive(boolean additive) {
+    StagedConfiguration staged = loggerContext.getStagedConfiguration();
+    if (staged != null) {
+      staged.setAdditive(this, additive);
+      return;
+    }
     this.additive = additive;
   }
 
@@ -800,10 +1057,101 @@ public final class Logger implements org.slf4j.Logger, LocationAwareLogger,
    * @return the reply given by the TurboFilters
    */
   private FilterReply callTurboFilters(Marker marker, Level level) {
+    FilterReply decision = getStaticTurboFilterDecision(marker, level);
+    if (decision != null) {
+      return decision;
+    }
     return loggerContext.getTurboFilterChainDecision_0_3OrMore(marker, this,
         level, null, null, null);
   }
 
+  /**
+   * Returns the decision of the turbo filter chain if it is known in advance
+   * for this logger and level, or null if the chain needs to be invoked.
+   */
+  private FilterReply getStaticTurboFilterDecision(final Marker marker,
+      final Level level) {
+    if (marker != null) {
+      return null;
+    }
+    StaticTurboFilterDecisions decisions = staticTurboFilterDecisions;
+    if (decisions == null || !decisions.isCurrent()) {
+      decisions = new StaticTurboFilterDecisions(this);
+      staticTurboFilterDecisions = decisions;
+    }
+    return decisions.get(level);
+  }
+
+  /**
+   * The appenders of a logger from a given appender generation of its context
+   * onwards, chained to those used by events of earlier generations.
+   */
+  private static final class AppenderBinding {
+    final long generation;
+    final AppenderAttachableImpl<ILoggingEvent> aai;
+    final AppenderBinding previous;
+
+    AppenderBinding(long generation, AppenderAttachableImpl<ILoggingEvent> aai,
+        AppenderBinding previous) {
+      this.generation = generation;
+      this.aai = aai;
+      this.previous = previous;
+    }
+  }
+
+  /**
+   * Immutable snapshot of the decisions of the turbo filter chain which are
+   * known in advance for a given logger, indexed by level. A snapshot is valid
+   * for as long as the chain is not modified.
+   */
+  private static final class StaticTurboFilterDecisions {
+    final TurboFilterList turboFilterList;
+    final int generation;
+    final FilterReply trace;
+    final FilterReply debug;
+    final FilterReply info;
+    final FilterReply warn;
+    final FilterReply error;
+
+    StaticTurboFilterDecisions(Logger logger) {
+      this.turboFilterList = logger.loggerContext.getTurboFilterList();
+      // read the generation first so that a concurrent modification of the
+      // chain results in an outdated, rather than a wrong, snapshot
+      this.generation = turboFilterList.getGeneration();
+      this.trace = turboFilterList.getStaticTurboFilterChainDecision(logger,
+          Level.TRACE);
+      this.debug = turboFilterList.getStaticTurboFilterChainDecision(logger,
+          Level.DEBUG);
+      this.info = turboFilterList.getStaticTurboFilterChainDecision(logger,
+          Level.INFO);
+      this.warn = turboFilterList.getStaticTurboFilterChainDecision(logger,
+          Level.WARN);
+      this.error = turboFilterList.getStaticTurboFilterChainDecision(logger,
+          Level.ERROR);
+    }
+
+    boolean isCurrent() {
+      return generation == turboFilterList.getGeneration();
+    }
+
+    FilterReply get(Level level) {
+      switch (level.levelInt) {
+      case Level.TRACE_INT:
+        return trace;
+      case Level.DEBUG_INT:
+        return debug;
+      case Level.INFO_INT:
+        return info;
+      case Level.WARN_INT:
+        return warn;
+      case Level.ERROR_INT:
+        return error;
+      default:
+        return null;
+      }
+    }
+  }
+
   /**
    * Return the context for this logger.
    * 
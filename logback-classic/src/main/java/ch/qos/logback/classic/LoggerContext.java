@@ -18,20 +18,35 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.ILoggerFactory;
 import org.slf4j.Marker;
 
+import ch.qos.logback.classic.spi.CallerDataExtractor;
+import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.LoggerComparator;
 import ch.qos.logback.classic.spi.LoggerContextListener;
 import ch.qos.logback.classic.spi.LoggerContextVO;
+import ch.qos.logback.classic.spi.LoggerStatistics;
+import ch.qos.logback.classic.spi.LoggerStatisticsSummary;
+import ch.qos.logback.classic.spi.ThrowableProxyCache;
 import ch.qos.logback.classic.spi.TurboFilterList;
 import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.ContextBase;
 import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.metrics.StripedCounter;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
 import ch.qos.logback.core.spi.FilterReply;
 import ch.qos.logback.core.spi.LifeCycle;
+import ch.qos.logback.core.status.InfoStatus;
 import ch.qos.logback.core.status.StatusListener;
 import ch.qos.logback.core.status.StatusManager;
 import ch.qos.logback.core.status.WarnStatus;
@@ -48,6 +63,12 @@ import ch.qos.logback.core.status.WarnStatus;
 public class LoggerContext extends ContextBase implements ILoggerFactory,
     LifeCycle {
 
+  /**
+   * The longest time, in milliseconds, a commit waits for the events which
+   * are being appended by the previous appenders.
+   */
+  static final long DEFAULT_MAX_QUIESCENCE_WAIT = 10 * 1000;
+
   final Logger root;
   private int size;
   private int noAppenderWarning = 0;
@@ -64,6 +85,34 @@ public class LoggerContext extends ContextBase implements ILoggerFactory,
   private boolean packagingDataEnabled = true;
 
   private int maxCallerDataDepth = ClassicConstants.DEFAULT_MAX_CALLEDER_DATA_DEPTH;
+  private int callerDataCacheSize = 0;
+  private int callerDataSamplingPeriod = 1;
+  private volatile CallerDataExtractor callerDataExtractor = new CallerDataExtractor(
+      maxCallerDataDepth, callerDataCacheSize, callerDataSamplingPeriod);
+  private int throwableProxyCacheSize = ThrowableProxyCache.DEFAULT_MAX_SIZE;
+  private volatile ThrowableProxyCache throwableProxyCache = new ThrowableProxyCache(
+      throwableProxyCacheSize);
+
+  // held by the thread reconfiguring this context, see beginReconfiguration()
+  private final ReentrantLock reconfigurationLock = new ReentrantLock();
+  private volatile StagedConfiguration stagedConfiguration;
+  // the appenders of loggers used by new events, see commitReconfiguration()
+  private volatile AppenderGeneration appenderGeneration = new AppenderGeneration(
+      0);
+  // the number of events the current thread is appending, so that a commit
+  // made by an appender or a listener does not wait for itself
+  private final ThreadLocal<int[]> appendingDepth = new ThreadLocal<int[]>() {
+    @Override
+    protected int[] initialValue() {
+      return new int[1];
+    }
+  };
+  long maxQuiescenceWait = DEFAULT_MAX_QUIESCENCE_WAIT;
+
+  private volatile boolean loggerStatisticsEnabled = false;
+  private volatile boolean appenderMetricsEnabled = false;
+  private long loggerStatisticsReportPeriod = 0;
+  private ScheduledFuture<?> loggerStatisticsReportFuture;
 
   boolean started = false;
 
@@ -89,6 +138,10 @@ public class LoggerContext extends ContextBase implements ILoggerFactory,
    * name or propertyMap (including keys or values) changes.
    */
   private void syncRemoteView() {
+    if (getStagedConfiguration() != null) {
+      // synced once the reconfiguration is committed
+      return;
+    }
     loggerContextRemoteView = new LoggerContextVO(this);
     for (Logger logger : loggerCache.values()) {
       logger.buildRemoteView();
@@ -222,11 +275,255 @@ public class LoggerContext extends ContextBase implements ILoggerFactory,
     initEvaluatorMap();
     root.recursiveReset();
     resetTurboFilterList();
+    rebuildCallerDataExtractor();
+    rebuildThrowableProxyCache();
     fireOnReset();
     resetListenersExceptResetResistant();
     resetStatusListeners();
   }
 
+  /**
+   * Start reconfiguring this context from the calling thread, which is
+   * expected to run a configurator on this context and then to invoke either
+   * {@link #commitReconfiguration()} or {@link #abortReconfiguration()}.
+   * 
+   * <p>
+   * Properties and objects are cleared as by {@link #reset()}. However, until
+   * the reconfiguration is committed, the levels, additivity flags and
+   * appenders set on loggers by the calling thread, as well as the turbo
+   * filters it adds, are only recorded. In the meantime, logging proceeds
+   * with the current appenders and turbo filters, and the current listeners
+   * are kept.
+   * 
+   * <p>
+   * Concurrent reconfigurations are serialized: this method blocks for as
+   * long as another thread is reconfiguring this context.
+   * 
+   * @since 0.9.31
+   */
+  public void beginReconfiguration() {
+    if (getStagedConfiguration() != null) {
+      throw new IllegalStateException("Context [" + getName()
+          + "] is already being reconfigured by the current thread");
+    }
+    reconfigurationLock.lock();
+    StagedConfiguration staged = new StagedConfiguration(
+        getCopyOfPropertyMap(), getCopyOfObjectMap(), getCopyOfListenerList(),
+        getStatusManager().getCopyOfStatusListenerList());
+    super.reset();
+    initEvaluatorMap();
+    stagedConfiguration = staged;
+  }
+
+  /**
+   * Publish the configuration recorded since {@link #beginReconfiguration()}.
+   * The new turbo filters replace the old ones in a single step. The new
+   * appenders of all loggers are bound to a new appender generation which is
+   * then published at once, so that each event is appended either by the old
+   * appenders or by the new ones of every logger, never by a mix of both.
+   * Once the events of the previous generation are appended, the context
+   * listeners which were registered before the reconfiguration are notified
+   * of the reset, and those which are not reset resistant are removed, along
+   * with the previous status listeners. The old appenders and turbo filters
+   * are stopped last. The commit waits at most
+   * {@value #DEFAULT_MAX_QUIESCENCE_WAIT} milliseconds for a blocked old
+   * appender, and never for the events appended by the calling thread, e.g.
+   * when an appender triggers the reconfiguration.
+   * 
+   * <p>
+   * A level set by another thread, e.g. through JMX, while the
+   * reconfiguration was staged is kept unless the new configuration sets the
+   * level of the same logger, in which case a warning is reported.
+   * 
+   * @since 0.9.31
+   */
+  public void commitReconfiguration() {
+    StagedConfiguration staged = checkReconfiguring();
+    try {
+      List<AppenderAttachableImpl<ILoggingEvent>> retiredList = new ArrayList<AppenderAttachableImpl<ILoggingEvent>>();
+      List<Logger> levelChangedList = new ArrayList<Logger>();
+      List<TurboFilter> oldTurboFilterList = new ArrayList<TurboFilter>(
+          turboFilterList);
+      AppenderGeneration previousGeneration = appenderGeneration;
+
+      turboFilterList.replaceWith(staged.turboFilterList);
+      // levels set by other threads are recorded until the walk completes
+      root.applyStagedSettings(staged, previousGeneration.number + 1,
+          retiredList, levelChangedList);
+      stagedConfiguration = null;
+      appenderGeneration = new AppenderGeneration(
+          previousGeneration.number + 1);
+      boolean quiescent = previousGeneration.awaitQuiescence(appendingDepth
+          .get()[0], maxQuiescenceWait);
+      if (!quiescent) {
+        getStatusManager().add(
+            new WarnStatus("Events still being appended after "
+                + maxQuiescenceWait + " ms, stopping the previous appenders "
+                + "of context [" + getName() + "] in the background", this));
+      }
+      root.dropPreviousAppenders();
+
+      for (LoggerContextListener listener : staged.previousListenerList) {
+        listener.onReset(this);
+      }
+      for (LoggerContextListener listener : staged.previousListenerList) {
+        if (!listener.isResetResistant()) {
+          loggerContextListenerList.remove(listener);
+        }
+      }
+      for (StatusListener sl : staged.previousStatusListenerList) {
+        getStatusManager().remove(sl);
+      }
+      syncRemoteView();
+      rebuildCallerDataExtractor();
+      rebuildThrowableProxyCache();
+
+      for (Logger logger : levelChangedList) {
+        fireOnLevelChange(logger, logger.getLevel());
+      }
+      if (quiescent) {
+        stopRetiredAppenders(retiredList, staged.getAppenderSet());
+      } else {
+        // stopping a blocked appender waits for its lock
+        stopRetiredAppendersInBackground(retiredList, staged.getAppenderSet());
+      }
+      for (TurboFilter tf : oldTurboFilterList) {
+        if (!staged.turboFilterList.contains(tf)) {
+          tf.stop();
+        }
+      }
+    } finally {
+      stagedConfiguration = null;
+      reconfigurationLock.unlock();
+    }
+  }
+
+  /**
+   * Discard the configuration recorded since {@link #beginReconfiguration()}
+   * and stop the appenders and turbo filters it created. The loggers keep
+   * their current configuration, the properties and objects cleared when the
+   * reconfiguration began are restored, and the listeners registered since
+   * then are removed.
+   * 
+   * @since 0.9.31
+   */
+  public void abortReconfiguration() {
+    StagedConfiguration staged = checkReconfiguring();
+    stagedConfiguration = null;
+    try {
+      for (Appender<ILoggingEvent> appender : staged.getAppenderSet().keySet()) {
+        appender.stop();
+      }
+      for (TurboFilter tf : staged.turboFilterList) {
+        tf.stop();
+      }
+      super.reset();
+      for (Map.Entry<String, String> entry : staged.previousPropertyMap
+          .entrySet()) {
+        super.putProperty(entry.getKey(), entry.getValue());
+      }
+      for (Map.Entry<String, Object> entry : staged.previousObjectMap
+          .entrySet()) {
+        putObject(entry.getKey(), entry.getValue());
+      }
+      syncRemoteView();
+      loggerContextListenerList.clear();
+      loggerContextListenerList.addAll(staged.previousListenerList);
+      resetStatusListeners();
+      for (StatusListener sl : staged.previousStatusListenerList) {
+        getStatusManager().add(sl);
+      }
+    } finally {
+      reconfigurationLock.unlock();
+    }
+  }
+
+  private StagedConfiguration checkReconfiguring() {
+    StagedConfiguration staged = getStagedConfiguration();
+    if (staged == null) {
+      throw new IllegalStateException("Context [" + getName()
+          + "] is not being reconfigured by the current thread");
+    }
+    return staged;
+  }
+
+  /**
+   * Record that <code>logger</code>'s level was set by a thread other than the
+   * one reconfiguring this context, if any, so that the commit keeps it.
+   */
+  void recordLevelChangeDuringReconfiguration(Logger logger, Level level) {
+    StagedConfiguration staged = stagedConfiguration;
+    if (staged != null && !staged.isOwnedByCurrentThread()) {
+      staged.recordConcurrentLevel(logger, level);
+    }
+  }
+
+  /**
+   * Enter the current appender generation. The caller must invoke
+   * {@link #exitAppenderGeneration(AppenderGeneration)} once it is done
+   * appending.
+   */
+  AppenderGeneration enterAppenderGeneration() {
+    while (true) {
+      AppenderGeneration generation = appenderGeneration;
+      generation.inFlight.increment();
+      if (generation == appenderGeneration) {
+        appendingDepth.get()[0]++;
+        return generation;
+      }
+      // a reconfiguration published a new generation in the meantime
+      generation.inFlight.add(-1);
+    }
+  }
+
+  void exitAppenderGeneration(AppenderGeneration generation) {
+    appendingDepth.get()[0]--;
+    generation.inFlight.add(-1);
+  }
+
+  /**
+   * @return the configuration staged by the current thread, or null if the
+   *         current thread is not reconfiguring this context
+   */
+  StagedConfiguration getStagedConfiguration() {
+    StagedConfiguration staged = stagedConfiguration;
+    if (staged != null && staged.isOwnedByCurrentThread()) {
+      return staged;
+    }
+    return null;
+  }
+
+  private void stopRetiredAppenders(
+      List<AppenderAttachableImpl<ILoggingEvent>> retiredList,
+      Map<Appender<ILoggingEvent>, Boolean> retainedAppenderSet) {
+    // the retired lists are no longer reachable by new events, and an
+    // appender may be attached to several loggers
+    Map<Appender<ILoggingEvent>, Boolean> detached = new IdentityHashMap<Appender<ILoggingEvent>, Boolean>();
+    for (AppenderAttachableImpl<ILoggingEvent> retired : retiredList) {
+      Iterator<Appender<ILoggingEvent>> it = retired.iteratorForAppenders();
+      while (it.hasNext()) {
+        detached.put(it.next(), Boolean.TRUE);
+      }
+    }
+    for (Appender<ILoggingEvent> appender : detached.keySet()) {
+      if (!retainedAppenderSet.containsKey(appender)) {
+        appender.stop();
+      }
+    }
+  }
+  private void stopRetiredAppendersInBackground(
+      final List<AppenderAttachableImpl<ILoggingEvent>> retiredList,
+      final Map<Appender<ILoggingEvent>, Boolean> retainedAppenderSet) {
+    Thread thread = new Thread(new Runnable() {
+      public void run() {
+        stopRetiredAppenders(retiredList, retainedAppenderSet);
+      }
+    }, "logback-stop-appenders-" + getName());
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+
   private void resetStatusListeners() {
     StatusManager sm = getStatusManager();
     for (StatusListener sl : sm.getCopyOfStatusListenerList()) {
@@ -239,6 +536,11 @@ public class LoggerContext extends ContextBase implements ILoggerFactory,
   }
 
   public void addTurboFilter(TurboFilter newFilter) {
+    StagedConfiguration staged = getStagedConfiguration();
+    if (staged != null) {
+      staged.addTurboFilter(newFilter);
+      return;
+    }
     turboFilterList.add(newFilter);
   }
 
@@ -283,6 +585,47 @@ public class LoggerContext extends ContextBase implements ILoggerFactory,
         format, new Object[] { param1, param2 }, t);
   }
 
+  /**
+   * The appenders of loggers bound by a given commit of a reconfiguration,
+   * together with the number of events being appended by them.
+   */
+  static final class AppenderGeneration {
+    final long number;
+    // counted per thread, so that the sum of a stripe never drops below the
+    // number of its threads which entered before the next generation
+    final StripedCounter inFlight = new StripedCounter();
+
+    AppenderGeneration(long number) {
+      this.number = number;
+    }
+
+    /**
+     * Wait for the events which entered this generation to be appended, except
+     * for the <code>ownEvents</code> the current thread is appending. Must be
+     * invoked after a newer generation is published.
+     * 
+     * @return false if events were still being appended after
+     *         <code>maxWait</code> milliseconds
+     */
+    boolean awaitQuiescence(int ownEvents, long maxWait) {
+      long deadline = System.currentTimeMillis() + maxWait;
+      boolean interrupted = false;
+      boolean quiescent;
+      while (!(quiescent = inFlight.sum() <= ownEvents)
+          && System.currentTimeMillis() < deadline) {
+        try {
+          Thread.sleep(1);
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+      return quiescent;
+    }
+  }
+
   // === start listeners ==============================================
   public void addListener(LoggerContextListener listener) {
     loggerContextListenerList.add(listener);
@@ -350,6 +693,8 @@ public class LoggerContext extends ContextBase implements ILoggerFactory,
     reset();
     fireOnStop();
     resetAllListeners();
+    cancelLoggerStatisticsReport();
+    stopScheduledExecutorService();
     started = false;
   }
 
@@ -364,5 +709,184 @@ public class LoggerContext extends ContextBase implements ILoggerFactory,
 
   public void setMaxCallerDataDepth(int maxCallerDataDepth) {
     this.maxCallerDataDepth = maxCallerDataDepth;
+    rebuildCallerDataExtractor();
+  }
+
+  public int getCallerDataCacheSize() {
+    return callerDataCacheSize;
+  }
+
+  /**
+   * The maximum number of call sites whose caller data is cached. Caching is
+   * disabled if zero, which is the default. See {@link CallerDataExtractor}
+   * for the limitations of caching.
+   * 
+   * <p>Together with {@link #setCallerDataSamplingPeriod(int) sampling}, this
+   * is the way to reduce the cost of caller data, which otherwise
+   * materializes the stack trace of every event. Both can be set in
+   * configuration files, e.g.
+   * <code>&lt;callerDataCacheSize>256&lt;/callerDataCacheSize></code> within
+   * the <code>configuration</code> element.
+   * 
+   * @since 0.9.31
+   */
+  public void setCallerDataCacheSize(int callerDataCacheSize) {
+    this.callerDataCacheSize = callerDataCacheSize;
+    rebuildCallerDataExtractor();
+  }
+
+  public int getCallerDataSamplingPeriod() {
+    return callerDataSamplingPeriod;
+  }
+
+  /**
+   * If larger than 1, caller data is computed for only one event in
+   * <code>callerDataSamplingPeriod</code>, except for cached call sites.
+   * 
+   * @since 0.9.31
+   */
+  public void setCallerDataSamplingPeriod(int callerDataSamplingPeriod) {
+    this.callerDataSamplingPeriod = callerDataSamplingPeriod;
+    rebuildCallerDataExtractor();
+  }
+
+  public CallerDataExtractor getCallerDataExtractor() {
+    return callerDataExtractor;
+  }
+
+  public int getThrowableProxyCacheSize() {
+    return throwableProxyCacheSize;
+  }
+
+  /**
+   * The maximum number of throwable fingerprints retained in order to share
+   * frame data between structurally identical throwables. Zero disables
+   * sharing. See {@link ThrowableProxyCache}.
+   * 
+   * @since 0.9.31
+   */
+  public void setThrowableProxyCacheSize(int throwableProxyCacheSize) {
+    this.throwableProxyCacheSize = throwableProxyCacheSize;
+    rebuildThrowableProxyCache();
+  }
+
+  /**
+   * @return the cache used to build throwable proxies, null if disabled
+   */
+  public ThrowableProxyCache getThrowableProxyCache() {
+    return throwableProxyCache;
+  }
+
+  private void rebuildThrowableProxyCache() {
+    if (throwableProxyCacheSize > 0) {
+      throwableProxyCache = new ThrowableProxyCache(throwableProxyCacheSize);
+    } else {
+      throwableProxyCache = null;
+    }
+  }
+
+  private void rebuildCallerDataExtractor() {
+    callerDataExtractor = new CallerDataExtractor(maxCallerDataDepth,
+        callerDataCacheSize, callerDataSamplingPeriod);
+  }
+
+  public boolean isAppenderMetricsEnabled() {
+    return appenderMetricsEnabled;
+  }
+
+  /**
+   * Whether the {@link ch.qos.logback.classic.jmx.JMXConfigurator} instances
+   * of this context attach metrics to the appenders of loggers. Kept across
+   * resets and reconfigurations, so that a configurator created by a new
+   * configuration inherits it.
+   * 
+   * @since 0.9.31
+   */
+  public void setAppenderMetricsEnabled(boolean appenderMetricsEnabled) {
+    this.appenderMetricsEnabled = appenderMetricsEnabled;
+  }
+
+  public boolean isLoggerStatisticsEnabled() {
+    return loggerStatisticsEnabled;
+  }
+
+  /**
+   * Whether loggers count the events they enable, append and deny, see
+   * {@link LoggerStatistics}. Disabling statistics discards the counts
+   * gathered so far. Statistics survive resets of this context.
+   * 
+   * @since 0.9.31
+   */
+  public void setLoggerStatisticsEnabled(boolean loggerStatisticsEnabled) {
+    this.loggerStatisticsEnabled = loggerStatisticsEnabled;
+    root.setStatisticsEnabled(loggerStatisticsEnabled);
+  }
+
+  /**
+   * Aggregate the statistics of each logger with those of its descendants.
+   * 
+   * @return the summaries of at most <code>count</code> loggers, ordered by
+   *         decreasing number of events enabled by the logger and its
+   *         descendants
+   * @since 0.9.31
+   */
+  public List<LoggerStatisticsSummary> getNoisiestLoggers(int count) {
+    List<LoggerStatisticsSummary> summaryList = new ArrayList<LoggerStatisticsSummary>();
+    root.collectStatistics(summaryList);
+    Collections.sort(summaryList, LoggerStatisticsSummary.NOISIEST_FIRST);
+    if (summaryList.size() > count) {
+      return new ArrayList<LoggerStatisticsSummary>(summaryList.subList(0,
+          Math.max(count, 0)));
+    }
+    return summaryList;
+  }
+
+  public synchronized long getLoggerStatisticsReportPeriod() {
+    return loggerStatisticsReportPeriod;
+  }
+
+  /**
+   * If positive, the noisiest loggers are reported as an info status every
+   * <code>loggerStatisticsReportPeriod</code> milliseconds, for as long as
+   * statistics are enabled. Zero, the default, disables reporting.
+   * 
+   * @since 0.9.31
+   */
+  public synchronized void setLoggerStatisticsReportPeriod(
+      long loggerStatisticsReportPeriod) {
+    cancelLoggerStatisticsReport();
+    this.loggerStatisticsReportPeriod = loggerStatisticsReportPeriod;
+    if (loggerStatisticsReportPeriod > 0) {
+      loggerStatisticsReportFuture = getScheduledExecutorService()
+          .scheduleAtFixedRate(new LoggerStatisticsReporter(),
+              loggerStatisticsReportPeriod, loggerStatisticsReportPeriod,
+              TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private synchronized void cancelLoggerStatisticsReport() {
+    if (loggerStatisticsReportFuture != null) {
+      loggerStatisticsReportFuture.cancel(false);
+      loggerStatisticsReportFuture = null;
+    }
+  }
+
+  String buildLoggerStatisticsReport(int count) {
+    StringBuilder sb = new StringBuilder("Noisiest loggers in context [");
+    sb.append(getName()).append("]:");
+    for (LoggerStatisticsSummary summary : getNoisiestLoggers(count)) {
+      sb.append(CoreConstants.LINE_SEPARATOR).append("  ").append(summary);
+    }
+    return sb.toString();
+  }
+
+  class LoggerStatisticsReporter implements Runnable {
+    public void run() {
+      if (!loggerStatisticsEnabled) {
+        return;
+      }
+      String report = buildLoggerStatisticsReport(ClassicConstants.DEFAULT_NOISIEST_LOGGER_COUNT);
+      getStatusManager().add(new InfoStatus(report, LoggerContext.this));
+    }
   }
 }
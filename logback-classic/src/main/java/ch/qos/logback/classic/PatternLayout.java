@@ -19,6 +19,7 @@ import java.util.Map;
 import ch.qos.logback.classic.joran.action.ContextNameAction;
 import ch.qos.logback.classic.pattern.CallerDataConverter;
 import ch.qos.logback.classic.pattern.ClassOfCallerConverter;
+import ch.qos.logback.classic.pattern.CollapsedThrowableProxyConverter;
 import ch.qos.logback.classic.pattern.ContextNameConverter;
 import ch.qos.logback.classic.pattern.PropertyConverter;
 import ch.qos.logback.classic.pattern.DateConverter;
@@ -113,6 +114,10 @@ public class PatternLayout extends PatternLayoutBase<ILoggingEvent> {
     defaultConverterMap.put("xThrowable", ExtendedThrowableProxyConverter.class
         .getName());
 
+    defaultConverterMap.put("cEx", CollapsedThrowableProxyConverter.class.getName());
+    defaultConverterMap.put("collapsedException", CollapsedThrowableProxyConverter.class
+        .getName());
+
     defaultConverterMap.put("nopex", NopThrowableInformationConverter.class
         .getName());
     defaultConverterMap.put("nopexception",
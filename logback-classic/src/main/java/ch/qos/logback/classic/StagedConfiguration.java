@@ -0,0 +1,129 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggerContextListener;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.status.StatusListener;
+
+/**
+ * Logger settings and turbo filters collected while a {@link LoggerContext} is
+ * being reconfigured, together with the state of the context needed to undo
+ * an aborted reconfiguration. Only the thread which started the
+ * reconfiguration may access an instance, except for the levels set
+ * concurrently by other threads.
+ * 
+ * @see LoggerContext#beginReconfiguration()
+ */
+final class StagedConfiguration {
+
+  final Thread owner = Thread.currentThread();
+
+  final Map<Logger, LoggerSettings> loggerSettingsMap = new IdentityHashMap<Logger, LoggerSettings>();
+  final List<TurboFilter> turboFilterList = new ArrayList<TurboFilter>();
+  // levels set by other threads while the reconfiguration is staged
+  final Map<Logger, Level> concurrentLevelMap = Collections
+      .synchronizedMap(new IdentityHashMap<Logger, Level>());
+
+  // state of the context prior to the reconfiguration, restored on abort
+  final Map<String, String> previousPropertyMap;
+  final Map<String, Object> previousObjectMap;
+  final List<LoggerContextListener> previousListenerList;
+  final List<StatusListener> previousStatusListenerList;
+
+  StagedConfiguration(Map<String, String> previousPropertyMap,
+      Map<String, Object> previousObjectMap,
+      List<LoggerContextListener> previousListenerList,
+      List<StatusListener> previousStatusListenerList) {
+    this.previousPropertyMap = previousPropertyMap;
+    this.previousObjectMap = previousObjectMap;
+    this.previousListenerList = previousListenerList;
+    this.previousStatusListenerList = previousStatusListenerList;
+  }
+
+  boolean isOwnedByCurrentThread() {
+    return owner == Thread.currentThread();
+  }
+
+  LoggerSettings getLoggerSettings(Logger logger) {
+    return loggerSettingsMap.get(logger);
+  }
+
+  private LoggerSettings getOrCreateLoggerSettings(Logger logger) {
+    LoggerSettings settings = loggerSettingsMap.get(logger);
+    if (settings == null) {
+      settings = new LoggerSettings();
+      loggerSettingsMap.put(logger, settings);
+    }
+    return settings;
+  }
+
+  void setLevel(Logger logger, Level level) {
+    LoggerSettings settings = getOrCreateLoggerSettings(logger);
+    settings.levelSet = true;
+    settings.level = level;
+  }
+
+  void setAdditive(Logger logger, boolean additive) {
+    getOrCreateLoggerSettings(logger).additive = additive;
+  }
+
+  void addAppender(Logger logger, Appender<ILoggingEvent> appender) {
+    List<Appender<ILoggingEvent>> appenderList = getOrCreateLoggerSettings(logger).appenderList;
+    if (!appenderList.contains(appender)) {
+      appenderList.add(appender);
+    }
+  }
+
+  void recordConcurrentLevel(Logger logger, Level level) {
+    concurrentLevelMap.put(logger, level);
+  }
+
+  boolean isLevelSetConcurrently(Logger logger) {
+    return concurrentLevelMap.containsKey(logger);
+  }
+
+  void addTurboFilter(TurboFilter turboFilter) {
+    turboFilterList.add(turboFilter);
+  }
+
+  /**
+   * @return the distinct appenders attached to any logger
+   */
+  Map<Appender<ILoggingEvent>, Boolean> getAppenderSet() {
+    Map<Appender<ILoggingEvent>, Boolean> appenderSet = new IdentityHashMap<Appender<ILoggingEvent>, Boolean>();
+    for (LoggerSettings settings : loggerSettingsMap.values()) {
+      for (Appender<ILoggingEvent> appender : settings.appenderList) {
+        appenderSet.put(appender, Boolean.TRUE);
+      }
+    }
+    return appenderSet;
+  }
+
+  // ================================================================
+  static final class LoggerSettings {
+    boolean levelSet;
+    Level level;
+    boolean additive = true;
+    final List<Appender<ILoggingEvent>> appenderList = new ArrayList<Appender<ILoggingEvent>>();
+  }
+}
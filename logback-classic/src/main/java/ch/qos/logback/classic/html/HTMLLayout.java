@@ -73,7 +73,7 @@ public class HTMLLayout extends HTMLLayoutBase<ILoggingEvent> {
   }
 
   public String doLayout(ILoggingEvent event) {
-    StringBuilder buf = new StringBuilder();
+    StringBuilder buf = getLayoutBuffer();
     startNewTableIfLimitReached(buf);
 
     boolean odd = true;
@@ -110,7 +110,7 @@ public class HTMLLayout extends HTMLLayoutBase<ILoggingEvent> {
   private void appendEventToBuffer(StringBuilder buf,
       Converter<ILoggingEvent> c, ILoggingEvent event) {
     buf.append("<td class=\"");
-    buf.append(computeConverterName(c));
+    buf.append(getConverterName(c));
     buf.append("\">");
     c.write(buf, event);
     buf.append("</td>");
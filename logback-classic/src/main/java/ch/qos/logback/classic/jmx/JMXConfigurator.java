@@ -18,8 +18,10 @@ import java.io.FileNotFoundException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import javax.management.InstanceNotFoundException;
 import javax.management.MBeanRegistrationException;
@@ -30,9 +32,14 @@ import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.LoggerContextListener;
+import ch.qos.logback.classic.spi.LoggerStatisticsSummary;
 import ch.qos.logback.classic.util.ContextInitializer;
+import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.joran.spi.JoranException;
+import ch.qos.logback.core.metrics.AppenderMetrics;
+import ch.qos.logback.core.metrics.Instrumented;
 import ch.qos.logback.core.spi.ContextAwareBase;
 import ch.qos.logback.core.status.Status;
 import ch.qos.logback.core.status.StatusListener;
@@ -67,6 +74,9 @@ public class JMXConfigurator extends ContextAwareBase implements
 
   boolean started;
 
+  // names of the AppenderMetrics mbeans registered by this configurator
+  final List<ObjectName> appenderMetricsNameList = new ArrayList<ObjectName>();
+
   public JMXConfigurator(LoggerContext loggerContext, MBeanServer mbs,
       ObjectName objectName) {
     started = true;
@@ -82,6 +92,9 @@ public class JMXConfigurator extends ContextAwareBase implements
     } else {
       // register as a listener only if there are no homonyms
       loggerContext.addListener(this);
+      if (isAppenderMetricsEnabled()) {
+        instrumentAppenders();
+      }
     }
   }
 
@@ -139,16 +152,21 @@ public class JMXConfigurator extends ContextAwareBase implements
 
     addStatusListener(statusListenerAsList);
     addInfo("Resetting context: " + loggerContext.getName());
-    loggerContext.reset();
-    // after a reset the statusListenerAsList gets removed as a listener
-    addStatusListener(statusListenerAsList);
+    // the current configuration remains in use until the new one is committed
+    loggerContext.beginReconfiguration();
 
+    boolean committed = false;
     try {
       JoranConfigurator configurator = new JoranConfigurator();
       configurator.setContext(loggerContext);
       configurator.doConfigure(url);
+      loggerContext.commitReconfiguration();
+      committed = true;
       addInfo("Context: " + loggerContext.getName() + " reloaded.");
     } finally {
+      if (!committed) {
+        loggerContext.abortReconfiguration();
+      }
       removeStatusListener(statusListenerAsList);
       if (debug) {
         StatusPrinter.print(statusListenerAsList.getStatusList());
@@ -233,6 +251,109 @@ public class JMXConfigurator extends ContextAwareBase implements
     return list;
   }
 
+  public synchronized void setAppenderMetricsEnabled(boolean enabled) {
+    loggerContext.setAppenderMetricsEnabled(enabled);
+    if (enabled) {
+      instrumentAppenders();
+    } else {
+      uninstrumentAppenders();
+    }
+  }
+
+  public boolean isAppenderMetricsEnabled() {
+    return loggerContext.isAppenderMetricsEnabled();
+  }
+
+  public void setLoggerStatisticsEnabled(boolean enabled) {
+    loggerContext.setLoggerStatisticsEnabled(enabled);
+  }
+
+  public boolean isLoggerStatisticsEnabled() {
+    return loggerContext.isLoggerStatisticsEnabled();
+  }
+
+  public List<String> getNoisiestLoggers(int count) {
+    List<String> strList = new ArrayList<String>();
+    for (LoggerStatisticsSummary summary : loggerContext
+        .getNoisiestLoggers(count)) {
+      strList.add(summary.toString());
+    }
+    return strList;
+  }
+
+  public void setLoggerStatisticsReportPeriod(long millis) {
+    loggerContext.setLoggerStatisticsReportPeriod(millis);
+  }
+
+  public long getLoggerStatisticsReportPeriod() {
+    return loggerContext.getLoggerStatisticsReportPeriod();
+  }
+
+  /**
+   * Attach metrics to the appenders currently attached to loggers, registering
+   * them as MBeans. Appenders nested within other appenders are not
+   * instrumented.
+   */
+  synchronized void instrumentAppenders() {
+    unregisterAppenderMetrics();
+    for (Appender<ILoggingEvent> appender : findAttachedAppenders()) {
+      if (!(appender instanceof Instrumented)) {
+        continue;
+      }
+      Instrumented instrumented = (Instrumented) appender;
+      AppenderMetrics metrics = instrumented.getMetrics();
+      if (metrics == null) {
+        metrics = new AppenderMetrics();
+        instrumented.setMetrics(metrics);
+      }
+      String objectNameAsStr = MBeanUtil.getObjectNameFor(loggerContext
+          .getName(), AppenderMetrics.class, String.valueOf(appender.getName()));
+      ObjectName metricsName = MBeanUtil.string2ObjectName(loggerContext,
+          this, objectNameAsStr);
+      if (metricsName == null || mbs.isRegistered(metricsName)) {
+        continue;
+      }
+      try {
+        mbs.registerMBean(metrics, metricsName);
+        appenderMetricsNameList.add(metricsName);
+      } catch (Exception e) {
+        addError("Failed to register mbean [" + objectNameAsStr + "]", e);
+      }
+    }
+  }
+
+  synchronized void uninstrumentAppenders() {
+    unregisterAppenderMetrics();
+    for (Appender<ILoggingEvent> appender : findAttachedAppenders()) {
+      if (appender instanceof Instrumented) {
+        ((Instrumented) appender).setMetrics(null);
+      }
+    }
+  }
+
+  private void unregisterAppenderMetrics() {
+    for (ObjectName metricsName : appenderMetricsNameList) {
+      MBeanUtil.unregister(loggerContext, mbs, metricsName, this);
+    }
+    appenderMetricsNameList.clear();
+  }
+
+  private List<Appender<ILoggingEvent>> findAttachedAppenders() {
+    // the same appender is often attached to several loggers
+    Map<Appender<ILoggingEvent>, Boolean> map = new IdentityHashMap<Appender<ILoggingEvent>, Boolean>();
+    List<Appender<ILoggingEvent>> appenderList = new ArrayList<Appender<ILoggingEvent>>();
+    for (Logger logger : loggerContext.getLoggerList()) {
+      Iterator<Appender<ILoggingEvent>> it = logger.iteratorForAppenders();
+      while (it.hasNext()) {
+        Appender<ILoggingEvent> appender = it.next();
+        if (map.put(appender, Boolean.TRUE) == null) {
+          appenderList.add(appender);
+        }
+      }
+    }
+    return appenderList;
+  }
+
   /**
    * When the associated LoggerContext is stopped, this configurator must be
    * unregistered
@@ -243,6 +364,9 @@ public class JMXConfigurator extends ContextAwareBase implements
           + objectNameAsString + "]");
       return;
     }
+    synchronized (this) {
+      unregisterAppenderMetrics();
+    }
     if (mbs.isRegistered(objectName)) {
       try {
         addInfo("Unregistering mbean [" + objectNameAsString + "]");
@@ -267,6 +391,15 @@ public class JMXConfigurator extends ContextAwareBase implements
 
   public void onReset(LoggerContext context) {
     addInfo("onReset() method called JMXActivator [" + objectNameAsString + "]");
+    // the metrics of discarded appenders are no longer relevant, while those
+    // attached by a committed reconfiguration are instrumented in their place
+    synchronized (this) {
+      if (isAppenderMetricsEnabled()) {
+        instrumentAppenders();
+      } else {
+        unregisterAppenderMetrics();
+      }
+    }
   }
 
   /**
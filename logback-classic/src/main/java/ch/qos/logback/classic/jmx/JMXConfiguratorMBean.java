@@ -36,4 +36,28 @@ public interface JMXConfiguratorMBean {
   public List<String> getLoggerList();
   
   public List<String> getStatuses();
+
+  /**
+   * Attach {@link ch.qos.logback.core.metrics.AppenderMetrics} to each
+   * appender attached to a logger and register them as MBeans, or detach and
+   * unregister them.
+   */
+  public void setAppenderMetricsEnabled(boolean enabled);
+
+  public boolean isAppenderMetricsEnabled();
+
+  public void setLoggerStatisticsEnabled(boolean enabled);
+
+  public boolean isLoggerStatisticsEnabled();
+
+  /**
+   * @return a line per logger, listing at most <code>count</code> loggers by
+   *         decreasing number of events enabled by the logger and its
+   *         descendants
+   */
+  public List<String> getNoisiestLoggers(int count);
+
+  public void setLoggerStatisticsReportPeriod(long millis);
+
+  public long getLoggerStatisticsReportPeriod();
 }
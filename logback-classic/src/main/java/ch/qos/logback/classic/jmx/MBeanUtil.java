@@ -33,6 +33,25 @@ public class MBeanUtil {
     return objectNameAsStr;
   }
 
+  /**
+   * @return the name of an MBean of the given type describing the appender
+   *         named <code>appenderName</code>
+   */
+  static public String getObjectNameFor(String contextName, Class type,
+      String appenderName) {
+    return getObjectNameFor(contextName, type) + ",Appender="
+        + quoteIfNecessary(appenderName);
+  }
+
+  static String quoteIfNecessary(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      if (",=:\"*?\n".indexOf(value.charAt(i)) != -1) {
+        return ObjectName.quote(value);
+      }
+    }
+    return value;
+  }
+
   public static ObjectName string2ObjectName(Context context, Object caller,
       String objectNameAsStr) {
     String msg = "Failed to convert [" + objectNameAsStr + "] to ObjectName";
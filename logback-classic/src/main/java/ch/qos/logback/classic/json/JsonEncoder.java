@@ -0,0 +1,83 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.json;
+
+import java.io.IOException;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.EncoderBase;
+import ch.qos.logback.core.spi.ContextAware;
+
+/**
+ * Writes each event as a JSON object on a single line, in UTF-8. The fields
+ * to output are set with {@link #setFields(String)}, by default
+ * {@value JsonEventWriter#DEFAULT_FIELDS}.
+ * 
+ * <p>Events are encoded into a buffer reused from one event to the next, and
+ * written to the output stream without going through a String.
+ * 
+ * @since 0.9.31
+ */
+public class JsonEncoder extends EncoderBase<ILoggingEvent> {
+
+  String fields = JsonEventWriter.DEFAULT_FIELDS;
+  JsonEventWriter jsonEventWriter;
+  // the owning appender serializes calls to doEncode
+  final JsonOutput jsonOutput = new JsonOutput();
+
+  public String getFields() {
+    return fields;
+  }
+
+  /**
+   * A comma separated list of the fields to output, among timestamp, level,
+   * thread, logger, message, context, mdc, marker, caller and exception.
+   */
+  public void setFields(String fields) {
+    this.fields = fields;
+  }
+
+  @Override
+  public void start() {
+    jsonEventWriter = buildJsonEventWriter(this, fields);
+    if (jsonEventWriter != null) {
+      super.start();
+    }
+  }
+
+  public void doEncode(ILoggingEvent event) throws IOException {
+    jsonOutput.reset();
+    jsonEventWriter.write(jsonOutput, event);
+    jsonOutput.writeTo(outputStream);
+    outputStream.flush();
+  }
+
+  public void close() throws IOException {
+    // nothing to write
+  }
+
+  static JsonEventWriter buildJsonEventWriter(ContextAware contextAware,
+      String fields) {
+    if (fields == null) {
+      contextAware.addError("No fields specified");
+      return null;
+    }
+    try {
+      return new JsonEventWriter(JsonEventWriter.parseFields(fields));
+    } catch (IllegalArgumentException e) {
+      contextAware.addError(e.getMessage());
+      return null;
+    }
+  }
+}
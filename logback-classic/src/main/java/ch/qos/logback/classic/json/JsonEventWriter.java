@@ -0,0 +1,367 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.json;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import ch.qos.logback.core.CoreConstants;
+
+/**
+ * Writes logging events as JSON objects, one per line, into a
+ * {@link JsonOutput}.
+ * 
+ * <p>Only the fields passed to the constructor are written, in the given
+ * order. Field names and level names are written from precomputed bytes, and
+ * the MDC, marker, caller data and throwable are streamed into the output
+ * without building intermediary strings. The mdc, marker, caller and
+ * exception fields are omitted when the event has no such data.
+ * 
+ * <p>Instances are immutable and thread safe.
+ * 
+ * @since 0.9.31
+ */
+public class JsonEventWriter {
+
+  /**
+   * The fields which can be written, by name.
+   */
+  public enum Field {
+    TIMESTAMP("timestamp"), LEVEL("level"), THREAD("thread"), LOGGER("logger"), MESSAGE(
+        "message"), CONTEXT("context"), MDC("mdc"), MARKER("marker"), CALLER(
+        "caller"), EXCEPTION("exception");
+
+    final String jsonName;
+    final byte[] nameBytes;
+
+    Field(String jsonName) {
+      this.jsonName = jsonName;
+      this.nameBytes = nameBytes(jsonName);
+    }
+
+    public String getJsonName() {
+      return jsonName;
+    }
+
+    /**
+     * Return the field of the given name, ignoring case, or null.
+     */
+    public static Field valueOfJsonName(String name) {
+      for (Field f : values()) {
+        if (f.jsonName.equalsIgnoreCase(name)) {
+          return f;
+        }
+      }
+      return null;
+    }
+  }
+
+  public static final String DEFAULT_FIELDS = "timestamp, level, thread, logger, message, mdc, exception";
+
+  static final byte[] LINE_SEPARATOR_BYTES = JsonOutput
+      .asciiBytes(CoreConstants.LINE_SEPARATOR);
+
+  static final byte[] CLASS_NAME = nameBytes("class");
+  static final byte[] METHOD_NAME = nameBytes("method");
+  static final byte[] FILE_NAME = nameBytes("file");
+  static final byte[] LINE_NAME = nameBytes("line");
+  static final byte[] MESSAGE_NAME = nameBytes("message");
+  static final byte[] FRAMES_NAME = nameBytes("frames");
+  static final byte[] COMMON_FRAMES_NAME = nameBytes("commonFrames");
+  static final byte[] CAUSE_NAME = nameBytes("cause");
+
+  static final byte[] NATIVE_METHOD = JsonOutput.asciiBytes("(Native Method)");
+  static final byte[] UNKNOWN_SOURCE = JsonOutput.asciiBytes("(Unknown Source)");
+
+  // quoted names of the standard levels
+  static final byte[] TRACE_BYTES = levelBytes(Level.TRACE);
+  static final byte[] DEBUG_BYTES = levelBytes(Level.DEBUG);
+  static final byte[] INFO_BYTES = levelBytes(Level.INFO);
+  static final byte[] WARN_BYTES = levelBytes(Level.WARN);
+  static final byte[] ERROR_BYTES = levelBytes(Level.ERROR);
+
+  final Field[] fields;
+
+  public JsonEventWriter(Field[] fields) {
+    this.fields = fields.clone();
+  }
+
+  /**
+   * Parse a comma separated list of field names.
+   * 
+   * @throws IllegalArgumentException
+   *           if a name does not designate a field
+   */
+  public static Field[] parseFields(String fieldList) {
+    List<Field> result = new ArrayList<Field>();
+    for (String name : fieldList.split(",")) {
+      name = name.trim();
+      if (name.length() == 0) {
+        continue;
+      }
+      Field f = Field.valueOfJsonName(name);
+      if (f == null) {
+        throw new IllegalArgumentException("Unknown JSON field [" + name + "]");
+      }
+      result.add(f);
+    }
+    return result.toArray(new Field[result.size()]);
+  }
+
+  public Field[] getFields() {
+    return fields.clone();
+  }
+
+  /**
+   * Write <code>event</code> as a JSON object followed by a line separator.
+   */
+  public void write(JsonOutput out, ILoggingEvent event) {
+    out.writeByte('{');
+    boolean first = true;
+    for (Field field : fields) {
+      first = writeField(out, event, field, first);
+    }
+    out.writeByte('}');
+    out.writeBytes(LINE_SEPARATOR_BYTES);
+  }
+
+  /**
+   * @return true if nothing was written, i.e. if the next field is still the
+   *         first one
+   */
+  private boolean writeField(JsonOutput out, ILoggingEvent event, Field field,
+      boolean first) {
+    switch (field) {
+    case TIMESTAMP:
+      writeName(out, field.nameBytes, first);
+      out.writeNumber(event.getTimeStamp());
+      return false;
+    case LEVEL:
+      writeName(out, field.nameBytes, first);
+      writeLevel(out, event.getLevel());
+      return false;
+    case THREAD:
+      writeName(out, field.nameBytes, first);
+      out.writeString(event.getThreadName());
+      return false;
+    case LOGGER:
+      writeName(out, field.nameBytes, first);
+      out.writeString(event.getLoggerName());
+      return false;
+    case MESSAGE:
+      writeName(out, field.nameBytes, first);
+      out.writeString(event.getFormattedMessage());
+      return false;
+    case CONTEXT:
+      writeName(out, field.nameBytes, first);
+      out.writeString(event.getLoggerContextVO().getName());
+      return false;
+    case MDC:
+      Map<String, String> mdc = event.getMDCPropertyMap();
+      if (mdc == null || mdc.isEmpty()) {
+        return first;
+      }
+      writeName(out, field.nameBytes, first);
+      writeMDC(out, mdc);
+      return false;
+    case MARKER:
+      Marker marker = event.getMarker();
+      if (marker == null) {
+        return first;
+      }
+      writeName(out, field.nameBytes, first);
+      writeMarker(out, marker);
+      return false;
+    case CALLER:
+      StackTraceElement[] cda = event.getCallerData();
+      if (cda == null || cda.length == 0) {
+        return first;
+      }
+      writeName(out, field.nameBytes, first);
+      writeCaller(out, cda[0]);
+      return false;
+    case EXCEPTION:
+      IThrowableProxy tp = event.getThrowableProxy();
+      if (tp == null) {
+        return first;
+      }
+      writeName(out, field.nameBytes, first);
+      writeThrowableProxy(out, tp);
+      return false;
+    default:
+      return first;
+    }
+  }
+
+  static byte[] nameBytes(String name) {
+    return JsonOutput.asciiBytes('"' + name + "\":");
+  }
+
+  private static void writeName(JsonOutput out, byte[] nameBytes,
+      boolean first) {
+    if (!first) {
+      out.writeByte(',');
+    }
+    out.writeBytes(nameBytes);
+  }
+
+  static byte[] levelBytes(Level level) {
+    return JsonOutput.asciiBytes('"' + level.levelStr + '"');
+  }
+
+  private void writeLevel(JsonOutput out, Level level) {
+    switch (level.levelInt) {
+    case Level.TRACE_INT:
+      out.writeBytes(TRACE_BYTES);
+      break;
+    case Level.DEBUG_INT:
+      out.writeBytes(DEBUG_BYTES);
+      break;
+    case Level.INFO_INT:
+      out.writeBytes(INFO_BYTES);
+      break;
+    case Level.WARN_INT:
+      out.writeBytes(WARN_BYTES);
+      break;
+    case Level.ERROR_INT:
+      out.writeBytes(ERROR_BYTES);
+      break;
+    default:
+      out.writeString(level.levelStr);
+    }
+  }
+
+  private void writeMDC(JsonOutput out, Map<String, String> mdc) {
+    out.writeByte('{');
+    boolean first = true;
+    for (Map.Entry<String, String> entry : mdc.entrySet()) {
+      if (!first) {
+        out.writeByte(',');
+      }
+      first = false;
+      out.writeString(entry.getKey());
+      out.writeByte(':');
+      out.writeString(entry.getValue());
+    }
+    out.writeByte('}');
+  }
+
+  /**
+   * Writes the marker in the same form as {@link Marker#toString()}.
+   */
+  private void writeMarker(JsonOutput out, Marker marker) {
+    out.writeByte('"');
+    out.writeStringContent(marker.getName());
+    if (marker.hasReferences()) {
+      out.writeByte(' ');
+      out.writeByte('[');
+      out.writeByte(' ');
+      Iterator<?> it = marker.iterator();
+      while (it.hasNext()) {
+        out.writeStringContent(((Marker) it.next()).getName());
+        if (it.hasNext()) {
+          out.writeByte(',');
+          out.writeByte(' ');
+        }
+      }
+      out.writeByte(' ');
+      out.writeByte(']');
+    }
+    out.writeByte('"');
+  }
+
+  private void writeCaller(JsonOutput out, StackTraceElement ste) {
+    out.writeByte('{');
+    out.writeBytes(CLASS_NAME);
+    out.writeString(ste.getClassName());
+    out.writeByte(',');
+    out.writeBytes(METHOD_NAME);
+    out.writeString(ste.getMethodName());
+    out.writeByte(',');
+    out.writeBytes(FILE_NAME);
+    out.writeString(ste.getFileName());
+    out.writeByte(',');
+    out.writeBytes(LINE_NAME);
+    out.writeNumber(ste.getLineNumber());
+    out.writeByte('}');
+  }
+
+  private void writeThrowableProxy(JsonOutput out, IThrowableProxy tp) {
+    out.writeByte('{');
+    out.writeBytes(CLASS_NAME);
+    out.writeString(tp.getClassName());
+    out.writeByte(',');
+    out.writeBytes(MESSAGE_NAME);
+    out.writeString(tp.getMessage());
+    out.writeByte(',');
+    out.writeBytes(FRAMES_NAME);
+    out.writeByte('[');
+    StackTraceElementProxy[] stepArray = tp.getStackTraceElementProxyArray();
+    int commonFrames = tp.getCommonFrames();
+    int maxIndex = stepArray.length - commonFrames;
+    for (int i = 0; i < maxIndex; i++) {
+      if (i > 0) {
+        out.writeByte(',');
+      }
+      writeStackTraceElement(out, stepArray[i].getStackTraceElement());
+    }
+    out.writeByte(']');
+    if (commonFrames > 0) {
+      out.writeByte(',');
+      out.writeBytes(COMMON_FRAMES_NAME);
+      out.writeNumber(commonFrames);
+    }
+    IThrowableProxy cause = tp.getCause();
+    if (cause != null) {
+      out.writeByte(',');
+      out.writeBytes(CAUSE_NAME);
+      writeThrowableProxy(out, cause);
+    }
+    out.writeByte('}');
+  }
+
+  /**
+   * Writes the frame in the same form as {@link StackTraceElement#toString()}.
+   */
+  private void writeStackTraceElement(JsonOutput out, StackTraceElement ste) {
+    out.writeByte('"');
+    out.writeStringContent(ste.getClassName());
+    out.writeByte('.');
+    out.writeStringContent(ste.getMethodName());
+    String fileName = ste.getFileName();
+    int lineNumber = ste.getLineNumber();
+    if (ste.isNativeMethod()) {
+      out.writeBytes(NATIVE_METHOD);
+    } else if (fileName == null) {
+      out.writeBytes(UNKNOWN_SOURCE);
+    } else {
+      out.writeByte('(');
+      out.writeStringContent(fileName);
+      if (lineNumber >= 0) {
+        out.writeByte(':');
+        out.writeNumber(lineNumber);
+      }
+      out.writeByte(')');
+    }
+    out.writeByte('"');
+  }
+}
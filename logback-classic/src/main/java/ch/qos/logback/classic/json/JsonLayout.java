@@ -0,0 +1,71 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.json;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.LayoutBase;
+
+/**
+ * Outputs each event as a JSON object on a single line. The fields to output
+ * are set with {@link #setFields(String)}, by default
+ * {@value JsonEventWriter#DEFAULT_FIELDS}.
+ * 
+ * <p>When the output is written to a stream, {@link JsonEncoder} avoids the
+ * conversion of the output to a String.
+ * 
+ * @since 0.9.31
+ */
+public class JsonLayout extends LayoutBase<ILoggingEvent> {
+
+  String fields = JsonEventWriter.DEFAULT_FIELDS;
+  JsonEventWriter jsonEventWriter;
+
+  // the owning appender serializes calls to doLayout
+  final JsonOutput jsonOutput = new JsonOutput();
+
+  public String getFields() {
+    return fields;
+  }
+
+  /**
+   * A comma separated list of the fields to output, among timestamp, level,
+   * thread, logger, message, context, mdc, marker, caller and exception.
+   */
+  public void setFields(String fields) {
+    this.fields = fields;
+  }
+
+  @Override
+  public void start() {
+    jsonEventWriter = JsonEncoder.buildJsonEventWriter(this, fields);
+    if (jsonEventWriter != null) {
+      super.start();
+    }
+  }
+
+  public String doLayout(ILoggingEvent event) {
+    if (!isStarted()) {
+      return CoreConstants.EMPTY_STRING;
+    }
+    jsonOutput.reset();
+    jsonEventWriter.write(jsonOutput, event);
+    return jsonOutput.toString();
+  }
+
+  @Override
+  public String getContentType() {
+    return "application/json";
+  }
+}
@@ -0,0 +1,270 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+
+/**
+ * A growable buffer of UTF-8 encoded JSON. Strings are escaped and encoded in
+ * a single pass, directly into the buffer.
+ * 
+ * <p>Instances are not thread safe and are meant to be reused, see
+ * {@link #reset()}.
+ * 
+ * @since 0.9.31
+ */
+public class JsonOutput {
+
+  static final int INITIAL_CAPACITY = 512;
+  static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+  static final byte[] HEX_DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7',
+      '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
+  static final byte[] MIN_LONG = asciiBytes(Long.toString(Long.MIN_VALUE));
+
+  byte[] buf;
+  int count;
+
+  public JsonOutput() {
+    this(INITIAL_CAPACITY);
+  }
+
+  public JsonOutput(int initialCapacity) {
+    buf = new byte[initialCapacity];
+  }
+
+  /**
+   * Convert an ASCII string, such as a precomputed field name, to bytes.
+   */
+  public static byte[] asciiBytes(String s) {
+    byte[] bytes = new byte[s.length()];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) s.charAt(i);
+    }
+    return bytes;
+  }
+
+  /**
+   * Empty this buffer. A buffer which grew past
+   * {@link #MAX_RETAINED_CAPACITY}, e.g. for an event with a large stack
+   * trace, is replaced by one of the initial capacity.
+   */
+  public void reset() {
+    if (buf.length > MAX_RETAINED_CAPACITY) {
+      buf = new byte[INITIAL_CAPACITY];
+    }
+    count = 0;
+  }
+
+  public int size() {
+    return count;
+  }
+
+  public void writeByte(int b) {
+    ensureCapacity(1);
+    buf[count++] = (byte) b;
+  }
+
+  public void writeBytes(byte[] bytes) {
+    ensureCapacity(bytes.length);
+    System.arraycopy(bytes, 0, buf, count, bytes.length);
+    count += bytes.length;
+  }
+
+  public void writeNumber(long value) {
+    if (value == Long.MIN_VALUE) {
+      writeBytes(MIN_LONG);
+      return;
+    }
+    ensureCapacity(20);
+    if (value < 0) {
+      buf[count++] = '-';
+      value = -value;
+    }
+    int pos = count + digitCount(value);
+    count = pos;
+    // two digits per division
+    while (value >= 100) {
+      long q = value / 100;
+      int r = (int) (value - q * 100);
+      buf[--pos] = (byte) ('0' + r % 10);
+      buf[--pos] = (byte) ('0' + r / 10);
+      value = q;
+    }
+    int r = (int) value;
+    buf[--pos] = (byte) ('0' + r % 10);
+    if (r >= 10) {
+      buf[--pos] = (byte) ('0' + r / 10);
+    }
+  }
+
+  static int digitCount(long value) {
+    long p = 10;
+    for (int i = 1; i < 19; i++) {
+      if (value < p) {
+        return i;
+      }
+      p *= 10;
+    }
+    return 19;
+  }
+
+  /**
+   * Write <code>s</code> as a quoted JSON string, or <code>null</code> if
+   * <code>s</code> is null.
+   */
+  public void writeString(String s) {
+    if (s == null) {
+      writeNull();
+      return;
+    }
+    writeByte('"');
+    writeStringContent(s);
+    writeByte('"');
+  }
+
+  public void writeNull() {
+    ensureCapacity(4);
+    buf[count++] = 'n';
+    buf[count++] = 'u';
+    buf[count++] = 'l';
+    buf[count++] = 'l';
+  }
+
+  /**
+   * Escape and encode <code>s</code> without surrounding quotes, so that a
+   * JSON string may be written in several parts. A null value is written as
+   * "null".
+   */
+  public void writeStringContent(String s) {
+    if (s == null) {
+      writeNull();
+      return;
+    }
+    int len = s.length();
+    // most characters take one byte, grow as needed for the others
+    ensureCapacity(len);
+    // fast path for the leading characters which need neither escaping
+    // nor multi-byte encoding, usually all of them
+    byte[] b = buf;
+    int start = count;
+    int i = 0;
+    for (; i < len; i++) {
+      char c = s.charAt(i);
+      if (c >= 0x80 || c < 0x20 || c == '"' || c == '\\') {
+        break;
+      }
+      b[start + i] = (byte) c;
+    }
+    count = start + i;
+    for (; i < len; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        if (c >= 0x20 && c != '"' && c != '\\') {
+          if (count == buf.length) {
+            ensureCapacity(len - i);
+          }
+          buf[count++] = (byte) c;
+        } else {
+          writeEscaped(c);
+        }
+      } else if (c < 0x800) {
+        ensureCapacity(2 + len - i);
+        buf[count++] = (byte) (0xC0 | (c >> 6));
+        buf[count++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < len
+          && Character.isLowSurrogate(s.charAt(i + 1))) {
+        int cp = Character.toCodePoint(c, s.charAt(++i));
+        ensureCapacity(4 + len - i);
+        buf[count++] = (byte) (0xF0 | (cp >> 18));
+        buf[count++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+        buf[count++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+        buf[count++] = (byte) (0x80 | (cp & 0x3F));
+      } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+        // unpaired surrogates cannot be encoded
+        ensureCapacity(1 + len - i);
+        buf[count++] = '?';
+      } else {
+        ensureCapacity(3 + len - i);
+        buf[count++] = (byte) (0xE0 | (c >> 12));
+        buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buf[count++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+  }
+
+  private void writeEscaped(char c) {
+    ensureCapacity(6);
+    buf[count++] = '\\';
+    switch (c) {
+    case '"':
+      buf[count++] = '"';
+      break;
+    case '\\':
+      buf[count++] = '\\';
+      break;
+    case '\n':
+      buf[count++] = 'n';
+      break;
+    case '\r':
+      buf[count++] = 'r';
+      break;
+    case '\t':
+      buf[count++] = 't';
+      break;
+    case '\b':
+      buf[count++] = 'b';
+      break;
+    case '\f':
+      buf[count++] = 'f';
+      break;
+    default:
+      buf[count++] = 'u';
+      buf[count++] = '0';
+      buf[count++] = '0';
+      buf[count++] = HEX_DIGITS[(c >> 4) & 0xF];
+      buf[count++] = HEX_DIGITS[c & 0xF];
+    }
+  }
+
+  private void ensureCapacity(int extra) {
+    int required = count + extra;
+    if (required > buf.length) {
+      int newCapacity = Math.max(buf.length * 2, required);
+      byte[] newBuf = new byte[newCapacity];
+      System.arraycopy(buf, 0, newBuf, 0, count);
+      buf = newBuf;
+    }
+  }
+
+  public void writeTo(OutputStream os) throws IOException {
+    os.write(buf, 0, count);
+  }
+
+  public byte[] toByteArray() {
+    byte[] result = new byte[count];
+    System.arraycopy(buf, 0, result, 0, count);
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    try {
+      return new String(buf, 0, count, "UTF-8");
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException("UTF-8 is always supported");
+    }
+  }
+}
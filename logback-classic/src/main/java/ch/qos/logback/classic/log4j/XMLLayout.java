@@ -147,7 +147,7 @@ public class XMLLayout extends LayoutBase<ILoggingEvent> {
         buf.append(immediateCallerData.getClassName());
         buf.append("\"\r\n");
         buf.append("                      method=\"");
-        buf.append(Transform.escapeTags(immediateCallerData.getMethodName()));
+        Transform.appendEscapingTags(buf, immediateCallerData.getMethodName());
         buf.append("\" file=\"");
         buf.append(immediateCallerData.getFileName());
         buf.append("\" line=\"");
@@ -168,9 +168,11 @@ public class XMLLayout extends LayoutBase<ILoggingEvent> {
         buf.append("  <log4j:properties>");
         for (Entry<String, String> entry : entrySet) {
           buf.append("\r\n    <log4j:data");
-          buf.append(" name='" + Transform.escapeTags(entry.getKey()) + "'");
-          buf.append(" value='" + Transform.escapeTags(entry.getValue()) + "'");
-          buf.append(" />");
+          buf.append(" name='");
+          Transform.appendEscapingTags(buf, entry.getKey());
+          buf.append("' value='");
+          Transform.appendEscapingTags(buf, entry.getValue());
+          buf.append("' />");
         }
         buf.append("\r\n  </log4j:properties>");
       }
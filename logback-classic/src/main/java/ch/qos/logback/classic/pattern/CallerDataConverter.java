@@ -79,8 +79,11 @@ public class CallerDataConverter extends ClassicConverter {
   }
 
   public String convert(ILoggingEvent le) {
-    StringBuilder buf = new StringBuilder();
+    return appendToString(le);
+  }
 
+  @Override
+  public void append(StringBuilder buf, ILoggingEvent le) {
     if (evaluatorList != null) {
       boolean printCallerData = false;
       for (int i = 0; i < evaluatorList.size(); i++) {
@@ -109,7 +112,7 @@ public class CallerDataConverter extends ClassicConverter {
       }
 
       if (!printCallerData) {
-        return CoreConstants.EMPTY_STRING;
+        return;
       }
     }
 
@@ -124,9 +127,8 @@ public class CallerDataConverter extends ClassicConverter {
         buf.append(cda[i]);
         buf.append(CoreConstants.LINE_SEPARATOR);
       }
-      return buf.toString();
     } else {
-      return CallerData.CALLER_DATA_NA;
+      buf.append(CallerData.CALLER_DATA_NA);
     }
   }
 }
@@ -0,0 +1,124 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.pattern;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableFingerprint;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.util.CachingDateFormatter;
+import ch.qos.logback.core.util.Duration;
+
+/**
+ * Outputs the full stack trace of a throwable only the first time a
+ * structurally identical throwable is seen within a period of one minute.
+ * Other occurrences are collapsed into the first line of the trace followed
+ * by a line of the form "... seen 42 times, full trace printed at 12:34:56".
+ * 
+ * <p>The period can be set by the second option, e.g.
+ * <code>%cEx{full, 10 minutes}</code>. Further options name evaluators, as
+ * for {@link ThrowableProxyConverter}.
+ * 
+ * <p>Throwables are compared by {@link ThrowableFingerprint}. Throwables
+ * without a fingerprint, e.g. deserialized ones, are always output in full.
+ * 
+ * @since 0.9.31
+ */
+public class CollapsedThrowableProxyConverter extends ThrowableProxyConverter {
+
+  static final long DEFAULT_FULL_TRACE_PERIOD = CoreConstants.MILLIS_IN_ONE_MINUTE;
+  static final int MAX_TRACKED_FINGERPRINTS = 256;
+
+  long fullTracePeriod = DEFAULT_FULL_TRACE_PERIOD;
+  boolean periodOption = false;
+
+  final FingerprintSlots<Occurrences> occurrenceMap = new FingerprintSlots<Occurrences>(
+      MAX_TRACKED_FINGERPRINTS);
+  final CachingDateFormatter cachingDateFormatter = new CachingDateFormatter(
+      "HH:mm:ss");
+
+  @Override
+  public void start() {
+    fullTracePeriod = DEFAULT_FULL_TRACE_PERIOD;
+    periodOption = false;
+    List<String> optionList = getOptionList();
+    if (optionList != null && optionList.size() > 1) {
+      String periodStr = optionList.get(1);
+      try {
+        fullTracePeriod = Duration.valueOf(periodStr).getMilliseconds();
+        periodOption = true;
+      } catch (IllegalArgumentException e) {
+        // not a duration, hence the name of an evaluator
+      }
+    }
+    super.start();
+  }
+
+  @Override
+  int getFirstEvaluatorOptionIndex() {
+    return periodOption ? 2 : 1;
+  }
+
+  @Override
+  public void stop() {
+    occurrenceMap.clear();
+    super.stop();
+  }
+
+  @Override
+  protected void appendThrowableProxy(StringBuilder buf, IThrowableProxy tp) {
+    ThrowableFingerprint fingerprint = getFingerprint(tp);
+    if (fingerprint == null) {
+      super.appendThrowableProxy(buf, tp);
+      return;
+    }
+
+    Occurrences occurrences = getOccurrences(fingerprint);
+    long now = System.currentTimeMillis();
+    long printedAt = occurrences.fullTracePrintedAt.get();
+    if (now - printedAt >= fullTracePeriod
+        && occurrences.fullTracePrintedAt.compareAndSet(printedAt, now)) {
+      occurrences.count.set(1);
+      super.appendThrowableProxy(buf, tp);
+      return;
+    }
+
+    // another thread may have printed the full trace in the meantime
+    printedAt = occurrences.fullTracePrintedAt.get();
+    long count = occurrences.count.incrementAndGet();
+    ThrowableProxyUtil.subjoinFirstLine(buf, tp);
+    buf.append(CoreConstants.LINE_SEPARATOR);
+    buf.append("\t... seen ").append(count).append(
+        " times, full trace printed at ").append(
+        cachingDateFormatter.format(printedAt)).append(
+        CoreConstants.LINE_SEPARATOR);
+  }
+
+  private Occurrences getOccurrences(ThrowableFingerprint fingerprint) {
+    Occurrences occurrences = occurrenceMap.get(fingerprint);
+    if (occurrences == null) {
+      occurrences = occurrenceMap.putIfAbsent(fingerprint, new Occurrences());
+    }
+    return occurrences;
+  }
+
+  static class Occurrences {
+    // Long.MIN_VALUE / 2 ensures that the first occurrence is printed in full
+    final AtomicLong fullTracePrintedAt = new AtomicLong(Long.MIN_VALUE / 2);
+    final AtomicLong count = new AtomicLong();
+  }
+}
@@ -0,0 +1,128 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.pattern;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import ch.qos.logback.classic.spi.ThrowableFingerprint;
+
+/**
+ * Values keyed by {@link ThrowableFingerprint}, held in a fixed number of
+ * slots indexed by the fingerprint hash. A fingerprint is looked up in two
+ * adjacent slots. When both hold other fingerprints, one of them is evicted,
+ * so that a full instance drops single entries instead of being cleared.
+ * 
+ * @since 0.9.31
+ */
+class FingerprintSlots<V> {
+
+  static final int PROBE_LENGTH = 2;
+
+  final AtomicReferenceArray<Entry<V>> slots;
+  final int mask;
+
+  FingerprintSlots(int maxSize) {
+    int capacity = PROBE_LENGTH;
+    while (capacity < maxSize) {
+      capacity <<= 1;
+    }
+    this.slots = new AtomicReferenceArray<Entry<V>>(capacity);
+    this.mask = capacity - 1;
+  }
+
+  V get(ThrowableFingerprint fingerprint) {
+    int index = fingerprint.hashCode() & mask;
+    for (int i = 0; i < PROBE_LENGTH; i++, index = (index + 1) & mask) {
+      Entry<V> entry = slots.get(index);
+      if (entry != null && entry.fingerprint.equals(fingerprint)) {
+        return entry.value;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the value already held for <code>fingerprint</code>, if any,
+   *         otherwise <code>value</code>, which is then held
+   */
+  V putIfAbsent(ThrowableFingerprint fingerprint, V value) {
+    int first = fingerprint.hashCode() & mask;
+    int index = first;
+    int emptyIndex = -1;
+    for (int i = 0; i < PROBE_LENGTH; i++, index = (index + 1) & mask) {
+      Entry<V> entry = slots.get(index);
+      if (entry == null) {
+        if (emptyIndex == -1) {
+          emptyIndex = index;
+        }
+      } else if (entry.fingerprint.equals(fingerprint)) {
+        return entry.value;
+      }
+    }
+
+    Entry<V> newEntry = new Entry<V>(fingerprint, value);
+    if (emptyIndex != -1) {
+      if (slots.compareAndSet(emptyIndex, null, newEntry)) {
+        return value;
+      }
+      Entry<V> other = slots.get(emptyIndex);
+      if (other.fingerprint.equals(fingerprint)) {
+        return other.value;
+      }
+    }
+    int victim = (first + ((int) System.nanoTime() & 0x7fffffff)
+        % PROBE_LENGTH) & mask;
+    slots.set(victim, newEntry);
+    return value;
+  }
+
+  int size() {
+    int size = 0;
+    for (int i = 0; i < slots.length(); i++) {
+      if (slots.get(i) != null) {
+        size++;
+      }
+    }
+    return size;
+  }
+
+  List<V> values() {
+    List<V> values = new ArrayList<V>();
+    for (int i = 0; i < slots.length(); i++) {
+      Entry<V> entry = slots.get(i);
+      if (entry != null) {
+        values.add(entry.value);
+      }
+    }
+    return values;
+  }
+
+  void clear() {
+    for (int i = 0; i < slots.length(); i++) {
+      slots.set(i, null);
+    }
+  }
+
+  static class Entry<V> {
+    final ThrowableFingerprint fingerprint;
+    final V value;
+
+    Entry(ThrowableFingerprint fingerprint, V value) {
+      this.fingerprint = fingerprint;
+      this.value = value;
+    }
+  }
+}
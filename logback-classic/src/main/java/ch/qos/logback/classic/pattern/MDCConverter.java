@@ -48,22 +48,8 @@ public class MDCConverter extends ClassicConverter {
     }
 
     if (key == null) {
-      // if no key is specified, return all the
-      // values present in the MDC, separated with a single space.
       StringBuilder buf = new StringBuilder();
-      Set<String> keys = mdcPropertyMap.keySet();
-      Iterator it = keys.iterator();
-      String tmpKey;
-      String tmpValue;
-      while (it.hasNext()) {
-        tmpKey = (String)it.next();
-        tmpValue = (String)mdcPropertyMap.get(tmpKey);
-        //format: {testeKey=testValue, testKey2=testValue2}
-        buf.append(tmpKey).append('=').append(tmpValue);
-        if (it.hasNext()) {
-          buf.append(", ");
-        }
-      }
+      appendAllEntries(buf, mdcPropertyMap);
       return buf.toString();
     }
 
@@ -74,4 +60,34 @@ public class MDCConverter extends ClassicConverter {
       return EMPTY_STRING;
     }
   }
+
+  @Override
+  public void append(StringBuilder buf, ILoggingEvent event) {
+    if (key == null) {
+      Map<String, String> mdcPropertyMap = event.getMDCPropertyMap();
+      if (mdcPropertyMap != null) {
+        appendAllEntries(buf, mdcPropertyMap);
+      }
+    } else {
+      buf.append(convert(event));
+    }
+  }
+
+  private void appendAllEntries(StringBuilder buf, Map<String, String> mdcPropertyMap) {
+    // used if no key is specified: append all the
+    // entries present in the MDC, separated with a comma.
+    Set<String> keys = mdcPropertyMap.keySet();
+    Iterator it = keys.iterator();
+    String tmpKey;
+    String tmpValue;
+    while (it.hasNext()) {
+      tmpKey = (String)it.next();
+      tmpValue = (String)mdcPropertyMap.get(tmpKey);
+      //format: {testeKey=testValue, testKey2=testValue2}
+      buf.append(tmpKey).append('=').append(tmpValue);
+      if (it.hasNext()) {
+        buf.append(", ");
+      }
+    }
+  }
 }
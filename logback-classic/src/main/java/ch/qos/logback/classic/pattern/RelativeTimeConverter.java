@@ -17,19 +17,13 @@ import ch.qos.logback.classic.spi.ILoggingEvent;
 
 public class RelativeTimeConverter extends ClassicConverter {
 
-  long lastTimestamp = -1;
-  String timesmapCache = null;
-
   public String convert(ILoggingEvent event) {
-    long now = event.getTimeStamp();
+    return appendToString(event);
+  }
 
-    synchronized (this) {
-      // update timesmapStrCache only if now !=  lastTimestamp
-      if (now != lastTimestamp) {
-        lastTimestamp = now;
-        timesmapCache = Long.toString(now - event.getLoggerContextVO().getBirthTime());      
-      }
-      return timesmapCache;
-    }
+  @Override
+  public void append(StringBuilder buf, ILoggingEvent event) {
+    // appending a long is cheaper than sharing a cached string under a lock
+    buf.append(event.getTimeStamp() - event.getLoggerContextVO().getBirthTime());
   }
 }
@@ -25,10 +25,8 @@ import ch.qos.logback.core.CoreConstants;
 public class RootCauseFirstThrowableProxyConverter extends ExtendedThrowableProxyConverter {
 
   @Override
-  protected String throwableProxyToString(IThrowableProxy tp) {
-    StringBuilder buf = new StringBuilder(2048);
+  protected void appendThrowableProxy(StringBuilder buf, IThrowableProxy tp) {
     subjoinRootCauseFirst(tp, buf);
-    return buf.toString();
   }
 
   private void subjoinRootCauseFirst(IThrowableProxy tp, StringBuilder buf) {
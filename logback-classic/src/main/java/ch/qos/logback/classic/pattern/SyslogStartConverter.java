@@ -58,8 +58,11 @@ public class SyslogStartConverter extends ClassicConverter {
   }
 
   public String convert(ILoggingEvent event) {
-    StringBuilder sb = new StringBuilder();
+    return appendToString(event);
+  }
 
+  @Override
+  public void append(StringBuilder sb, ILoggingEvent event) {
     int pri = facility + LevelToSyslogSeverity.convert(event);
   
     sb.append("<");
@@ -69,8 +72,6 @@ public class SyslogStartConverter extends ClassicConverter {
     sb.append(' ');
     sb.append(localHostName);
     sb.append(' ');
-
-    return sb.toString();
   }
 
   /**
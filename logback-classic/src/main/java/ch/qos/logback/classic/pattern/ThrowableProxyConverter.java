@@ -20,6 +20,8 @@ import java.util.Map;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.IThrowableProxy;
 import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import ch.qos.logback.classic.spi.ThrowableFingerprint;
+import ch.qos.logback.classic.spi.ThrowableProxy;
 import ch.qos.logback.classic.spi.ThrowableProxyUtil;
 import ch.qos.logback.core.Context;
 import ch.qos.logback.core.CoreConstants;
@@ -39,6 +41,15 @@ public class ThrowableProxyConverter extends ThrowableHandlingConverter {
 
   int errorCount = 0;
 
+  // true if a subclass overrides throwableProxyToString() below the class
+  // overriding appendThrowableProxy(), which then remains authoritative
+  final boolean throwableProxyToStringOverridden = isOverriddenBelow(
+      "throwableProxyToString", "appendThrowableProxy");
+
+  static final int RENDERED_FRAMES_CACHE_SIZE = 64;
+  final FingerprintSlots<String[]> renderedFramesCache = new FingerprintSlots<String[]>(
+      RENDERED_FRAMES_CACHE_SIZE);
+
   @SuppressWarnings("unchecked")
   public void start() {
 
@@ -67,7 +78,7 @@ public class ThrowableProxyConverter extends ThrowableHandlingConverter {
 
     if (optionList != null && optionList.size() > 1) {
       final int optionListSize = optionList.size();
-      for (int i = 1; i < optionListSize; i++) {
+      for (int i = getFirstEvaluatorOptionIndex(); i < optionListSize; i++) {
         String evaluatorStr = (String) optionList.get(i);
         Context context = getContext();
         Map evaluatorMap = (Map) context.getObject(CoreConstants.EVALUATOR_MAP);
@@ -79,6 +90,14 @@ public class ThrowableProxyConverter extends ThrowableHandlingConverter {
     super.start();
   }
 
+  /**
+   * @return the index of the first option naming an evaluator, the options
+   *         before it being specific to this converter
+   */
+  int getFirstEvaluatorOptionIndex() {
+    return 1;
+  }
+
   private void addEvaluator(EventEvaluator<ILoggingEvent> ee) {
     if (evaluatorList == null) {
       evaluatorList = new ArrayList<EventEvaluator<ILoggingEvent>>();
@@ -88,6 +107,7 @@ public class ThrowableProxyConverter extends ThrowableHandlingConverter {
 
   public void stop() {
     evaluatorList = null;
+    renderedFramesCache.clear();
     super.stop();
   }
 
@@ -96,10 +116,14 @@ public class ThrowableProxyConverter extends ThrowableHandlingConverter {
   }
 
   public String convert(ILoggingEvent event) {
+    return appendToString(event);
+  }
 
+  @Override
+  public void append(StringBuilder buf, ILoggingEvent event) {
     IThrowableProxy tp = event.getThrowableProxy();
     if (tp == null) {
-      return CoreConstants.EMPTY_STRING;
+      return;
     }
 
     // an evaluator match will cause stack printing to be skipped
@@ -130,26 +154,94 @@ public class ThrowableProxyConverter extends ThrowableHandlingConverter {
       }
 
       if (!printStack) {
-        return CoreConstants.EMPTY_STRING;
+        return;
       }
     }
 
-    return throwableProxyToString(tp);
+    if (throwableProxyToStringOverridden) {
+      buf.append(throwableProxyToString(tp));
+    } else {
+      appendThrowableProxy(buf, tp);
+    }
   }
 
+  /**
+   * Kept for compatibility, subclasses should override
+   * {@link #appendThrowableProxy(StringBuilder, IThrowableProxy)} instead.
+   * An override of this method still takes precedence over the
+   * implementation of appendThrowableProxy() it overrides.
+   */
   protected String throwableProxyToString(IThrowableProxy tp) {
     StringBuilder buf = new StringBuilder(32);
+    appendThrowableProxy(buf, tp);
+    return buf.toString();
+  }
+
+  /**
+   * Append the representation of <code>tp</code> to <code>buf</code>.
+   * 
+   * @since 0.9.31
+   */
+  protected void appendThrowableProxy(StringBuilder buf, IThrowableProxy tp) {
+    String[] renderedFrames = getRenderedFrames(tp);
     IThrowableProxy currentThrowable = tp;
+    int level = 0;
     while (currentThrowable != null) {
-      subjoinThrowableProxy(buf, currentThrowable);
+      if (renderedFrames != null) {
+        // only the first line, which includes the message, varies
+        ThrowableProxyUtil.subjoinFirstLine(buf, currentThrowable);
+        buf.append(CoreConstants.LINE_SEPARATOR);
+        buf.append(renderedFrames[level++]);
+      } else {
+        subjoinThrowableProxy(buf, currentThrowable);
+      }
       currentThrowable = currentThrowable.getCause();
     }
-    return buf.toString();
+  }
+
+  /**
+   * Return the fingerprint of the throwable proxy, or null if it has none.
+   */
+  static ThrowableFingerprint getFingerprint(IThrowableProxy tp) {
+    if (tp instanceof ThrowableProxy) {
+      return ((ThrowableProxy) tp).getFingerprint();
+    }
+    return null;
+  }
+
+  /**
+   * Return the rendered frames of each throwable in the chain of
+   * <code>tp</code>, from a cache keyed by fingerprint. Returns null if
+   * <code>tp</code> has no fingerprint.
+   */
+  private String[] getRenderedFrames(IThrowableProxy tp) {
+    ThrowableFingerprint fingerprint = getFingerprint(tp);
+    if (fingerprint == null) {
+      return null;
+    }
+    String[] renderedFrames = renderedFramesCache.get(fingerprint);
+    if (renderedFrames == null) {
+      renderedFrames = new String[fingerprint.getDepth()];
+      IThrowableProxy currentThrowable = tp;
+      for (int i = 0; i < renderedFrames.length; i++) {
+        StringBuilder buf = new StringBuilder(256);
+        subjoinFrames(buf, currentThrowable);
+        renderedFrames[i] = buf.toString();
+        currentThrowable = currentThrowable.getCause();
+      }
+      renderedFrames = renderedFramesCache.putIfAbsent(fingerprint,
+          renderedFrames);
+    }
+    return renderedFrames;
   }
 
   void subjoinThrowableProxy(StringBuilder buf, IThrowableProxy tp) {
     ThrowableProxyUtil.subjoinFirstLine(buf, tp);
     buf.append(CoreConstants.LINE_SEPARATOR);
+    subjoinFrames(buf, tp);
+  }
+
+  void subjoinFrames(StringBuilder buf, IThrowableProxy tp) {
     StackTraceElementProxy[] stepArray = tp.getStackTraceElementProxyArray();
     int commonFrames = tp.getCommonFrames();
 
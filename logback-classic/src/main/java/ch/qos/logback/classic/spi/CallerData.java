@@ -49,7 +49,11 @@ public class CallerData {
 
   /**
    * Extract caller data information as an array based on a Throwable passed as
-   * parameter
+   * parameter.
+   * 
+   * <p>The whole stack trace of <code>t</code> is materialized, which makes
+   * this method costly. {@link CallerDataExtractor} avoids calling it for
+   * cached call sites and, if sampling is enabled, for most events.
    */
   public static StackTraceElement[] extract(Throwable t,
       String fqnOfInvokingClass, final int maxDepth) {
@@ -0,0 +1,181 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Computes the caller data of logging events on behalf of a
+ * {@link ch.qos.logback.classic.LoggerContext}.
+ *
+ * <p>If the call site cache is enabled, caller data is remembered per (logger,
+ * message pattern) pair, where both are compared by identity. Since message
+ * patterns are usually string literals, each pair normally designates a single
+ * call site so that its location needs to be computed only once. However, a
+ * pattern logged by the same logger from several places will be reported at
+ * the first location seen.
+ *
+ * <p>At most <code>cacheSize</code> call sites are cached. Beyond that, call
+ * sites are evicted following the clock algorithm, i.e. the least recently
+ * cached call site which was not hit since the clock hand last passed it.
+ * Each event receives its own copy of the cached caller data.
+ *
+ * <p>If a sampling period <em>n</em> greater than 1 is set, only one in
+ * <em>n</em> events whose location is not cached computes its caller data, the
+ * others receiving {@link CallerData#EMPTY_CALLER_DATA_ARRAY}.
+ *
+ * <p>Caller data which is neither cached nor skipped by sampling is computed
+ * by {@link CallerData#extract}, from the whole stack trace of a new
+ * throwable.
+ *
+ * <p>Instances are immutable except for the contents of the cache.
+ */
+public class CallerDataExtractor {
+
+  final int maxDepth;
+  final int cacheSize;
+  final int samplingPeriod;
+
+  final ConcurrentMap<CallSite, CachedCallerData> cache;
+  // cached call sites, in the order visited by the clock hand
+  final Queue<CallSite> clock;
+  final AtomicInteger sampleCounter = new AtomicInteger();
+
+  public CallerDataExtractor(int maxDepth, int cacheSize, int samplingPeriod) {
+    this.maxDepth = maxDepth;
+    this.cacheSize = cacheSize;
+    this.samplingPeriod = samplingPeriod;
+    if (cacheSize > 0) {
+      cache = new ConcurrentHashMap<CallSite, CachedCallerData>();
+      clock = new ConcurrentLinkedQueue<CallSite>();
+    } else {
+      cache = null;
+      clock = null;
+    }
+  }
+
+  public StackTraceElement[] extract(String loggerName, String messagePattern,
+      String fqnOfLoggerClass) {
+    CallSite callSite = null;
+    if (cache != null && messagePattern != null) {
+      callSite = new CallSite(loggerName, messagePattern);
+      CachedCallerData cached = cache.get(callSite);
+      if (cached != null) {
+        if (!cached.referenced) {
+          cached.referenced = true;
+        }
+        return cached.callerDataArray.clone();
+      }
+    }
+
+    if (samplingPeriod > 1
+        && (sampleCounter.getAndIncrement() & Integer.MAX_VALUE)
+            % samplingPeriod != 0) {
+      return CallerData.EMPTY_CALLER_DATA_ARRAY;
+    }
+
+    StackTraceElement[] callerDataArray = CallerData.extract(new Throwable(),
+        fqnOfLoggerClass, maxDepth);
+    if (callSite != null && callerDataArray.length > 0) {
+      cache(callSite, callerDataArray.clone());
+    }
+    return callerDataArray;
+  }
+
+  private void cache(CallSite callSite, StackTraceElement[] callerDataArray) {
+    CachedCallerData cached = new CachedCallerData(callerDataArray);
+    if (cache.putIfAbsent(callSite, cached) != null) {
+      return;
+    }
+    clock.offer(callSite);
+    if (cache.size() > cacheSize) {
+      evict();
+    }
+  }
+
+  /**
+   * Advance the clock hand until the cache is back within its size, giving a
+   * second chance to the call sites hit since the hand last passed them.
+   */
+  private synchronized void evict() {
+    // each call site is passed at most twice, in case of concurrent hits
+    int maxSteps = 2 * (cacheSize + 1);
+    for (int i = 0; i < maxSteps && cache.size() > cacheSize; i++) {
+      CallSite candidate = clock.poll();
+      if (candidate == null) {
+        return;
+      }
+      CachedCallerData cached = cache.get(candidate);
+      if (cached.referenced) {
+        cached.referenced = false;
+        clock.offer(candidate);
+      } else {
+        cache.remove(candidate);
+      }
+    }
+  }
+
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  public int getCacheSize() {
+    return cacheSize;
+  }
+
+  public int getSamplingPeriod() {
+    return samplingPeriod;
+  }
+
+  // ================================================================
+  static final class CachedCallerData {
+    // never handed out, events receive copies
+    final StackTraceElement[] callerDataArray;
+    volatile boolean referenced;
+
+    CachedCallerData(StackTraceElement[] callerDataArray) {
+      this.callerDataArray = callerDataArray;
+    }
+  }
+
+  static final class CallSite {
+    final String loggerName;
+    final String messagePattern;
+
+    CallSite(String loggerName, String messagePattern) {
+      this.loggerName = loggerName;
+      this.messagePattern = messagePattern;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof CallSite)) {
+        return false;
+      }
+      CallSite other = (CallSite) o;
+      return loggerName == other.loggerName
+          && messagePattern == other.messagePattern;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(loggerName)
+          + System.identityHashCode(messagePattern);
+    }
+  }
+}
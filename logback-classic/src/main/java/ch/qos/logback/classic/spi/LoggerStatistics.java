@@ -0,0 +1,118 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.core.metrics.StripedCounter;
+
+/**
+ * Counts, per level, the events a logger enabled, appended and denied by turbo
+ * filters. Counts are spread over a few stripes, as for
+ * {@link StripedCounter}, so that threads logging through the same logger
+ * rarely contend.
+ * 
+ * <p>
+ * An event is <em>enabled</em> once it passed the turbo filters and the level
+ * check, and <em>appended</em> once written to at least one appender. Events
+ * disabled by the level check are not counted, so that disabled logging
+ * statements remain as cheap as without statistics.
+ * 
+ * @since 0.9.31
+ */
+public final class LoggerStatistics {
+
+  public static final int ENABLED = 0;
+  public static final int APPENDED = 1;
+  public static final int DENIED = 2;
+
+  static final int KIND_COUNT = 3;
+  // TRACE, DEBUG, INFO, WARN and ERROR
+  static final int LEVEL_COUNT = 5;
+  public static final int COUNT_LENGTH = KIND_COUNT * LEVEL_COUNT;
+
+  // counts of a stripe span two cache lines, the last cell being padding
+  static final int CELLS_PER_STRIPE = 16;
+  static final int MAX_STRIPES = 4;
+
+  static final int STRIPE_COUNT = Math.min(StripedCounter
+      .defaultStripeCount(), MAX_STRIPES);
+
+  final AtomicLongArray cells;
+  final int mask;
+
+  public LoggerStatistics() {
+    this(STRIPE_COUNT);
+  }
+
+  LoggerStatistics(int stripeCount) {
+    this.mask = stripeCount - 1;
+    this.cells = new AtomicLongArray(stripeCount * CELLS_PER_STRIPE);
+  }
+
+  /**
+   * @return the index of the count of the given kind and level within the
+   *         arrays returned by {@link #snapshot()}, or -1 if the level is not
+   *         one events are logged at
+   */
+  public static int indexOf(int kind, int levelInt) {
+    // maps TRACE_INT, DEBUG_INT, ..., ERROR_INT to 0, 1, ..., 4
+    int levelIndex = levelInt / Level.DEBUG_INT;
+    if (levelIndex >= LEVEL_COUNT || levelInt < Level.TRACE_INT) {
+      return -1;
+    }
+    return kind * LEVEL_COUNT + levelIndex;
+  }
+
+  public void record(int kind, Level level) {
+    int index = indexOf(kind, level.levelInt);
+    if (index == -1) {
+      return;
+    }
+    int stripe = (mask == 0) ? 0 : StripedCounter.stripeIndex(mask);
+    cells.incrementAndGet(stripe * CELLS_PER_STRIPE + index);
+  }
+
+  public long get(int kind, Level level) {
+    int index = indexOf(kind, level.levelInt);
+    if (index == -1) {
+      return 0;
+    }
+    return snapshot()[index];
+  }
+
+  /**
+   * @return the counts summed over all stripes, indexed as per
+   *         {@link #indexOf(int, int)}
+   */
+  public long[] snapshot() {
+    long[] counts = new long[COUNT_LENGTH];
+    addTo(counts);
+    return counts;
+  }
+
+  /**
+   * Add the counts of this instance to <code>counts</code>, indexed as per
+   * {@link #indexOf(int, int)}.
+   */
+  public void addTo(long[] counts) {
+    for (int i = 0; i < cells.length(); i++) {
+      int index = i % CELLS_PER_STRIPE;
+      if (index < COUNT_LENGTH) {
+        counts[index] += cells.get(i);
+      }
+    }
+  }
+}
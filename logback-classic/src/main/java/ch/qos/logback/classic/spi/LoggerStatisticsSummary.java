@@ -0,0 +1,116 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import java.util.Comparator;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * The events counted by a logger and its descendants, as reported by
+ * {@link ch.qos.logback.classic.LoggerContext#getNoisiestLoggers(int)}.
+ * 
+ * @since 0.9.31
+ */
+public class LoggerStatisticsSummary {
+
+  static final Level[] LEVELS = { Level.TRACE, Level.DEBUG, Level.INFO,
+      Level.WARN, Level.ERROR };
+
+  /**
+   * Orders summaries by decreasing number of enabled events, then by name.
+   */
+  public static final Comparator<LoggerStatisticsSummary> NOISIEST_FIRST = new Comparator<LoggerStatisticsSummary>() {
+    public int compare(LoggerStatisticsSummary s0, LoggerStatisticsSummary s1) {
+      long e0 = s0.getTotal(LoggerStatistics.ENABLED);
+      long e1 = s1.getTotal(LoggerStatistics.ENABLED);
+      if (e0 != e1) {
+        return e0 > e1 ? -1 : 1;
+      }
+      return s0.loggerName.compareTo(s1.loggerName);
+    }
+  };
+
+  final String loggerName;
+  final long[] counts;
+  final long[] ownCounts;
+
+  /**
+   * @param counts
+   *          the counts of the logger and its descendants
+   * @param ownCounts
+   *          the counts of the logger alone
+   */
+  public LoggerStatisticsSummary(String loggerName, long[] counts,
+      long[] ownCounts) {
+    this.loggerName = loggerName;
+    this.counts = counts;
+    this.ownCounts = ownCounts;
+  }
+
+  public String getLoggerName() {
+    return loggerName;
+  }
+
+  /**
+   * @return the number of events of the given kind and level counted by the
+   *         logger and its descendants
+   */
+  public long get(int kind, Level level) {
+    int index = LoggerStatistics.indexOf(kind, level.levelInt);
+    return (index == -1) ? 0 : counts[index];
+  }
+
+  /**
+   * @return the number of events of the given kind, all levels included,
+   *         counted by the logger and its descendants
+   */
+  public long getTotal(int kind) {
+    return sum(counts, kind);
+  }
+
+  /**
+   * @return the number of events of the given kind, all levels included,
+   *         counted by the logger alone
+   */
+  public long getOwnTotal(int kind) {
+    return sum(ownCounts, kind);
+  }
+
+  static long sum(long[] counts, int kind) {
+    long total = 0;
+    for (Level level : LEVELS) {
+      total += counts[LoggerStatistics.indexOf(kind, level.levelInt)];
+    }
+    return total;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(loggerName);
+    sb.append(" enabled=").append(getTotal(LoggerStatistics.ENABLED));
+    sb.append(" (");
+    for (int i = 0; i < LEVELS.length; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(LEVELS[i]).append('=').append(
+          get(LoggerStatistics.ENABLED, LEVELS[i]));
+    }
+    sb.append(") appended=").append(getTotal(LoggerStatistics.APPENDED));
+    sb.append(" denied=").append(getTotal(LoggerStatistics.DENIED));
+    sb.append(" own=").append(getOwnTotal(LoggerStatistics.ENABLED));
+    return sb.toString();
+  }
+}
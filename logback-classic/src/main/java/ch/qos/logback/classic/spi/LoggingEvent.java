@@ -122,8 +122,13 @@ public class LoggingEvent implements ILoggingEvent {
     }
 
     if (throwable != null) {
-      this.throwableProxy = new ThrowableProxy(throwable);
       LoggerContext lc = logger.getLoggerContext();
+      ThrowableProxyCache tpCache = lc.getThrowableProxyCache();
+      if (tpCache != null) {
+        this.throwableProxy = tpCache.newThrowableProxy(throwable);
+      } else {
+        this.throwableProxy = new ThrowableProxy(throwable);
+      }
       if (lc.isPackagingDataEnabled()) {
         this.throwableProxy.calculatePackagingData();
       }
@@ -257,8 +262,8 @@ public class LoggingEvent implements ILoggingEvent {
    */
   public StackTraceElement[] getCallerData() {
     if (callerDataArray == null) {
-      callerDataArray = CallerData.extract(new Throwable(), fqnOfLoggerClass,
-          loggerContext.getMaxCallerDataDepth());
+      callerDataArray = loggerContext.getCallerDataExtractor().extract(
+          loggerName, message, fqnOfLoggerClass);
     }
     return callerDataArray;
   }
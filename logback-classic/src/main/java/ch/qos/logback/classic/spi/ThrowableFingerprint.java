@@ -0,0 +1,132 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The structure of a throwable chain, i.e. the class name and stack frames of
+ * each throwable in the chain, excluding messages.
+ * 
+ * <p>Instances are canonicalized by {@link ThrowableProxyCache} so that
+ * structurally identical throwables yield proxies sharing the same
+ * fingerprint, the same {@link StackTraceElementProxy} arrays and the same
+ * packaging data. Thus, fingerprints can be compared by identity, e.g. to
+ * cache the rendering of stack traces.
+ * 
+ * @since 0.9.31
+ */
+public final class ThrowableFingerprint {
+
+  final int hash;
+  final String[] classNames;
+  final StackTraceElement[][] steArrays;
+  final StackTraceElementProxy[][] stepArrays;
+  final int[] commonFrames;
+
+  private boolean packagingDataCalculated = false;
+
+  ThrowableFingerprint(int hash, String[] classNames,
+      StackTraceElement[][] steArrays) {
+    this.hash = hash;
+    this.classNames = classNames;
+    this.steArrays = steArrays;
+    int depth = classNames.length;
+    this.stepArrays = new StackTraceElementProxy[depth][];
+    this.commonFrames = new int[depth];
+    for (int i = 0; i < depth; i++) {
+      stepArrays[i] = ThrowableProxyUtil.steArrayToStepArray(steArrays[i]);
+      if (i > 0) {
+        commonFrames[i] = ThrowableProxyUtil.findNumberOfCommonFrames(
+            steArrays[i], stepArrays[i - 1]);
+      }
+    }
+  }
+
+  static int computeHash(String[] classNames, StackTraceElement[][] steArrays) {
+    int h = 1;
+    for (int i = 0; i < classNames.length; i++) {
+      h = 31 * h + classNames[i].hashCode();
+      for (StackTraceElement ste : steArrays[i]) {
+        h = 31 * h + ste.hashCode();
+      }
+    }
+    return h;
+  }
+
+  boolean matches(int otherHash, String[] otherClassNames,
+      StackTraceElement[][] otherSteArrays) {
+    if (hash != otherHash || classNames.length != otherClassNames.length) {
+      return false;
+    }
+    for (int i = 0; i < classNames.length; i++) {
+      if (!classNames[i].equals(otherClassNames[i])
+          || !Arrays.equals(steArrays[i], otherSteArrays[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the number of throwables in the chain
+   */
+  public int getDepth() {
+    return classNames.length;
+  }
+
+  ThrowableProxy newThrowableProxy(List<Throwable> chain) {
+    ThrowableProxy proxy = null;
+    for (int i = classNames.length - 1; i >= 0; i--) {
+      proxy = new ThrowableProxy(chain.get(i), classNames[i], stepArrays[i],
+          commonFrames[i], proxy, this);
+    }
+    return proxy;
+  }
+
+  // packaging data is attached to the shared StackTraceElementProxy
+  // instances and can be calculated only once
+  synchronized void calculatePackagingData() {
+    if (packagingDataCalculated) {
+      return;
+    }
+    PackagingDataCalculator pdc = new PackagingDataCalculator();
+    for (StackTraceElementProxy[] stepArray : stepArrays) {
+      pdc.populateFrames(stepArray);
+    }
+    packagingDataCalculated = true;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  /**
+   * Fingerprints are equal if their chains have the same class names and
+   * stack frames.
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null)
+      return false;
+    if (getClass() != obj.getClass())
+      return false;
+    final ThrowableFingerprint other = (ThrowableFingerprint) obj;
+    return matches(other.hash, other.classNames, other.steArrays);
+  }
+}
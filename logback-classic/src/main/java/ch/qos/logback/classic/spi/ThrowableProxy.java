@@ -27,8 +27,12 @@ public class ThrowableProxy implements IThrowableProxy {
   private transient PackagingDataCalculator packagingDataCalculator;
   private boolean calculatedPackageData = false;
 
+  // non-null if built by a ThrowableProxyCache
+  private final ThrowableFingerprint fingerprint;
+
   public ThrowableProxy(Throwable throwable) {
    
+    this.fingerprint = null;
     this.throwable = throwable;
     this.className = throwable.getClass().getName();
     this.message = throwable.getMessage();
@@ -45,6 +49,29 @@ public class ThrowableProxy implements IThrowableProxy {
     }
   }
 
+  ThrowableProxy(Throwable throwable, String className,
+      StackTraceElementProxy[] stackTraceElementProxyArray, int commonFrames,
+      ThrowableProxy cause, ThrowableFingerprint fingerprint) {
+    this.throwable = throwable;
+    this.className = className;
+    this.message = throwable.getMessage();
+    this.stackTraceElementProxyArray = stackTraceElementProxyArray;
+    this.commonFrames = commonFrames;
+    this.cause = cause;
+    this.fingerprint = fingerprint;
+  }
+
+  /**
+   * The fingerprint of the throwable chain this proxy belongs to, shared with
+   * the proxies of structurally identical throwables. Null if this proxy was
+   * not built by a {@link ThrowableProxyCache}.
+   * 
+   * @since 0.9.31
+   */
+  public ThrowableFingerprint getFingerprint() {
+    return fingerprint;
+  }
+
 
   public Throwable getThrowable() {
     return throwable;
@@ -94,6 +121,11 @@ public class ThrowableProxy implements IThrowableProxy {
     if (calculatedPackageData) {
       return;
     }
+    if (fingerprint != null) {
+      fingerprint.calculatePackagingData();
+      calculatedPackageData = true;
+      return;
+    }
     PackagingDataCalculator pdc = this.getPackagingDataCalculator();
     if (pdc != null) {
       calculatedPackageData = true;
@@ -0,0 +1,138 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Builds {@link ThrowableProxy} instances, sharing frame data between
+ * structurally identical throwables.
+ * 
+ * <p>Throwables are identified by a {@link ThrowableFingerprint} computed from
+ * the class names and stack frames of the throwable chain. When a throwable
+ * matches a previously seen fingerprint, its proxy reuses the
+ * {@link StackTraceElementProxy} arrays, the common frame counts and the
+ * packaging data computed for the first occurrence. At most
+ * <code>maxSize</code> fingerprints, rounded up to a power of two, are
+ * retained. A new fingerprint finding no free slot among those it is probed
+ * against replaces one of their fingerprints.
+ * 
+ * <p>Fingerprints are kept in an open addressing table indexed by their
+ * hash, so that lookups do not box the hash into a map key.
+ * 
+ * @since 0.9.31
+ */
+public class ThrowableProxyCache {
+
+  public static final int DEFAULT_MAX_SIZE = 128;
+
+  // number of slots probed for a fingerprint
+  static final int PROBE_LENGTH = 4;
+
+  final int maxSize;
+  final AtomicReferenceArray<ThrowableFingerprint> slots;
+  final int mask;
+  final AtomicInteger count = new AtomicInteger();
+
+  public ThrowableProxyCache(int maxSize) {
+    this.maxSize = maxSize;
+    int capacity = PROBE_LENGTH;
+    while (capacity < maxSize) {
+      capacity <<= 1;
+    }
+    this.slots = new AtomicReferenceArray<ThrowableFingerprint>(capacity);
+    this.mask = capacity - 1;
+  }
+
+  public ThrowableProxy newThrowableProxy(Throwable throwable) {
+    List<Throwable> chain = new ArrayList<Throwable>(4);
+    for (Throwable t = throwable; t != null; t = t.getCause()) {
+      if (containsIdentical(chain, t)) {
+        // circular causal chain
+        break;
+      }
+      chain.add(t);
+    }
+
+    int depth = chain.size();
+    String[] classNames = new String[depth];
+    StackTraceElement[][] steArrays = new StackTraceElement[depth][];
+    for (int i = 0; i < depth; i++) {
+      Throwable t = chain.get(i);
+      classNames[i] = t.getClass().getName();
+      steArrays[i] = t.getStackTrace();
+    }
+    int hash = ThrowableFingerprint.computeHash(classNames, steArrays);
+
+    ThrowableFingerprint fingerprint = findOrAdd(hash, classNames, steArrays);
+    return fingerprint.newThrowableProxy(chain);
+  }
+
+  public int size() {
+    return count.get();
+  }
+
+  private static boolean containsIdentical(List<Throwable> chain, Throwable t) {
+    for (Throwable c : chain) {
+      if (c == t) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Slots are never emptied, so a fingerprint is found among the slots probed
+   * before the first empty one, if at all.
+   */
+  private ThrowableFingerprint findOrAdd(int hash, String[] classNames,
+      StackTraceElement[][] steArrays) {
+    int first = hash & mask;
+    int index = first;
+    int i = 0;
+    for (; i < PROBE_LENGTH; i++, index = (index + 1) & mask) {
+      ThrowableFingerprint fingerprint = slots.get(index);
+      if (fingerprint == null) {
+        break;
+      }
+      if (fingerprint.matches(hash, classNames, steArrays)) {
+        return fingerprint;
+      }
+    }
+
+    ThrowableFingerprint fingerprint = new ThrowableFingerprint(hash,
+        classNames, steArrays);
+    if (i < PROBE_LENGTH) {
+      if (slots.compareAndSet(index, null, fingerprint)) {
+        count.incrementAndGet();
+        return fingerprint;
+      }
+      // lost the race for the slot
+      ThrowableFingerprint other = slots.get(index);
+      if (other.matches(hash, classNames, steArrays)) {
+        return other;
+      }
+      // use the fingerprint without caching it
+      return fingerprint;
+    }
+    // evict one of the fingerprints probed, spreading evictions over them
+    int victim = (first + ((int) System.nanoTime() & 0x7fffffff)
+        % PROBE_LENGTH) & mask;
+    slots.set(victim, fingerprint);
+    return fingerprint;
+  }
+}
@@ -13,6 +13,9 @@
  */
 package ch.qos.logback.classic.spi;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Collection;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.slf4j.Marker;
@@ -25,12 +28,22 @@ import ch.qos.logback.core.spi.FilterReply;
 /**
  * Implementation of TurboFilterAttachable.
  * 
+ * <p>Each modification of the list compiles the filters into an immutable
+ * array, which is then traversed by {@link #getTurboFilterChainDecision}
+ * without copying.
+ * 
  * @author Ceki G&uuml;lc&uuml;
  */
 final public class TurboFilterList extends CopyOnWriteArrayList<TurboFilter> {
 
   private static final long serialVersionUID = 1L;
 
+  private static final TurboFilter[] EMPTY_CHAIN = new TurboFilter[0];
+
+  private transient volatile TurboFilter[] chain = EMPTY_CHAIN;
+  // incremented each time the chain is compiled or a static decision changes
+  private transient volatile int generation = 0;
+
   /**
    * Loop through the filters in the chain. As soon as a filter decides on
    * ACCEPT or DENY, then that value is returned. If all of the filters return
@@ -39,27 +52,12 @@ final public class TurboFilterList extends CopyOnWriteArrayList<TurboFilter> {
   public final FilterReply getTurboFilterChainDecision(final Marker marker,
       final Logger logger, final Level level, final String format,
       final Object[] params, final Throwable t) {
-    
-    
-    final int size = size();
-//    if (size == 0) {
-//      return FilterReply.NEUTRAL;
-//    }
-    if (size == 1) {
-      try {
-        TurboFilter tf = get(0);
-        return tf.decide(marker, logger, level, format, params, t);
-      } catch (IndexOutOfBoundsException iobe) {
-        return FilterReply.NEUTRAL;
-      }
-    }
-    
-    Object[] tfa = toArray();
+
+    final TurboFilter[] tfa = chain;
     final int len = tfa.length;
     for (int i = 0; i < len; i++) {
-    //for (TurboFilter tf : this) {
-      final TurboFilter tf = (TurboFilter) tfa[i];
-      final FilterReply r = tf.decide(marker, logger, level, format, params, t);
+      final FilterReply r = tfa[i].decide(marker, logger, level, format,
+          params, t);
       if (r == FilterReply.DENY || r == FilterReply.ACCEPT) {
         return r;
       }
@@ -67,16 +65,154 @@ final public class TurboFilterList extends CopyOnWriteArrayList<TurboFilter> {
     return FilterReply.NEUTRAL;
   }
 
-  // public boolean remove(TurboFilter turboFilter) {
-  // return tfList.remove(turboFilter);
-  // }
-  //
-  // public TurboFilter remove(int index) {
-  // return tfList.remove(index);
-  // }
-  //
-  // final public int size() {
-  // return tfList.size();
-  // }
+  /**
+   * Returns the decision of the chain for every call made through
+   * <code>logger</code> at <code>level</code> without a marker, if that
+   * decision can be determined in advance, or null otherwise.
+   * 
+   * @see TurboFilter#getStaticDecision(Logger, Level)
+   * @since 0.9.31
+   */
+  public final FilterReply getStaticTurboFilterChainDecision(
+      final Logger logger, final Level level) {
+    final TurboFilter[] tfa = chain;
+    for (int i = 0; i < tfa.length; i++) {
+      final FilterReply r = tfa[i].getStaticDecision(logger, level);
+      if (r != FilterReply.NEUTRAL) {
+        // either null (unknown) or a final ACCEPT or DENY
+        return r;
+      }
+    }
+    return FilterReply.NEUTRAL;
+  }
+
+  /**
+   * The generation is incremented each time the chain changes, or the static
+   * decision of a filter in the chain changes. Values derived
+   * from the chain can be cached as long as the generation stays the same.
+   * 
+   * @since 0.9.31
+   */
+  public final int getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Replace the filters in this list by <code>filters</code>. The chain
+   * switches from the old filters to the new ones in a single step, so that
+   * {@link #getTurboFilterChainDecision} invokes either the old or the new
+   * filters, but never an empty or partial chain.
+   * 
+   * @since 0.9.31
+   */
+  public synchronized void replaceWith(Collection<? extends TurboFilter> filters) {
+    int oldSize = size();
+    super.addAll(filters);
+    super.subList(0, oldSize).clear();
+    compile();
+  }
+
+  /**
+   * Increment the generation without changing the chain, so that values
+   * derived from the chain are recomputed. Invoked when a filter changes its
+   * static decision, see {@link TurboFilter#getStaticDecision(Logger, Level)}.
+   * 
+   * @since 0.9.31
+   */
+  public synchronized void invalidateStaticDecisions() {
+    generation++;
+  }
+
+  private synchronized void compile() {
+    chain = toArray(EMPTY_CHAIN);
+    generation++;
+  }
+
+  @Override
+  public boolean add(TurboFilter e) {
+    boolean result = super.add(e);
+    compile();
+    return result;
+  }
+
+  @Override
+  public void add(int index, TurboFilter element) {
+    super.add(index, element);
+    compile();
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends TurboFilter> c) {
+    boolean result = super.addAll(c);
+    compile();
+    return result;
+  }
+
+  @Override
+  public boolean addAll(int index, Collection<? extends TurboFilter> c) {
+    boolean result = super.addAll(index, c);
+    compile();
+    return result;
+  }
+
+  @Override
+  public boolean addIfAbsent(TurboFilter e) {
+    boolean result = super.addIfAbsent(e);
+    compile();
+    return result;
+  }
+
+  @Override
+  public int addAllAbsent(Collection<? extends TurboFilter> c) {
+    int result = super.addAllAbsent(c);
+    compile();
+    return result;
+  }
 
+  @Override
+  public TurboFilter set(int index, TurboFilter element) {
+    TurboFilter result = super.set(index, element);
+    compile();
+    return result;
+  }
+
+  @Override
+  public TurboFilter remove(int index) {
+    TurboFilter result = super.remove(index);
+    compile();
+    return result;
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    boolean result = super.remove(o);
+    compile();
+    return result;
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> c) {
+    boolean result = super.removeAll(c);
+    compile();
+    return result;
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> c) {
+    boolean result = super.retainAll(c);
+    compile();
+    return result;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    compile();
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException,
+      ClassNotFoundException {
+    in.defaultReadObject();
+    compile();
+  }
 }
@@ -13,11 +13,17 @@
  */
 package ch.qos.logback.classic.turbo;
 
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
 import org.slf4j.Marker;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.core.spi.FilterReply;
+import ch.qos.logback.core.util.Duration;
+import ch.qos.logback.core.util.ExecutorServiceUtil;
 
 /**
  * 
@@ -41,21 +47,55 @@ public class DuplicateMessageFilter extends TurboFilter {
   public int allowedRepetitions = DEFAULT_ALLOWED_REPETITIONS;
   public int cacheSize = DEFAULT_CACHE_SIZE;
 
-  private LRUMessageCache msgCache;
+  private Duration resetPeriod;
+
+  private volatile LRUMessageCache msgCache;
+  private ScheduledFuture<?> resetFuture;
 
   @Override
   public void start() {
     msgCache = new LRUMessageCache(cacheSize);
+    if (resetPeriod != null && resetPeriod.getMilliseconds() > 0) {
+      ScheduledExecutorService executorService = (getContext() == null) ? null
+          : ExecutorServiceUtil.getScheduledExecutorService(getContext());
+      if (executorService == null) {
+        addWarn("No executor service in context, repetition counts will never be reset");
+      } else {
+        long period = resetPeriod.getMilliseconds();
+        resetFuture = executorService
+            .scheduleAtFixedRate(new Runnable() {
+              public void run() {
+                resetCounts();
+              }
+            }, period, period, TimeUnit.MILLISECONDS);
+      }
+    }
     super.start();
   }
 
   @Override
   public void stop() {
+    if (resetFuture != null) {
+      resetFuture.cancel(false);
+      resetFuture = null;
+    }
     msgCache.clear();
     msgCache = null;
     super.stop();
   }
 
+  /**
+   * Forget all messages seen so far. Invoked every {@link #getResetPeriod()
+   * reset period}, if one is set.
+   */
+  void resetCounts() {
+    if (msgCache != null) {
+      // swap rather than clear, so that concurrent callers never observe a
+      // half cleared cache
+      msgCache = new LRUMessageCache(cacheSize);
+    }
+  }
+
   @Override
   public FilterReply decide(Marker marker, Logger logger, Level level,
       String format, Object[] params, Throwable t) {
@@ -88,4 +128,20 @@ public class DuplicateMessageFilter extends TurboFilter {
     this.cacheSize = cacheSize;
   }
 
+  public Duration getResetPeriod() {
+    return resetPeriod;
+  }
+
+  /**
+   * The period after which repetition counts are reset, allowing previously
+   * suppressed messages to be logged again. By default, counts are never
+   * reset.
+   * 
+   * @param resetPeriod
+   * @since 0.9.31
+   */
+  public void setResetPeriod(Duration resetPeriod) {
+    this.resetPeriod = resetPeriod;
+  }
+
 }
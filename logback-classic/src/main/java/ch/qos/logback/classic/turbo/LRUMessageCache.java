@@ -13,25 +13,36 @@
  */
 package ch.qos.logback.classic.turbo;
 
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Clients of this class should only use the  {@link #getMessageCountAndThenIncrement} method. Other methods inherited
- * via LinkedHashMap are not thread safe.
+ * A bounded cache counting how many times each message was seen.
+ *
+ * <p>Counting does not acquire any lock. Counts are kept in
+ * {@link AtomicInteger} instances so that a hit does not allocate. When the
+ * cache size is exceeded, a message which was not recently seen is evicted.
+ * Recency is approximated by a second-chance (clock) scan over the messages in
+ * order of insertion, which, unlike an access ordered {@link
+ * java.util.LinkedHashMap}, does not require reordering a list on every hit.
  */
-class LRUMessageCache extends LinkedHashMap<String, Integer> {
+class LRUMessageCache {
 
-  private static final long serialVersionUID = 1L;
   final int cacheSize;
 
+  final ConcurrentMap<String, Counter> map;
+  // messages in (approximate) order of insertion
+  final ConcurrentLinkedQueue<Counter> queue = new ConcurrentLinkedQueue<Counter>();
+  final AtomicInteger size = new AtomicInteger();
+
   LRUMessageCache(int cacheSize) {
-    super((int) (cacheSize * (4.0f / 3)), 0.75f, true);
     if (cacheSize < 1) {
       throw new IllegalArgumentException("Cache size cannot be smaller than 1");
     }
     this.cacheSize = cacheSize;
+    this.map = new ConcurrentHashMap<String, Counter>((int) (cacheSize * (4.0f / 3)));
   }
 
   int getMessageCountAndThenIncrement(String msg) {
@@ -40,28 +51,79 @@ class LRUMessageCache extends LinkedHashMap<String, Integer> {
       return 0;
     }
 
-    Integer i;
-    // LinkedHashMap is not LinkedHashMap. See also LBCLASSIC-255
-    synchronized (this) {
-      i = super.get(msg);
-      if (i == null) {
-        i = 0;
-      } else {
-        i = new Integer(i.intValue() + 1);
+    Counter counter = map.get(msg);
+    if (counter != null) {
+      if (!counter.referenced) {
+        counter.referenced = true;
+      }
+      return counter.next();
+    }
+
+    counter = new Counter(msg);
+    Counter existing = map.putIfAbsent(msg, counter);
+    if (existing != null) {
+      // another thread inserted the same message
+      return existing.next();
+    }
+    queue.offer(counter);
+    if (size.incrementAndGet() > cacheSize) {
+      evict(counter);
+    }
+    return counter.next();
+  }
+
+  private void evict(Counter exempt) {
+    int attempts = 2 * size.get() + 1;
+    while (size.get() > cacheSize && attempts-- > 0) {
+      Counter candidate = queue.poll();
+      if (candidate == null) {
+        return;
+      }
+      if (candidate == exempt || candidate.referenced) {
+        candidate.referenced = false;
+        queue.offer(candidate);
+        continue;
+      }
+      if (map.remove(candidate.msg, candidate)) {
+        size.decrementAndGet();
       }
-      super.put(msg, i);
     }
-    return i;
   }
 
-  // called indirectly by get() or put() which are already supposed to be
-  // called from within a synchronized block
-  protected boolean removeEldestEntry(Map.Entry eldest) {
-    return (size() > cacheSize);
+  int size() {
+    return size.get();
+  }
+
+  void clear() {
+    map.clear();
+    queue.clear();
+    size.set(0);
   }
 
-  @Override
-  synchronized public void clear() {
-    super.clear();
+  static class Counter extends AtomicInteger {
+
+    private static final long serialVersionUID = 1L;
+
+    final String msg;
+    // set on hits, cleared by the clock hand
+    volatile boolean referenced;
+
+    Counter(String msg) {
+      this.msg = msg;
+    }
+
+    // saturates instead of wrapping around to negative counts, the check
+    // and the increment must be a single atomic step
+    int next() {
+      for (;;) {
+        int current = get();
+        if (current == Integer.MAX_VALUE) {
+          return current;
+        }
+        if (compareAndSet(current, current + 1)) {
+          return current;
+        }
+      }
+    }
   }
 }
@@ -54,6 +54,15 @@ public class MarkerFilter extends MatchingFilter {
     }
   }
 
+  @Override
+  public FilterReply getStaticDecision(Logger logger, Level level) {
+    if (!isStarted()) {
+      return null;
+    }
+    // calls without a marker never match
+    return onMismatch;
+  }
+
   /**
    * The marker to match in the event.
    * 
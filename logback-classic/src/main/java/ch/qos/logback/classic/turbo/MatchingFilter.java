@@ -34,6 +34,7 @@ public abstract class MatchingFilter extends TurboFilter {
     } else if ("DENY".equals(action)) {
       onMatch = FilterReply.DENY;
     }
+    staticDecisionChanged();
   }
 
   final public void setOnMismatch(String action) {
@@ -44,5 +45,6 @@ public abstract class MatchingFilter extends TurboFilter {
     } else if ("DENY".equals(action)) {
       onMismatch = FilterReply.DENY;
     }
+    staticDecisionChanged();
   }
 }
@@ -16,6 +16,8 @@ package ch.qos.logback.classic.turbo;
 import java.io.File;
 import java.net.URL;
 import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import ch.qos.logback.classic.gaffer.GafferUtil;
 import ch.qos.logback.classic.util.EnvUtil;
@@ -26,6 +28,7 @@ import ch.qos.logback.core.joran.util.ConfigurationWatchListUtil;
 import ch.qos.logback.core.status.Status;
 import ch.qos.logback.core.status.StatusChecker;
 import ch.qos.logback.core.status.WarnStatus;
+import ch.qos.logback.core.util.ExecutorServiceUtil;
 import org.slf4j.Marker;
 
 import ch.qos.logback.classic.Level;
@@ -39,13 +42,25 @@ import ch.qos.logback.core.status.InfoStatus;
 /**
  * Reconfigure a LoggerContext when the configuration file changes.
  *
+ * <p>The configuration files are scanned for changes by a task scheduled on
+ * the context's {@link java.util.concurrent.ScheduledExecutorService} once
+ * every refresh period. Logging calls never wait for, nor trigger, a scan.
+ * Once a change is detected, the reconfiguration itself runs on a thread of
+ * its own so that it neither delays other tasks of the executor nor gets
+ * interrupted when the executor is shut down.
+ *
+ * <p>The new configuration is built while the current one remains in use, and
+ * then swapped in, see {@link LoggerContext#beginReconfiguration()}. If the
+ * new configuration cannot be parsed, the previously registered safe
+ * configuration is swapped in instead. Scanning stops once a new
+ * configuration is committed, as it installs a filter of its own. If no
+ * configuration could be committed, this filter keeps scanning for the next
+ * change of the files.
+ *
  * @author Ceki Gulcu
  */
 public class ReconfigureOnChangeFilter extends TurboFilter {
 
-  final static long INIT = System.currentTimeMillis();
-  final static long SENTINEL = Long.MAX_VALUE;
-
   /**
    * Scan for changes in configuration file once every minute.
    */
@@ -54,9 +69,11 @@ public class ReconfigureOnChangeFilter extends TurboFilter {
 
   long refreshPeriod = DEFAULT_REFRESH_PERIOD;
   URL mainConfigurationURL;
-  protected volatile long nextCheck;
 
   ConfigurationWatchList configurationWatchList;
+  ScheduledFuture<?> scheduledFuture;
+  // set while a reconfiguration triggered by this filter is in progress
+  volatile boolean reconfiguring = false;
 
   @Override
   public void start() {
@@ -67,79 +84,56 @@ public class ReconfigureOnChangeFilter extends TurboFilter {
       long inSeconds = refreshPeriod / 1000;
       addInfo("Will scan for changes in [" + watchList + "] every "
               + inSeconds + " seconds. ");
-      synchronized (configurationWatchList) {
-        updateNextCheck(System.currentTimeMillis());
-      }
       super.start();
+      synchronized (this) {
+        scheduledFuture = ExecutorServiceUtil.getScheduledExecutorService(context).scheduleWithFixedDelay(
+            new ChangeDetector(), refreshPeriod, refreshPeriod, TimeUnit.MILLISECONDS);
+      }
     } else {
       addWarn("Empty ConfigurationWatchList in context");
     }
   }
 
+  @Override
+  public void stop() {
+    super.stop();
+    cancelScanning();
+  }
+
   @Override
   public String toString() {
     return "ReconfigureOnChangeFilter{" +
-            "invocationCounter=" + invocationCounter +
+            "refreshPeriod=" + refreshPeriod +
             '}';
   }
 
-  // The next fields counts the number of time the decide method is called
-  //
-  // IMPORTANT: This field can be updated by multiple threads. It follows that
-  // its values may *not* be incremented sequentially. However, we don't care
-  // about the actual value of the field except that from time to time the
-  // expression (invocationCounter++ & 0xF) == 0xF) should be true.
-  private long invocationCounter = 0;
-
+  /**
+   * Scanning is performed in the background by the context's scheduled
+   * executor service, so that this filter is neutral in all cases.
+   */
   @Override
   public FilterReply decide(Marker marker, Logger logger, Level level,
                             String format, Object[] params, Throwable t) {
-    if (!isStarted()) {
-      return FilterReply.NEUTRAL;
-    }
-
-    // for performance reasons, check for changes every 16 invocations
-    if (((invocationCounter++) & 0xF) != 0xF) {
-      return FilterReply.NEUTRAL;
-    }
-
-    synchronized (configurationWatchList) {
-      if (changeDetected()) {
-        // Even though reconfiguration involves resetting the loggerContext,
-        // which clears the list of turbo filters including this instance, it is
-        // still possible for this instance to be subsequently invoked by another
-        // thread if it was already executing when the context was reset.
-        disableSubsequentReconfiguration();
-        detachReconfigurationToNewThread();
-      }
-    }
-
     return FilterReply.NEUTRAL;
   }
 
-  // by detaching reconfiguration to a new thread, we release the various
-  // locks held by the current thread, in particular, the AppenderAttachable
-  // reader lock.
-  private void detachReconfigurationToNewThread() {
-    addInfo("Detected change in [" + configurationWatchList.getCopyOfFileWatchList() + "]");
-    new ReconfiguringThread().start();
-  }
-
-  void updateNextCheck(long now) {
-    nextCheck = now + refreshPeriod;
+  /**
+   * Always neutral, which allows loggers to skip this filter altogether.
+   */
+  @Override
+  public FilterReply getStaticDecision(Logger logger, Level level) {
+    return FilterReply.NEUTRAL;
   }
 
-  protected boolean changeDetected() {
-    long now = System.currentTimeMillis();
-    if (now >= nextCheck) {
-      updateNextCheck(now);
-      return configurationWatchList.changeDetected();
+  private synchronized void cancelScanning() {
+    if (scheduledFuture != null) {
+      scheduledFuture.cancel(false);
+      scheduledFuture = null;
     }
-    return false;
   }
 
-  void disableSubsequentReconfiguration() {
-    nextCheck = Long.MAX_VALUE;
+  protected boolean changeDetected() {
+    return configurationWatchList.changeDetected();
   }
 
   public long getRefreshPeriod() {
@@ -150,62 +144,125 @@ public class ReconfigureOnChangeFilter extends TurboFilter {
     this.refreshPeriod = refreshPeriod;
   }
 
-  class ReconfiguringThread extends Thread {
+  class ChangeDetector implements Runnable {
+    public void run() {
+      if (!isStarted() || reconfiguring || !changeDetected()) {
+        return;
+      }
+      reconfiguring = true;
+      addInfo("Detected change in [" + configurationWatchList.getCopyOfFileWatchList() + "]");
+      detachReconfigurationToNewThread();
+    }
+  }
+
+  private void detachReconfigurationToNewThread() {
+    new Thread(new ReconfiguringTask(), "logback-reconfigure-"
+        + context.getName()).start();
+  }
+
+  class ReconfiguringTask implements Runnable {
     public void run() {
+      boolean committed = false;
+      try {
+        committed = reconfigure();
+      } finally {
+        if (committed) {
+          // the committed configuration installs a filter of its own
+          cancelScanning();
+        } else {
+          // wait for the next change instead of retrying every period
+          configurationWatchList.updateLastModifiedList();
+          addWarn("No configuration was committed, will keep scanning ["
+              + configurationWatchList.getCopyOfFileWatchList() + "]");
+        }
+        reconfiguring = false;
+      }
+    }
+
+    private boolean reconfigure() {
       if (mainConfigurationURL == null) {
         addInfo("Due to missing top level configuration file, skipping reconfiguration");
-        return;
+        return false;
       }
       LoggerContext lc = (LoggerContext) context;
       addInfo("Will reset and reconfigure context named [" + context.getName() + "]");
       if (mainConfigurationURL.toString().endsWith("xml")) {
-        performXMLConfiguration(lc);
+        return performXMLConfiguration(lc);
       } else if (mainConfigurationURL.toString().endsWith("groovy")) {
         if (EnvUtil.isGroovyAvailable()) {
-          lc.reset();
-          // avoid directly referring to GafferConfigurator so as to avoid
-          // loading  groovy.lang.GroovyObject . See also http://jira.qos.ch/browse/LBCLASSIC-214
-          GafferUtil.runGafferConfiguratorOn(lc, this, mainConfigurationURL);
+          lc.beginReconfiguration();
+          boolean committed = false;
+          try {
+            // avoid directly referring to GafferConfigurator so as to avoid
+            // loading  groovy.lang.GroovyObject . See also http://jira.qos.ch/browse/LBCLASSIC-214
+            GafferUtil.runGafferConfiguratorOn(lc, this, mainConfigurationURL);
+            lc.commitReconfiguration();
+            committed = true;
+          } finally {
+            if (!committed) {
+              lc.abortReconfiguration();
+            }
+          }
+          return true;
         } else {
           addError("Groovy classes are not available on the class path. ABORTING INITIALIZATION.");
         }
       }
+      return false;
     }
 
-    private void performXMLConfiguration(LoggerContext lc) {
+    private boolean performXMLConfiguration(LoggerContext lc) {
       JoranConfigurator jc = new JoranConfigurator();
       jc.setContext(context);
       StatusChecker statusChecker = new StatusChecker(context);
       List<SaxEvent> eventList = jc.recallSafeConfiguration();
       URL mainURL = ConfigurationWatchListUtil.getMainWatchURL(context);
-      lc.reset();
+      lc.beginReconfiguration();
       long threshold = System.currentTimeMillis();
+      boolean parsed = false;
       try {
         jc.doConfigure(mainConfigurationURL);
-        if (statusChecker.hasXMLParsingErrors(threshold)) {
-          fallbackConfiguration(lc, eventList, mainURL);
-        }
+        parsed = !statusChecker.hasXMLParsingErrors(threshold);
       } catch (JoranException e) {
-        fallbackConfiguration(lc, eventList, mainURL);
+        // handled by falling back below
+      } finally {
+        if (parsed) {
+          lc.commitReconfiguration();
+        } else {
+          lc.abortReconfiguration();
+        }
+      }
+      if (parsed) {
+        return true;
       }
+      return fallbackConfiguration(lc, eventList, mainURL);
     }
 
-    private void fallbackConfiguration(LoggerContext lc, List<SaxEvent> eventList, URL mainURL) {
+    private boolean fallbackConfiguration(LoggerContext lc, List<SaxEvent> eventList, URL mainURL) {
       JoranConfigurator joranConfigurator = new JoranConfigurator();
       joranConfigurator.setContext(context);
       if (eventList != null) {
         addWarn("Falling back to previously registered safe configuration.");
+        lc.beginReconfiguration();
+        boolean committed = false;
         try {
-          lc.reset();
           joranConfigurator.informContextOfURLUsedForConfiguration(context, mainURL);
           joranConfigurator.doConfigure(eventList);
+          lc.commitReconfiguration();
+          committed = true;
           addInfo("Re-registering previous fallback configuration once more as a fallback configuration point");
           joranConfigurator.registerSafeConfiguration();
         } catch (JoranException e) {
           addError("Unexpected exception thrown by a configuration considered safe.", e);
+        } finally {
+          if (!committed) {
+            lc.abortReconfiguration();
+          }
         }
+        return committed;
       } else {
-        addWarn("No previous configuration to fall back to.");
+        addWarn("No previous configuration to fall back to, keeping the current one.");
+        return false;
       }
     }
   }
@@ -17,6 +17,8 @@ import org.slf4j.Marker;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.Context;
 import ch.qos.logback.core.spi.ContextAwareBase;
 import ch.qos.logback.core.spi.FilterReply;
 import ch.qos.logback.core.spi.LifeCycle;
@@ -53,8 +55,53 @@ public abstract class TurboFilter extends ContextAwareBase implements LifeCycle
   public abstract FilterReply decide(Marker marker, Logger logger,
       Level level, String format, Object[] params, Throwable t);
 
+  /**
+   * Declare the decision this filter makes for every call issued through
+   * <code>logger</code> at <code>level</code> without a marker, provided that
+   * the decision depends on nothing else, in particular not on the message,
+   * its parameters, the throwable, the MDC or the time of the call.
+   * Otherwise, null must be returned.
+   * 
+   * <p>
+   * When the decisions of all filters in the chain are known in advance, the
+   * logger caches the decision of the chain and skips calling the filters
+   * altogether. The cached decision is discarded whenever the list of turbo
+   * filters attached to the context changes, or a filter in it is started or
+   * stopped. Subclasses whose declared decision depends on other state, e.g.
+   * options set after the filter was attached, must invoke
+   * {@link #staticDecisionChanged()} when that state changes.
+   * 
+   * <p>
+   * The default implementation returns null, so that {@link #decide} is
+   * invoked on every call.
+   * 
+   * @param logger
+   * @param level
+   * @return the decision of this filter, or null if it cannot be determined
+   *         in advance
+   * @since 0.9.31
+   */
+  public FilterReply getStaticDecision(Logger logger, Level level) {
+    return null;
+  }
+
+  /**
+   * Discard the static decisions cached by the loggers of the context, see
+   * {@link #getStaticDecision(Logger, Level)}.
+   * 
+   * @since 0.9.31
+   */
+  protected void staticDecisionChanged() {
+    Context context = getContext();
+    if (context instanceof LoggerContext) {
+      ((LoggerContext) context).getTurboFilterList()
+          .invalidateStaticDecisions();
+    }
+  }
+
   public void start() {
     this.start = true;
+    staticDecisionChanged();
   }
   
   public boolean isStarted() {
@@ -63,6 +110,7 @@ public abstract class TurboFilter extends ContextAwareBase implements LifeCycle
  
   public void stop() {
     this.start = false;
+    staticDecisionChanged();
   }
 
 
@@ -15,7 +15,6 @@ package ch.qos.logback.classic.util;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Collections;
 import java.util.Set;
 
 
@@ -31,6 +30,11 @@ import org.slf4j.spi.MDCAdapter;
  * automatically inherits a <em>copy</em> of the mapped diagnostic context of
  * its parent.
  * <p/>
+ * The context of each thread is held in an immutable {@link PersistentMDCMap}.
+ * Modifications replace the map with an updated one sharing most of its
+ * structure, so that the map returned by {@link #getPropertyMap()} is a
+ * snapshot which never needs to be copied.
+ * <p/>
  * <p/>
  * For more information about MDC, please refer to the online manual at
  * http://logback.qos.ch/manual/mdc.html
@@ -39,51 +43,19 @@ import org.slf4j.spi.MDCAdapter;
  */
 public final class LogbackMDCAdapter implements MDCAdapter {
 
-  // We wish to avoid unnecessarily copying of the map. To ensure
-  // efficient/timely copying, we have a variable keeping track of the last
-  // operation. A copy is necessary on 'put' or 'remove' but only if the last
-  // operation was a 'get'. Get operations never necessitate a copy nor
-  // successive 'put/remove' operations, only a get followed by a 'put/remove'
-  // requires copying the map.
-  // See http://jira.qos.ch/browse/LBCLASSIC-254 for the original discussion.
-
-  // We no longer use CopyOnInheritThreadLocal in order to solve LBCLASSIC-183
-  // Initially the contents of the thread local in parent and child threads
-  // reference the same map. However, as soon as a thread invokes the put()
-  // method, the maps diverge as they should.
+  // The map held by each thread is an immutable PersistentMDCMap. Initially
+  // the contents of the thread local in parent and child threads reference
+  // the same map. However, as soon as a thread invokes the put() method, the
+  // maps diverge as they should. As maps are never modified in place, there
+  // is no need to copy them on inheritance or after reads.
+  // See also http://jira.qos.ch/browse/LBCLASSIC-183 and LBCLASSIC-254
   final InheritableThreadLocal<Map<String, String>> copyOnInheritThreadLocal = new InheritableThreadLocal<Map<String, String>>();
 
-  private static final int WRITE_OPERATION = 1;
-  private static final int READ_OPERATION = 2;
-
-  // keeps track of the last operation performed
-  final ThreadLocal<Integer> lastOperation = new ThreadLocal<Integer>();
-
   public LogbackMDCAdapter() {
   }
 
-  private Integer getAndSetLastOperation(int op) {
-    Integer lastOp = lastOperation.get();
-    lastOperation.set(op);
-    return lastOp;
-  }
-
-  private boolean wasLastOpReadOrNull(Integer lastOp) {
-    return lastOp == null || lastOp.intValue() == READ_OPERATION;
-  }
-
-  private Map<String, String> duplicateAndInsertNewMap(Map<String, String> oldMap) {
-    Map<String, String> newMap = Collections.synchronizedMap(new HashMap<String, String>());
-    if (oldMap != null) {
-        // we don't want the parent thread modifying oldMap while we are
-        // iterating over it
-        synchronized (oldMap) {
-          newMap.putAll(oldMap);
-        }
-    }
-
-    copyOnInheritThreadLocal.set(newMap);
-    return newMap;
+  private PersistentMDCMap getCurrentMap() {
+    return (PersistentMDCMap) copyOnInheritThreadLocal.get();
   }
 
   /**
@@ -102,16 +74,11 @@ public final class LogbackMDCAdapter implements MDCAdapter {
       throw new IllegalArgumentException("key cannot be null");
     }
 
-    Map<String, String> oldMap = copyOnInheritThreadLocal.get();
-    //System.out.println(Thread.currentThread().toString()+", "+oldMap);
-
-    Integer lastOp = getAndSetLastOperation(WRITE_OPERATION);
-
-    if (wasLastOpReadOrNull(lastOp) || oldMap == null) {
-      Map<String, String> newMap = duplicateAndInsertNewMap(oldMap);
-      newMap.put(key, val);
-    } else {
-      oldMap.put(key, val);
+    PersistentMDCMap oldMap = getCurrentMap();
+    PersistentMDCMap newMap = (oldMap == null ? PersistentMDCMap.EMPTY : oldMap)
+        .plus(key, val);
+    if (newMap != oldMap) {
+      copyOnInheritThreadLocal.set(newMap);
     }
   }
 
@@ -123,16 +90,12 @@ public final class LogbackMDCAdapter implements MDCAdapter {
     if (key == null) {
       return;
     }
-    Map<String, String> oldMap = copyOnInheritThreadLocal.get();
+    PersistentMDCMap oldMap = getCurrentMap();
     if (oldMap == null) return;
 
-    Integer lastOp = getAndSetLastOperation(WRITE_OPERATION);
-
-    if (wasLastOpReadOrNull(lastOp)) {
-      Map<String, String> newMap = duplicateAndInsertNewMap(oldMap);
-      newMap.remove(key);
-    } else {
-      oldMap.remove(key);
+    PersistentMDCMap newMap = oldMap.minus(key);
+    if (newMap != oldMap) {
+      copyOnInheritThreadLocal.set(newMap);
     }
   }
 
@@ -141,7 +104,6 @@ public final class LogbackMDCAdapter implements MDCAdapter {
    * Clear all entries in the MDC.
    */
   public void clear() {
-    lastOperation.set(WRITE_OPERATION);
     copyOnInheritThreadLocal.remove();
   }
 
@@ -160,10 +122,10 @@ public final class LogbackMDCAdapter implements MDCAdapter {
 
   /**
    * Get the current thread's MDC as a map. This method is intended to be used
-   * internally.
+   * internally. The returned map is immutable and is not affected by
+   * subsequent modifications of the MDC.
    */
   public Map<String, String> getPropertyMap() {
-    lastOperation.set(READ_OPERATION);
     return copyOnInheritThreadLocal.get();
   }
 
@@ -186,23 +148,16 @@ public final class LogbackMDCAdapter implements MDCAdapter {
    * null.
    */
   public Map getCopyOfContextMap() {
-    lastOperation.set(READ_OPERATION);
-    Map<String, String> hashMap = copyOnInheritThreadLocal.get();
-    if (hashMap == null) {
+    Map<String, String> map = copyOnInheritThreadLocal.get();
+    if (map == null) {
       return null;
     } else {
-      return new HashMap<String, String>(hashMap);
+      return new HashMap<String, String>(map);
     }
   }
 
   @SuppressWarnings("unchecked")
   public void setContextMap(Map contextMap) {
-    lastOperation.set(WRITE_OPERATION);
-
-    Map<String, String> newMap = Collections.synchronizedMap(new HashMap<String, String>());
-    newMap.putAll(contextMap);
-
-    // the newMap replaces the old one for serialisation's sake
-    copyOnInheritThreadLocal.set(newMap);
+    copyOnInheritThreadLocal.set(PersistentMDCMap.from(contextMap));
   }
 }
@@ -0,0 +1,489 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable map used by {@link LogbackMDCAdapter} to hold the MDC of a
+ * thread.
+ *
+ * <p>Instead of being modified in place, a map is updated by {@link #plus}
+ * and {@link #minus} which return a new map sharing most of its structure with
+ * the original. Thus, a reference to the map held by a thread is a consistent
+ * snapshot which can be handed out, e.g. to logging events or child threads,
+ * without copying.
+ *
+ * <p>Up to {@link #ARRAY_MAP_THRESHOLD} entries are kept in a flat array of
+ * alternating keys and values. Larger maps are kept in a hash array mapped
+ * trie (HAMT) so that updates copy O(log n) nodes instead of the whole map.
+ *
+ * <p>Keys may not be null, values may.
+ */
+final class PersistentMDCMap extends AbstractMap<String, String> implements
+    Serializable {
+
+  private static final long serialVersionUID = -2389548412337257839L;
+
+  static final int ARRAY_MAP_THRESHOLD = 8;
+
+  static final PersistentMDCMap EMPTY = new PersistentMDCMap(new Object[0],
+      null, 0);
+
+  private static final Object NOT_FOUND = new Object();
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  // alternating keys and values, used while size <= ARRAY_MAP_THRESHOLD
+  private final Object[] array;
+  // used when size > ARRAY_MAP_THRESHOLD
+  private final Node root;
+  private final int size;
+
+  private PersistentMDCMap(Object[] array, Node root, int size) {
+    this.array = array;
+    this.root = root;
+    this.size = size;
+  }
+
+  static PersistentMDCMap from(Map<String, String> map) {
+    PersistentMDCMap result = EMPTY;
+    for (Map.Entry<String, String> entry : map.entrySet()) {
+      result = result.plus(entry.getKey(), entry.getValue());
+    }
+    return result;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return find(key) != NOT_FOUND;
+  }
+
+  @Override
+  public String get(Object key) {
+    Object found = find(key);
+    return found == NOT_FOUND ? null : (String) found;
+  }
+
+  private Object find(Object key) {
+    if (!(key instanceof String)) {
+      return NOT_FOUND;
+    }
+    if (root == null) {
+      int i = arrayIndexOf(array, key);
+      return i < 0 ? NOT_FOUND : array[i + 1];
+    }
+    return root.find((String) key, hash(key), 0);
+  }
+
+  /**
+   * Return a map identical to this one except that <code>key</code> is
+   * associated with <code>value</code>.
+   */
+  PersistentMDCMap plus(String key, String value) {
+    if (key == null) {
+      throw new IllegalArgumentException("key cannot be null");
+    }
+    if (root == null) {
+      int i = arrayIndexOf(array, key);
+      if (i >= 0) {
+        if (array[i + 1] == value) {
+          return this;
+        }
+        Object[] newArray = array.clone();
+        newArray[i + 1] = value;
+        return new PersistentMDCMap(newArray, null, size);
+      }
+      if (size < ARRAY_MAP_THRESHOLD) {
+        Object[] newArray = new Object[array.length + 2];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        newArray[array.length] = key;
+        newArray[array.length + 1] = value;
+        return new PersistentMDCMap(newArray, null, size + 1);
+      }
+      Node newRoot = BitmapNode.EMPTY;
+      for (int j = 0; j < array.length; j += 2) {
+        String k = (String) array[j];
+        newRoot = newRoot.assoc(k, (String) array[j + 1], hash(k), 0);
+      }
+      newRoot = newRoot.assoc(key, value, hash(key), 0);
+      return new PersistentMDCMap(null, newRoot, size + 1);
+    }
+
+    int hash = hash(key);
+    boolean present = root.find(key, hash, 0) != NOT_FOUND;
+    Node newRoot = root.assoc(key, value, hash, 0);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentMDCMap(null, newRoot, present ? size : size + 1);
+  }
+
+  /**
+   * Return a map identical to this one except that it has no entry for
+   * <code>key</code>.
+   */
+  PersistentMDCMap minus(String key) {
+    if (key == null) {
+      return this;
+    }
+    if (root == null) {
+      int i = arrayIndexOf(array, key);
+      if (i < 0) {
+        return this;
+      }
+      if (size == 1) {
+        return EMPTY;
+      }
+      Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, i);
+      System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+      return new PersistentMDCMap(newArray, null, size - 1);
+    }
+
+    Node newRoot = root.without(key, hash(key), 0);
+    if (newRoot == root) {
+      return this;
+    }
+    int newSize = size - 1;
+    if (newSize > ARRAY_MAP_THRESHOLD) {
+      return new PersistentMDCMap(null, newRoot, newSize);
+    }
+    Object[] newArray = new Object[2 * newSize];
+    newRoot.fill(newArray, 0);
+    return new PersistentMDCMap(newArray, null, newSize);
+  }
+
+  @Override
+  public Set<Map.Entry<String, String>> entrySet() {
+    return new AbstractSet<Map.Entry<String, String>>() {
+      @Override
+      public Iterator<Map.Entry<String, String>> iterator() {
+        return new EntryIterator(flatten());
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  private Object[] flatten() {
+    if (root == null) {
+      return array;
+    }
+    Object[] flat = new Object[2 * size];
+    root.fill(flat, 0);
+    return flat;
+  }
+
+  // serialize as a plain HashMap so that readers need not know this class
+  private Object writeReplace() throws ObjectStreamException {
+    return new HashMap<String, String>(this);
+  }
+
+  static int hash(Object key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private static int arrayIndexOf(Object[] array, Object key) {
+    for (int i = 0; i < array.length; i += 2) {
+      if (key.equals(array[i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static Object[] cloneAndSet(Object[] array, int i, Object o) {
+    Object[] clone = array.clone();
+    clone[i] = o;
+    return clone;
+  }
+
+  // ================================================================
+  private static class EntryIterator implements
+      Iterator<Map.Entry<String, String>> {
+    final Object[] flat;
+    int i = 0;
+
+    EntryIterator(Object[] flat) {
+      this.flat = flat;
+    }
+
+    public boolean hasNext() {
+      return i < flat.length;
+    }
+
+    public Map.Entry<String, String> next() {
+      if (i >= flat.length) {
+        throw new NoSuchElementException();
+      }
+      Map.Entry<String, String> entry = new ImmutableEntry((String) flat[i],
+          (String) flat[i + 1]);
+      i += 2;
+      return entry;
+    }
+
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private static class ImmutableEntry implements Map.Entry<String, String> {
+    final String key;
+    final String value;
+
+    ImmutableEntry(String key, String value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    public String getKey() {
+      return key;
+    }
+
+    public String getValue() {
+      return value;
+    }
+
+    public String setValue(String value) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+      return key.equals(e.getKey())
+          && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+    }
+
+    @Override
+    public int hashCode() {
+      return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return key + "=" + value;
+    }
+  }
+
+  private static abstract class Node {
+    abstract Object find(String key, int hash, int shift);
+
+    abstract Node assoc(String key, String value, int hash, int shift);
+
+    // returns null if the resulting node is empty
+    abstract Node without(String key, int hash, int shift);
+
+    // copies the entries of this node into dest, returns the next position
+    abstract int fill(Object[] dest, int pos);
+  }
+
+  /**
+   * Each bit set in the bitmap corresponds to a pair of slots in the array,
+   * holding either a key and its value, or null and a sub-node.
+   */
+  private static final class BitmapNode extends Node {
+    static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    final int bitmap;
+    final Object[] array;
+
+    BitmapNode(int bitmap, Object[] array) {
+      this.bitmap = bitmap;
+      this.array = array;
+    }
+
+    static int bitpos(int hash, int shift) {
+      return 1 << ((hash >>> shift) & MASK);
+    }
+
+    int index(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    Object find(String key, int hash, int shift) {
+      int bit = bitpos(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return NOT_FOUND;
+      }
+      int i = 2 * index(bit);
+      Object k = array[i];
+      if (k == null) {
+        return ((Node) array[i + 1]).find(key, hash, shift + BITS);
+      }
+      return key.equals(k) ? array[i + 1] : NOT_FOUND;
+    }
+
+    Node assoc(String key, String value, int hash, int shift) {
+      int bit = bitpos(hash, shift);
+      int i = 2 * index(bit);
+      if ((bitmap & bit) != 0) {
+        Object k = array[i];
+        Object v = array[i + 1];
+        if (k == null) {
+          Node n = ((Node) v).assoc(key, value, hash, shift + BITS);
+          return n == v ? this : new BitmapNode(bitmap, cloneAndSet(array,
+              i + 1, n));
+        }
+        if (key.equals(k)) {
+          return v == value ? this : new BitmapNode(bitmap, cloneAndSet(array,
+              i + 1, value));
+        }
+        Node sub = createNode(shift + BITS, (String) k, (String) v, key, value,
+            hash);
+        Object[] newArray = cloneAndSet(array, i, null);
+        newArray[i + 1] = sub;
+        return new BitmapNode(bitmap, newArray);
+      }
+      Object[] newArray = new Object[array.length + 2];
+      System.arraycopy(array, 0, newArray, 0, i);
+      newArray[i] = key;
+      newArray[i + 1] = value;
+      System.arraycopy(array, i, newArray, i + 2, array.length - i);
+      return new BitmapNode(bitmap | bit, newArray);
+    }
+
+    Node without(String key, int hash, int shift) {
+      int bit = bitpos(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int i = 2 * index(bit);
+      Object k = array[i];
+      if (k == null) {
+        Node sub = (Node) array[i + 1];
+        Node n = sub.without(key, hash, shift + BITS);
+        if (n == sub) {
+          return this;
+        }
+        if (n != null) {
+          return new BitmapNode(bitmap, cloneAndSet(array, i + 1, n));
+        }
+      } else if (!key.equals(k)) {
+        return this;
+      }
+      if (bitmap == bit) {
+        return null;
+      }
+      Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, i);
+      System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+      return new BitmapNode(bitmap ^ bit, newArray);
+    }
+
+    int fill(Object[] dest, int pos) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (array[i] == null) {
+          pos = ((Node) array[i + 1]).fill(dest, pos);
+        } else {
+          dest[pos++] = array[i];
+          dest[pos++] = array[i + 1];
+        }
+      }
+      return pos;
+    }
+
+    private static Node createNode(int shift, String k0, String v0,
+        String k1, String v1, int hash1) {
+      int hash0 = hash(k0);
+      if (hash0 == hash1) {
+        return new CollisionNode(hash0, new Object[] { k0, v0, k1, v1 });
+      }
+      return EMPTY.assoc(k0, v0, hash0, shift).assoc(k1, v1, hash1, shift);
+    }
+  }
+
+  /**
+   * Holds keys having the same hash.
+   */
+  private static final class CollisionNode extends Node {
+    final int hash;
+    final Object[] array;
+
+    CollisionNode(int hash, Object[] array) {
+      this.hash = hash;
+      this.array = array;
+    }
+
+    Object find(String key, int hash, int shift) {
+      if (hash != this.hash) {
+        return NOT_FOUND;
+      }
+      int i = arrayIndexOf(array, key);
+      return i < 0 ? NOT_FOUND : array[i + 1];
+    }
+
+    Node assoc(String key, String value, int hash, int shift) {
+      if (hash != this.hash) {
+        // nest this node so that the new key can be told apart
+        BitmapNode parent = new BitmapNode(BitmapNode.bitpos(this.hash, shift),
+            new Object[] { null, this });
+        return parent.assoc(key, value, hash, shift);
+      }
+      int i = arrayIndexOf(array, key);
+      if (i >= 0) {
+        return array[i + 1] == value ? this : new CollisionNode(hash,
+            cloneAndSet(array, i + 1, value));
+      }
+      Object[] newArray = new Object[array.length + 2];
+      System.arraycopy(array, 0, newArray, 0, array.length);
+      newArray[array.length] = key;
+      newArray[array.length + 1] = value;
+      return new CollisionNode(hash, newArray);
+    }
+
+    Node without(String key, int hash, int shift) {
+      if (hash != this.hash) {
+        return this;
+      }
+      int i = arrayIndexOf(array, key);
+      if (i < 0) {
+        return this;
+      }
+      if (array.length == 2) {
+        return null;
+      }
+      Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, i);
+      System.arraycopy(array, i + 2, newArray, i, array.length - i - 2);
+      return new CollisionNode(hash, newArray);
+    }
+
+    int fill(Object[] dest, int pos) {
+      System.arraycopy(array, 0, dest, pos, array.length);
+      return pos + array.length;
+    }
+  }
+}
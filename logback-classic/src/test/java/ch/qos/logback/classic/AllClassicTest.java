@@ -28,6 +28,8 @@ import org.junit.runners.Suite.SuiteClasses;
         ch.qos.logback.classic.boolex.PackageTest.class,
         ch.qos.logback.classic.selector.PackageTest.class,
         ch.qos.logback.classic.html.PackageTest.class,
+        ch.qos.logback.classic.json.PackageTest.class,
+        ch.qos.logback.classic.log4j.PackageTest.class,
         ch.qos.logback.classic.net.PackageTest.class,
         ch.qos.logback.classic.pattern.PackageTest.class,
         ch.qos.logback.classic.encoder.PackageTest.class,
@@ -20,11 +20,21 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
 import org.junit.Before;
 import org.junit.Test;
 
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggerContextListener;
 import ch.qos.logback.classic.turbo.NOPTurboFilter;
+import ch.qos.logback.core.AppenderBase;
 import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.status.Status;
+import ch.qos.logback.core.status.StatusChecker;
 import ch.qos.logback.core.status.StatusManager;
 
 public class LoggerContextTest {
@@ -222,4 +232,301 @@ public class LoggerContextTest {
     assertNotNull(lc.getObject(CoreConstants.EVALUATOR_MAP));
   }
   
-}
\ No newline at end of file
+
+  ListAppender<ILoggingEvent> buildListAppender() {
+    ListAppender<ILoggingEvent> listAppender = new ListAppender<ILoggingEvent>();
+    listAppender.setContext(lc);
+    listAppender.start();
+    return listAppender;
+  }
+
+  @Test
+  public void reconfigurationIsPublishedOnCommit() {
+    Logger root = lc.getLogger(Logger.ROOT_LOGGER_NAME);
+    Logger a = lc.getLogger("a");
+    ListAppender<ILoggingEvent> oldAppender = buildListAppender();
+    root.addAppender(oldAppender);
+    a.setLevel(Level.WARN);
+    a.setAdditive(false);
+
+    lc.beginReconfiguration();
+    ListAppender<ILoggingEvent> newAppender = buildListAppender();
+    root.addAppender(newAppender);
+    root.setLevel(Level.INFO);
+    lc.getLogger("b").setLevel(Level.ERROR);
+
+    // the current configuration remains in effect
+    assertEquals(Level.WARN, a.getLevel());
+    assertEquals(Level.DEBUG, root.getLevel());
+    assertFalse(a.isAdditive());
+    a.warn("before commit");
+    assertEquals(0, oldAppender.list.size());
+    root.info("before commit");
+    assertEquals(1, oldAppender.list.size());
+    assertEquals(0, newAppender.list.size());
+
+    lc.commitReconfiguration();
+    assertEquals(Level.INFO, root.getLevel());
+    assertNull(a.getLevel());
+    assertEquals(Level.INFO, a.getEffectiveLevel());
+    assertTrue(a.isAdditive());
+    assertEquals(Level.ERROR, lc.getLogger("b").getEffectiveLevel());
+    assertFalse(oldAppender.isStarted());
+    assertFalse(root.isAttached(oldAppender));
+    assertTrue(root.isAttached(newAppender));
+
+    a.info("after commit");
+    assertEquals(1, newAppender.list.size());
+  }
+
+  @Test
+  public void abortedReconfigurationLeavesContextUntouched() {
+    Logger root = lc.getLogger(Logger.ROOT_LOGGER_NAME);
+    ListAppender<ILoggingEvent> oldAppender = buildListAppender();
+    root.addAppender(oldAppender);
+    root.setLevel(Level.WARN);
+    NOPTurboFilter oldFilter = new NOPTurboFilter();
+    oldFilter.start();
+    lc.addTurboFilter(oldFilter);
+    lc.putProperty("keyA", "valA");
+    lc.putObject("keyA", "valA");
+
+    lc.beginReconfiguration();
+    assertNull(lc.getProperty("keyA"));
+    ListAppender<ILoggingEvent> newAppender = buildListAppender();
+    root.addAppender(newAppender);
+    root.setLevel(Level.TRACE);
+    NOPTurboFilter newFilter = new NOPTurboFilter();
+    newFilter.start();
+    lc.addTurboFilter(newFilter);
+    lc.putProperty("keyB", "valB");
+    lc.abortReconfiguration();
+
+    assertEquals(Level.WARN, root.getLevel());
+    assertTrue(oldAppender.isStarted());
+    assertTrue(root.isAttached(oldAppender));
+    assertFalse(newAppender.isStarted());
+    assertFalse(root.isAttached(newAppender));
+    assertEquals(1, lc.getTurboFilterList().size());
+    assertTrue(oldFilter.isStarted());
+    assertFalse(newFilter.isStarted());
+    assertEquals("valA", lc.getProperty("keyA"));
+    assertEquals("valA", lc.getObject("keyA"));
+    assertNull(lc.getProperty("keyB"));
+  }
+
+  @Test
+  public void turboFiltersAreSwappedOnCommit() {
+    NOPTurboFilter oldFilter = new NOPTurboFilter();
+    oldFilter.start();
+    lc.addTurboFilter(oldFilter);
+
+    lc.beginReconfiguration();
+    NOPTurboFilter newFilter = new NOPTurboFilter();
+    newFilter.start();
+    lc.addTurboFilter(newFilter);
+    assertEquals(oldFilter, lc.getTurboFilterList().get(0));
+    lc.commitReconfiguration();
+
+    assertEquals(1, lc.getTurboFilterList().size());
+    assertEquals(newFilter, lc.getTurboFilterList().get(0));
+    assertFalse(oldFilter.isStarted());
+    assertTrue(newFilter.isStarted());
+  }
+
+  @Test
+  public void noEventIsLostDuringReconfiguration() throws InterruptedException {
+    final int eventCount = 100 * 1000;
+    final Logger logger = lc.getLogger("a.b");
+    final List<ListAppender<ILoggingEvent>> appenderList = new ArrayList<ListAppender<ILoggingEvent>>();
+    ListAppender<ILoggingEvent> listAppender = buildListAppender();
+    appenderList.add(listAppender);
+    lc.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(listAppender);
+
+    Thread loggingThread = new Thread() {
+      public void run() {
+        for (int i = 0; i < eventCount; i++) {
+          logger.info("hello");
+        }
+      }
+    };
+    loggingThread.start();
+    while (loggingThread.isAlive()) {
+      lc.beginReconfiguration();
+      listAppender = buildListAppender();
+      appenderList.add(listAppender);
+      lc.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(listAppender);
+      lc.commitReconfiguration();
+      Thread.yield();
+    }
+    loggingThread.join();
+
+    int total = 0;
+    for (ListAppender<ILoggingEvent> la : appenderList) {
+      total += la.list.size();
+    }
+    assertEquals(eventCount, total);
+  }
+
+  @Test
+  public void eventsUseTheAppendersOfASingleGeneration()
+      throws InterruptedException {
+    final int eventCount = 100 * 1000;
+    final Logger logger = lc.getLogger("a.b");
+    Logger root = lc.getLogger(Logger.ROOT_LOGGER_NAME);
+    List<ListAppender<ILoggingEvent>> rootAppenderList = new ArrayList<ListAppender<ILoggingEvent>>();
+    List<ListAppender<ILoggingEvent>> loggerAppenderList = new ArrayList<ListAppender<ILoggingEvent>>();
+    rootAppenderList.add(buildListAppender());
+    loggerAppenderList.add(buildListAppender());
+    root.addAppender(rootAppenderList.get(0));
+    logger.addAppender(loggerAppenderList.get(0));
+
+    Thread loggingThread = new Thread() {
+      public void run() {
+        for (int i = 0; i < eventCount; i++) {
+          logger.info("hello");
+        }
+      }
+    };
+    loggingThread.start();
+    while (loggingThread.isAlive()) {
+      lc.beginReconfiguration();
+      ListAppender<ILoggingEvent> rootAppender = buildListAppender();
+      ListAppender<ILoggingEvent> loggerAppender = buildListAppender();
+      rootAppenderList.add(rootAppender);
+      loggerAppenderList.add(loggerAppender);
+      root.addAppender(rootAppender);
+      logger.addAppender(loggerAppender);
+      lc.commitReconfiguration();
+      Thread.yield();
+    }
+    loggingThread.join();
+
+    // through additivity, each event reaches both appenders of its generation
+    for (int i = 0; i < rootAppenderList.size(); i++) {
+      assertEquals(rootAppenderList.get(i).list.size(), loggerAppenderList
+          .get(i).list.size());
+    }
+  }
+
+  @Test(timeout = 5000)
+  public void appenderMayCommitAReconfiguration() {
+    Logger root = lc.getLogger(Logger.ROOT_LOGGER_NAME);
+    final ListAppender<ILoggingEvent> newAppender = buildListAppender();
+    AppenderBase<ILoggingEvent> reconfiguringAppender = new AppenderBase<ILoggingEvent>() {
+      protected void append(ILoggingEvent event) {
+        Logger root = lc.getLogger(Logger.ROOT_LOGGER_NAME);
+        lc.beginReconfiguration();
+        root.addAppender(newAppender);
+        lc.commitReconfiguration();
+      }
+    };
+    reconfiguringAppender.setContext(lc);
+    reconfiguringAppender.start();
+    root.addAppender(reconfiguringAppender);
+
+    root.info("reconfigure");
+    root.info("hello");
+    assertEquals(1, newAppender.list.size());
+  }
+
+  @Test(timeout = 5000)
+  public void blockedAppenderDelaysCommitBoundedly() throws InterruptedException {
+    Logger root = lc.getLogger(Logger.ROOT_LOGGER_NAME);
+    final CountDownLatch appending = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    AppenderBase<ILoggingEvent> blockedAppender = new AppenderBase<ILoggingEvent>() {
+      protected void append(ILoggingEvent event) {
+        appending.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    blockedAppender.setContext(lc);
+    blockedAppender.start();
+    root.addAppender(blockedAppender);
+    Thread loggingThread = new Thread() {
+      public void run() {
+        lc.getLogger(Logger.ROOT_LOGGER_NAME).info("blocked");
+      }
+    };
+    loggingThread.start();
+    appending.await();
+
+    lc.maxQuiescenceWait = 100;
+    lc.beginReconfiguration();
+    lc.commitReconfiguration();
+    StatusChecker checker = new StatusChecker(lc);
+    assertTrue(checker.containsMatch(Status.WARN, "Events still being appended"));
+    release.countDown();
+    loggingThread.join();
+  }
+
+  @Test
+  public void resetIsFiredOnCommitOnly() {
+    ResetCountingListener listener = new ResetCountingListener();
+    lc.addListener(listener);
+
+    lc.beginReconfiguration();
+    assertEquals(0, listener.resetCount);
+    lc.abortReconfiguration();
+    assertEquals(0, listener.resetCount);
+    assertTrue(lc.getCopyOfListenerList().contains(listener));
+
+    lc.beginReconfiguration();
+    ResetCountingListener newListener = new ResetCountingListener();
+    lc.addListener(newListener);
+    assertEquals(0, listener.resetCount);
+    lc.commitReconfiguration();
+    assertEquals(1, listener.resetCount);
+    assertEquals(0, newListener.resetCount);
+    assertFalse(lc.getCopyOfListenerList().contains(listener));
+    assertTrue(lc.getCopyOfListenerList().contains(newListener));
+  }
+
+  @Test
+  public void levelSetConcurrentlyIsKeptOnCommit() throws InterruptedException {
+    final Logger a = lc.getLogger("a");
+    final Logger b = lc.getLogger("b");
+    lc.beginReconfiguration();
+    lc.getLogger("b").setLevel(Level.ERROR);
+    Thread jmxThread = new Thread() {
+      public void run() {
+        a.setLevel(Level.WARN);
+        b.setLevel(Level.TRACE);
+      }
+    };
+    jmxThread.start();
+    jmxThread.join();
+    assertEquals(Level.WARN, a.getLevel());
+    lc.commitReconfiguration();
+
+    assertEquals(Level.WARN, a.getLevel());
+    // the level set by the configuration wins
+    assertEquals(Level.ERROR, b.getLevel());
+  }
+
+  static class ResetCountingListener implements LoggerContextListener {
+    int resetCount;
+
+    public boolean isResetResistant() {
+      return false;
+    }
+
+    public void onStart(LoggerContext context) {
+    }
+
+    public void onReset(LoggerContext context) {
+      resetCount++;
+    }
+
+    public void onStop(LoggerContext context) {
+    }
+
+    public void onLevelChange(Logger logger, Level level) {
+    }
+  }
+}
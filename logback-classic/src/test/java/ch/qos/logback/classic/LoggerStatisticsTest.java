@@ -0,0 +1,128 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggerStatistics;
+import ch.qos.logback.classic.spi.LoggerStatisticsSummary;
+import ch.qos.logback.classic.turbo.MarkerFilter;
+import ch.qos.logback.core.read.ListAppender;
+
+public class LoggerStatisticsTest {
+
+  static final String BLUE = "BLUE";
+
+  LoggerContext context = new LoggerContext();
+  Marker blueMarker = MarkerFactory.getMarker(BLUE);
+  ListAppender<ILoggingEvent> listAppender = new ListAppender<ILoggingEvent>();
+
+  @Before
+  public void setUp() {
+    context.setName("test");
+    context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+    MarkerFilter filter = new MarkerFilter();
+    filter.setMarker(BLUE);
+    filter.setOnMatch("DENY");
+    filter.start();
+    context.addTurboFilter(filter);
+    listAppender.setContext(context);
+    listAppender.start();
+  }
+
+  @Test
+  public void disabledByDefault() {
+    Logger logger = context.getLogger("a.b");
+    logger.info("hello");
+    assertNull(logger.getStatistics());
+    assertTrue(context.getNoisiestLoggers(10).isEmpty());
+  }
+
+  @Test
+  public void countsPerLevel() {
+    context.getLogger("a.b").addAppender(listAppender);
+    context.setLoggerStatisticsEnabled(true);
+    Logger ab = context.getLogger("a.b");
+    // created after statistics were enabled
+    Logger ac = context.getLogger("a.c");
+    assertNotNull(ac.getStatistics());
+
+    ab.info("hello");
+    ab.info("hello");
+    ab.debug("disabled by level");
+    ab.warn(blueMarker, "denied");
+    ac.error("no appender");
+
+    LoggerStatistics s = ab.getStatistics();
+    assertEquals(2, s.get(LoggerStatistics.ENABLED, Level.INFO));
+    assertEquals(2, s.get(LoggerStatistics.APPENDED, Level.INFO));
+    assertEquals(0, s.get(LoggerStatistics.ENABLED, Level.DEBUG));
+    assertEquals(1, s.get(LoggerStatistics.DENIED, Level.WARN));
+    assertEquals(1, ac.getStatistics().get(LoggerStatistics.ENABLED,
+        Level.ERROR));
+    assertEquals(0, ac.getStatistics().get(LoggerStatistics.APPENDED,
+        Level.ERROR));
+  }
+
+  @Test
+  public void noisiestLoggersAreAggregatedUpTheHierarchy() {
+    context.setLoggerStatisticsEnabled(true);
+    Logger ab = context.getLogger("a.b");
+    Logger ac = context.getLogger("a.c");
+    for (int i = 0; i < 3; i++) {
+      ab.info("hello");
+    }
+    ac.error("hello");
+    context.getLogger("x").info("hello");
+
+    List<LoggerStatisticsSummary> summaryList = context.getNoisiestLoggers(10);
+    assertEquals(5, summaryList.size());
+    assertEquals(Logger.ROOT_LOGGER_NAME, summaryList.get(0).getLoggerName());
+    assertEquals(5, summaryList.get(0).getTotal(LoggerStatistics.ENABLED));
+    assertEquals(0, summaryList.get(0).getOwnTotal(LoggerStatistics.ENABLED));
+    assertEquals("a", summaryList.get(1).getLoggerName());
+    assertEquals(4, summaryList.get(1).getTotal(LoggerStatistics.ENABLED));
+    assertEquals(1, summaryList.get(1).get(LoggerStatistics.ENABLED,
+        Level.ERROR));
+    assertEquals("a.b", summaryList.get(2).getLoggerName());
+    assertEquals("a.c", summaryList.get(3).getLoggerName());
+    assertEquals("x", summaryList.get(4).getLoggerName());
+
+    assertEquals(2, context.getNoisiestLoggers(2).size());
+    String report = context.buildLoggerStatisticsReport(10);
+    assertTrue(report, report.contains("a.b enabled=3"));
+  }
+
+  @Test
+  public void disablingDiscardsCounts() {
+    context.setLoggerStatisticsEnabled(true);
+    Logger ab = context.getLogger("a.b");
+    ab.info("hello");
+    context.setLoggerStatisticsEnabled(false);
+    assertNull(ab.getStatistics());
+    ab.info("hello");
+    assertTrue(context.getNoisiestLoggers(10).isEmpty());
+  }
+}
@@ -22,7 +22,7 @@ import org.junit.runners.Suite.SuiteClasses;
     ScenarioBasedLoggerContextTest.class, PatternLayoutTest.class,
     LoggerTest.class, LoggerSerializationTest.class,
     MessageFormattingTest.class, MDCTest.class,
-    TurboFilteringInLoggerTest.class })
+    TurboFilteringInLoggerTest.class, LoggerStatisticsTest.class })
 
     
 public class PackageTest {
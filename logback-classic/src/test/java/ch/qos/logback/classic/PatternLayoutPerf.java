@@ -0,0 +1,86 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+/**
+ * Compares the cost of formatting events with typical production patterns,
+ * with and without compilation of the converter chain to bytecode.
+ */
+public class PatternLayoutPerf {
+
+  static final int LOOP_LEN = 1000 * 1000;
+  static final int WARMUP_LEN = 100 * 1000;
+
+  static final String DEFAULT_PATTERN = "%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n";
+  static final String[] PATTERNS = {
+      DEFAULT_PATTERN,
+      "%date{ISO8601} %-5level [%thread] %logger{36} %X{user} %X{session} - %msg%n",
+      "%relative [%thread] %level %logger - %msg%n",
+      "%d %p [%t] %c{0} <%mdc> [%marker] %m%n%ex{short}" };
+
+  LoggerContext lc = new LoggerContext();
+  ILoggingEvent event;
+
+  @Before
+  public void setUp() {
+    MDC.put("user", "alice");
+    MDC.put("session", "s0");
+    Logger logger = lc.getLogger("com.example.service.OrderService");
+    event = new LoggingEvent(Logger.class.getName(), logger, Level.INFO,
+        "Order {} shipped", null, new Object[] { 42 });
+    event.prepareForDeferredProcessing();
+    MDC.clear();
+  }
+
+  @Test
+  public void interpreted() {
+    for (String pattern : PATTERNS) {
+      loop("interpreted", pattern, false);
+    }
+  }
+
+  @Test
+  public void compiled() {
+    for (String pattern : PATTERNS) {
+      loop("compiled", pattern, true);
+    }
+  }
+
+  void loop(String msg, String pattern, boolean compileToBytecode) {
+    PatternLayout pl = new PatternLayout();
+    pl.setContext(lc);
+    pl.setPattern(pattern);
+    pl.setCompileToBytecode(compileToBytecode);
+    pl.start();
+
+    int sum = 0;
+    for (int i = 0; i < WARMUP_LEN; i++) {
+      sum += pl.doLayout(event).length();
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < LOOP_LEN; i++) {
+      sum += pl.doLayout(event).length();
+    }
+    long end = System.nanoTime();
+    System.out.println(msg + " [" + pattern + "]: " + (end - start) / LOOP_LEN
+        + " nanoseconds per event (" + sum + ")");
+  }
+}
@@ -16,6 +16,7 @@ package ch.qos.logback.classic;
 import static ch.qos.logback.classic.ClassicTestConstants.ISO_REGEX;
 import static ch.qos.logback.classic.ClassicTestConstants.MAIN_REGEX;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -23,6 +24,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import ch.qos.logback.core.status.Status;
+import ch.qos.logback.core.status.StatusChecker;
 import ch.qos.logback.core.util.StatusPrinter;
 import org.junit.Before;
 import org.junit.Ignore;
@@ -204,5 +206,27 @@ public class PatternLayoutTest extends AbstractPatternLayoutBaseTest<ILoggingEve
     assertEquals("And the number is XXXX, expiring on 12/2010", sla.strList.get(0));
   }
 
-
+  @Test
+  public void compiledLayoutMatchesInterpretedLayout() {
+    String[] patterns = { PatternLayoutPerf.DEFAULT_PATTERN,
+        "%-5level %date{ISO8601} [%thread] %logger{36}:%line %mdc - %msg%n%rEx",
+        "%d{HH:mm:ss.SSS} %.-3level %replace(%msg){'Some', 'Any'} %X{k}|%n",
+        "%relative %-30(%level %caller{1}) %xEx{short}" };
+    for (String pattern : patterns) {
+      PatternLayout interpreted = new PatternLayout();
+      interpreted.setContext(lc);
+      interpreted.setPattern(pattern);
+      interpreted.start();
+
+      PatternLayout compiled = new PatternLayout();
+      compiled.setContext(lc);
+      compiled.setPattern(pattern);
+      compiled.setCompileToBytecode(true);
+      compiled.start();
+
+      assertEquals(interpreted.doLayout(le), compiled.doLayout(le));
+    }
+    StatusChecker checker = new StatusChecker(lc);
+    assertFalse(checker.containsMatch("Falling back"));
+  }
 }
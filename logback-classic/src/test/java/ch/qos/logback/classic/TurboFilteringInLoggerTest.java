@@ -156,6 +156,66 @@ public class TurboFilteringInLoggerTest  {
     assertFalse(logger.isDebugEnabled(blueMarker));
   }
 
+  @Test
+  public void staticDecisionShortCircuitsTheChain() {
+    CountingStaticNeutralFilter counting = new CountingStaticNeutralFilter();
+    counting.start();
+    context.addTurboFilter(counting);
+    addAcceptBLUEFilter();
+    logger.setLevel(Level.INFO);
+
+    logger.debug("hello");
+    logger.debug("hello {}", "a");
+    logger.isDebugEnabled();
+    assertEquals(0, counting.decideCount);
+
+    // calls with a marker go through the chain
+    logger.debug(blueMarker, "hello");
+    assertEquals(1, counting.decideCount);
+  }
+
+  @Test
+  public void staticDenyWithMarkerFilter() {
+    MarkerFilter filter = new MarkerFilter();
+    filter.setMarker(BLUE);
+    filter.setOnMatch("ACCEPT");
+    filter.setOnMismatch("DENY");
+    filter.start();
+    context.addTurboFilter(filter);
+    logger.setLevel(Level.ALL);
+    assertFalse(logger.isErrorEnabled());
+    assertTrue(logger.isDebugEnabled(blueMarker));
+  }
+
+  @Test
+  public void staticDecisionsAreRecomputedWhenFilterChanges() {
+    MarkerFilter filter = new MarkerFilter();
+    filter.setContext(context);
+    filter.setMarker(BLUE);
+    filter.setOnMismatch("DENY");
+    filter.start();
+    context.addTurboFilter(filter);
+    logger.setLevel(Level.ALL);
+    assertFalse(logger.isErrorEnabled());
+
+    filter.setOnMismatch("NEUTRAL");
+    assertTrue(logger.isErrorEnabled());
+    filter.setOnMismatch("DENY");
+    assertFalse(logger.isErrorEnabled());
+    filter.stop();
+    assertTrue(logger.isErrorEnabled());
+  }
+
+  @Test
+  public void staticDecisionsAreRecomputedWhenChainChanges() {
+    logger.setLevel(Level.INFO);
+    assertFalse(logger.isDebugEnabled());
+    addYesFilter();
+    assertTrue(logger.isDebugEnabled());
+    context.resetTurboFilterList();
+    assertFalse(logger.isDebugEnabled());
+  }
+
   @Test
   public void testLoggingContextReset() {
     addYesFilter();
@@ -180,4 +240,20 @@ class NoFilter extends TurboFilter {
       String format, Object[] params, Throwable t) {
     return FilterReply.DENY;
   }
-}
\ No newline at end of file
+}
+
+class CountingStaticNeutralFilter extends TurboFilter {
+  int decideCount = 0;
+
+  @Override
+  public FilterReply decide(Marker marker, Logger logger, Level level,
+      String format, Object[] params, Throwable t) {
+    decideCount++;
+    return FilterReply.NEUTRAL;
+  }
+
+  @Override
+  public FilterReply getStaticDecision(Logger logger, Level level) {
+    return FilterReply.NEUTRAL;
+  }
+}
@@ -0,0 +1,243 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.allocation;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import ch.qos.logback.classic.ClassicTestConstants;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.joran.spi.JoranException;
+import ch.qos.logback.core.status.StatusChecker;
+import ch.qos.logback.core.testUtil.RandomUtil;
+
+/**
+ * Checks that the bytes allocated per logging call stay within the budgets
+ * listed in {@link #BUDGETS_FILE}. When a change legitimately increases or
+ * reduces allocations, the corresponding budget should be updated with the
+ * value printed by the failing scenario.
+ * 
+ * <p>Allocations depend on the JVM version, pointer size and JIT compiler.
+ * This test is therefore not part of the default test suite. It only runs
+ * when the {@link #ENABLED_PROPERTY} system property is true, for example
+ * with the allocation-budget Maven profile, on a JVM similar to the one the
+ * budgets were measured on.
+ */
+public class AllocationBudgetTest {
+
+  static final String ENABLED_PROPERTY = "logback.allocationBudget";
+
+  static final String INPUT_PREFIX = ClassicTestConstants.INPUT_PREFIX
+      + "allocation/";
+  static final String BUDGETS_FILE = INPUT_PREFIX + "budgets.properties";
+
+  static final String PATTERN = "%d %-5level [%thread] %logger{36} - %msg%n";
+  static final String MDC_PATTERN = "%d %-5level [%thread] %logger{36} "
+      + "user=%X{user} session=%X{session} request=%X{request} tenant=%X{tenant} - %msg%n";
+  static final String EXCEPTION_PATTERN = PATTERN + "%ex";
+
+  int diff = RandomUtil.getPositiveInt();
+  String outputDir = ClassicTestConstants.OUTPUT_DIR_PREFIX + "allocation-"
+      + diff + "/";
+
+  LoggerContext loggerContext = new LoggerContext();
+  Logger root = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+  Logger logger = loggerContext.getLogger(this.getClass());
+  StatusChecker statusChecker = new StatusChecker(loggerContext);
+
+  AllocationMeter meter = AllocationMeter.newInstance();
+  Properties budgets = new Properties();
+
+  @Before
+  public void setUp() throws IOException {
+    InputStream in = new FileInputStream(BUDGETS_FILE);
+    try {
+      budgets.load(in);
+    } finally {
+      in.close();
+    }
+  }
+
+  @After
+  public void tearDown() {
+    MDC.clear();
+    loggerContext.stop();
+  }
+
+  @Test
+  public void disabledDebug() {
+    attachFileAppender(PATTERN);
+    root.setLevel(Level.INFO);
+    final Object arg = "world";
+    assertWithinBudget("disabledDebug", new Runnable() {
+      public void run() {
+        logger.debug("hello {}", arg);
+      }
+    });
+  }
+
+  @Test
+  public void infoWithOneParameter() {
+    attachFileAppender(PATTERN);
+    final Object arg = "world";
+    assertWithinBudget("infoWithOneParameter", new Runnable() {
+      public void run() {
+        logger.info("hello {}", arg);
+      }
+    });
+  }
+
+  @Test
+  public void infoWithTwoParameters() {
+    attachFileAppender(PATTERN);
+    final Object arg0 = "world";
+    final Object arg1 = Boolean.TRUE;
+    assertWithinBudget("infoWithTwoParameters", new Runnable() {
+      public void run() {
+        logger.info("hello {}, the answer is {}", arg0, arg1);
+      }
+    });
+  }
+
+  @Test
+  public void infoWithManyParameters() {
+    attachFileAppender(PATTERN);
+    // the array is allocated by the caller, not by logback
+    final Object[] args = new Object[] { "world", Boolean.TRUE, "alpha",
+        "beta", "gamma" };
+    assertWithinBudget("infoWithManyParameters", new Runnable() {
+      public void run() {
+        logger.info("hello {}, the answer is {}, then {} {} {}", args);
+      }
+    });
+  }
+
+  @Test
+  public void mdcHeavyPattern() {
+    attachFileAppender(MDC_PATTERN);
+    MDC.put("user", "alice");
+    MDC.put("session", "3f2c9a7e-5d41-4b8a-9c0e-2a6f1d7b8e93");
+    MDC.put("request", "GET /orders/42");
+    MDC.put("tenant", "alpha");
+    final Object arg = "world";
+    assertWithinBudget("mdcHeavyPattern", new Runnable() {
+      public void run() {
+        logger.info("hello {}", arg);
+      }
+    });
+  }
+
+  @Test
+  public void exception() {
+    attachFileAppender(EXCEPTION_PATTERN);
+    final Exception e = buildException();
+    assertWithinBudget("exception", new Runnable() {
+      public void run() {
+        logger.info("failure", e);
+      }
+    });
+  }
+
+  @Test
+  public void siftingAppender() throws JoranException {
+    loggerContext.putProperty("outputDir", outputDir);
+    JoranConfigurator jc = new JoranConfigurator();
+    jc.setContext(loggerContext);
+    jc.doConfigure(INPUT_PREFIX + "sifting.xml");
+    MDC.put("tenant", "alpha");
+    final Object arg = "world";
+    assertWithinBudget("siftingAppender", new Runnable() {
+      public void run() {
+        logger.info("hello {}", arg);
+      }
+    });
+  }
+
+  void attachFileAppender(String pattern) {
+    PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(loggerContext);
+    encoder.setPattern(pattern);
+    encoder.start();
+
+    FileAppender<ILoggingEvent> fa = new FileAppender<ILoggingEvent>();
+    fa.setContext(loggerContext);
+    fa.setName("FILE");
+    fa.setFile(outputDir + "allocation.log");
+    fa.setAppend(false);
+    fa.setEncoder(encoder);
+    fa.start();
+    root.addAppender(fa);
+  }
+
+  /**
+   * The stack trace is fixed so that the measure does not depend on the depth
+   * at which the test runner invokes this test. It only refers to existing
+   * classes so that packaging data can be computed.
+   */
+  Exception buildException() {
+    Exception cause = new IllegalStateException("cause");
+    cause.setStackTrace(new StackTraceElement[] {
+        new StackTraceElement("java.util.HashMap", "get", "HashMap.java", 303),
+        new StackTraceElement("java.lang.Thread", "run", "Thread.java", 662) });
+    Exception e = new Exception("failure", cause);
+    StackTraceElement[] trace = new StackTraceElement[12];
+    for (int i = 0; i < trace.length - 1; i++) {
+      trace[i] = new StackTraceElement("java.util.concurrent.FutureTask",
+          "run", "FutureTask.java", 138 + i);
+    }
+    trace[trace.length - 1] = new StackTraceElement("java.lang.Thread", "run",
+        "Thread.java", 662);
+    e.setStackTrace(trace);
+    return e;
+  }
+
+  void assertWithinBudget(String scenario, Runnable operation) {
+    assertTrue(statusChecker.isErrorFree(0));
+    if (!Boolean.getBoolean(ENABLED_PROPERTY)) {
+      System.out.println(ENABLED_PROPERTY + " is not set, skipping " + scenario);
+      return;
+    }
+    if (meter == null) {
+      System.out.println("Thread allocation counters unavailable, skipping "
+          + scenario);
+      return;
+    }
+    String budgetStr = budgets.getProperty(scenario);
+    assertNotNull("no budget for " + scenario + " in " + BUDGETS_FILE,
+        budgetStr);
+    long budget = Long.parseLong(budgetStr.trim());
+    long allocated = meter.bytesPerOperation(operation);
+    System.out.println(scenario + " allocated " + allocated
+        + " bytes per call, budget is " + budget);
+    assertTrue(scenario + " allocated " + allocated
+        + " bytes per call, exceeding its budget of " + budget + " bytes in "
+        + BUDGETS_FILE, allocated <= budget);
+  }
+}
@@ -0,0 +1,102 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.allocation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the number of bytes allocated by the current thread per execution
+ * of an operation, based on the thread allocation counters of HotSpot JVMs
+ * (JDK 6u25 or later).
+ * 
+ * <p>The operation is first warmed up so that it gets compiled. It is then run
+ * in several rounds and the smallest per operation average is retained, which
+ * filters out allocations made by the JIT compiler or the class loader on the
+ * measuring thread.
+ */
+public class AllocationMeter {
+
+  static final int DEFAULT_WARMUP_COUNT = 20 * 1000;
+  static final int DEFAULT_ROUND_COUNT = 5;
+  static final int DEFAULT_ROUND_LENGTH = 2 * 1000;
+
+  final com.sun.management.ThreadMXBean threadMXBean;
+  int warmupCount = DEFAULT_WARMUP_COUNT;
+  int roundCount = DEFAULT_ROUND_COUNT;
+  int roundLength = DEFAULT_ROUND_LENGTH;
+
+  AllocationMeter(com.sun.management.ThreadMXBean threadMXBean) {
+    this.threadMXBean = threadMXBean;
+  }
+
+  /**
+   * @return a meter for the current JVM, or null if the JVM does not support
+   *         thread allocation counters
+   */
+  public static AllocationMeter newInstance() {
+    try {
+      ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+        return null;
+      }
+      com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+      if (!sunBean.isThreadAllocatedMemorySupported()) {
+        return null;
+      }
+      if (!sunBean.isThreadAllocatedMemoryEnabled()) {
+        sunBean.setThreadAllocatedMemoryEnabled(true);
+      }
+      return new AllocationMeter(sunBean);
+    } catch (LinkageError e) {
+      // com.sun.management is not available on this JVM
+      return null;
+    } catch (UnsupportedOperationException e) {
+      return null;
+    }
+  }
+
+  public void setWarmupCount(int warmupCount) {
+    this.warmupCount = warmupCount;
+  }
+
+  public void setRoundCount(int roundCount) {
+    this.roundCount = roundCount;
+  }
+
+  public void setRoundLength(int roundLength) {
+    this.roundLength = roundLength;
+  }
+
+  /**
+   * @return the number of bytes allocated per execution of the operation,
+   *         rounded down
+   */
+  public long bytesPerOperation(Runnable operation) {
+    long threadId = Thread.currentThread().getId();
+    for (int i = 0; i < warmupCount; i++) {
+      operation.run();
+    }
+    long min = Long.MAX_VALUE;
+    for (int round = 0; round < roundCount; round++) {
+      long before = threadMXBean.getThreadAllocatedBytes(threadId);
+      for (int i = 0; i < roundLength; i++) {
+        operation.run();
+      }
+      long after = threadMXBean.getThreadAllocatedBytes(threadId);
+      min = Math.min(min, (after - before) / roundLength);
+    }
+    return min;
+  }
+}
@@ -125,6 +125,33 @@ public class HTMLLayoutTest {
     assertEquals(DefaultThrowableRenderer.TRACE_PREFIX + "at c1.m1(f1:1)", result[1]);
   }
 
+  @Test
+  public void renderedThrowableIsEscaped() throws Exception {
+    StringBuilder buf = new StringBuilder();
+    DummyThrowableProxy tp = new DummyThrowableProxy();
+    tp.setClassName("test1");
+    tp.setMessage("<b>msg1</b>");
+    StackTraceElement ste = new StackTraceElement("c1", "<init>", "f1", 1);
+    tp.setStackTraceElementProxyArray(new StackTraceElementProxy[] { new StackTraceElementProxy(ste) });
+    DefaultThrowableRenderer renderer = (DefaultThrowableRenderer) layout
+        .getThrowableRenderer();
+
+    renderer.render(buf, tp);
+    String[] result = buf.toString().split(CoreConstants.LINE_SEPARATOR);
+    assertEquals("test1: &lt;b&gt;msg1&lt;/b&gt;", result[0]);
+    assertEquals(DefaultThrowableRenderer.TRACE_PREFIX + "at c1.&lt;init&gt;(f1:1)", result[1]);
+  }
+
+  @Test
+  public void successiveLayoutsAreIndependent() throws Exception {
+    LoggingEvent le = createLoggingEvent();
+    String first = layout.doLayout(le);
+    String second = layout.doLayout(le);
+    assertTrue(first.contains("test message"));
+    // only the odd/even class differs
+    assertEquals(first.replace(" even", " odd"), second.replace(" even", " odd"));
+  }
+
   @Test
   public void testDoLayout() throws Exception {
     ILoggingEvent le = createLoggingEvent();
@@ -32,7 +32,10 @@ import org.junit.Test;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.LoggerContextListener;
+import ch.qos.logback.core.metrics.AppenderMetrics;
+import ch.qos.logback.core.read.ListAppender;
 import ch.qos.logback.core.testUtil.RandomUtil;
 
 public class JMXConfiguratorTest {
@@ -155,4 +158,60 @@ public class JMXConfiguratorTest {
     MBeanUtil.unregister(lc, mbs, on, this);
   }
 
+  @Test
+  public void appenderMetrics() throws Exception {
+    String objectNameAsStr = "ch.qos"+diff + ":Name=" + lc.getName()
+        + ",Type=" + this.getClass().getName();
+    ObjectName on = MBeanUtil.string2ObjectName(lc, this, objectNameAsStr);
+    JMXConfigurator configurator = new JMXConfigurator(lc, mbs, on);
+
+    ListAppender<ILoggingEvent> listAppender = new ListAppender<ILoggingEvent>();
+    listAppender.setContext(lc);
+    listAppender.setName("LIST:" + diff);
+    listAppender.start();
+    testLogger.addAppender(listAppender);
+    lc.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(listAppender);
+    testLogger.setAdditive(false);
+
+    configurator.setAppenderMetricsEnabled(true);
+    AppenderMetrics metrics = listAppender.getMetrics();
+    assertNotNull(metrics);
+    ObjectName metricsName = new ObjectName(MBeanUtil.getObjectNameFor(lc
+        .getName(), AppenderMetrics.class, listAppender.getName()));
+    assertTrue(mbs.isRegistered(metricsName));
+
+    testLogger.info("hello");
+    assertEquals(1L, mbs.getAttribute(metricsName, "AppendedCount"));
+
+    configurator.setAppenderMetricsEnabled(false);
+    assertNull(listAppender.getMetrics());
+    assertFalse(mbs.isRegistered(metricsName));
+  }
+
+  @Test
+  public void appenderMetricsSurviveReconfiguration() throws Exception {
+    String objectNameAsStr = "ch.qos" + diff + ":Name=" + lc.getName()
+        + ",Type=" + this.getClass().getName();
+    ObjectName on = MBeanUtil.string2ObjectName(lc, this, objectNameAsStr);
+    JMXConfigurator configurator = new JMXConfigurator(lc, mbs, on);
+    configurator.setAppenderMetricsEnabled(true);
+
+    lc.beginReconfiguration();
+    ListAppender<ILoggingEvent> listAppender = new ListAppender<ILoggingEvent>();
+    listAppender.setContext(lc);
+    listAppender.setName("LIST:" + diff);
+    listAppender.start();
+    lc.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(listAppender);
+    lc.commitReconfiguration();
+
+    assertNotNull(listAppender.getMetrics());
+    ObjectName metricsName = new ObjectName(MBeanUtil.getObjectNameFor(lc
+        .getName(), AppenderMetrics.class, listAppender.getName()));
+    assertTrue(mbs.isRegistered(metricsName));
+
+    // a configurator created by a later configuration inherits the setting
+    ObjectName otherOn = MBeanUtil.string2ObjectName(lc, this,
+        objectNameAsStr + "-other");
+    assertTrue(new JMXConfigurator(lc, mbs, otherOn).isAppenderMetricsEnabled());
+  }
 }
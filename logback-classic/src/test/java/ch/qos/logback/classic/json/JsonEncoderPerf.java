@@ -0,0 +1,98 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+
+/**
+ * Compares the throughput of {@link JsonEncoder} with that of a
+ * {@link PatternLayoutEncoder} outputting the same fields.
+ */
+public class JsonEncoderPerf {
+
+  static final int LOOP_LEN = 1000 * 1000;
+  static final int WARMUP_LEN = 100 * 1000;
+
+  static final String FIELDS = "timestamp, level, thread, logger, message, mdc";
+  static final String PATTERN = "%d{HH:mm:ss.SSS} %level [%thread] %logger %mdc - %msg%n";
+
+  LoggerContext lc = new LoggerContext();
+  ILoggingEvent event;
+
+  static class NopOutputStream extends OutputStream {
+    @Override
+    public void write(int b) {
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+    }
+  }
+
+  @Before
+  public void setUp() {
+    MDC.put("user", "alice");
+    MDC.put("session", "s0");
+    Logger logger = lc.getLogger("com.example.service.OrderService");
+    event = new LoggingEvent(Logger.class.getName(), logger, Level.INFO,
+        "Order {} shipped to \"{}\"", null, new Object[] { 42, "Zürich" });
+    event.prepareForDeferredProcessing();
+    MDC.clear();
+  }
+
+  @Test
+  public void jsonEncoder() throws IOException {
+    JsonEncoder encoder = new JsonEncoder();
+    encoder.setContext(lc);
+    encoder.setFields(FIELDS);
+    encoder.start();
+    loop("json encoder", encoder);
+  }
+
+  @Test
+  public void patternLayoutEncoder() throws IOException {
+    PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(lc);
+    encoder.setPattern(PATTERN);
+    encoder.start();
+    loop("pattern layout encoder", encoder);
+  }
+
+  void loop(String msg, Encoder<ILoggingEvent> encoder) throws IOException {
+    encoder.init(new NopOutputStream());
+    for (int i = 0; i < WARMUP_LEN; i++) {
+      encoder.doEncode(event);
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < LOOP_LEN; i++) {
+      encoder.doEncode(event);
+    }
+    long end = System.nanoTime();
+    System.out.println(msg + ": " + (end - start) / LOOP_LEN
+        + " nanoseconds per event");
+  }
+}
@@ -0,0 +1,150 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.status.StatusChecker;
+
+public class JsonEncoderTest {
+
+  LoggerContext context = new LoggerContext();
+  Logger logger = context.getLogger("a.b");
+  JsonEncoder encoder = new JsonEncoder();
+  JsonLayout layout = new JsonLayout();
+  ByteArrayOutputStream baos = new ByteArrayOutputStream();
+
+  @Before
+  public void setUp() {
+    context.setName("ctx");
+    encoder.setContext(context);
+    layout.setContext(context);
+  }
+
+  @After
+  public void tearDown() {
+    MDC.clear();
+  }
+
+  LoggingEvent makeLoggingEvent(String message, Throwable t) {
+    LoggingEvent le = new LoggingEvent(Logger.class.getName(), logger,
+        Level.INFO, message, t, null);
+    le.setTimeStamp(1234);
+    le.setThreadName("main");
+    return le;
+  }
+
+  String encode(LoggingEvent event) throws IOException {
+    encoder.start();
+    encoder.init(baos);
+    encoder.doEncode(event);
+    encoder.close();
+    String encoded = baos.toString("UTF-8");
+    assertTrue(encoded.endsWith(CoreConstants.LINE_SEPARATOR));
+
+    layout.start();
+    assertEquals(encoded, layout.doLayout(event));
+    return encoded.substring(0, encoded.length()
+        - CoreConstants.LINE_SEPARATOR.length());
+  }
+
+  @Test
+  public void defaultFields() throws IOException {
+    String json = encode(makeLoggingEvent("hello \"world\"", null));
+    assertEquals("{\"timestamp\":1234,\"level\":\"INFO\",\"thread\":\"main\","
+        + "\"logger\":\"a.b\",\"message\":\"hello \\\"world\\\"\"}", json);
+  }
+
+  @Test
+  public void selectedFieldsInOrder() throws IOException {
+    encoder.setFields("message, level");
+    layout.setFields("message, level");
+    assertEquals("{\"message\":\"x\",\"level\":\"INFO\"}", encode(makeLoggingEvent(
+        "x", null)));
+  }
+
+  @Test
+  public void mdcMarkerAndContext() throws IOException {
+    encoder.setFields("mdc,marker,context");
+    layout.setFields("mdc,marker,context");
+    MDC.put("k", "v\t");
+    LoggingEvent le = makeLoggingEvent("x", null);
+    Marker marker = MarkerFactory.getDetachedMarker("M");
+    marker.add(MarkerFactory.getDetachedMarker("N"));
+    le.setMarker(marker);
+    assertEquals("{\"mdc\":{\"k\":\"v\\t\"},\"marker\":\"" + marker
+        + "\",\"context\":\"ctx\"}", encode(le));
+  }
+
+  @Test
+  public void absentOptionalFieldsAreOmitted() throws IOException {
+    encoder.setFields("mdc, marker, exception, message");
+    layout.setFields("mdc, marker, exception, message");
+    assertEquals("{\"message\":\"x\"}", encode(makeLoggingEvent("x", null)));
+  }
+
+  @Test
+  public void caller() throws IOException {
+    encoder.setFields("caller");
+    layout.setFields("caller");
+    LoggingEvent le = makeLoggingEvent("x", null);
+    StackTraceElement ste = new StackTraceElement("a.B", "m", "B.java", 12);
+    le.setCallerData(new StackTraceElement[] { ste });
+    assertEquals(
+        "{\"caller\":{\"class\":\"a.B\",\"method\":\"m\",\"file\":\"B.java\",\"line\":12}}",
+        encode(le));
+  }
+
+  @Test
+  public void exception() throws IOException {
+    encoder.setFields("exception");
+    layout.setFields("exception");
+    Exception cause = new IllegalStateException("inner");
+    Exception e = new Exception("outer\n", cause);
+    String json = encode(makeLoggingEvent("x", e));
+    assertTrue(json, json.startsWith("{\"exception\":{\"class\":"
+        + "\"java.lang.Exception\",\"message\":\"outer\\n\",\"frames\":[\""
+        + e.getStackTrace()[0] + "\","));
+    assertTrue(json, json.contains("\"cause\":{\"class\":"
+        + "\"java.lang.IllegalStateException\",\"message\":\"inner\","
+        + "\"frames\":[\"" + cause.getStackTrace()[0] + "\"],"
+        + "\"commonFrames\":" + (cause.getStackTrace().length - 1) + "}}}"));
+  }
+
+  @Test
+  public void unknownField() {
+    encoder.setFields("level, bogus");
+    encoder.start();
+    assertFalse(encoder.isStarted());
+    StatusChecker checker = new StatusChecker(context);
+    assertTrue(checker.containsMatch("Unknown JSON field \\[bogus\\]"));
+  }
+}
@@ -0,0 +1,86 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.json;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class JsonOutputTest {
+
+  JsonOutput out = new JsonOutput(4);
+
+  String written() {
+    String result = out.toString();
+    out.reset();
+    return result;
+  }
+
+  @Test
+  public void numbers() {
+    long[] values = { 0, 7, -7, 1234567890123L, Long.MAX_VALUE, Long.MIN_VALUE };
+    for (long v : values) {
+      out.writeNumber(v);
+      assertEquals(Long.toString(v), written());
+    }
+  }
+
+  @Test
+  public void plainString() {
+    out.writeString("hello world");
+    assertEquals("\"hello world\"", written());
+    out.writeString(null);
+    assertEquals("null", written());
+  }
+
+  @Test
+  public void escapedString() {
+    out.writeString("a\"b\\c\nd\re\tf\u0001g/");
+    assertEquals("\"a\\\"b\\\\c\\nd\\re\\tf\\u0001g/\"", written());
+  }
+
+  @Test
+  public void utf8() throws Exception {
+    String s = "été € 😀";
+    out.writeString(s);
+    assertArrayEquals(("\"" + s + "\"").getBytes("UTF-8"), out.toByteArray());
+    assertEquals("\"" + s + "\"", written());
+  }
+
+  @Test
+  public void unpairedSurrogate() {
+    out.writeString("a\ud83db");
+    assertEquals("\"a?b\"", written());
+  }
+
+  @Test
+  public void growsAsNeeded() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      sb.append("xé\n");
+    }
+    out.writeString(sb.toString());
+    assertEquals("\"" + sb.toString().replace("\n", "\\n") + "\"", written());
+  }
+
+  @Test
+  public void largeBuffersAreNotRetained() {
+    out.writeBytes(new byte[JsonOutput.MAX_RETAINED_CAPACITY + 1]);
+    out.reset();
+    assertEquals(JsonOutput.INITIAL_CAPACITY, out.buf.length);
+    out.writeString("a");
+    assertEquals("\"a\"", written());
+  }
+}
@@ -0,0 +1,84 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.log4j;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+public class XMLLayoutTest {
+
+  LoggerContext lc = new LoggerContext();
+  Logger logger = lc.getLogger("a.b");
+  XMLLayout layout = new XMLLayout();
+
+  @Before
+  public void setUp() {
+    MDC.clear();
+    layout.setContext(lc);
+    layout.start();
+  }
+
+  @After
+  public void tearDown() {
+    MDC.clear();
+  }
+
+  LoggingEvent makeLoggingEvent(String message) {
+    LoggingEvent le = new LoggingEvent(Logger.class.getName(), logger,
+        Level.INFO, message, null, null);
+    le.setTimeStamp(1234);
+    le.setThreadName("main");
+    return le;
+  }
+
+  @Test
+  public void message() {
+    String result = layout.doLayout(makeLoggingEvent("a <b>]]>c"));
+    assertEquals("<log4j:event logger=\"a.b\"\r\n"
+        + "             timestamp=\"1234\" level=\"INFO\" thread=\"main\">\r\n"
+        + "  <log4j:message><![CDATA[a <b>]]>]]&gt;<![CDATA[c]]></log4j:message>\r\n"
+        + "\r\n</log4j:event>\r\n\r\n", result);
+  }
+
+  @Test
+  public void properties() {
+    layout.setProperties(true);
+    MDC.put("<k>", "<v>");
+    String result = layout.doLayout(makeLoggingEvent("x"));
+    assertTrue(result, result.contains("  <log4j:properties>\r\n"
+        + "    <log4j:data name='&lt;k&gt;' value='&lt;v&gt;' />\r\n"
+        + "  </log4j:properties>"));
+  }
+
+  @Test
+  public void locationInfo() {
+    layout.setLocationInfo(true);
+    LoggingEvent le = makeLoggingEvent("x");
+    le.setCallerData(new StackTraceElement[] { new StackTraceElement("a.B",
+        "<init>", "B.java", 12) });
+    String result = layout.doLayout(le);
+    assertTrue(result, result.contains("  <log4j:locationInfo class=\"a.B\"\r\n"
+        + "                      method=\"&lt;init&gt;\" file=\"B.java\" line=\"12\"/>\r\n"));
+  }
+}
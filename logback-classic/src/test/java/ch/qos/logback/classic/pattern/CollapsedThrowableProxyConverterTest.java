@@ -0,0 +1,129 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.CoreConstants;
+
+public class CollapsedThrowableProxyConverterTest {
+
+  LoggerContext lc = new LoggerContext();
+  CollapsedThrowableProxyConverter ctpc = new CollapsedThrowableProxyConverter();
+
+  @Before
+  public void setUp() throws Exception {
+    ctpc.setContext(lc);
+    ctpc.start();
+  }
+
+  private ILoggingEvent createLoggingEvent(Throwable t) {
+    return new LoggingEvent(this.getClass().getName(), lc
+        .getLogger(Logger.ROOT_LOGGER_NAME), Level.DEBUG, "test message", t,
+        null);
+  }
+
+  Throwable makeThrowable(int i) {
+    return new IllegalStateException("boom " + i);
+  }
+
+  @Test
+  public void repeatedThrowablesAreCollapsed() {
+    for (int i = 0; i < 4; i++) {
+      Throwable t = makeThrowable(i);
+      String result = ctpc.convert(createLoggingEvent(t));
+      if (i == 0) {
+        StringWriter sw = new StringWriter();
+        t.printStackTrace(new PrintWriter(sw));
+        assertEquals(sw.toString(), result);
+        continue;
+      }
+      String[] lines = result.split(CoreConstants.LINE_SEPARATOR);
+      assertEquals(2, lines.length);
+      assertEquals("java.lang.IllegalStateException: boom " + i, lines[0]);
+      assertTrue(lines[1], lines[1].startsWith("\t... seen " + (i + 1)
+          + " times, full trace printed at "));
+    }
+  }
+
+  @Test
+  public void differentThrowablesAreNotCollapsed() {
+    String r0 = ctpc.convert(createLoggingEvent(new IllegalStateException()));
+    String r1 = ctpc.convert(createLoggingEvent(new IllegalArgumentException()));
+    assertTrue(r0.split(CoreConstants.LINE_SEPARATOR).length > 2);
+    assertTrue(r1.split(CoreConstants.LINE_SEPARATOR).length > 2);
+  }
+
+  @Test
+  public void fullTraceIsPrintedAgainAfterPeriod() {
+    String result = null;
+    for (int i = 0; i < 3; i++) {
+      if (i == 2) {
+        // pretend the full trace was printed long ago
+        for (CollapsedThrowableProxyConverter.Occurrences o : ctpc.occurrenceMap
+            .values()) {
+          o.fullTracePrintedAt.set(System.currentTimeMillis()
+              - CollapsedThrowableProxyConverter.DEFAULT_FULL_TRACE_PERIOD);
+        }
+      }
+      result = ctpc.convert(createLoggingEvent(makeThrowable(i)));
+      if (i == 1) {
+        assertEquals(2, result.split(CoreConstants.LINE_SEPARATOR).length);
+      }
+    }
+    assertTrue(result.split(CoreConstants.LINE_SEPARATOR).length > 2);
+  }
+
+  @Test
+  public void periodOption() {
+    CollapsedThrowableProxyConverter converter = new CollapsedThrowableProxyConverter();
+    converter.setContext(lc);
+    converter.setOptionList(Arrays.asList("full", "10 minutes"));
+    converter.start();
+    assertEquals(10 * CoreConstants.MILLIS_IN_ONE_MINUTE,
+        converter.fullTracePeriod);
+    assertEquals(2, converter.getFirstEvaluatorOptionIndex());
+  }
+
+  @Test
+  public void evictionKeepsOtherOccurrences() {
+    ctpc.convert(createLoggingEvent(makeThrowable(0)));
+    // fill the slots with other fingerprints
+    for (int i = 0; i < 2 * CollapsedThrowableProxyConverter.MAX_TRACKED_FINGERPRINTS; i++) {
+      ctpc.convert(createLoggingEvent(makeThrowableAtDepth(i % 64)));
+    }
+    assertTrue(ctpc.occurrenceMap.size() <= ctpc.occurrenceMap.slots.length());
+    assertTrue(ctpc.occurrenceMap.size() > 1);
+  }
+
+  Throwable makeThrowableAtDepth(int depth) {
+    if (depth == 0) {
+      return new Exception();
+    }
+    return makeThrowableAtDepth(depth - 1);
+  }
+}
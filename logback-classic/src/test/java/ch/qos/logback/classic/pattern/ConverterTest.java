@@ -31,6 +31,7 @@ import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.ClassicTestConstants;
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
 import ch.qos.logback.classic.spi.LoggingEvent;
 import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.net.SyslogConstants;
@@ -74,7 +75,7 @@ public class ConverterTest {
       StringBuilder buf = new StringBuilder();
       converter.write(buf, le);
       // the number below should be the line number of the previous line
-      assertEquals("75", buf.toString());
+      assertEquals("76", buf.toString());
     }
   }
 
@@ -384,4 +385,76 @@ public class ConverterTest {
     String result = converter.convert(event);
     assertEquals("v", result);
   }
+
+  void verifyAppendMatchesConvert(ClassicConverter converter) {
+    String converted = converter.convert(le);
+    // appending must leave existing contents untouched
+    StringBuilder buf = new StringBuilder("prefix");
+    converter.write(buf, le);
+    assertEquals("prefix" + converted, buf.toString());
+  }
+
+  @Test
+  public void appendMatchesConvert() {
+    MDC.put("someKey", "someValue");
+    le = makeLoggingEvent(getException("x", getException("y", null)));
+    le.getMDCPropertyMap();
+    MDC.clear();
+
+    verifyAppendMatchesConvert(new LineOfCallerConverter());
+    verifyAppendMatchesConvert(new RelativeTimeConverter());
+    verifyAppendMatchesConvert(new MDCConverter());
+    verifyAppendMatchesConvert(new CallerDataConverter());
+    ClassicConverter syslogConverter = new SyslogStartConverter();
+    syslogConverter.setContext(lc);
+    List<String> ol = new ArrayList<String>();
+    ol.add("MAIL");
+    syslogConverter.setOptionList(ol);
+    syslogConverter.start();
+    verifyAppendMatchesConvert(syslogConverter);
+
+    ThrowableProxyConverter[] throwableConverters = {
+        new ThrowableProxyConverter(), new ExtendedThrowableProxyConverter(),
+        new RootCauseFirstThrowableProxyConverter() };
+    for (ThrowableProxyConverter tpc : throwableConverters) {
+      tpc.setContext(lc);
+      tpc.start();
+      verifyAppendMatchesConvert(tpc);
+    }
+  }
+
+  @Test
+  public void convertOverridesAreHonoredOnTheWritePath() {
+    ClassicConverter lineConverter = new LineOfCallerConverter() {
+      public String convert(ILoggingEvent event) {
+        return "line:" + super.convert(event);
+      }
+    };
+    verifyAppendMatchesConvert(lineConverter);
+    assertTrue(lineConverter.convert(le).startsWith("line:"));
+
+    ThrowableProxyConverter tpc = new ThrowableProxyConverter() {
+      protected String throwableProxyToString(IThrowableProxy tp) {
+        return "custom";
+      }
+    };
+    tpc.setContext(lc);
+    tpc.start();
+    StringBuilder buf = new StringBuilder();
+    tpc.write(buf, le);
+    assertEquals("custom", buf.toString());
+  }
+
+  @Test
+  public void paddingIsAppliedInPlace() {
+    ClassicConverter converter = new LineOfCallerConverter();
+    converter.setFormattingInfo(new FormatInfo(8, 8, true, true));
+    StringBuilder buf = new StringBuilder("a");
+    converter.write(buf, le);
+    buf.append('b');
+    String lineNumber = converter.convert(le);
+    assertEquals(10, buf.length());
+    assertEquals("a" + lineNumber + "b", buf.toString().replace(" ", ""));
+    assertTrue(buf.toString().startsWith("a "));
+  }
 }
@@ -22,7 +22,8 @@ import org.junit.runners.Suite.SuiteClasses;
         TargetLengthBasedClassNameAbbreviatorTest.class, MDCConverterTest.class,
         MarkerConverterTest.class, ExtendedThrowableProxyConverterTest.class,
         ThrowableProxyConverterTest.class,
-        RootCauseFirstThrowableProxyConverterTest.class})
+        RootCauseFirstThrowableProxyConverterTest.class,
+        CollapsedThrowableProxyConverterTest.class})
 public class PackageTest {
 
 }
\ No newline at end of file
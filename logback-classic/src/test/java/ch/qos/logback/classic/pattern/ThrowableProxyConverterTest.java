@@ -65,6 +65,19 @@ public class ThrowableProxyConverterTest {
     verify(t);
   }
 
+  @Test
+  public void repeatedThrowablesAreRenderedFromCache() {
+    for (int i = 0; i < 3; i++) {
+      Throwable t = new Exception("message " + i, new Exception("cause " + i));
+      StringWriter sw = new StringWriter();
+      t.printStackTrace(new PrintWriter(sw));
+      String result = tpc.convert(createLoggingEvent(t));
+      result = result.replace("common frames omitted", "more");
+      assertEquals(sw.toString(), result);
+    }
+    assertEquals(1, tpc.renderedFramesCache.size());
+  }
+
   void verify(Throwable t) {
     t.printStackTrace(pw);
 
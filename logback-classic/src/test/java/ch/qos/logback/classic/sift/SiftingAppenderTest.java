@@ -150,11 +150,28 @@ public class SiftingAppenderTest {
     MDC.remove(mdcKey);
     LoggingEvent le = new LoggingEvent("x", logger, Level.INFO, "hello", null,
         null);
-    le.setTimeStamp(timestamp + AppenderTracker.THRESHOLD * 2);
+    // what the background check does once the appender has become stale
+    ha.getAppenderTracker().stopStaleAppenders(
+        System.currentTimeMillis() + AppenderTracker.THRESHOLD * 2);
     ha.doAppend(le);
     assertFalse(listAppender.isStarted());
     assertEquals(1, ha.getAppenderTracker().keyList().size());
     assertEquals("cycleDefault", ha.getAppenderTracker().keyList().get(0));
   }
 
+  @Test
+  public void backdatedEventsDoNotMakeAppendersStale() throws JoranException {
+    configure(SIFT_FOLDER_PREFIX + "smoke.xml");
+    LoggingEvent le = new LoggingEvent("x", logger, Level.INFO, "old", null,
+        null);
+    le.setTimeStamp(System.currentTimeMillis() - AppenderTracker.THRESHOLD * 2);
+    root.callAppenders(le);
+    SiftingAppender ha = (SiftingAppender) root.getAppender("SIFT");
+    ha.getAppenderTracker().stopStaleAppenders(System.currentTimeMillis());
+    assertEquals(1, ha.getAppenderTracker().keyList().size());
+    ListAppender<ILoggingEvent> listAppender = (ListAppender<ILoggingEvent>) ha
+        .getAppenderTracker().valueList().get(0);
+    assertTrue(listAppender.isStarted());
+  }
+
 }
@@ -0,0 +1,153 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+
+public class CallerDataExtractorTest {
+
+  static final String FQCN = CallerDataExtractorTest.class.getName();
+  static final String LOGGER_NAME = "a.b";
+
+  @Test
+  public void noCache() {
+    CallerDataExtractor cde = new CallerDataExtractor(5, 0, 1);
+    StackTraceElement[] cda0 = extractFromHelper(cde, "hello");
+    StackTraceElement[] cda1 = extractFromHelper(cde, "hello");
+    assertNotSame(cda0, cda1);
+    assertEquals(Helper.class.getName(), cda0[0].getClassName());
+  }
+
+  @Test
+  public void callSitesAreCached() {
+    CallerDataExtractor cde = new CallerDataExtractor(5, 10, 1);
+    String pattern = "hello";
+    StackTraceElement[] cda0 = extractFromHelper(cde, pattern);
+    StackTraceElement[] cda1 = extractFromHelper(cde, pattern);
+    assertArrayEquals(cda0, cda1);
+    assertEquals(1, cde.cache.size());
+    // patterns are compared by identity
+    extractFromHelper(cde, new String(pattern));
+    assertEquals(2, cde.cache.size());
+  }
+
+  @Test
+  public void eachEventReceivesItsOwnCopy() {
+    CallerDataExtractor cde = new CallerDataExtractor(5, 10, 1);
+    String pattern = "hello";
+    StackTraceElement[] cda0 = extractFromHelper(cde, pattern);
+    StackTraceElement[] cda1 = extractFromHelper(cde, pattern);
+    assertNotSame(cda0, cda1);
+    cda0[0] = null;
+    cda1[0] = null;
+    assertEquals(Helper.class.getName(), extractFromHelper(cde, pattern)[0]
+        .getClassName());
+  }
+
+  @Test
+  public void cacheIsBounded() {
+    CallerDataExtractor cde = new CallerDataExtractor(5, 2, 1);
+    for (int i = 0; i < 10; i++) {
+      extractFromHelper(cde, "m" + i);
+    }
+    assertEquals(2, cde.cache.size());
+  }
+
+  @Test
+  public void recentlyHitCallSitesSurviveEviction() {
+    CallerDataExtractor cde = new CallerDataExtractor(5, 2, 1);
+    String hot = "hot";
+    extractFromHelper(cde, hot);
+    for (int i = 0; i < 10; i++) {
+      extractFromHelper(cde, hot);
+      extractFromHelper(cde, "m" + i);
+    }
+    assertEquals(2, cde.cache.size());
+    assertTrue(cde.cache.containsKey(new CallerDataExtractor.CallSite(
+        LOGGER_NAME, hot)));
+    assertFalse(cde.cache.containsKey(new CallerDataExtractor.CallSite(
+        LOGGER_NAME, "m0")));
+  }
+
+  @Test
+  public void sampling() {
+    CallerDataExtractor cde = new CallerDataExtractor(5, 0, 3);
+    int computed = 0;
+    for (int i = 0; i < 9; i++) {
+      if (extractFromHelper(cde, "x").length > 0) {
+        computed++;
+      }
+    }
+    assertEquals(3, computed);
+  }
+
+  @Test
+  public void sampledEventsUseCachedCallSites() {
+    CallerDataExtractor cde = new CallerDataExtractor(5, 10, 1000);
+    String pattern = "x";
+    StackTraceElement[] cda0 = extractFromHelper(cde, pattern);
+    assertEquals(Helper.class.getName(), cda0[0].getClassName());
+    for (int i = 0; i < 10; i++) {
+      assertArrayEquals(cda0, extractFromHelper(cde, pattern));
+    }
+  }
+
+  @Test
+  public void loggingEventUsesContextSettings() {
+    LoggerContext lc = new LoggerContext();
+    lc.setCallerDataCacheSize(10);
+    Logger logger = lc.getLogger(LOGGER_NAME);
+    String pattern = "hello";
+    LoggingEvent le0 = new LoggingEvent(FQCN, logger, Level.INFO, pattern,
+        null, null);
+    LoggingEvent le1 = new LoggingEvent(FQCN, logger, Level.INFO, pattern,
+        null, null);
+    assertArrayEquals(le0.getCallerData(), le1.getCallerData());
+    assertEquals(1, lc.getCallerDataExtractor().cache.size());
+    lc.reset();
+    assertEquals(0, lc.getCallerDataExtractor().cache.size());
+    LoggingEvent le2 = new LoggingEvent(FQCN, logger, Level.INFO, pattern,
+        null, null);
+    assertArrayEquals(le0.getCallerData(), le2.getCallerData());
+  }
+
+  StackTraceElement[] extractFromHelper(CallerDataExtractor cde,
+      String pattern) {
+    return Helper.extract(cde, pattern);
+  }
+
+  // plays the role of the caller
+  static class Helper {
+    static StackTraceElement[] extract(CallerDataExtractor cde, String pattern) {
+      return Logging.extract(cde, pattern);
+    }
+  }
+
+  // plays the role of the logger class
+  static class Logging {
+    static StackTraceElement[] extract(CallerDataExtractor cde, String pattern) {
+      return cde.extract(LOGGER_NAME, pattern, Logging.class.getName());
+    }
+  }
+}
@@ -33,6 +33,16 @@ public class CallerDataTest  {
     assertEquals(steArray.length - 1, cda.length);
   }
   
+  @Test
+  public void depthIsBounded() {
+    StackTraceElement[] cda = CallerData.extract(new Throwable(), CallerDataTest.class.getName(), 1);
+    assertEquals(1, cda.length);
+    // the frame following the last frame of the invoking class
+    StackTraceElement[] steArray = new Throwable().getStackTrace();
+    assertEquals(steArray[1].getClassName(), cda[0].getClassName());
+    assertEquals(steArray[1].getMethodName(), cda[0].getMethodName());
+  }
+
   /**
    * This test verifies that in case caller data cannot be
    * extracted, CallerData.extract does not throw an exception
@@ -19,8 +19,10 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses( { ContextListenerTest.class, CallerDataTest.class,
+    CallerDataExtractorTest.class,
     LoggerComparatorTest.class, LoggingEventSerializationTest.class,
     LoggingEventSerializationPerfTest.class, ThrowableProxyTest.class,
+    ThrowableProxyCacheTest.class,
     PackagingDataCalculatorTest.class })
 public class PackageTest  {
 }
\ No newline at end of file
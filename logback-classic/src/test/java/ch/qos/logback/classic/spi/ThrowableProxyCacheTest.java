@@ -0,0 +1,142 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.spi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ThrowableProxyCacheTest {
+
+  ThrowableProxyCache cache = new ThrowableProxyCache(10);
+
+  Throwable makeThrowable(String msg) {
+    return new IllegalStateException(msg, new RuntimeException("cause " + msg));
+  }
+
+  // structurally identical throwables, all created from the same call site
+  ThrowableProxy[] makeProxies(String... msgs) {
+    ThrowableProxy[] result = new ThrowableProxy[msgs.length];
+    for (int i = 0; i < msgs.length; i++) {
+      result[i] = cache.newThrowableProxy(makeThrowable(msgs[i]));
+    }
+    return result;
+  }
+
+  @Test
+  public void identicalThrowablesShareFrames() {
+    ThrowableProxy[] proxies = makeProxies("a", "b");
+    ThrowableProxy tp0 = proxies[0];
+    ThrowableProxy tp1 = proxies[1];
+    assertNotNull(tp0.getFingerprint());
+    assertSame(tp0.getFingerprint(), tp1.getFingerprint());
+    assertSame(tp0.getStackTraceElementProxyArray(), tp1
+        .getStackTraceElementProxyArray());
+    assertSame(tp0.getCause().getStackTraceElementProxyArray(), tp1
+        .getCause().getStackTraceElementProxyArray());
+    // messages are not part of the fingerprint
+    assertEquals("a", tp0.getMessage());
+    assertEquals("b", tp1.getMessage());
+    assertEquals("cause b", tp1.getCause().getMessage());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void differentThrowablesHaveDifferentFingerprints() {
+    ThrowableProxy tp0 = cache.newThrowableProxy(makeThrowable("a"));
+    ThrowableProxy tp1 = cache.newThrowableProxy(new IllegalStateException("a"));
+    ThrowableProxy tp2 = cache.newThrowableProxy(new Exception("a"));
+    assertNotSame(tp0.getFingerprint(), tp1.getFingerprint());
+    assertNotSame(tp1.getFingerprint(), tp2.getFingerprint());
+    assertEquals(3, cache.size());
+  }
+
+  @Test
+  public void fingerprintsOfDifferentCachesAreEqual() {
+    Throwable t = makeThrowable("a");
+    ThrowableFingerprint f0 = cache.newThrowableProxy(t).getFingerprint();
+    ThrowableFingerprint f1 = new ThrowableProxyCache(10).newThrowableProxy(t)
+        .getFingerprint();
+    assertNotSame(f0, f1);
+    assertEquals(f0, f1);
+    assertEquals(f0.hashCode(), f1.hashCode());
+    assertFalse(f0.equals(cache.newThrowableProxy(new Exception())
+        .getFingerprint()));
+  }
+
+  @Test
+  public void sameAsUncachedProxy() {
+    Throwable t = makeThrowable("x");
+    ThrowableProxy cached = cache.newThrowableProxy(t);
+    ThrowableProxy uncached = new ThrowableProxy(t);
+    assertNull(uncached.getFingerprint());
+    assertEquals(ThrowableProxyUtil.asString(uncached), ThrowableProxyUtil
+        .asString(cached));
+    assertEquals(uncached.getCause().getCommonFrames(), cached.getCause()
+        .getCommonFrames());
+  }
+
+  @Test
+  public void packagingDataIsCalculatedOnce() {
+    ThrowableProxy[] proxies = makeProxies("a", "b");
+    ThrowableProxy tp0 = proxies[0];
+    ThrowableProxy tp1 = proxies[1];
+    assertSame(tp0.getFingerprint(), tp1.getFingerprint());
+    tp0.calculatePackagingData();
+    // would throw IllegalStateException if packaging data were set twice
+    tp1.calculatePackagingData();
+    ((ThrowableProxy) tp1.getCause()).calculatePackagingData();
+    assertNotNull(tp1.getStackTraceElementProxyArray()[0]
+        .getClassPackagingData());
+  }
+
+  @Test
+  public void sizeIsBounded() {
+    for (int i = 0; i < 25; i++) {
+      cache.newThrowableProxy(makeThrowableAtDepth(i));
+    }
+    // entries are evicted one at a time, from a table of 16 slots
+    assertTrue(cache.size() <= 16);
+    // the latest fingerprint was retained
+    ThrowableFingerprint[] fingerprints = new ThrowableFingerprint[2];
+    for (int i = 0; i < fingerprints.length; i++) {
+      fingerprints[i] = cache.newThrowableProxy(makeThrowableAtDepth(24))
+          .getFingerprint();
+    }
+    assertSame(fingerprints[0], fingerprints[1]);
+  }
+
+  @Test
+  public void circularCause() {
+    Exception e0 = new Exception("e0");
+    Exception e1 = new Exception("e1", e0);
+    e0.initCause(e1);
+    ThrowableProxy tp = cache.newThrowableProxy(e0);
+    assertEquals("e1", tp.getCause().getMessage());
+    assertNull(tp.getCause().getCause());
+  }
+
+  Throwable makeThrowableAtDepth(int depth) {
+    if (depth == 0) {
+      return new Exception();
+    }
+    return makeThrowableAtDepth(depth - 1);
+  }
+}
@@ -0,0 +1,92 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.turbo;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.contention.MultiThreadedHarness;
+import ch.qos.logback.core.contention.RunnableWithCounterAndDone;
+
+/**
+ * Measures the throughput of disabled and enabled logging calls with a
+ * {@link DuplicateMessageFilter} installed, as compared to no turbo filters.
+ */
+public class DuplicateMessageFilterPerf {
+  final static int THREAD_COUNT = 16;
+  final static long DURATION_IN_MILLIS = 2000;
+
+  LoggerContext loggerContext = new LoggerContext();
+  Logger logger = loggerContext.getLogger(this.getClass());
+
+  @Before
+  public void setUp() {
+    logger.setLevel(Level.INFO);
+  }
+
+  @Test
+  public void withoutFilter() throws InterruptedException {
+    doRun("no filter, disabled calls", false);
+    doRun("no filter, enabled calls", true);
+  }
+
+  @Test
+  public void withFilter() throws InterruptedException {
+    DuplicateMessageFilter dmf = new DuplicateMessageFilter();
+    dmf.setContext(loggerContext);
+    dmf.start();
+    loggerContext.addTurboFilter(dmf);
+    doRun("DuplicateMessageFilter, disabled calls", false);
+    doRun("DuplicateMessageFilter, enabled calls", true);
+  }
+
+  void doRun(String msg, boolean enabled) throws InterruptedException {
+    MultiThreadedHarness harness = new MultiThreadedHarness(DURATION_IN_MILLIS);
+    RunnableWithCounterAndDone[] runnableArray = new RunnableWithCounterAndDone[THREAD_COUNT];
+    for (int i = 0; i < THREAD_COUNT; i++) {
+      runnableArray[i] = new LoggingRunnable(logger, enabled);
+    }
+    harness.execute(runnableArray);
+    long total = 0;
+    for (RunnableWithCounterAndDone r : runnableArray) {
+      total += r.getCounter();
+    }
+    double callsPerMicro = total / (DURATION_IN_MILLIS * 1000.0);
+    System.out.println(msg + ": " + callsPerMicro + " calls per microsecond");
+  }
+
+  static class LoggingRunnable extends RunnableWithCounterAndDone {
+    final Logger logger;
+    final boolean enabled;
+
+    LoggingRunnable(Logger logger, boolean enabled) {
+      this.logger = logger;
+      this.enabled = enabled;
+    }
+
+    public void run() {
+      while (!isDone()) {
+        if (enabled) {
+          logger.info("hello world ABCDEFGHI");
+        } else {
+          logger.debug("hello world ABCDEFGHI");
+        }
+        counter++;
+      }
+    }
+  }
+}
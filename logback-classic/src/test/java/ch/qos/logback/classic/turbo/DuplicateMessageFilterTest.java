@@ -17,7 +17,9 @@ import static org.junit.Assert.*;
 
 import org.junit.Test;
 
+import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.core.spi.FilterReply;
+import ch.qos.logback.core.util.Duration;
 
 public class DuplicateMessageFilterTest {
 
@@ -86,4 +88,35 @@ public class DuplicateMessageFilterTest {
         null));
   }
 
+  @Test
+  public void resetCounts() {
+    DuplicateMessageFilter dmf = new DuplicateMessageFilter();
+    dmf.setAllowedRepetitions(0);
+    dmf.start();
+    assertEquals(FilterReply.NEUTRAL, dmf.decide(null, null, null, "x", null,
+        null));
+    assertEquals(FilterReply.DENY, dmf
+        .decide(null, null, null, "x", null, null));
+    dmf.resetCounts();
+    assertEquals(FilterReply.NEUTRAL, dmf.decide(null, null, null, "x", null,
+        null));
+  }
+
+  @Test
+  public void countsAreResetPeriodically() throws InterruptedException {
+    LoggerContext lc = new LoggerContext();
+    DuplicateMessageFilter dmf = new DuplicateMessageFilter();
+    dmf.setContext(lc);
+    dmf.setAllowedRepetitions(0);
+    dmf.setResetPeriod(Duration.buildByMilliseconds(50));
+    dmf.start();
+    assertEquals(FilterReply.NEUTRAL, dmf.decide(null, null, null, "x", null,
+        null));
+    Thread.sleep(200);
+    assertEquals(FilterReply.NEUTRAL, dmf.decide(null, null, null, "x", null,
+        null));
+    dmf.stop();
+    lc.stop();
+  }
+
 }
@@ -46,4 +46,74 @@ public class LRUMessageCacheTest {
     Assert.assertEquals(0, cache.getMessageCountAndThenIncrement("2"));
   }
 
+  @Test
+  public void sizeIsBounded() {
+    int cacheSize = 10;
+    LRUMessageCache cache = new LRUMessageCache(cacheSize);
+    for (int i = 0; i < 10 * cacheSize; i++) {
+      cache.getMessageCountAndThenIncrement("m" + i);
+    }
+    Assert.assertEquals(cacheSize, cache.size());
+  }
+
+  @Test
+  public void recentlySeenMessagesSurviveEviction() {
+    LRUMessageCache cache = new LRUMessageCache(3);
+    cache.getMessageCountAndThenIncrement("hot");
+    for (int i = 0; i < 20; i++) {
+      Assert.assertEquals(i + 1, cache.getMessageCountAndThenIncrement("hot"));
+      cache.getMessageCountAndThenIncrement("cold" + i);
+    }
+  }
+
+  @Test
+  public void concurrentCountsAreNotLost() throws InterruptedException,
+      ExecutionException {
+    final int threadCount = 8;
+    final int loopLen = 10 * 1000;
+    final LRUMessageCache cache = new LRUMessageCache(100);
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    List<Future<Integer>> futureList = new ArrayList<Future<Integer>>();
+    for (int i = 0; i < threadCount; i++) {
+      futureList.add(executor.submit(new Callable<Integer>() {
+        public Integer call() {
+          int max = 0;
+          for (int j = 0; j < loopLen; j++) {
+            max = Math.max(max, cache.getMessageCountAndThenIncrement("x"));
+          }
+          return max;
+        }
+      }));
+    }
+    int max = 0;
+    for (Future<Integer> f : futureList) {
+      max = Math.max(max, f.get());
+    }
+    executor.shutdown();
+    Assert.assertEquals(threadCount * loopLen - 1, max);
+    Assert.assertEquals(threadCount * loopLen, cache.getMessageCountAndThenIncrement("x"));
+  }
+
+  @Test
+  public void countSaturatesUnderContention() throws InterruptedException {
+    final int threadCount = 8;
+    final LRUMessageCache.Counter counter = new LRUMessageCache.Counter("x");
+    counter.set(Integer.MAX_VALUE - threadCount / 2);
+    Thread[] threads = new Thread[threadCount];
+    for (int i = 0; i < threadCount; i++) {
+      threads[i] = new Thread() {
+        public void run() {
+          for (int j = 0; j < 1000; j++) {
+            counter.next();
+          }
+        }
+      };
+      threads[i].start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+    // a wrapped around count would be negative
+    Assert.assertEquals(Integer.MAX_VALUE, counter.next());
+  }
 }
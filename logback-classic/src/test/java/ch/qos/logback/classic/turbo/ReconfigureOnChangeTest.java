@@ -226,6 +226,31 @@ public class ReconfigureOnChangeTest {
     doScanTest(file, UpdateType.MALFORMED, false, ERRORS_EXPECTED);
   }
 
+  @Test(timeout = 20000)
+  public void scanningResumesAfterFailedReconfiguration() throws IOException,
+          JoranException, InterruptedException {
+    String path = CoreTestConstants.OUTPUT_DIR_PREFIX + "reconfigureOnChangeConfig_resume-" + diff + ".xml";
+    File file = new File(path);
+    writeToFile(file, "<configuration scan=\"true\" scanPeriod=\"50 millisecond\"><root level=\"ERROR\"/></configuration> ");
+    configure(file);
+    // nothing to fall back to
+    loggerContext.putObject(CoreConstants.SAFE_JORAN_CONFIGURATION, null);
+    StatusChecker checker = new StatusChecker(loggerContext);
+
+    writeToFile(file, "<configuration scan=\"true\" scanPeriod=\"50 millisecond\"><root level=\"WARN\"></configuration>");
+    file.setLastModified(file.lastModified() + 2000);
+    while (checker.matchCount("No configuration was committed") == 0) {
+      Thread.sleep(10);
+    }
+    assertEquals(Level.ERROR, loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).getLevel());
+
+    writeToFile(file, "<configuration scan=\"true\" scanPeriod=\"50 millisecond\"><root level=\"WARN\"/></configuration> ");
+    file.setLastModified(file.lastModified() + 4000);
+    while (loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).getLevel() != Level.WARN) {
+      Thread.sleep(10);
+    }
+  }
+
   @Test
   public void fallbackToSafeWithIncludedFile() throws IOException, JoranException, InterruptedException {
     String topLevelFileAsStr = CoreTestConstants.OUTPUT_DIR_PREFIX + "reconfigureOnChangeConfig_top-" + diff + ".xml";
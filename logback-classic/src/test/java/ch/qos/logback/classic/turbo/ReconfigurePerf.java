@@ -35,15 +35,23 @@ import ch.qos.logback.core.testUtil.Env;
 
 import static org.junit.Assert.fail;
 
+/**
+ * Measures the cost of logging calls in a context whose configuration file is
+ * scanned for changes.
+ */
 public class ReconfigurePerf {
   final static int THREAD_COUNT = 50;
-  //final static int LOOP_LEN = 1000 * 1000;
+  final static int LOOP_LEN = 10 * 1000 * 1000;
 
   // the space in the file name mandated by
   // http://jira.qos.ch/browse/LBCORE-119
   final static String CONF_FILE_AS_STR = ClassicTestConstants.INPUT_PREFIX
       + "turbo/scan_perf_barebones.xml";
 
+  // same as CONF_FILE_AS_STR without the scan attribute
+  final static String NOSCAN_CONF_FILE_AS_STR = ClassicTestConstants.INPUT_PREFIX
+      + "turbo/noscan_perf_barebones.xml";
+
   // it actually takes time for Windows to propagate file modification changes
   // values below 100 milliseconds can be problematic the same propagation
   // latency occurs in Linux but is even larger (>600 ms)
@@ -100,6 +108,38 @@ public class ReconfigurePerf {
     RunnableWithCounterAndDone[] runnableArray = buildRunnableArray();
     harness.execute(runnableArray);
   }
+
+  // compare the two tests below to obtain the cost of scanning on disabled
+  // logging calls
+  @Test
+  public void disabledCallWithScanning() throws JoranException {
+    configure(new File(CONF_FILE_AS_STR));
+    disabledCallLoop("with scanning");
+  }
+
+  @Test
+  public void disabledCallWithoutScanning() throws JoranException {
+    configure(new File(NOSCAN_CONF_FILE_AS_STR));
+    disabledCallLoop("without scanning");
+  }
+
+  void disabledCallLoop(String msg) {
+    // warm up
+    disabledCallLoop();
+    double avg = disabledCallLoop();
+    System.out.println("disabled call " + msg + ": " + avg
+        + " nanoseconds per call");
+    loggerContext.stop();
+  }
+
+  double disabledCallLoop() {
+    long start = System.nanoTime();
+    for (int i = 0; i < LOOP_LEN; i++) {
+      logger.debug("hello");
+    }
+    long end = System.nanoTime();
+    return (end - start) / (1.0d * LOOP_LEN);
+  }
   
 //  ReconfigureOnChangeFilter initROCF() throws MalformedURLException {
 //    ReconfigureOnChangeFilter rocf = new ReconfigureOnChangeFilter();
@@ -0,0 +1,103 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Measures the cost of {@link LogbackMDCAdapter} operations under read heavy,
+ * write heavy and inheritance workloads.
+ */
+public class LogbackMDCAdapterPerf {
+
+  static final int LOOP_LEN = 1000 * 1000;
+  static final int THREAD_COUNT = 1000;
+  static final String[] REQUEST_KEYS = { "req.remoteHost", "req.userAgent",
+      "req.requestURI", "req.queryString", "req.requestURL",
+      "req.xForwardedFor" };
+
+  LogbackMDCAdapter mdcAdapter;
+
+  @Before
+  public void setUp() {
+    mdcAdapter = new LogbackMDCAdapter();
+    mdcAdapter.put("user", "alice");
+    mdcAdapter.put("session", "s0");
+  }
+
+  // a few modifications, followed by many reads as when logging events
+  @Test
+  public void readHeavy() {
+    long start = System.nanoTime();
+    int sum = 0;
+    for (int i = 0; i < LOOP_LEN; i++) {
+      if (i % 100 == 0) {
+        mdcAdapter.put("session", "s" + i);
+      }
+      Map<String, String> snapshot = mdcAdapter.getPropertyMap();
+      sum += snapshot.size();
+      sum += mdcAdapter.get("user").length();
+    }
+    print("read heavy", start, sum);
+  }
+
+  // put and remove several keys per iteration, as MDCInsertingServletFilter
+  // does per request, logging once in between
+  @Test
+  public void writeHeavy() {
+    long start = System.nanoTime();
+    int sum = 0;
+    for (int i = 0; i < LOOP_LEN; i++) {
+      for (String key : REQUEST_KEYS) {
+        mdcAdapter.put(key, key);
+      }
+      sum += mdcAdapter.getPropertyMap().size();
+      for (String key : REQUEST_KEYS) {
+        mdcAdapter.remove(key);
+      }
+    }
+    print("write heavy", start, sum);
+  }
+
+  // child threads inherit the MDC of their parent and modify it
+  @Test
+  public void inheritance() throws InterruptedException {
+    for (int i = 0; i < 32; i++) {
+      mdcAdapter.put("k" + i, "v" + i);
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < THREAD_COUNT; i++) {
+      Thread t = new Thread() {
+        public void run() {
+          mdcAdapter.put("child", getName());
+          mdcAdapter.getPropertyMap();
+        }
+      };
+      t.start();
+      t.join();
+    }
+    long end = System.nanoTime();
+    System.out.println("inheritance: " + (end - start) / (1000 * THREAD_COUNT)
+        + " microseconds per child thread");
+  }
+
+  void print(String msg, long start, int sum) {
+    long end = System.nanoTime();
+    System.out.println(msg + ": " + (end - start) / LOOP_LEN
+        + " nanoseconds per iteration (" + sum + ")");
+  }
+}
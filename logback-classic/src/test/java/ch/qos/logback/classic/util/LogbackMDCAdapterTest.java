@@ -17,6 +17,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -84,6 +85,36 @@ public class LogbackMDCAdapterTest {
     assertEquals("v0", map0.get("k0"));
   }
 
+  @Test
+  public void propertyMapIsAnImmutableSnapshot() {
+    mdcAdapter.put("k0", "v0");
+    Map<String, String> map0 = mdcAdapter.getPropertyMap();
+    mdcAdapter.put("k1", "v1");
+    mdcAdapter.remove("k0");
+    assertEquals(1, map0.size());
+    assertEquals("v0", map0.get("k0"));
+    try {
+      map0.put("k2", "v2");
+      fail("expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+    }
+    assertNull(mdcAdapter.get("k0"));
+    assertEquals("v1", mdcAdapter.get("k1"));
+  }
+
+  @Test
+  public void setContextMap() {
+    Map<String, String> contextMap = new HashMap<String, String>();
+    contextMap.put("k0", "v0");
+    mdcAdapter.setContextMap(contextMap);
+    contextMap.put("k1", "v1");
+    assertEquals("v0", mdcAdapter.get("k0"));
+    assertNull(mdcAdapter.get("k1"));
+    Map copy = mdcAdapter.getCopyOfContextMap();
+    copy.put("k2", "v2");
+    assertNull(mdcAdapter.get("k2"));
+  }
+
   // =================================================
 
   /**
@@ -0,0 +1,166 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.classic.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PersistentMDCMapTest {
+
+  @Test
+  public void smoke() {
+    PersistentMDCMap map = PersistentMDCMap.EMPTY.plus("k0", "v0");
+    assertEquals(1, map.size());
+    assertEquals("v0", map.get("k0"));
+    assertNull(map.get("k1"));
+    assertTrue(PersistentMDCMap.EMPTY.isEmpty());
+  }
+
+  @Test
+  public void updatesDoNotAffectOriginal() {
+    PersistentMDCMap map0 = PersistentMDCMap.EMPTY.plus("k0", "v0");
+    PersistentMDCMap map1 = map0.plus("k0", "v1").plus("k1", "v1");
+    PersistentMDCMap map2 = map1.minus("k0");
+    assertEquals("v0", map0.get("k0"));
+    assertEquals(1, map0.size());
+    assertEquals("v1", map1.get("k0"));
+    assertEquals(2, map1.size());
+    assertNull(map2.get("k0"));
+    assertEquals(1, map2.size());
+  }
+
+  @Test
+  public void noopUpdatesReturnSameInstance() {
+    String v = "v";
+    PersistentMDCMap map = PersistentMDCMap.EMPTY.plus("k", v);
+    assertSame(map, map.plus("k", v));
+    assertSame(map, map.minus("absent"));
+    assertSame(map, map.minus(null));
+  }
+
+  @Test
+  public void nullValues() {
+    PersistentMDCMap map = PersistentMDCMap.EMPTY.plus("k", null);
+    assertTrue(map.containsKey("k"));
+    assertNull(map.get("k"));
+    assertEquals(1, map.size());
+  }
+
+  @Test
+  public void mapIsImmutable() {
+    PersistentMDCMap map = PersistentMDCMap.EMPTY.plus("k", "v");
+    try {
+      map.put("k", "x");
+      fail("expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+    }
+    try {
+      map.clear();
+      fail("expected UnsupportedOperationException");
+    } catch (UnsupportedOperationException e) {
+    }
+    assertEquals("v", map.get("k"));
+  }
+
+  @Test
+  public void growAndShrinkAcrossThreshold() {
+    int count = 3 * PersistentMDCMap.ARRAY_MAP_THRESHOLD;
+    PersistentMDCMap map = PersistentMDCMap.EMPTY;
+    Map<String, String> witness = new HashMap<String, String>();
+    for (int i = 0; i < count; i++) {
+      map = map.plus("k" + i, "v" + i);
+      witness.put("k" + i, "v" + i);
+      assertEquals(witness, map);
+    }
+    for (int i = 0; i < count; i++) {
+      map = map.minus("k" + i);
+      witness.remove("k" + i);
+      assertEquals(witness, map);
+      assertEquals(witness.hashCode(), map.hashCode());
+    }
+    assertTrue(map.isEmpty());
+  }
+
+  @Test
+  public void collidingKeys() {
+    // "Aa" and "BB" have the same hash code
+    assertEquals("Aa".hashCode(), "BB".hashCode());
+    PersistentMDCMap map = PersistentMDCMap.EMPTY;
+    for (int i = 0; i < PersistentMDCMap.ARRAY_MAP_THRESHOLD; i++) {
+      map = map.plus("x" + i, "y" + i);
+    }
+    map = map.plus("Aa", "1").plus("BB", "2").plus("AaAa", "3").plus("BBBB", "4");
+    assertEquals("1", map.get("Aa"));
+    assertEquals("2", map.get("BB"));
+    assertEquals("3", map.get("AaAa"));
+    assertEquals("4", map.get("BBBB"));
+    map = map.minus("Aa");
+    assertNull(map.get("Aa"));
+    assertEquals("2", map.get("BB"));
+    assertEquals(PersistentMDCMap.ARRAY_MAP_THRESHOLD + 3, map.size());
+  }
+
+  @Test
+  public void randomOperationsMatchHashMap() {
+    Random random = new Random(100);
+    PersistentMDCMap map = PersistentMDCMap.EMPTY;
+    Map<String, String> witness = new HashMap<String, String>();
+    for (int i = 0; i < 20000; i++) {
+      String key = "k" + random.nextInt(64);
+      if (random.nextInt(3) == 0) {
+        map = map.minus(key);
+        witness.remove(key);
+      } else {
+        String value = "v" + i;
+        map = map.plus(key, value);
+        witness.put(key, value);
+      }
+      assertEquals(witness.size(), map.size());
+      assertEquals(witness.get(key), map.get(key));
+    }
+    assertEquals(witness, map);
+    assertEquals(map, witness);
+  }
+
+  @Test
+  public void serializedAsHashMap() throws Exception {
+    PersistentMDCMap map = PersistentMDCMap.EMPTY;
+    for (int i = 0; i < 20; i++) {
+      map = map.plus("k" + i, "v" + i);
+    }
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    ObjectOutputStream oos = new ObjectOutputStream(bos);
+    oos.writeObject(map);
+    oos.close();
+    ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos
+        .toByteArray()));
+    Object back = ois.readObject();
+    assertFalse(back instanceof PersistentMDCMap);
+    assertEquals(map, back);
+  }
+}
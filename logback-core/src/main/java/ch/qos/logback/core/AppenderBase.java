@@ -16,6 +16,8 @@ package ch.qos.logback.core;
 import java.util.List;
 
 import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.metrics.AppenderMetrics;
+import ch.qos.logback.core.metrics.Instrumented;
 import ch.qos.logback.core.spi.ContextAwareBase;
 import ch.qos.logback.core.spi.FilterAttachableImpl;
 import ch.qos.logback.core.spi.FilterReply;
@@ -30,7 +32,7 @@ import ch.qos.logback.core.status.WarnStatus;
  * @author Ceki G&uuml;lc&uuml;
  */
 abstract public class AppenderBase<E> extends ContextAwareBase implements
-    Appender<E> {
+    Appender<E>, Instrumented {
 
   protected boolean started = false;
 
@@ -47,6 +49,11 @@ abstract public class AppenderBase<E> extends ContextAwareBase implements
 
   private FilterAttachableImpl<E> fai = new FilterAttachableImpl<E>();
 
+  /**
+   * Metrics recording the activity of this appender, null if disabled.
+   */
+  private volatile AppenderMetrics metrics;
+
   public String getName() {
     return name;
   }
@@ -56,9 +63,24 @@ abstract public class AppenderBase<E> extends ContextAwareBase implements
 
   static final int ALLOWED_REPEATS = 5;
 
-  public synchronized void doAppend(E eventObject) {
-    // WARNING: The guard check MUST be the first statement in the
-    // doAppend() method.
+  public void doAppend(E eventObject) {
+    AppenderMetrics m = metrics;
+    if (m == null) {
+      synchronized (this) {
+        doAppendLocked(eventObject, null);
+      }
+    } else {
+      long start = System.nanoTime();
+      synchronized (this) {
+        m.recordLockWait(System.nanoTime() - start);
+        doAppendLocked(eventObject, m);
+      }
+    }
+  }
+
+  private void doAppendLocked(E eventObject, AppenderMetrics m) {
+    // WARNING: The guard check MUST be the first statement executed while
+    // holding the lock in the doAppend() method.
 
     // prevent re-entry.
     if (guard) {
@@ -78,13 +100,25 @@ abstract public class AppenderBase<E> extends ContextAwareBase implements
       }
 
       if (getFilterChainDecision(eventObject) == FilterReply.DENY) {
+        if (m != null) {
+          m.recordDenied();
+        }
         return;
       }
 
       // ok, we now invoke derived class' implementation of append
-      this.append(eventObject);
+      if (m == null) {
+        this.append(eventObject);
+      } else {
+        long start = System.nanoTime();
+        this.append(eventObject);
+        m.recordAppend(System.nanoTime() - start);
+      }
 
     } catch (Exception e) {
+      if (m != null) {
+        m.recordFailure();
+      }
       if (exceptionCount++ < ALLOWED_REPEATS) {
         addError("Appender [" + name + "] failed to append.", e);
       }
@@ -114,6 +148,14 @@ abstract public class AppenderBase<E> extends ContextAwareBase implements
     return started;
   }
 
+  public AppenderMetrics getMetrics() {
+    return metrics;
+  }
+
+  public void setMetrics(AppenderMetrics metrics) {
+    this.metrics = metrics;
+  }
+
   public String toString() {
     return this.getClass().getName() + "[" + name + "]";
   }
@@ -13,39 +13,62 @@
  */
 package ch.qos.logback.core;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
-import ch.qos.logback.core.helpers.CyclicBuffer;
 import ch.qos.logback.core.status.Status;
 import ch.qos.logback.core.status.StatusListener;
 import ch.qos.logback.core.status.StatusManager;
+import ch.qos.logback.core.status.WarnStatus;
 
+/**
+ * Retains the first {@link #MAX_HEADER_COUNT} status messages and the last
+ * {@link #TAIL_SIZE} ones, using a fixed amount of memory and without
+ * acquiring locks, so that components reporting problems from many threads at
+ * once do not contend.
+ *
+ * <p>Optionally, each origin may add at most
+ * {@link #setMaxStatusesPerOriginPerSecond(int) maxStatusesPerOriginPerSecond}
+ * status messages per second. Further messages are neither retained nor
+ * passed to listeners, and their number is reported by the next message of
+ * the same origin which is let through. Rate limiting is disabled by default.
+ * Origins are tracked through weak references so that stopped components can
+ * be garbage collected.
+ *
+ * <p>Listeners are notified on the thread adding the status, iterating over a
+ * snapshot of the listener list.
+ */
 public class BasicStatusManager implements StatusManager {
 
   public static final int MAX_HEADER_COUNT = 150;
   public static final int TAIL_SIZE = 150;
 
-  int count = 0;
+  // no rate limiting unless requested
+  public static final int DEFAULT_MAX_STATUSES_PER_ORIGIN_PER_SECOND = 0;
+  // beyond this number of origins, rate limiting starts afresh
+  static final int MAX_TRACKED_ORIGINS = 256;
+  static final Object NULL_ORIGIN = new Object();
 
-  // protected access was requested in http://jira.qos.ch/browse/LBCORE-36
-  final protected List<Status> statusList = new ArrayList<Status>();
-  final protected CyclicBuffer<Status> tailBuffer = new CyclicBuffer<Status>(
-      TAIL_SIZE);
-  final protected Object statusListLock = new Object();
+  volatile Buffer buffer = new Buffer();
 
-  int level = Status.INFO;
+  final AtomicInteger level = new AtomicInteger(Status.INFO);
 
-  // protected access was requested in http://jira.qos.ch/browse/LBCORE-36
-  final protected List<StatusListener> statusListenerList = new ArrayList<StatusListener>();
-  final protected Object statusListenerListLock = new Object();
+  int maxStatusesPerOriginPerSecond = DEFAULT_MAX_STATUSES_PER_ORIGIN_PER_SECOND;
+  final ConcurrentMap<OriginKey, OriginRate> originRateMap = new ConcurrentHashMap<OriginKey, OriginRate>();
+  final ReferenceQueue<Object> collectedOrigins = new ReferenceQueue<Object>();
 
-  // Note on synchronization
-  // This class contains two separate locks statusListLock and
-  // statusListenerListLock guarding respectively the statusList+tailBuffer and
-  // statusListenerList fields. The locks are used internally
-  // without cycles. They are exposed to derived classes which should be careful
-  // not to create deadlock cycles.
+  // protected access was requested in http://jira.qos.ch/browse/LBCORE-36
+  final protected List<StatusListener> statusListenerList = new CopyOnWriteArrayList<StatusListener>();
 
   /**
    * Add a new status object.
@@ -54,72 +77,255 @@ public class BasicStatusManager implements StatusManager {
    *                the status message to add
    */
   public void add(Status newStatus) {
+    buffer.count.incrementAndGet();
+    int suppressed = acquire(newStatus.getOrigin());
+    if (suppressed < 0) {
+      return;
+    }
+    if (suppressed > 0) {
+      addUnlimited(new WarnStatus(suppressed
+          + " status messages from this origin were suppressed",
+          newStatus.getOrigin()));
+    }
+    addUnlimited(newStatus);
+  }
+
+  private void addUnlimited(Status newStatus) {
     // LBCORE-72: fire event before the count check
     fireStatusAddEvent(newStatus);
 
-    count++;
-    if (newStatus.getLevel() > level) {
-      level = newStatus.getLevel();
+    int newLevel = newStatus.getLevel();
+    int currentLevel;
+    while (newLevel > (currentLevel = level.get())) {
+      if (level.compareAndSet(currentLevel, newLevel)) {
+        break;
+      }
     }
 
-    synchronized (statusListLock) {
-      if (statusList.size() < MAX_HEADER_COUNT) {
-        statusList.add(newStatus);
-      } else {
-        tailBuffer.add(newStatus);
+    buffer.add(newStatus);
+  }
+
+  /**
+   * @return -1 if the status should be suppressed, otherwise the number of
+   *         status messages of the same origin suppressed since the last one
+   *         let through
+   */
+  private int acquire(Object origin) {
+    if (maxStatusesPerOriginPerSecond <= 0) {
+      return 0;
+    }
+    OriginRate rate = getOriginRate(origin);
+    if (rate == null) {
+      expungeCollectedOrigins();
+      if (originRateMap.size() >= MAX_TRACKED_ORIGINS) {
+        originRateMap.clear();
+      }
+      OriginRate fresh = new OriginRate();
+      OriginKey key = new OriginKey(nonNull(origin), collectedOrigins);
+      rate = originRateMap.putIfAbsent(key, fresh);
+      if (rate == null) {
+        rate = fresh;
       }
     }
+    return rate.acquire(System.currentTimeMillis(),
+        maxStatusesPerOriginPerSecond);
+  }
 
+  OriginRate getOriginRate(Object origin) {
+    return originRateMap.get(new OriginKey(nonNull(origin), null));
   }
 
-  public List<Status> getCopyOfStatusList() {
-    synchronized (statusListLock) {
-      List<Status> tList = new ArrayList<Status>(statusList);
-      tList.addAll(tailBuffer.asList());
-      return tList;
+  private Object nonNull(Object origin) {
+    return (origin == null) ? NULL_ORIGIN : origin;
+  }
+
+  private void expungeCollectedOrigins() {
+    Object key;
+    while ((key = collectedOrigins.poll()) != null) {
+      originRateMap.remove(key);
     }
   }
 
+  public List<Status> getCopyOfStatusList() {
+    return buffer.asList();
+  }
+
   private void fireStatusAddEvent(Status status) {
-    synchronized (statusListenerListLock) {
-      for (StatusListener sl : statusListenerList) {
-        sl.addStatusEvent(status);
-      }
+    for (StatusListener sl : statusListenerList) {
+      sl.addStatusEvent(status);
     }
   }
 
   public void clear() {
-    synchronized (statusListLock) {
-      count = 0;
-      statusList.clear();
-      tailBuffer.clear();
-    }
+    buffer = new Buffer();
   }
 
   public int getLevel() {
-    return level;
+    return level.get();
   }
 
+  /**
+   * @return the number of statuses added since the last {@link #clear()},
+   *         including those suppressed by rate limiting but not the warnings
+   *         reporting suppressed statuses
+   */
   public int getCount() {
-    return count;
+    long count = buffer.count.get();
+    return (count > Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int) count;
+  }
+
+  /**
+   * The maximum number of status messages each origin may add per second, or
+   * 0 for no limit, which is the default.
+   *
+   * @since 0.9.31
+   */
+  public void setMaxStatusesPerOriginPerSecond(
+      int maxStatusesPerOriginPerSecond) {
+    this.maxStatusesPerOriginPerSecond = maxStatusesPerOriginPerSecond;
+  }
+
+  public int getMaxStatusesPerOriginPerSecond() {
+    return maxStatusesPerOriginPerSecond;
   }
 
   public void add(StatusListener listener) {
-    synchronized (statusListenerListLock) {
-      statusListenerList.add(listener);
-    }
+    statusListenerList.add(listener);
   }
 
   public void remove(StatusListener listener) {
-    synchronized (statusListenerListLock) {
-      statusListenerList.remove(listener);
-    }
+    statusListenerList.remove(listener);
   }
 
   public List<StatusListener> getCopyOfStatusListenerList() {
-    synchronized (statusListenerListLock) {
-      return new ArrayList<StatusListener>(statusListenerList);
+    return new ArrayList<StatusListener>(statusListenerList);
+  }
+
+  // ================================================================
+  /**
+   * The first statuses, stored in order of arrival, followed by a ring buffer
+   * holding the most recent ones. Each status is assigned a sequence number
+   * which determines its slot.
+   */
+  static class Buffer {
+    // statuses offered, whether retained or not
+    final AtomicLong count = new AtomicLong();
+    final AtomicLong sequence = new AtomicLong();
+    final AtomicReferenceArray<Status> header = new AtomicReferenceArray<Status>(
+        MAX_HEADER_COUNT);
+    final AtomicReferenceArray<Slot> tail = new AtomicReferenceArray<Slot>(
+        TAIL_SIZE);
+
+    void add(Status status) {
+      long seq = sequence.getAndIncrement();
+      if (seq < MAX_HEADER_COUNT) {
+        header.set((int) seq, status);
+        return;
+      }
+      int index = (int) ((seq - MAX_HEADER_COUNT) % TAIL_SIZE);
+      Slot slot = new Slot(seq, status);
+      while (true) {
+        Slot existing = tail.get(index);
+        // a slower thread must not overwrite a more recent status
+        if (existing != null && existing.sequence > seq) {
+          return;
+        }
+        if (tail.compareAndSet(index, existing, slot)) {
+          return;
+        }
+      }
+    }
+
+    List<Status> asList() {
+      List<Status> result = new ArrayList<Status>(MAX_HEADER_COUNT + TAIL_SIZE);
+      for (int i = 0; i < MAX_HEADER_COUNT; i++) {
+        Status s = header.get(i);
+        // null if not written yet
+        if (s != null) {
+          result.add(s);
+        }
+      }
+      List<Slot> slotList = new ArrayList<Slot>(TAIL_SIZE);
+      for (int i = 0; i < TAIL_SIZE; i++) {
+        Slot slot = tail.get(i);
+        if (slot != null) {
+          slotList.add(slot);
+        }
+      }
+      Collections.sort(slotList, BY_SEQUENCE);
+      for (Slot slot : slotList) {
+        result.add(slot.status);
+      }
+      return result;
     }
   }
 
+  static class Slot {
+    final long sequence;
+    final Status status;
+
+    Slot(long sequence, Status status) {
+      this.sequence = sequence;
+      this.status = status;
+    }
+  }
+
+  static final Comparator<Slot> BY_SEQUENCE = new Comparator<Slot>() {
+    public int compare(Slot s0, Slot s1) {
+      return (s0.sequence < s1.sequence) ? -1
+          : ((s0.sequence == s1.sequence) ? 0 : 1);
+    }
+  };
+
+  /**
+   * Weakly references an origin, compared by identity.
+   */
+  static final class OriginKey extends WeakReference<Object> {
+    final int hash;
+
+    OriginKey(Object origin, ReferenceQueue<Object> queue) {
+      super(origin, queue);
+      hash = System.identityHashCode(origin);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o == this) {
+        return true;
+      }
+      if (!(o instanceof OriginKey)) {
+        return false;
+      }
+      Object origin = get();
+      return origin != null && origin == ((OriginKey) o).get();
+    }
+  }
+
+  /**
+   * Counts the statuses of an origin within one second windows.
+   */
+  static class OriginRate {
+    volatile long windowStart;
+    final AtomicInteger countInWindow = new AtomicInteger();
+    final AtomicInteger suppressed = new AtomicInteger();
+
+    int acquire(long now, int max) {
+      long start = windowStart;
+      if (now - start >= CoreConstants.MILLIS_IN_ONE_SECOND) {
+        // a few statuses may slip through when threads race here
+        windowStart = now;
+        countInWindow.set(0);
+      }
+      if (countInWindow.incrementAndGet() > max) {
+        suppressed.incrementAndGet();
+        return -1;
+      }
+      return suppressed.getAndSet(0);
+    }
+  }
 }
@@ -15,8 +15,10 @@ package ch.qos.logback.core;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
 
 import ch.qos.logback.core.status.StatusManager;
+import ch.qos.logback.core.util.ExecutorServiceUtil;
 import static ch.qos.logback.core.CoreConstants.CONTEXT_NAME_KEY;
 
 public class ContextBase implements Context {
@@ -33,6 +35,8 @@ public class ContextBase implements Context {
 
   Object configurationLock = new Object();
 
+  private ScheduledExecutorService scheduledExecutorService;
+
   public StatusManager getStatusManager() {
     return sm;
   }
@@ -86,6 +90,14 @@ public class ContextBase implements Context {
     objectMap.put(key, value);
   }
 
+  /**
+   * @return a copy of the objects registered with this context
+   * @since 0.9.31
+   */
+  protected Map<String, Object> getCopyOfObjectMap() {
+    return new HashMap<String, Object>(objectMap);
+  }
+
   public String getName() {
     return name;
   }
@@ -95,7 +107,12 @@ public class ContextBase implements Context {
    */
   public void reset() {
     propertyMap.clear();
+    // class descriptions do not depend on the configuration
+    Object beanDescriptionCache = objectMap.get(CoreConstants.BEAN_DESCRIPTION_CACHE_KEY);
     objectMap.clear();
+    if (beanDescriptionCache != null) {
+      objectMap.put(CoreConstants.BEAN_DESCRIPTION_CACHE_KEY, beanDescriptionCache);
+    }
   }
 
   /**
@@ -125,4 +142,33 @@ public class ContextBase implements Context {
   public Object getConfigurationLock() {
     return configurationLock;
   }
+
+  /**
+   * Returns the executor service shared by components of this context for
+   * running periodic house-keeping tasks in the background. The executor runs
+   * its tasks on a single daemon thread. Components should look it up with
+   * {@link ExecutorServiceUtil#getScheduledExecutorService(Context)}.
+   * 
+   * @return the shared {@link ScheduledExecutorService}, created on first use
+   * @since 0.9.31
+   */
+  public synchronized ScheduledExecutorService getScheduledExecutorService() {
+    if (scheduledExecutorService == null) {
+      scheduledExecutorService = ExecutorServiceUtil
+          .newScheduledExecutorService(getName());
+    }
+    return scheduledExecutorService;
+  }
+
+  /**
+   * Shut down the executor service returned by
+   * {@link #getScheduledExecutorService()}, cancelling all pending tasks. A
+   * new executor service will be created if requested again.
+   * 
+   * @since 0.9.31
+   */
+  protected synchronized void stopScheduledExecutorService() {
+    ExecutorServiceUtil.shutdown(scheduledExecutorService);
+    scheduledExecutorService = null;
+  }
 }
@@ -115,6 +115,19 @@ public class CoreConstants {
   static public final String CONFIGURATION_WATCH_LIST_RESET = "CONFIGURATION_WATCH_LIST_RESET";
 
   static public final String SAFE_JORAN_CONFIGURATION = "SAFE_JORAN_CONFIGURATION";
+
+  /**
+   * The key under which contexts not extending {@link ContextBase} may store
+   * the executor service returned by
+   * {@link ch.qos.logback.core.util.ExecutorServiceUtil#getScheduledExecutorService(Context)}.
+   */
+  static public final String SCHEDULED_EXECUTOR_SERVICE_KEY = "SCHEDULED_EXECUTOR_SERVICE";
+
+  /**
+   * The key under which a context holds its
+   * {@link ch.qos.logback.core.joran.util.BeanDescriptionCache}.
+   */
+  static public final String BEAN_DESCRIPTION_CACHE_KEY = "BEAN_DESCRIPTION_CACHE";
   static public final String XML_PARSING = "XML_PARSING";
 
 
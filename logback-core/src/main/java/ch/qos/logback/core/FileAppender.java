@@ -190,8 +190,38 @@ public class FileAppender<E> extends OutputStreamAppender<E> {
     this.append = append;
   }
 
+  /**
+   * Close the file currently opened by this appender, releasing its file
+   * descriptor, without stopping the appender. The file is transparently
+   * re-opened, in append mode, by the next write. Headers and footers are not
+   * written again.
+   * 
+   * @since 0.9.31
+   */
+  public void releaseFile() {
+    synchronized (lock) {
+      ResilientFileOutputStream resilientFOS = (ResilientFileOutputStream) getOutputStream();
+      if (resilientFOS != null) {
+        resilientFOS.release();
+      }
+    }
+  }
+
+  /**
+   * @return true if the file was released by {@link #releaseFile()} and has
+   *         not been written to since.
+   * @since 0.9.31
+   */
+  public boolean isFileReleased() {
+    synchronized (lock) {
+      ResilientFileOutputStream resilientFOS = (ResilientFileOutputStream) getOutputStream();
+      return resilientFOS != null && resilientFOS.isReleased();
+    }
+  }
+
   final private void safeWrite(E event) throws IOException {
     ResilientFileOutputStream resilientFOS = (ResilientFileOutputStream) getOutputStream();
+    resilientFOS.reacquire();
     FileChannel fileChannel = resilientFOS.getChannel();
     if (fileChannel == null) {
       return;
@@ -19,7 +19,9 @@ import java.io.IOException;
 import java.io.OutputStream;
 
 import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.EncoderBase;
 import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import ch.qos.logback.core.metrics.AppenderMetrics;
 import ch.qos.logback.core.spi.DeferredProcessingAware;
 import ch.qos.logback.core.status.ErrorStatus;
 
@@ -46,6 +48,9 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
    */
   protected Object lock = new Object();
 
+  // whether the encoder writes through a MeteredOutputStream, guarded by lock
+  private boolean metered;
+
   /**
    * This is the {@link OutputStream outputStream} where output will be written.
    */
@@ -142,7 +147,10 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
   void encoderInit() {
     if (encoder != null && this.outputStream != null) {
       try {
-        encoder.init(outputStream);
+        // the bytes written are only counted while metrics are attached
+        metered = getMetrics() != null;
+        encoder.init(metered ? new MeteredOutputStream(outputStream)
+            : outputStream);
       } catch (IOException ioe) {
         this.started = false;
         addStatus(new ErrorStatus(
@@ -213,8 +221,19 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
       // the synchronization prevents the OutputStream from being closed while we
       // are writing. It also prevents multiple thread from entering the same
       // converter. Converters assume that they are in a synchronized block.
-      synchronized (lock) {
-        writeOut(event);
+      AppenderMetrics m = getMetrics();
+      if (m == null) {
+        synchronized (lock) {
+          writeOut(event);
+        }
+      } else {
+        long start = System.nanoTime();
+        synchronized (lock) {
+          long acquired = System.nanoTime();
+          m.recordLockWait(acquired - start);
+          writeOut(event);
+          m.recordEncode(System.nanoTime() - acquired);
+        }
       }
     } catch (IOException ioe) {
       // as soon as an exception occurs, move to non-started state
@@ -231,5 +250,71 @@ public class OutputStreamAppender<E> extends UnsynchronizedAppenderBase<E> {
   public void setEncoder(Encoder<E> encoder) {
     this.encoder = encoder;
   }
-  
+
+  /**
+   * Attaching metrics to an appender whose stream is open counts the bytes
+   * written from then on if the encoder extends {@link EncoderBase}, and
+   * otherwise from the next time a stream is opened.
+   */
+  @Override
+  public void setMetrics(AppenderMetrics metrics) {
+    synchronized (lock) {
+      super.setMetrics(metrics);
+      boolean meter = metrics != null;
+      if (meter != metered && outputStream != null
+          && encoder instanceof EncoderBase) {
+        ((EncoderBase<E>) encoder).redirect(meter ? new MeteredOutputStream(
+            outputStream) : outputStream);
+        metered = meter;
+      }
+    }
+  }
+
+  /**
+   * The stream handed to the encoder while metrics are attached to this
+   * appender, counting the bytes it writes.
+   */
+  private class MeteredOutputStream extends OutputStream {
+
+    final OutputStream os;
+
+    MeteredOutputStream(OutputStream os) {
+      this.os = os;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      os.write(b);
+      recordBytesWritten(1);
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+      os.write(b);
+      recordBytesWritten(b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      os.write(b, off, len);
+      recordBytesWritten(len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      os.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      os.close();
+    }
+
+    private void recordBytesWritten(int count) {
+      AppenderMetrics m = getMetrics();
+      if (m != null) {
+        m.recordBytesWritten(count);
+      }
+    }
+  }
 }
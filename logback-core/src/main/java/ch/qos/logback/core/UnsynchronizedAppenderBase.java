@@ -16,6 +16,8 @@ package ch.qos.logback.core;
 import java.util.List;
 
 import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.metrics.AppenderMetrics;
+import ch.qos.logback.core.metrics.Instrumented;
 import ch.qos.logback.core.spi.ContextAwareBase;
 import ch.qos.logback.core.spi.FilterAttachableImpl;
 import ch.qos.logback.core.spi.FilterReply;
@@ -29,7 +31,7 @@ import ch.qos.logback.core.status.WarnStatus;
  * @author Ralph Goers
  */
 abstract public class UnsynchronizedAppenderBase<E> extends ContextAwareBase implements
-    Appender<E> {
+    Appender<E>, Instrumented {
 
   protected boolean started = false;
 
@@ -50,6 +52,11 @@ abstract public class UnsynchronizedAppenderBase<E> extends ContextAwareBase imp
 
   private FilterAttachableImpl<E> fai = new FilterAttachableImpl<E>();
 
+  /**
+   * Metrics recording the activity of this appender, null if disabled.
+   */
+  private volatile AppenderMetrics metrics;
+
   public String getName() {
     return name;
   }
@@ -68,6 +75,7 @@ abstract public class UnsynchronizedAppenderBase<E> extends ContextAwareBase imp
       return;
     }
 
+    AppenderMetrics m = metrics;
     try {
       guard.set(Boolean.TRUE);
 
@@ -81,13 +89,25 @@ abstract public class UnsynchronizedAppenderBase<E> extends ContextAwareBase imp
       }
 
       if (getFilterChainDecision(eventObject) == FilterReply.DENY) {
+        if (m != null) {
+          m.recordDenied();
+        }
         return;
       }
 
       // ok, we now invoke derived class' implementation of append
-      this.append(eventObject);
+      if (m == null) {
+        this.append(eventObject);
+      } else {
+        long start = System.nanoTime();
+        this.append(eventObject);
+        m.recordAppend(System.nanoTime() - start);
+      }
 
     } catch (Exception e) {
+      if (m != null) {
+        m.recordFailure();
+      }
       if (exceptionCount++ < ALLOWED_REPEATS) {
         addError("Appender [" + name + "] failed to append.", e);
       }
@@ -117,6 +137,14 @@ abstract public class UnsynchronizedAppenderBase<E> extends ContextAwareBase imp
     return started;
   }
 
+  public AppenderMetrics getMetrics() {
+    return metrics;
+  }
+
+  public void setMetrics(AppenderMetrics metrics) {
+    this.metrics = metrics;
+  }
+
   public String toString() {
     return this.getClass().getName() + "[" + name + "]";
   }
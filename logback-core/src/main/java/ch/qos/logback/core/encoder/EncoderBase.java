@@ -27,6 +27,18 @@ abstract public class EncoderBase<E> extends ContextAwareBase implements Encoder
   public void init(OutputStream os) throws IOException {
     this.outputStream = os;
   }
+
+  /**
+   * Direct the output of this encoder to <code>os</code>, which must write
+   * through to the stream passed to {@link #init(OutputStream)}, e.g. a
+   * decorator counting the bytes written. Unlike init(), no header is
+   * written.
+   * 
+   * @since 0.9.31
+   */
+  public void redirect(OutputStream os) {
+    this.outputStream = os;
+  }
   
   public boolean isStarted() {
     return started;
@@ -39,12 +39,13 @@ public class Transform {
     // Check if the string is null or zero length -- if so, return
     // what was sent in.
     if ((input == null) || (input.length() == 0)
-        || (input.indexOf("<") == -1 && input.indexOf(">") == -1)) {
+        || (input.indexOf('<') == -1 && input.indexOf('>') == -1)) {
       return input;
     }
 
-    StringBuffer buf = new StringBuffer(input);
-    return escapeTags(buf);
+    StringBuilder buf = new StringBuilder(input.length() + 16);
+    appendEscapingTags(buf, input);
+    return buf.toString();
   }
   
 
@@ -56,15 +57,43 @@ public class Transform {
    * @return
    */
   public static String escapeTags(final StringBuffer buf) {
-    for (int i = 0; i < buf.length(); i++) {
-      char ch = buf.charAt(i);
-      if (ch == '<') {
-        buf.replace(i, i + 1, "&lt;");
-      } else if (ch == '>') {
-        buf.replace(i, i + 1, "&gt;");
+    StringBuilder result = new StringBuilder(buf.length() + 16);
+    appendEscapingTags(result, buf);
+    return result.toString();
+  }
+
+  /**
+   * Append <code>input</code> to <code>output</code>, replacing '<' and '>'
+   * characters with their predefined entity references. The input is scanned
+   * once and, when it contains no such characters, appended as is.
+   * 
+   * @param output
+   *          The buffer the escaped text is appended to
+   * @param input
+   *          The text to be escaped, may be null in which case "null" is
+   *          appended, as by {@link StringBuilder#append(CharSequence)}.
+   * @since 0.9.31
+   */
+  public static void appendEscapingTags(StringBuilder output, CharSequence input) {
+    if (input == null) {
+      output.append(input);
+      return;
+    }
+    int len = input.length();
+    int start = 0;
+    for (int i = 0; i < len; i++) {
+      char ch = input.charAt(i);
+      if (ch == '<' || ch == '>') {
+        output.append(input, start, i);
+        output.append(ch == '<' ? "&lt;" : "&gt;");
+        start = i + 1;
       }
     }
-    return buf.toString();
+    if (start == 0) {
+      output.append(input);
+    } else {
+      output.append(input, start, len);
+    }
   }
   
 
@@ -95,7 +124,7 @@ public class Transform {
     int start = 0;
 
     while (end > -1) {
-      output.append(str.substring(start, end));
+      output.append(str, start, end);
       output.append(CDATA_EMBEDED_END);
       start = end + CDATA_END_LEN;
 
@@ -106,6 +135,6 @@ public class Transform {
       }
     }
 
-    output.append(str.substring(start));
+    output.append(str, start, str.length());
   }
 }
@@ -14,6 +14,7 @@
 package ch.qos.logback.core.html;
 
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 import ch.qos.logback.core.Context;
@@ -47,6 +48,15 @@ public abstract class HTMLLayoutBase<E> extends LayoutBase<E> {
 
    // counter keeping track of the rows output
   protected long counter = 0;
+
+  static final int DEFAULT_BUFFER_SIZE = 256;
+  static final int MAX_RETAINED_BUFFER_SIZE = 16 * 1024;
+
+  // shared by successive calls to doLayout, see getLayoutBuffer()
+  private StringBuilder layoutBuffer = new StringBuilder(DEFAULT_BUFFER_SIZE);
+
+  // the value of computeConverterName for each converter in the chain
+  private Map<Converter<E>, String> converterNameMap = new IdentityHashMap<Converter<E>, String>();
   
   /**
    * Set the <b>ConversionPattern </b> option. This is the string which controls
@@ -85,6 +95,11 @@ public abstract class HTMLLayoutBase<E> extends LayoutBase<E> {
       Node t = p.parse();
       this.head = p.compile(t, getEffectiveConverterMap());
       ConverterUtil.startConverters(this.head);
+      Map<Converter<E>, String> nameMap = new IdentityHashMap<Converter<E>, String>();
+      for (Converter<E> c = head; c != null; c = c.getNext()) {
+        nameMap.put(c, computeConverterName(c));
+      }
+      converterNameMap = nameMap;
     } catch (ScanException ex) {
       addError("Incorrect pattern found", ex);
       errorCount++;
@@ -249,6 +264,37 @@ public abstract class HTMLLayoutBase<E> extends LayoutBase<E> {
     }
   }
 
+  /**
+   * Return the buffer in which doLayout should build its output, emptied.
+   * The buffer is shared by successive calls, which like the row counter
+   * assumes that doLayout is not invoked concurrently. A buffer which grew
+   * past {@link #MAX_RETAINED_BUFFER_SIZE} is replaced.
+   * 
+   * @since 0.9.31
+   */
+  protected StringBuilder getLayoutBuffer() {
+    if (layoutBuffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+      layoutBuffer = new StringBuilder(DEFAULT_BUFFER_SIZE);
+    } else {
+      layoutBuffer.setLength(0);
+    }
+    return layoutBuffer;
+  }
+
+  /**
+   * Return the name of converter <code>c</code>, as computed by
+   * {@link #computeConverterName(Converter)} when the layout was started.
+   * 
+   * @since 0.9.31
+   */
+  protected String getConverterName(Converter<E> c) {
+    String name = converterNameMap.get(c);
+    if (name == null) {
+      name = computeConverterName(c);
+    }
+    return name;
+  }
+
   protected String computeConverterName(Converter c) {
     String className = c.getClass().getSimpleName();
     int index = className.indexOf("Converter");
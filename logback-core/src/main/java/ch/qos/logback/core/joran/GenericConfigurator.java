@@ -13,6 +13,8 @@
  */
 package ch.qos.logback.core.joran;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -24,6 +26,7 @@ import java.util.List;
 import static ch.qos.logback.core.CoreConstants.SAFE_JORAN_CONFIGURATION;
 
 import ch.qos.logback.core.Context;
+import ch.qos.logback.core.joran.util.ConfigurationSnapshotStore;
 import ch.qos.logback.core.joran.util.ConfigurationWatchListUtil;
 import ch.qos.logback.core.status.StatusChecker;
 import org.xml.sax.InputSource;
@@ -53,8 +56,16 @@ public abstract class GenericConfigurator extends ContextAwareBase {
       urlConnection.setUseCaches(false);
 
       InputStream in = urlConnection.getInputStream();
-      doConfigure(in);
-      in.close();
+      ConfigurationSnapshotStore snapshotStore = ConfigurationSnapshotStore
+          .fromSystemProperty(context);
+      if (snapshotStore == null) {
+        doConfigure(in);
+        in.close();
+      } else {
+        byte[] content = readFully(in);
+        in.close();
+        doConfigure(url, content, snapshotStore);
+      }
     } catch (IOException ioe) {
       String errMsg = "Could not open URL [" + url + "].";
       addError(errMsg, ioe);
@@ -69,9 +80,16 @@ public abstract class GenericConfigurator extends ContextAwareBase {
   final public void doConfigure(File file) throws JoranException {
     FileInputStream fis = null;
     try {
-      informContextOfURLUsedForConfiguration(getContext(), file.toURI().toURL());
+      URL url = file.toURI().toURL();
+      informContextOfURLUsedForConfiguration(getContext(), url);
       fis = new FileInputStream(file);
-      doConfigure(fis);
+      ConfigurationSnapshotStore snapshotStore = ConfigurationSnapshotStore
+          .fromSystemProperty(context);
+      if (snapshotStore == null) {
+        doConfigure(fis);
+      } else {
+        doConfigure(url, readFully(fis), snapshotStore);
+      }
     } catch (IOException ioe) {
       String errMsg = "Could not open [" + file.getPath() + "].";
       addError(errMsg, ioe);
@@ -132,6 +150,32 @@ public abstract class GenericConfigurator extends ContextAwareBase {
     recorder.setContext(context);
     recorder.recordEvents(inputSource);
     doConfigure(recorder.saxEventList);
+    registerSafeConfigurationIfNoErrors(threshold);
+  }
+
+  /**
+   * Configure from a snapshot of the events recorded for the same content, if
+   * one exists. Otherwise, parse the content and save a snapshot of the
+   * recorded events.
+   */
+  private void doConfigure(URL url, byte[] content,
+      ConfigurationSnapshotStore snapshotStore) throws JoranException {
+    long threshold = System.currentTimeMillis();
+    List<SaxEvent> eventList = snapshotStore.load(url, content);
+    if (eventList == null) {
+      SaxEventRecorder recorder = new SaxEventRecorder();
+      recorder.setContext(context);
+      recorder.recordEvents(new ByteArrayInputStream(content));
+      eventList = recorder.saxEventList;
+      if (new StatusChecker(context).noXMLParsingErrorsOccurred(threshold)) {
+        snapshotStore.save(url, content, eventList);
+      }
+    }
+    doConfigure(eventList);
+    registerSafeConfigurationIfNoErrors(threshold);
+  }
+
+  private void registerSafeConfigurationIfNoErrors(long threshold) {
     // no exceptions a this level
     StatusChecker statusChecker = new StatusChecker(context);
     if(statusChecker.noXMLParsingErrorsOccurred(threshold)) {
@@ -140,6 +184,16 @@ public abstract class GenericConfigurator extends ContextAwareBase {
     }
   }
 
+  private byte[] readFully(InputStream in) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    byte[] buf = new byte[8192];
+    int n;
+    while ((n = in.read(buf)) != -1) {
+      baos.write(buf, 0, n);
+    }
+    return baos.toByteArray();
+  }
+
   public void doConfigure(final List<SaxEvent> eventList)
           throws JoranException {
     buildInterpreter();
@@ -0,0 +1,194 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.joran.event;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.LocatorImpl;
+
+import ch.qos.logback.core.joran.spi.Pattern;
+
+/**
+ * Writes and reads lists of {@link SaxEvent} instances in a compact binary
+ * form, so that recorded configurations can be replayed without parsing XML.
+ *
+ * @since 0.9.31
+ */
+public class SaxEventSerializer {
+
+  static final byte START = 1;
+  static final byte BODY = 2;
+  static final byte END = 3;
+
+  // bounds on the counts read back, beyond which the input is deemed corrupt
+  static final int MAX_EVENT_COUNT = 1 << 20;
+  static final int MAX_PATTERN_SIZE = 1024;
+  static final int MAX_ATTRIBUTE_COUNT = 1024;
+  static final int INITIAL_CAPACITY = 256;
+
+  public static void write(List<SaxEvent> eventList, DataOutputStream out)
+      throws IOException {
+    out.writeInt(eventList.size());
+    for (SaxEvent se : eventList) {
+      if (se instanceof StartEvent) {
+        StartEvent startEvent = (StartEvent) se;
+        out.writeByte(START);
+        writeNames(se, out);
+        writePattern(startEvent.pattern, out);
+        writeAttributes(startEvent.attributes, out);
+      } else if (se instanceof BodyEvent) {
+        out.writeByte(BODY);
+        writeString(((BodyEvent) se).getText(), out);
+      } else if (se instanceof EndEvent) {
+        out.writeByte(END);
+        writeNames(se, out);
+      } else {
+        throw new IOException("Unexpected event type " + se.getClass());
+      }
+      writeLocator(se.locator, out);
+    }
+  }
+
+  public static List<SaxEvent> read(DataInputStream in) throws IOException {
+    int count = readCount(in, MAX_EVENT_COUNT);
+    List<SaxEvent> eventList = new ArrayList<SaxEvent>(Math.min(count,
+        INITIAL_CAPACITY));
+    for (int i = 0; i < count; i++) {
+      byte type = in.readByte();
+      switch (type) {
+      case START: {
+        String namespaceURI = readString(in);
+        String localName = readString(in);
+        String qName = readString(in);
+        Pattern pattern = readPattern(in);
+        Attributes attributes = readAttributes(in);
+        eventList.add(new StartEvent(pattern, namespaceURI, localName, qName,
+            attributes, readLocator(in)));
+        break;
+      }
+      case BODY: {
+        String text = readString(in);
+        eventList.add(new BodyEvent(text, readLocator(in)));
+        break;
+      }
+      case END: {
+        String namespaceURI = readString(in);
+        String localName = readString(in);
+        String qName = readString(in);
+        eventList.add(new EndEvent(namespaceURI, localName, qName,
+            readLocator(in)));
+        break;
+      }
+      default:
+        throw new IOException("Unknown event type " + type);
+      }
+    }
+    return eventList;
+  }
+
+  static void writeNames(SaxEvent se, DataOutputStream out) throws IOException {
+    writeString(se.namespaceURI, out);
+    writeString(se.localName, out);
+    writeString(se.qName, out);
+  }
+
+  static void writePattern(Pattern pattern, DataOutputStream out)
+      throws IOException {
+    List<String> partList = pattern.getCopyOfPartList();
+    out.writeInt(partList.size());
+    for (String part : partList) {
+      out.writeUTF(part);
+    }
+  }
+
+  static Pattern readPattern(DataInputStream in) throws IOException {
+    int size = readCount(in, MAX_PATTERN_SIZE);
+    List<String> partList = new ArrayList<String>(size);
+    for (int i = 0; i < size; i++) {
+      partList.add(in.readUTF());
+    }
+    return new Pattern(partList);
+  }
+
+  static void writeAttributes(Attributes attributes, DataOutputStream out)
+      throws IOException {
+    int length = attributes.getLength();
+    out.writeInt(length);
+    for (int i = 0; i < length; i++) {
+      writeString(attributes.getURI(i), out);
+      writeString(attributes.getLocalName(i), out);
+      writeString(attributes.getQName(i), out);
+      writeString(attributes.getType(i), out);
+      writeString(attributes.getValue(i), out);
+    }
+  }
+
+  static Attributes readAttributes(DataInputStream in) throws IOException {
+    AttributesImpl attributes = new AttributesImpl();
+    int length = readCount(in, MAX_ATTRIBUTE_COUNT);
+    for (int i = 0; i < length; i++) {
+      attributes.addAttribute(readString(in), readString(in), readString(in),
+          readString(in), readString(in));
+    }
+    return attributes;
+  }
+
+  /**
+   * Read a count, failing if it is negative or larger than <code>max</code>,
+   * as only a corrupt or forged input can hold such a count.
+   */
+  static int readCount(DataInputStream in, int max) throws IOException {
+    int count = in.readInt();
+    if (count < 0 || count > max) {
+      throw new IOException("Invalid count " + count + ", expected at most "
+          + max);
+    }
+    return count;
+  }
+
+  static void writeLocator(Locator locator, DataOutputStream out)
+      throws IOException {
+    writeString(locator.getPublicId(), out);
+    writeString(locator.getSystemId(), out);
+    out.writeInt(locator.getLineNumber());
+    out.writeInt(locator.getColumnNumber());
+  }
+
+  static Locator readLocator(DataInputStream in) throws IOException {
+    LocatorImpl locator = new LocatorImpl();
+    locator.setPublicId(readString(in));
+    locator.setSystemId(readString(in));
+    locator.setLineNumber(in.readInt());
+    locator.setColumnNumber(in.readInt());
+    return locator;
+  }
+
+  static void writeString(String s, DataOutputStream out) throws IOException {
+    out.writeBoolean(s != null);
+    if (s != null) {
+      out.writeUTF(s);
+    }
+  }
+
+  static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+}
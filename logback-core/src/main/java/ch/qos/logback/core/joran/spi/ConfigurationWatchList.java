@@ -81,6 +81,17 @@ public class ConfigurationWatchList extends ContextAwareBase {
     //return (lastModified != fileToScan.lastModified() && lastModified != SENTINEL);
   }
 
+  /**
+   * Record the current modification time of the watched files, so that the
+   * changes made so far are no longer detected.
+   */
+  public void updateLastModifiedList() {
+    int len = fileWatchList.size();
+    for (int i = 0; i < len; i++) {
+      lastModifiedList.set(i, fileWatchList.get(i).lastModified());
+    }
+  }
+
   @SuppressWarnings("deprecation")
   File convertToFile(URL url) {
     String protocol = url.getProtocol();
@@ -15,6 +15,8 @@ package ch.qos.logback.core.joran.spi;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A registry which maps a property in a host class to a default class.
@@ -24,16 +26,36 @@ import java.util.Map;
  */
 public class DefaultNestedComponentRegistry {
 
+  // ConcurrentHashMap does not accept null values
+  private static final Object NONE = new Object();
+
   Map<HostClassAndPropertyDouble, Class> defaultComponentMap = new HashMap<HostClassAndPropertyDouble, Class>();
 
+  // results of findDefaultComponentType, including negative ones, keyed by
+  // the class and lower case property name passed as parameters
+  private final ConcurrentMap<HostClassAndPropertyDouble, Object> resolvedMap = new ConcurrentHashMap<HostClassAndPropertyDouble, Object>();
+
   public void add(Class hostClass, String propertyName, Class componentClass) {
     HostClassAndPropertyDouble hpDouble = new HostClassAndPropertyDouble(
         hostClass, propertyName.toLowerCase());
     defaultComponentMap.put(hpDouble, componentClass);
+    resolvedMap.clear();
   }
 
   public Class findDefaultComponentType(Class hostClass, String propertyName) {
     propertyName = propertyName.toLowerCase();
+    HostClassAndPropertyDouble key = new HostClassAndPropertyDouble(hostClass,
+        propertyName);
+    Object resolved = resolvedMap.get(key);
+    if (resolved == null) {
+      Class componentClass = findInHierarchy(hostClass, propertyName);
+      resolved = (componentClass == null) ? NONE : componentClass;
+      resolvedMap.put(key, resolved);
+    }
+    return (resolved == NONE) ? null : (Class) resolved;
+  }
+
+  private Class findInHierarchy(Class hostClass, String propertyName) {
     while (hostClass != null) {
       Class componentClass = oneShotFind(hostClass, propertyName);
       if (componentClass != null) {
@@ -16,6 +16,7 @@ package ch.qos.logback.core.joran.spi;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import ch.qos.logback.core.Context;
 import ch.qos.logback.core.joran.action.Action;
@@ -36,6 +37,12 @@ public class SimpleRuleStore extends ContextAwareBase implements RuleStore {
   // key: Pattern instance, value: ArrayList containing actions
   HashMap<Pattern, List<Action>> rules = new HashMap<Pattern, List<Action>>();
 
+  // wildcard rules indexed by component, built on the first lookup following
+  // the addition of a rule
+  Node tailTrie;
+  Node prefixTrie;
+  Node middleTrie;
+
   // public SimpleRuleStore() {
   // }
 
@@ -58,6 +65,7 @@ public class SimpleRuleStore extends ContextAwareBase implements RuleStore {
     }
 
     a4p.add(action);
+    tailTrie = null;
   }
 
   public void addRule(Pattern pattern, String actionClassName) {
@@ -85,7 +93,13 @@ public class SimpleRuleStore extends ContextAwareBase implements RuleStore {
 
     if ((actionList = rules.get(currentPattern)) != null) {
       return actionList;
-    } else if ((actionList = tailMatch(currentPattern)) != null) {
+    }
+
+    if (tailTrie == null) {
+      compile();
+    }
+
+    if ((actionList = tailMatch(currentPattern)) != null) {
       return actionList;
     } else if ((actionList = prefixMatch(currentPattern)) != null) {
       return actionList;
@@ -96,89 +110,120 @@ public class SimpleRuleStore extends ContextAwareBase implements RuleStore {
     }
   }
 
-  List tailMatch(Pattern currentPattern) {
-    int max = 0;
-    Pattern longestMatchingPattern = null;
+  /**
+   * Index the wildcard rules into tries so that each lookup walks the current
+   * pattern once instead of comparing it against every rule.
+   */
+  void compile() {
+    Node tail = new Node();
+    Node prefix = new Node();
+    Node middle = new Node();
 
-    for (Pattern p : rules.keySet()) {
+    for (Map.Entry<Pattern, List<Action>> entry : rules.entrySet()) {
+      Pattern p = entry.getKey();
+      List<Action> actionList = entry.getValue();
+      int size = p.size();
+      String first = (size > 1) ? p.get(0) : null;
+      String last = p.peekLast();
 
-      if ((p.size() > 1) && p.get(0).equals(ANY)) {
-        int r = currentPattern.getTailMatchLength(p);
-        if (r > max) {
-          max = r;
-          longestMatchingPattern = p;
+      if (ANY.equals(first)) {
+        // */x/y is indexed as y, x
+        Node node = tail;
+        for (int i = size - 1; i > 0; i--) {
+          node = node.getOrCreateChild(p.get(i).toLowerCase(), actionList);
+        }
+        node.setActionList(actionList);
+      }
+
+      if (ANY.equals(last)) {
+        // x/y/* is indexed as x, y
+        Node node = prefix;
+        for (int i = 0; i < size - 1; i++) {
+          node = node.getOrCreateChild(p.get(i).toLowerCase(), actionList);
         }
+        node.setActionList(actionList);
+      }
+
+      if (ANY.equals(first) && ANY.equals(last)) {
+        // */x/y/* is indexed as x, y
+        int from = (size > 2) ? 1 : 0;
+        int to = (size > 2) ? size - 1 : size;
+        Node node = middle;
+        for (int i = from; i < to; i++) {
+          node = node.getOrCreateChild(p.get(i), actionList);
+        }
+        node.setActionList(actionList);
       }
     }
 
-    if (longestMatchingPattern != null) {
-      return rules.get(longestMatchingPattern);
-    } else {
+    prefixTrie = prefix;
+    middleTrie = middle;
+    tailTrie = tail;
+  }
+
+  List tailMatch(Pattern currentPattern) {
+    Node node = tailTrie;
+    Node deepest = null;
+
+    for (int i = currentPattern.size() - 1; i >= 0; i--) {
+      node = node.getChild(currentPattern.get(i).toLowerCase());
+      if (node == null) {
+        break;
+      }
+      deepest = node;
+    }
+
+    if (deepest == null) {
       return null;
     }
+    // as with Pattern.getTailMatchLength, a rule also matches when only the
+    // last components of the current pattern agree with it
+    return deepest.getBestActionList();
   }
 
   List prefixMatch(Pattern currentPattern) {
-    int max = 0;
-    Pattern longestMatchingPattern = null;
+    Node node = prefixTrie;
+    List<Action> longestMatch = null;
 
-    for (Pattern p : rules.keySet()) {
-      String last = p.peekLast();
-      if (ANY.equals(last)) {
-        int r = currentPattern.getPrefixMatchLength(p);
-        // to qualify the match length must equal p's size omitting the '*'
-        if ((r == p.size() - 1) && (r > max)) {
-          // System.out.println("New longest prefixMatch "+p);
-          max = r;
-          longestMatchingPattern = p;
-        }
+    for (int i = 0; i < currentPattern.size(); i++) {
+      node = node.getChild(currentPattern.get(i).toLowerCase());
+      if (node == null) {
+        break;
+      }
+      // to qualify, every component of the rule preceding '*' must match
+      if (node.actionList != null) {
+        longestMatch = node.actionList;
       }
     }
+    return longestMatch;
+  }
 
-    if (longestMatchingPattern != null) {
-      return rules.get(longestMatchingPattern);
-    } else {
+  List middleMatch(Pattern currentPattern) {
+    if (middleTrie.children == null) {
       return null;
     }
-  }
 
-  List middleMatch(Pattern currentPattern) {
-    
     int max = 0;
-    Pattern longestMatchingPattern = null;
+    List<Action> longestMatch = null;
+    int size = currentPattern.size();
 
-    for (Pattern p : rules.keySet()) {
-      String last = p.peekLast();
-      String first = null;
-      if(p.size() > 1) {
-        first = p.get(0);
-      }
-      if (ANY.equals(last) && ANY.equals(first)) {
-        List<String> partList = p.getCopyOfPartList();
-        if(partList.size() > 2) {
-          partList.remove(0);
-          partList.remove(partList.size()-1);
-        }
-        
-        int r = 0;
-        Pattern clone = new Pattern(partList);        
-        if(currentPattern.isContained(clone)) {
-          r = clone.size();
+    for (int start = 0; start < size; start++) {
+      Node node = middleTrie;
+      for (int i = start; i < size; i++) {
+        // unlike other matches, middle matches are case sensitive
+        node = node.getChild(currentPattern.get(i));
+        if (node == null) {
+          break;
         }
-        if (r > max) {
+        int r = i - start + 1;
+        if (node.actionList != null && r > max) {
           max = r;
-          longestMatchingPattern = p;
+          longestMatch = node.actionList;
         }
       }
     }
-
-    if (longestMatchingPattern != null) {
-      return rules.get(longestMatchingPattern);
-    } else {
-      return null;
-    }
+    return longestMatch;
   }
-  
 
   public String toString() {
     final String TAB = "  ";
@@ -191,4 +236,38 @@ public class SimpleRuleStore extends ContextAwareBase implements RuleStore {
     return retValue.toString();
   }
 
+  // ================================================================
+  static final class Node {
+    Map<String, Node> children;
+    // actions of the rule ending at this node, if any
+    List<Action> actionList;
+    // actions of the first rule indexed through this node
+    List<Action> passingActionList;
+
+    Node getChild(String component) {
+      return (children == null) ? null : children.get(component);
+    }
+
+    Node getOrCreateChild(String component, List<Action> ruleActionList) {
+      if (children == null) {
+        children = new HashMap<String, Node>();
+      }
+      Node child = children.get(component);
+      if (child == null) {
+        child = new Node();
+        child.passingActionList = ruleActionList;
+        children.put(component, child);
+      }
+      return child;
+    }
+
+    void setActionList(List<Action> actionList) {
+      this.actionList = actionList;
+    }
+
+    List<Action> getBestActionList() {
+      return (actionList != null) ? actionList : passingActionList;
+    }
+  }
+
 }
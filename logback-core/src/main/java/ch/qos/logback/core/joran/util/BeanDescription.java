@@ -0,0 +1,243 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.joran.util;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.MethodDescriptor;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import ch.qos.logback.core.joran.spi.DefaultClass;
+import ch.qos.logback.core.util.AggregationType;
+
+/**
+ * The properties, methods and aggregation types of a class, as needed by
+ * {@link PropertySetter}. The class is introspected once, when the
+ * description is built. Aggregation types and implicit component classes are
+ * computed on first request and remembered thereafter.
+ * 
+ * <p>Instances are thread safe.
+ * 
+ * @see BeanDescriptionCache
+ * @since 0.9.31
+ */
+public final class BeanDescription {
+
+  // ConcurrentHashMap does not accept null values
+  private static final Object NO_CLASS = new Object();
+
+  private final Class<?> beanClass;
+  private final Map<String, PropertyDescriptor> propertyDescriptorMap = new HashMap<String, PropertyDescriptor>();
+  private final Map<String, Method> methodMap = new HashMap<String, Method>();
+
+  private final ConcurrentMap<String, AggregationType> aggregationTypeMap = new ConcurrentHashMap<String, AggregationType>();
+  private final ConcurrentMap<String, Object> implicitClassMap = new ConcurrentHashMap<String, Object>();
+
+  BeanDescription(Class<?> beanClass) throws IntrospectionException {
+    this.beanClass = beanClass;
+    BeanInfo bi = Introspector.getBeanInfo(beanClass);
+    for (PropertyDescriptor pd : bi.getPropertyDescriptors()) {
+      // the first descriptor wins, as with a linear search
+      if (!propertyDescriptorMap.containsKey(pd.getName())) {
+        propertyDescriptorMap.put(pd.getName(), pd);
+      }
+    }
+    for (MethodDescriptor md : bi.getMethodDescriptors()) {
+      if (!methodMap.containsKey(md.getName())) {
+        methodMap.put(md.getName(), md.getMethod());
+      }
+    }
+  }
+
+  public Class<?> getBeanClass() {
+    return beanClass;
+  }
+
+  /**
+   * @param name
+   *          a decapitalized property name
+   * @return the descriptor of the property, or null if there is no such
+   *         property
+   */
+  public PropertyDescriptor getPropertyDescriptor(String name) {
+    return propertyDescriptorMap.get(name);
+  }
+
+  /**
+   * @return a public method called <code>methodName</code>, or null if there
+   *         is no such method
+   */
+  public Method getMethod(String methodName) {
+    return methodMap.get(methodName);
+  }
+
+  Method findAdderMethod(String name) {
+    return getMethod("add" + capitalizeFirstLetter(name));
+  }
+
+  Method findSetterMethod(String name) {
+    PropertyDescriptor propertyDescriptor = getPropertyDescriptor(Introspector
+        .decapitalize(name));
+    if (propertyDescriptor != null) {
+      return propertyDescriptor.getWriteMethod();
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * @see PropertySetter#computeAggregationType(String)
+   */
+  public AggregationType getAggregationType(String name) {
+    AggregationType type = aggregationTypeMap.get(name);
+    if (type == null) {
+      type = computeAggregationType(name);
+      aggregationTypeMap.put(name, type);
+    }
+    return type;
+  }
+
+  private AggregationType computeAggregationType(String name) {
+    Method addMethod = findAdderMethod(name);
+    if (addMethod != null) {
+      switch (computeRawAggregationType(addMethod)) {
+      case NOT_FOUND:
+        return AggregationType.NOT_FOUND;
+      case AS_BASIC_PROPERTY:
+        return AggregationType.AS_BASIC_PROPERTY_COLLECTION;
+      case AS_COMPLEX_PROPERTY:
+        return AggregationType.AS_COMPLEX_PROPERTY_COLLECTION;
+      }
+    }
+
+    Method setterMethod = findSetterMethod(name);
+    if (setterMethod != null) {
+      return computeRawAggregationType(setterMethod);
+    } else {
+      return AggregationType.NOT_FOUND;
+    }
+  }
+
+  private AggregationType computeRawAggregationType(Method method) {
+    Class<?> parameterClass = getParameterClassForMethod(method);
+    if (parameterClass == null) {
+      return AggregationType.NOT_FOUND;
+    }
+    if (StringToObjectConverter.canBeBuiltFromSimpleString(parameterClass)) {
+      return AggregationType.AS_BASIC_PROPERTY;
+    } else {
+      return AggregationType.AS_COMPLEX_PROPERTY;
+    }
+  }
+
+  /**
+   * Returns the class of the nested component <code>name</code> as implied by
+   * the {@link DefaultClass} annotation of the relevant setter or adder
+   * method, or by the type of its parameter if that type can be instantiated.
+   * 
+   * @param aggregationType
+   *          either {@link AggregationType#AS_COMPLEX_PROPERTY} or
+   *          {@link AggregationType#AS_COMPLEX_PROPERTY_COLLECTION}
+   * @return the implied class, or null if none is implied
+   */
+  public Class<?> getImplicitClass(String name, AggregationType aggregationType) {
+    String key = aggregationType + ":" + name;
+    Object cached = implicitClassMap.get(key);
+    if (cached == null) {
+      Class<?> implicitClass = computeImplicitClass(name, aggregationType);
+      cached = (implicitClass == null) ? NO_CLASS : implicitClass;
+      implicitClassMap.put(key, cached);
+    }
+    return (cached == NO_CLASS) ? null : (Class<?>) cached;
+  }
+
+  private Class<?> computeImplicitClass(String name,
+      AggregationType aggregationType) {
+    Method relevantMethod = getRelevantMethod(name, aggregationType);
+    if (relevantMethod == null) {
+      return null;
+    }
+    DefaultClass defaultClassAnnon = relevantMethod
+        .getAnnotation(DefaultClass.class);
+    if (defaultClassAnnon != null) {
+      return defaultClassAnnon.value();
+    }
+    Class<?> paramType = getParameterClassForMethod(relevantMethod);
+    if (paramType != null && isUnequivocallyInstantiable(paramType)) {
+      return paramType;
+    }
+    return null;
+  }
+
+  Method getRelevantMethod(String name, AggregationType aggregationType) {
+    if (aggregationType == AggregationType.AS_COMPLEX_PROPERTY_COLLECTION) {
+      return findAdderMethod(name);
+    } else if (aggregationType == AggregationType.AS_COMPLEX_PROPERTY) {
+      return findSetterMethod(name);
+    } else {
+      throw new IllegalStateException(aggregationType + " not allowed here");
+    }
+  }
+
+  static Class<?> getParameterClassForMethod(Method method) {
+    if (method == null) {
+      return null;
+    }
+    Class<?>[] classArray = method.getParameterTypes();
+    if (classArray.length != 1) {
+      return null;
+    } else {
+      return classArray[0];
+    }
+  }
+
+  /**
+   * Can the given clazz instantiable with certainty?
+   * 
+   * @param clazz
+   *          The class to test for instantiability
+   * @return true if clazz can be instantiated, and false otherwise.
+   */
+  private static boolean isUnequivocallyInstantiable(Class<?> clazz) {
+    if (clazz.isInterface()) {
+      return false;
+    }
+    // checking for constructors would be more elegant, but in
+    // classes without any declared constructors, Class.getConstructor()
+    // returns null.
+    Object o;
+    try {
+      o = clazz.newInstance();
+      if (o != null) {
+        return true;
+      } else {
+        return false;
+      }
+    } catch (InstantiationException e) {
+      return false;
+    } catch (IllegalAccessException e) {
+      return false;
+    }
+  }
+
+  static String capitalizeFirstLetter(String name) {
+    return name.substring(0, 1).toUpperCase() + name.substring(1);
+  }
+}
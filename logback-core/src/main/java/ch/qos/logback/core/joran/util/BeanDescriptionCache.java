@@ -0,0 +1,79 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.joran.util;
+
+import java.beans.IntrospectionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.CoreConstants;
+
+/**
+ * A class-keyed cache of {@link BeanDescription} instances. Each
+ * {@link Context} holds one in its object map, see {@link #of(Context)}, so
+ * that the classes of configured components are introspected only once,
+ * however many instances are configured. A
+ * {@link ch.qos.logback.core.ContextBase} keeps its cache when reset, and thus
+ * when reconfigured.
+ * 
+ * @since 0.9.31
+ */
+public class BeanDescriptionCache {
+
+  private final ConcurrentMap<Class<?>, BeanDescription> map = new ConcurrentHashMap<Class<?>, BeanDescription>();
+
+  /**
+   * Return the instance held by <code>context</code>, creating it if
+   * necessary.
+   */
+  public static BeanDescriptionCache of(Context context) {
+    synchronized (BeanDescriptionCache.class) {
+      BeanDescriptionCache cache = (BeanDescriptionCache) context
+          .getObject(CoreConstants.BEAN_DESCRIPTION_CACHE_KEY);
+      if (cache == null) {
+        cache = new BeanDescriptionCache();
+        context.putObject(CoreConstants.BEAN_DESCRIPTION_CACHE_KEY, cache);
+      }
+      return cache;
+    }
+  }
+
+  /**
+   * @return the description of <code>clazz</code>, built on first request
+   * @throws IntrospectionException
+   *           if <code>clazz</code> cannot be introspected, in which case
+   *           nothing is cached
+   */
+  public BeanDescription getBeanDescription(Class<?> clazz)
+      throws IntrospectionException {
+    BeanDescription description = map.get(clazz);
+    if (description == null) {
+      description = new BeanDescription(clazz);
+      BeanDescription existing = map.putIfAbsent(clazz, description);
+      if (existing != null) {
+        description = existing;
+      }
+    }
+    return description;
+  }
+
+  public int size() {
+    return map.size();
+  }
+
+  public void clear() {
+    map.clear();
+  }
+}
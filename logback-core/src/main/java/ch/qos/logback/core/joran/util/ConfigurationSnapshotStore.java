@@ -0,0 +1,200 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.joran.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.joran.event.SaxEvent;
+import ch.qos.logback.core.joran.event.SaxEventSerializer;
+import ch.qos.logback.core.spi.ContextAwareBase;
+import ch.qos.logback.core.util.OptionHelper;
+
+/**
+ * Persists the events recorded while parsing a configuration file, so that
+ * later runs can replay them without parsing XML again.
+ *
+ * <p>A snapshot is only used if the configuration file has the same checksum
+ * as when the snapshot was taken. Variable substitution and component
+ * instantiation take place when the events are replayed, as they depend on
+ * the environment of each run.
+ *
+ * <p>Snapshots are enabled by setting the
+ * {@value #SNAPSHOT_DIR_PROPERTY} system property to a directory.
+ *
+ * @since 0.9.31
+ */
+public class ConfigurationSnapshotStore extends ContextAwareBase {
+
+  public static final String SNAPSHOT_DIR_PROPERTY = "logback.configurationSnapshotDir";
+
+  static final int MAGIC = 0x4C42534E;
+  // version 2 dropped the class path fingerprint
+  static final int FORMAT_VERSION = 2;
+  static final String DIGEST_ALGORITHM = "MD5";
+
+  final File directory;
+
+  public ConfigurationSnapshotStore(Context context, File directory) {
+    setContext(context);
+    this.directory = directory;
+  }
+
+  /**
+   * @return a store located in the directory designated by the
+   *         {@value #SNAPSHOT_DIR_PROPERTY} system property, or null if the
+   *         property is not set
+   */
+  static public ConfigurationSnapshotStore fromSystemProperty(Context context) {
+    String dir = OptionHelper.getSystemProperty(SNAPSHOT_DIR_PROPERTY);
+    if (OptionHelper.isEmpty(dir)) {
+      return null;
+    }
+    return new ConfigurationSnapshotStore(context, new File(dir.trim()));
+  }
+
+  /**
+   * Return the events recorded for the configuration designated by
+   * <code>url</code>, or null if there is no valid snapshot for the given
+   * content.
+   */
+  public List<SaxEvent> load(URL url, byte[] content) {
+    File file = getSnapshotFile(url);
+    if (!file.exists()) {
+      return null;
+    }
+    DataInputStream in = null;
+    try {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(
+          file)));
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION
+          || !url.toString().equals(in.readUTF())
+          || !Arrays.equals(digest(content), readBytes(in))) {
+        addInfo("Ignoring stale configuration snapshot [" + file + "]");
+        return null;
+      }
+      List<SaxEvent> eventList = SaxEventSerializer.read(in);
+      addInfo("Replaying configuration snapshot [" + file + "]");
+      return eventList;
+    } catch (IOException e) {
+      addWarn("Failed to read configuration snapshot [" + file + "]", e);
+      return null;
+    } finally {
+      close(in);
+    }
+  }
+
+  /**
+   * Save the events recorded for the configuration designated by
+   * <code>url</code> having the given content.
+   */
+  public void save(URL url, byte[] content, List<SaxEvent> eventList) {
+    File file = getSnapshotFile(url);
+    File tmpFile = null;
+    DataOutputStream out = null;
+    try {
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+        addWarn("Failed to create directory [" + directory + "]");
+        return;
+      }
+      // write to a temporary file of our own, in the same directory so that
+      // it can be renamed, so that concurrent writers, possibly in other
+      // JVMs, never clobber each other and readers never see partial snapshots
+      tmpFile = File.createTempFile(file.getName(), ".tmp", directory);
+      out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(
+          tmpFile)));
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeUTF(url.toString());
+      writeBytes(digest(content), out);
+      SaxEventSerializer.write(eventList, out);
+      out.close();
+      out = null;
+      file.delete();
+      if (!tmpFile.renameTo(file)) {
+        addWarn("Failed to rename [" + tmpFile + "] as [" + file + "]");
+        tmpFile.delete();
+        return;
+      }
+      addInfo("Saved configuration snapshot [" + file + "]");
+    } catch (IOException e) {
+      addWarn("Failed to write configuration snapshot [" + file + "]", e);
+      close(out);
+      if (tmpFile != null) {
+        tmpFile.delete();
+      }
+    }
+  }
+
+  File getSnapshotFile(URL url) {
+    byte[] urlDigest = digest(url.toString().getBytes());
+    return new File(directory, "logback-" + toHex(urlDigest) + ".snapshot");
+  }
+
+  static byte[] digest(byte[] content) {
+    try {
+      return MessageDigest.getInstance(DIGEST_ALGORITHM).digest(content);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+    }
+  }
+
+  static String toHex(byte[] bytes) {
+    StringBuilder buf = new StringBuilder(2 * bytes.length);
+    for (byte b : bytes) {
+      buf.append(Character.forDigit((b >> 4) & 0xF, 16));
+      buf.append(Character.forDigit(b & 0xF, 16));
+    }
+    return buf.toString();
+  }
+
+  static void writeBytes(byte[] bytes, DataOutputStream out) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  static byte[] readBytes(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    // digests are short, anything else denotes a corrupted snapshot
+    if (length < 0 || length > 1024) {
+      throw new IOException("Invalid digest length " + length);
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private void close(Closeable closeable) {
+    if (closeable != null) {
+      try {
+        closeable.close();
+      } catch (IOException e) {
+        // ignored
+      }
+    }
+  }
+}
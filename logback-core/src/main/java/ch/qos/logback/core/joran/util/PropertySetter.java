@@ -14,14 +14,14 @@
 // Contributors:  Georg Lundesgaard
 package ch.qos.logback.core.joran.util;
 
-import java.beans.BeanInfo;
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
-import java.beans.MethodDescriptor;
 import java.beans.PropertyDescriptor;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 
+import ch.qos.logback.core.Context;
+
 import ch.qos.logback.core.joran.spi.DefaultClass;
 import ch.qos.logback.core.joran.spi.DefaultNestedComponentRegistry;
 import ch.qos.logback.core.spi.ContextAwareBase;
@@ -48,6 +48,11 @@ import ch.qos.logback.core.util.PropertySetterException;
  * setMale(true) if such methods exist with those signatures. Otherwise an
  * {@link IntrospectionException} are thrown.
  * 
+ * <p>
+ * The result of introspection is obtained from the
+ * {@link BeanDescriptionCache} of the context, if any, so that each class is
+ * introspected only once per context.
+ * 
  * @author Anders Kristensen
  * @author Ceki Gulcu
  */
@@ -55,8 +60,8 @@ public class PropertySetter extends ContextAwareBase {
 
   protected Object obj;
   protected Class objClass;
-  protected PropertyDescriptor[] propertyDescriptors;
-  protected MethodDescriptor[] methodDescriptors;
+  protected BeanDescription beanDescription;
+  private boolean introspected;
 
   /**
    * Create a new PropertySetter for the specified Object. This is done in
@@ -71,21 +76,33 @@ public class PropertySetter extends ContextAwareBase {
   }
 
   /**
-   * Uses JavaBeans {@link Introspector} to computer setters of object to be
-   * configured.
+   * Obtains the description of the class of the object to be configured,
+   * introspecting it with the JavaBeans {@link Introspector} unless the
+   * context has already done so.
    */
   protected void introspect() {
+    introspected = true;
+    Context context = getContext();
     try {
-      BeanInfo bi = Introspector.getBeanInfo(obj.getClass());
-      propertyDescriptors = bi.getPropertyDescriptors();
-      methodDescriptors = bi.getMethodDescriptors();
+      if (context != null) {
+        beanDescription = BeanDescriptionCache.of(context).getBeanDescription(
+            objClass);
+      } else {
+        beanDescription = new BeanDescription(objClass);
+      }
     } catch (IntrospectionException ex) {
       addError("Failed to introspect " + obj + ": " + ex.getMessage());
-      propertyDescriptors = new PropertyDescriptor[0];
-      methodDescriptors = new MethodDescriptor[0];
+      beanDescription = null;
     }
   }
 
+  private BeanDescription getBeanDescription() {
+    if (!introspected) {
+      introspect();
+    }
+    return beanDescription;
+  }
+
   /**
    * Set a property on this PropertySetter's Object. If successful, this method
    * will invoke a setter method on the underlying Object. The setter is the one
@@ -172,99 +189,19 @@ public class PropertySetter extends ContextAwareBase {
   }
 
   public AggregationType computeAggregationType(String name) {
-    String cName = capitalizeFirstLetter(name);
-
-    Method addMethod = findAdderMethod(cName);
-
-    // if the
-    if (addMethod != null) {
-      AggregationType type = computeRawAggregationType(addMethod);
-      switch (type) {
-      case NOT_FOUND:
-        return AggregationType.NOT_FOUND;
-      case AS_BASIC_PROPERTY:
-        return AggregationType.AS_BASIC_PROPERTY_COLLECTION;
-      case AS_COMPLEX_PROPERTY:
-        return AggregationType.AS_COMPLEX_PROPERTY_COLLECTION;
-      }
-    }
-
-    Method setterMethod = findSetterMethod(name);
-    if (setterMethod != null) {
-      return computeRawAggregationType(setterMethod);
-    } else {
-      // we have failed
+    BeanDescription description = getBeanDescription();
+    if (description == null) {
       return AggregationType.NOT_FOUND;
     }
+    return description.getAggregationType(name);
   }
 
   private Method findAdderMethod(String name) {
-    name = capitalizeFirstLetter(name);
-    Method adderMethod = getMethod("add" + name);
-    return adderMethod;
-  }
-
-  private Method findSetterMethod(String name) {
-    String dName = Introspector.decapitalize(name);
-    PropertyDescriptor propertyDescriptor = getPropertyDescriptor(dName);
-    if (propertyDescriptor != null) {
-      return propertyDescriptor.getWriteMethod();
-    } else {
+    BeanDescription description = getBeanDescription();
+    if (description == null) {
       return null;
     }
-  }
-
-  private Class<?> getParameterClassForMethod(Method method) {
-    if (method == null) {
-      return null;
-    }
-    Class[] classArray = method.getParameterTypes();
-    if (classArray.length != 1) {
-      return null;
-    } else {
-      return classArray[0];
-    }
-  }
-
-  private AggregationType computeRawAggregationType(Method method) {
-    Class<?> parameterClass = getParameterClassForMethod(method);
-    if (parameterClass == null) {
-      return AggregationType.NOT_FOUND;
-    }
-    if (StringToObjectConverter.canBeBuiltFromSimpleString(parameterClass)) {
-      return AggregationType.AS_BASIC_PROPERTY;
-    } else {
-      return AggregationType.AS_COMPLEX_PROPERTY;
-    }
-  }
-
-  /**
-   * Can the given clazz instantiable with certainty?
-   * 
-   * @param clazz
-   *          The class to test for instantiability
-   * @return true if clazz can be instantiated, and false otherwise.
-   */
-  private boolean isUnequivocallyInstantiable(Class<?> clazz) {
-    if (clazz.isInterface()) {
-      return false;
-    }
-    // checking for constructors would be more elegant, but in
-    // classes without any declared constructors, Class.getConstructor()
-    // returns null.
-    Object o;
-    try {
-      o = clazz.newInstance();
-      if (o != null) {
-        return true;
-      } else {
-        return false;
-      }
-    } catch (InstantiationException e) {
-      return false;
-    } catch (IllegalAccessException e) {
-      return false;
-    }
+    return description.findAdderMethod(name);
   }
 
   public Class getObjClass() {
@@ -305,7 +242,7 @@ public class PropertySetter extends ContextAwareBase {
       return;
     }
 
-    name = capitalizeFirstLetter(name);
+    name = BeanDescription.capitalizeFirstLetter(name);
     Method adderMethod = findAdderMethod(name);
 
     if (adderMethod == null) {
@@ -385,39 +322,20 @@ public class PropertySetter extends ContextAwareBase {
     return true;
   }
 
-  private String capitalizeFirstLetter(String name) {
-    return name.substring(0, 1).toUpperCase() + name.substring(1);
-  }
-
   protected Method getMethod(String methodName) {
-    if (methodDescriptors == null) {
-      introspect();
-    }
-
-    for (int i = 0; i < methodDescriptors.length; i++) {
-      if (methodName.equals(methodDescriptors[i].getName())) {
-        return methodDescriptors[i].getMethod();
-      }
+    BeanDescription description = getBeanDescription();
+    if (description == null) {
+      return null;
     }
-
-    return null;
+    return description.getMethod(methodName);
   }
 
   protected PropertyDescriptor getPropertyDescriptor(String name) {
-    if (propertyDescriptors == null) {
-      introspect();
-    }
-
-    for (int i = 0; i < propertyDescriptors.length; i++) {
-      // System.out.println("Comparing " + name + " against "
-      // + propertyDescriptors[i].getName());
-      if (name.equals(propertyDescriptors[i].getName())) {
-        // System.out.println("matched");
-        return propertyDescriptors[i];
-      }
+    BeanDescription description = getBeanDescription();
+    if (description == null) {
+      return null;
     }
-
-    return null;
+    return description.getPropertyDescriptor(name);
   }
 
   public Object getObj() {
@@ -425,16 +343,11 @@ public class PropertySetter extends ContextAwareBase {
   }
 
   Method getRelevantMethod(String name, AggregationType aggregationType) {
-    String cName = capitalizeFirstLetter(name);
-    Method relevantMethod;
-    if (aggregationType == AggregationType.AS_COMPLEX_PROPERTY_COLLECTION) {
-      relevantMethod = findAdderMethod(cName);
-    } else if (aggregationType == AggregationType.AS_COMPLEX_PROPERTY) {
-      relevantMethod = findSetterMethod(cName);
-    } else {
-      throw new IllegalStateException(aggregationType + " not allowed here");
+    BeanDescription description = getBeanDescription();
+    if (description == null) {
+      return null;
     }
-    return relevantMethod;
+    return description.getRelevantMethod(name, aggregationType);
   }
 
   <T extends Annotation> T getAnnotation(String name, Class<T> annonationClass,
@@ -457,22 +370,6 @@ public class PropertySetter extends ContextAwareBase {
     return null;
   }
 
-  Class getByConcreteType(String name, Method relevantMethod) {
-
-    Class<?> paramType = getParameterClassForMethod(relevantMethod);
-    if (paramType == null) {
-      return null;
-    }
-
-    boolean isUnequivocallyInstantiable = isUnequivocallyInstantiable(paramType);
-    if (isUnequivocallyInstantiable) {
-      return paramType;
-    } else {
-      return null;
-    }
-
-  }
-
   public Class getClassNameViaImplicitRules(String name,
       AggregationType aggregationType, DefaultNestedComponentRegistry registry) {
 
@@ -481,16 +378,12 @@ public class PropertySetter extends ContextAwareBase {
     if (registryResult != null) {
       return registryResult;
     }
-    // find the relevant method for the given property name and aggregationType
-    Method relevantMethod = getRelevantMethod(name, aggregationType);
-    if (relevantMethod == null) {
+    BeanDescription description = getBeanDescription();
+    if (description == null) {
       return null;
     }
-    Class byAnnotation = getDefaultClassNameByAnnonation(name, relevantMethod);
-    if (byAnnotation != null) {
-      return byAnnotation;
-    }
-    return getByConcreteType(name, relevantMethod);
+    // by annotation on, or by concrete parameter type of, the relevant method
+    return description.getImplicitClass(name, aggregationType);
   }
 
 }
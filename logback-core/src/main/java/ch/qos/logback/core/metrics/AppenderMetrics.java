@@ -0,0 +1,149 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.metrics;
+
+/**
+ * Counters and latency histograms describing the activity of a single
+ * appender: events appended, denied by filters or failing, bytes written by
+ * its encoder, as well as the time spent appending, encoding, waiting for the
+ * appender's lock and rolling over.
+ * 
+ * <p>Recording methods take durations in nanoseconds, as measured by
+ * {@link System#nanoTime()}, and never block. Since increments are not
+ * coordinated, values read while events are being recorded may be slightly
+ * inconsistent with each other.
+ * 
+ * @see Instrumented
+ * @since 0.9.31
+ */
+public class AppenderMetrics implements AppenderMetricsMBean {
+
+  static final int NANOS_IN_ONE_MICROSECOND = 1000;
+
+  // only the append time may be recorded outside of any appender lock
+  static final int APPEND_TIME_STRIPES = Math.min(
+      StripedCounter.defaultStripeCount(), 4);
+
+  final StripedCounter appended = new StripedCounter();
+  final StripedCounter denied = new StripedCounter();
+  final StripedCounter failed = new StripedCounter();
+  final StripedCounter bytesWritten = new StripedCounter();
+
+  final LatencyHistogram appendTime = new LatencyHistogram(APPEND_TIME_STRIPES);
+  final LatencyHistogram encodeTime = new LatencyHistogram();
+  final LatencyHistogram lockWaitTime = new LatencyHistogram();
+  final LatencyHistogram rolloverTime = new LatencyHistogram();
+
+  public void recordAppend(long nanos) {
+    appended.increment();
+    appendTime.record(toMicros(nanos));
+  }
+
+  public void recordDenied() {
+    denied.increment();
+  }
+
+  public void recordFailure() {
+    failed.increment();
+  }
+
+  public void recordEncode(long nanos) {
+    encodeTime.record(toMicros(nanos));
+  }
+
+  public void recordBytesWritten(long count) {
+    bytesWritten.add(count);
+  }
+
+  public void recordLockWait(long nanos) {
+    lockWaitTime.record(toMicros(nanos));
+  }
+
+  public void recordRollover(long nanos) {
+    rolloverTime.record(toMicros(nanos));
+  }
+
+  public long getAppendedCount() {
+    return appended.sum();
+  }
+
+  public long getDeniedCount() {
+    return denied.sum();
+  }
+
+  public long getFailedCount() {
+    return failed.sum();
+  }
+
+  public long getBytesWritten() {
+    return bytesWritten.sum();
+  }
+
+  public long getAppendTimeP50() {
+    return appendTime.getValueAtPercentile(50);
+  }
+
+  public long getAppendTimeP99() {
+    return appendTime.getValueAtPercentile(99);
+  }
+
+  public long getAppendTimeMax() {
+    return appendTime.getValueAtPercentile(100);
+  }
+
+  public long getEncodeTimeP50() {
+    return encodeTime.getValueAtPercentile(50);
+  }
+
+  public long getEncodeTimeP99() {
+    return encodeTime.getValueAtPercentile(99);
+  }
+
+  public long getLockWaitTimeP99() {
+    return lockWaitTime.getValueAtPercentile(99);
+  }
+
+  public long getLockWaitTimeMax() {
+    return lockWaitTime.getValueAtPercentile(100);
+  }
+
+  public long getRolloverCount() {
+    return rolloverTime.getCount();
+  }
+
+  public long getRolloverTimeMax() {
+    return rolloverTime.getValueAtPercentile(100);
+  }
+
+  public void reset() {
+    appended.reset();
+    denied.reset();
+    failed.reset();
+    bytesWritten.reset();
+    appendTime.reset();
+    encodeTime.reset();
+    lockWaitTime.reset();
+    rolloverTime.reset();
+  }
+
+  static long toMicros(long nanos) {
+    return nanos / NANOS_IN_ONE_MICROSECOND;
+  }
+
+  @Override
+  public String toString() {
+    return "AppenderMetrics(appended=" + getAppendedCount() + ", denied="
+        + getDeniedCount() + ", failed=" + getFailedCount() + ")";
+  }
+}
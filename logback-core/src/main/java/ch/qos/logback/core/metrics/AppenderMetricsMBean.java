@@ -0,0 +1,52 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.metrics;
+
+/**
+ * The management interface of {@link AppenderMetrics}. Times are expressed in
+ * microseconds and cover the period since the metrics were created or last
+ * reset.
+ * 
+ * @since 0.9.31
+ */
+public interface AppenderMetricsMBean {
+
+  long getAppendedCount();
+
+  long getDeniedCount();
+
+  long getFailedCount();
+
+  long getBytesWritten();
+
+  long getAppendTimeP50();
+
+  long getAppendTimeP99();
+
+  long getAppendTimeMax();
+
+  long getEncodeTimeP50();
+
+  long getEncodeTimeP99();
+
+  long getLockWaitTimeP99();
+
+  long getLockWaitTimeMax();
+
+  long getRolloverCount();
+
+  long getRolloverTimeMax();
+
+  void reset();
+}
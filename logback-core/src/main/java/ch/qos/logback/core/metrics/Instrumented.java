@@ -0,0 +1,36 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.metrics;
+
+/**
+ * Implemented by components, typically appenders, able to record their
+ * activity into {@link AppenderMetrics}. Metrics can be attached and detached
+ * at any time, including while events are being appended. Components without
+ * metrics attached incur no recording overhead.
+ * 
+ * @since 0.9.31
+ */
+public interface Instrumented {
+
+  /**
+   * @return the metrics currently attached, or null if none are
+   */
+  AppenderMetrics getMetrics();
+
+  /**
+   * Attach metrics to this component, or detach them if <code>metrics</code>
+   * is null.
+   */
+  void setMetrics(AppenderMetrics metrics);
+}
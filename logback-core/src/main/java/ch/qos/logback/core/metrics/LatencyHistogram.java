@@ -0,0 +1,147 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies, in any unit, with a fixed number of buckets.
+ * Values below 16 have their own bucket while larger values are grouped in 16
+ * buckets per power of two, so that values reported for percentiles are
+ * within about 6% of the recorded ones. Values of 2<sup>32</sup> and more
+ * fall into the last bucket.
+ *
+ * <p>Buckets can be spread over several stripes, as for
+ * {@link StripedCounter}, to reduce contention between recording threads.
+ *
+ * @since 0.9.31
+ */
+public class LatencyHistogram {
+
+  static final int SUB_BUCKET_BITS = 4;
+  static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  static final int MAX_EXPONENT = 32;
+  static final int BUCKET_COUNT = SUB_BUCKET_COUNT
+      * (MAX_EXPONENT - SUB_BUCKET_BITS + 1);
+  static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+
+  final AtomicLongArray counts;
+  final int mask;
+
+  public LatencyHistogram() {
+    this(1);
+  }
+
+  public LatencyHistogram(int stripeCount) {
+    this.mask = stripeCount - 1;
+    this.counts = new AtomicLongArray(stripeCount * BUCKET_COUNT);
+  }
+
+  /**
+   * Record a value, ignoring negative ones.
+   */
+  public void record(long value) {
+    if (value < 0) {
+      return;
+    }
+    int stripe = (mask == 0) ? 0 : StripedCounter.stripeIndex(mask);
+    counts.incrementAndGet(stripe * BUCKET_COUNT + bucketIndex(value));
+  }
+
+  public long getCount() {
+    long count = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      count += counts.get(i);
+    }
+    return count;
+  }
+
+  /**
+   * @param percentile
+   *          between 0 and 100
+   * @return the largest value of the bucket in which the given percentile
+   *         falls, or 0 if no values were recorded
+   */
+  public long getValueAtPercentile(double percentile) {
+    long[] merged = mergeStripes();
+    long count = 0;
+    for (long c : merged) {
+      count += c;
+    }
+    if (count == 0) {
+      return 0;
+    }
+    long rank = (long) Math.ceil(percentile / 100 * count);
+    if (rank < 1) {
+      rank = 1;
+    }
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += merged[i];
+      if (seen >= rank) {
+        return highestValueInBucket(i);
+      }
+    }
+    return highestValueInBucket(BUCKET_COUNT - 1);
+  }
+
+  /**
+   * Add the values recorded by <code>other</code> to this histogram.
+   */
+  public void add(LatencyHistogram other) {
+    long[] merged = other.mergeStripes();
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      if (merged[i] != 0) {
+        counts.addAndGet(i, merged[i]);
+      }
+    }
+  }
+
+  public void reset() {
+    for (int i = 0; i < counts.length(); i++) {
+      counts.set(i, 0);
+    }
+  }
+
+  private long[] mergeStripes() {
+    long[] merged = new long[BUCKET_COUNT];
+    for (int i = 0; i < counts.length(); i++) {
+      merged[i % BUCKET_COUNT] += counts.get(i);
+    }
+    return merged;
+  }
+
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    if (value > MAX_VALUE) {
+      value = MAX_VALUE;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+    return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+  }
+
+  static long highestValueInBucket(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = index / SUB_BUCKET_COUNT - 1;
+    int subBucket = index % SUB_BUCKET_COUNT;
+    long lowest = ((long) (SUB_BUCKET_COUNT + subBucket)) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+}
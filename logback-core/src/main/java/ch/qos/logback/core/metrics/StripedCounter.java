@@ -0,0 +1,91 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter spread over several cells, each thread incrementing the cell
+ * designated by its id, so that concurrent increments rarely contend. Cells
+ * are spaced a cache line apart.
+ *
+ * @since 0.9.31
+ */
+public class StripedCounter {
+
+  // number of longs per cache line
+  static final int PADDING = 8;
+  static final int MAX_STRIPES = 64;
+
+  final AtomicLongArray cells;
+  final int mask;
+
+  public StripedCounter() {
+    this(defaultStripeCount());
+  }
+
+  public StripedCounter(int stripeCount) {
+    mask = stripeCount - 1;
+    cells = new AtomicLongArray(stripeCount * PADDING);
+  }
+
+  public void increment() {
+    add(1);
+  }
+
+  public void add(long delta) {
+    cells.addAndGet(stripeIndex(mask) * PADDING, delta);
+  }
+
+  /**
+   * @return the sum of all cells, which is only a snapshot if increments occur
+   *         concurrently
+   */
+  public long sum() {
+    long sum = 0;
+    for (int i = 0; i < cells.length(); i += PADDING) {
+      sum += cells.get(i);
+    }
+    return sum;
+  }
+
+  /**
+   * Reset all cells to zero. Increments occurring concurrently may be lost.
+   */
+  public void reset() {
+    for (int i = 0; i < cells.length(); i += PADDING) {
+      cells.set(i, 0);
+    }
+  }
+
+  /**
+   * @return the smallest power of two no smaller than the number of
+   *         processors, capped to {@link #MAX_STRIPES}
+   */
+  public static int defaultStripeCount() {
+    int processors = Runtime.getRuntime().availableProcessors();
+    int stripeCount = 1;
+    while (stripeCount < processors && stripeCount < MAX_STRIPES) {
+      stripeCount <<= 1;
+    }
+    return stripeCount;
+  }
+
+  public static int stripeIndex(int mask) {
+    long id = Thread.currentThread().getId();
+    // spread consecutive thread ids over the stripes
+    int h = (int) (id * 0x9E3779B97F4A7C15L >>> 32);
+    return h & mask;
+  }
+}
@@ -19,16 +19,23 @@ abstract public class CompositeConverter<E> extends DynamicConverter<E> {
 
   public String convert(E event) {
     StringBuilder buf = new StringBuilder();
+    writeChildren(buf, event);
+    String intermediary = buf.toString();
+    return transform(intermediary);
+  }
 
+  final void writeChildren(StringBuilder buf, E event) {
     for (Converter<E> c = childConverter; c != null; c = c.next) {
       c.write(buf, event);
     }
-    String intermediary = buf.toString();
-    return transform(intermediary);
   }
 
   abstract String transform(String in);
 
+  public Converter<E> getChildConverter() {
+    return childConverter;
+  }
+
   public void setChildConverter(Converter<E> child) {
     childConverter = child;
   }
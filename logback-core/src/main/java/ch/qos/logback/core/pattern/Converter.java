@@ -13,6 +13,14 @@
  */
 package ch.qos.logback.core.pattern;
 
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
 /**
  * A minimal converter which sets up the general interface for derived classes. 
  * It also implements the functionality to chain converters in a linked list.
@@ -23,14 +31,58 @@ abstract public class Converter<E> {
   
   Converter<E> next;
 
+  // the names of the overridable methods declared by each converter class,
+  // computed once per class. Weak keys, so that converter classes of
+  // applications can still be unloaded.
+  private static final Map<Class<?>, Set<String>> OVERRIDABLE_METHOD_NAMES = Collections
+      .synchronizedMap(new WeakHashMap<Class<?>, Set<String>>());
+
+  // true if a subclass overrides convert() below the class overriding
+  // append(), in which case append() would bypass the subclass' output
+  final boolean convertOverridden = isOverriddenBelow("convert", "append");
+
   /**
    * The convert method is responsible for extracting data from the event and
    * storing it for later use by the write method.
    * 
+   * <p>Converters overriding {@link #append(StringBuilder, Object)} can
+   * implement this method by invoking {@link #appendToString(Object)}.
+   * 
    * @param event
    */
   public abstract String  convert(E event);
 
+  /**
+   * Append the data extracted from the event to the buffer passed as
+   * parameter, without any formatting.
+   * 
+   * <p>The default implementation appends the value returned by
+   * {@link #convert(Object)}. Converters which can append their output
+   * directly, without creating an intermediary String, should override this
+   * method. This method is bypassed in favor of {@link #convert(Object)} for
+   * instances of subclasses which override the latter but not the former.
+   * 
+   * @param buf The buffer where data is appended
+   * @param event The event from where data is extracted
+   * @since 0.9.31
+   */
+  public void append(StringBuilder buf, E event) {
+    buf.append(convert(event));
+  }
+
+  /**
+   * Return the data appended by {@link #append(StringBuilder, Object)} as a
+   * String. Intended as the implementation of {@link #convert(Object)} by
+   * converters overriding {@link #append(StringBuilder, Object)}.
+   * 
+   * @since 0.9.31
+   */
+  protected final String appendToString(E event) {
+    StringBuilder buf = new StringBuilder();
+    append(buf, event);
+    return buf.toString();
+  }
+
   /**
    * In its simplest incarnation, a convert simply appends the data extracted from
    * the event to the buffer passed as parameter.
@@ -39,7 +91,70 @@ abstract public class Converter<E> {
    * @param event The event from where data is extracted
    */
   public void write(StringBuilder buf, E event) {
-    buf.append(convert(event));
+    appendOutput(buf, event);
+  }
+
+  /**
+   * Append the output of this converter, through
+   * {@link #append(StringBuilder, Object)} unless {@link #convert(Object)} is
+   * overridden below it.
+   */
+  final void appendOutput(StringBuilder buf, E event) {
+    if (convertOverridden) {
+      appendConverted(buf, convert(event));
+    } else {
+      append(buf, event);
+    }
+  }
+
+  /**
+   * Append the value returned by {@link #convert(Object)}.
+   */
+  void appendConverted(StringBuilder buf, String s) {
+    buf.append(s);
+  }
+
+  /**
+   * Return true if the class of this converter, or one of its superclasses,
+   * overrides the method named <code>methodName</code> below the most derived
+   * class overriding the method named <code>baseMethodName</code>. Lets
+   * converters whose fast path bypasses a method kept for compatibility
+   * detect subclasses overriding that method.
+   * 
+   * @since 0.9.31
+   */
+  protected final boolean isOverriddenBelow(String methodName,
+      String baseMethodName) {
+    try {
+      for (Class<?> c = getClass(); c != null; c = c.getSuperclass()) {
+        boolean declaresMethod = declaresOverridable(c, methodName);
+        boolean declaresBaseMethod = declaresOverridable(c, baseMethodName);
+        if (declaresMethod || declaresBaseMethod) {
+          return !declaresBaseMethod;
+        }
+      }
+    } catch (SecurityException e) {
+      // assume the worst, the compatible path is always correct
+      return true;
+    }
+    return false;
+  }
+
+  private static boolean declaresOverridable(Class<?> c, String methodName) {
+    Set<String> names = OVERRIDABLE_METHOD_NAMES.get(c);
+    if (names == null) {
+      names = new HashSet<String>();
+      for (Method m : c.getDeclaredMethods()) {
+        int modifiers = m.getModifiers();
+        if (!m.isBridge() && !Modifier.isPrivate(modifiers)
+            && !Modifier.isStatic(modifiers)) {
+          names.add(m.getName());
+        }
+      }
+      // racing threads compute the same set
+      OVERRIDABLE_METHOD_NAMES.put(c, names);
+    }
+    return names.contains(methodName);
   }
   
   public final void setNext(Converter<E> next) {
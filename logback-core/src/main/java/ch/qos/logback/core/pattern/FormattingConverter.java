@@ -32,41 +32,53 @@ abstract public class FormattingConverter<E> extends Converter<E> {
     this.formattingInfo = formattingInfo;
   }
 
+  /**
+   * Appends the value returned by {@link #convert(Object)}. If formatting
+   * applies, null values are treated as empty strings.
+   */
   @Override
-  final public void write(StringBuilder buf, E event) {
-    String s = convert(event);
-    
-    if(formattingInfo == null) {
+  public void append(StringBuilder buf, E event) {
+    appendConverted(buf, convert(event));
+  }
+
+  @Override
+  void appendConverted(StringBuilder buf, String s) {
+    if (s != null || formattingInfo == null) {
       buf.append(s);
-      return;
     }
-    
-    int min = formattingInfo.getMin();
-    int max = formattingInfo.getMax();
-
+  }
 
-    if (s == null) {
-      if (0 < min)
-        SpacePadder.spacePad(buf, min);
+  /**
+   * Appends the output of this converter, see
+   * {@link Converter#write(StringBuilder, Object)}, then pads
+   * or truncates it in place as specified by the formatting info.
+   */
+  @Override
+  final public void write(StringBuilder buf, E event) {
+    if (formattingInfo == null) {
+      appendOutput(buf, event);
       return;
     }
 
-    int len = s.length();
+    int min = formattingInfo.getMin();
+    int max = formattingInfo.getMax();
+
+    int start = buf.length();
+    appendOutput(buf, event);
+    int len = buf.length() - start;
 
     if (len > max) {
-      if(formattingInfo.isLeftTruncate()) {
-        buf.append(s.substring(len - max));
+      if (formattingInfo.isLeftTruncate()) {
+        buf.delete(start, start + len - max);
       } else {
-        buf.append(s.substring(0, max));
+        buf.setLength(start + max);
       }
     } else if (len < min) {
       if (formattingInfo.isLeftPad()) {
-       SpacePadder.leftPad(buf, s, min);
+        SpacePadder.spacePadAt(buf, start, min - len);
       } else {
-        SpacePadder.rightPad(buf, s, min);
+        SpacePadder.spacePad(buf, min - len);
       }
-    } else {
-      buf.append(s);
     }
   }
 }
@@ -15,6 +15,11 @@ package ch.qos.logback.core.pattern;
 
 public class IdentityCompositeConverter<E> extends CompositeConverter<E> {
 
+  @Override
+  public void append(StringBuilder buf, E event) {
+    writeChildren(buf, event);
+  }
+
   @Override
   String transform(String in) {
     return in;
@@ -19,6 +19,8 @@ import java.util.Map;
 import ch.qos.logback.core.Context;
 import ch.qos.logback.core.CoreConstants;
 import ch.qos.logback.core.LayoutBase;
+import ch.qos.logback.core.pattern.codegen.ConverterChain;
+import ch.qos.logback.core.pattern.codegen.ConverterChainCompiler;
 import ch.qos.logback.core.pattern.parser.Node;
 import ch.qos.logback.core.pattern.parser.Parser;
 import ch.qos.logback.core.pattern.parser.ScanException;
@@ -30,6 +32,8 @@ abstract public class PatternLayoutBase<E> extends LayoutBase<E> {
 
   Converter<E> head;
   String pattern;
+  boolean compileToBytecode = false;
+  ConverterChain<E> compiledChain;
   protected PostCompileProcessor<E> postCompileProcessor;
 
   Map<String, String> instanceConverterMap = new HashMap<String, String>();
@@ -87,6 +91,10 @@ abstract public class PatternLayoutBase<E> extends LayoutBase<E> {
       }
       setContextForConverters(head);
       ConverterUtil.startConverters(this.head);
+      compiledChain = null;
+      if (compileToBytecode) {
+        compileConverterChain();
+      }
       super.start();
     } catch (ScanException sce) {
       StatusManager sm = getContext().getStatusManager();
@@ -95,6 +103,15 @@ abstract public class PatternLayoutBase<E> extends LayoutBase<E> {
     }
   }
 
+  private void compileConverterChain() {
+    ConverterChainCompiler<E> compiler = new ConverterChainCompiler<E>();
+    compiler.setContext(getContext());
+    compiledChain = compiler.compile(head);
+    if (compiledChain == null) {
+      addWarn("Falling back to interpreting pattern \"" + getPattern() + "\"");
+    }
+  }
+
   public void setPostCompileProcessor(
       PostCompileProcessor<E> postCompileProcessor) {
     this.postCompileProcessor = postCompileProcessor;
@@ -113,6 +130,11 @@ abstract public class PatternLayoutBase<E> extends LayoutBase<E> {
 
   protected String writeLoopOnConverters(E event) {
     StringBuilder buf = new StringBuilder(128);
+    ConverterChain<E> chain = compiledChain;
+    if (chain != null) {
+      chain.write(buf, event);
+      return buf.toString();
+    }
     Converter<E> c = head;
     while (c != null) {
       c.write(buf, event);
@@ -129,6 +151,30 @@ abstract public class PatternLayoutBase<E> extends LayoutBase<E> {
     this.pattern = pattern;
   }
 
+  public boolean isCompileToBytecode() {
+    return compileToBytecode;
+  }
+
+  /**
+   * If true, the converter chain built from the pattern is compiled into a
+   * generated class instead of being walked converter by converter. Should
+   * compilation fail, the layout falls back to walking the chain.
+   * 
+   * @since 0.9.31
+   */
+  public void setCompileToBytecode(boolean compileToBytecode) {
+    this.compileToBytecode = compileToBytecode;
+  }
+
+  /**
+   * @return the first converter of the chain built from the pattern, or null
+   *         if the layout has not been started
+   * @since 0.9.31
+   */
+  protected Converter<E> getHeadConverter() {
+    return head;
+  }
+
   public String toString() {
     return this.getClass().getName() + "(\"" + getPattern() + "\")";
   }
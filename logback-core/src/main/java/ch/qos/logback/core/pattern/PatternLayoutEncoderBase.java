@@ -19,6 +19,7 @@ import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
 public class PatternLayoutEncoderBase<E> extends LayoutWrappingEncoder<E> {
 
   String pattern;
+  boolean compileToBytecode = false;
 
   public String getPattern() {
     return pattern;
@@ -28,6 +29,18 @@ public class PatternLayoutEncoderBase<E> extends LayoutWrappingEncoder<E> {
     this.pattern = pattern;
   }
 
+  public boolean isCompileToBytecode() {
+    return compileToBytecode;
+  }
+
+  /**
+   * @see PatternLayoutBase#setCompileToBytecode(boolean)
+   * @since 0.9.31
+   */
+  public void setCompileToBytecode(boolean compileToBytecode) {
+    this.compileToBytecode = compileToBytecode;
+  }
+
   @Override
   public void setLayout(Layout<E> layout) {
     throw new UnsupportedOperationException("one cannot set the layout of "
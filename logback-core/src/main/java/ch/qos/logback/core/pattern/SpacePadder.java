@@ -46,6 +46,21 @@ public class SpacePadder {
     }
   }
   
+  /**
+   * Insert <code>length</code> spaces at position <code>index</code>.
+   * 
+   * @since 0.9.31
+   */
+  final static public void spacePadAt(StringBuilder sbuf, int index, int length) {
+    while (length >= 32) {
+      sbuf.insert(index, SPACES[5]);
+      length -= 32;
+    }
+    if (length > 0) {
+      sbuf.insert(index, SPACES[5], 0, length);
+    }
+  }
+
   /**
    * Fast space padding method.
    */
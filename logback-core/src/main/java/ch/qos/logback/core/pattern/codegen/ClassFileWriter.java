@@ -0,0 +1,297 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.pattern.codegen;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A minimal class file assembler, just sufficient for the straight-line code
+ * emitted by {@link ConverterChainCompiler}.
+ * 
+ * <p>Class files are written in version 49 (Java 5) format so that no stack
+ * map frames are required.
+ */
+class ClassFileWriter {
+
+  static final int ACC_PUBLIC = 0x0001;
+  static final int ACC_FINAL = 0x0010;
+  static final int ACC_SUPER = 0x0020;
+
+  static final int MAGIC = 0xCAFEBABE;
+  static final int MAJOR_VERSION = 49;
+
+  static final int CONSTANT_UTF8 = 1;
+  static final int CONSTANT_CLASS = 7;
+  static final int CONSTANT_STRING = 8;
+  static final int CONSTANT_FIELDREF = 9;
+  static final int CONSTANT_METHODREF = 10;
+  static final int CONSTANT_NAME_AND_TYPE = 12;
+
+  // the constant pool is limited to 65535 entries
+  static final int MAX_CONSTANT_POOL_COUNT = 0xFFFF;
+
+  final int thisClass;
+  final int superClass;
+
+  final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream();
+  final DataOutputStream constantPool = new DataOutputStream(constantPoolBytes);
+  final Map<String, Integer> constantIndexMap = new HashMap<String, Integer>();
+  int constantPoolCount = 1;
+
+  final ByteArrayOutputStream memberBytes = new ByteArrayOutputStream();
+  final DataOutputStream fields = new DataOutputStream(memberBytes);
+  int fieldCount = 0;
+
+  final ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+  final DataOutputStream methods = new DataOutputStream(methodBytes);
+  int methodCount = 0;
+
+  /**
+   * @param className
+   *          internal name of the class, e.g. <code>a/b/C</code>
+   * @param superName
+   *          internal name of the super class
+   */
+  ClassFileWriter(String className, String superName) throws IOException {
+    thisClass = classRef(className);
+    superClass = classRef(superName);
+  }
+
+  int utf8(String value) throws IOException {
+    String key = "U" + value;
+    Integer index = constantIndexMap.get(key);
+    if (index != null) {
+      return index;
+    }
+    constantPool.writeByte(CONSTANT_UTF8);
+    // throws UTFDataFormatException if value is longer than 65535 bytes
+    constantPool.writeUTF(value);
+    return newConstant(key);
+  }
+
+  int classRef(String internalName) throws IOException {
+    String key = "C" + internalName;
+    Integer index = constantIndexMap.get(key);
+    if (index != null) {
+      return index;
+    }
+    int nameIndex = utf8(internalName);
+    constantPool.writeByte(CONSTANT_CLASS);
+    constantPool.writeShort(nameIndex);
+    return newConstant(key);
+  }
+
+  int string(String value) throws IOException {
+    String key = "S" + value;
+    Integer index = constantIndexMap.get(key);
+    if (index != null) {
+      return index;
+    }
+    int valueIndex = utf8(value);
+    constantPool.writeByte(CONSTANT_STRING);
+    constantPool.writeShort(valueIndex);
+    return newConstant(key);
+  }
+
+  int fieldRef(String owner, String name, String desc) throws IOException {
+    return memberRef(CONSTANT_FIELDREF, owner, name, desc);
+  }
+
+  int methodRef(String owner, String name, String desc) throws IOException {
+    return memberRef(CONSTANT_METHODREF, owner, name, desc);
+  }
+
+  private int memberRef(int tag, String owner, String name, String desc)
+      throws IOException {
+    String key = tag + owner + '.' + name + ':' + desc;
+    Integer index = constantIndexMap.get(key);
+    if (index != null) {
+      return index;
+    }
+    int classIndex = classRef(owner);
+    int nameAndTypeIndex = nameAndType(name, desc);
+    constantPool.writeByte(tag);
+    constantPool.writeShort(classIndex);
+    constantPool.writeShort(nameAndTypeIndex);
+    return newConstant(key);
+  }
+
+  private int nameAndType(String name, String desc) throws IOException {
+    String key = "N" + name + ':' + desc;
+    Integer index = constantIndexMap.get(key);
+    if (index != null) {
+      return index;
+    }
+    int nameIndex = utf8(name);
+    int descIndex = utf8(desc);
+    constantPool.writeByte(CONSTANT_NAME_AND_TYPE);
+    constantPool.writeShort(nameIndex);
+    constantPool.writeShort(descIndex);
+    return newConstant(key);
+  }
+
+  private int newConstant(String key) throws IOException {
+    if (constantPoolCount >= MAX_CONSTANT_POOL_COUNT) {
+      throw new IOException("Constant pool overflow");
+    }
+    int index = constantPoolCount++;
+    constantIndexMap.put(key, index);
+    return index;
+  }
+
+  void addField(int access, String name, String desc) throws IOException {
+    int nameIndex = utf8(name);
+    int descIndex = utf8(desc);
+    fields.writeShort(access);
+    fields.writeShort(nameIndex);
+    fields.writeShort(descIndex);
+    fields.writeShort(0); // attributes
+    fieldCount++;
+  }
+
+  void addMethod(int access, String name, String desc, Code code)
+      throws IOException {
+    int nameIndex = utf8(name);
+    int descIndex = utf8(desc);
+    int codeAttributeIndex = utf8("Code");
+    byte[] bytecode = code.toByteArray();
+    if (bytecode.length >= 0xFFFF) {
+      throw new IOException("Method " + name + " is too large");
+    }
+    methods.writeShort(access);
+    methods.writeShort(nameIndex);
+    methods.writeShort(descIndex);
+    methods.writeShort(1); // attributes
+    methods.writeShort(codeAttributeIndex);
+    // max_stack + max_locals + code_length + code
+    // + exception_table_length + attributes_count
+    methods.writeInt(2 + 2 + 4 + bytecode.length + 2 + 2);
+    methods.writeShort(code.maxStack);
+    methods.writeShort(code.maxLocals);
+    methods.writeInt(bytecode.length);
+    methods.write(bytecode);
+    methods.writeShort(0); // exception table
+    methods.writeShort(0); // attributes
+    methodCount++;
+  }
+
+  byte[] toByteArray(int access) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(baos);
+    out.writeInt(MAGIC);
+    out.writeShort(0); // minor version
+    out.writeShort(MAJOR_VERSION);
+    out.writeShort(constantPoolCount);
+    constantPool.flush();
+    constantPoolBytes.writeTo(out);
+    out.writeShort(access);
+    out.writeShort(thisClass);
+    out.writeShort(superClass);
+    out.writeShort(0); // interfaces
+    out.writeShort(fieldCount);
+    fields.flush();
+    memberBytes.writeTo(out);
+    out.writeShort(methodCount);
+    methods.flush();
+    methodBytes.writeTo(out);
+    out.writeShort(0); // attributes
+    out.flush();
+    return baos.toByteArray();
+  }
+
+  /**
+   * The body of a method. Only the instructions needed by
+   * {@link ConverterChainCompiler} are supported.
+   */
+  static class Code {
+
+    static final int ALOAD_0 = 0x2A;
+    static final int ICONST_0 = 0x03;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC = 0x12;
+    static final int LDC_W = 0x13;
+    static final int AALOAD = 0x32;
+    static final int POP = 0x57;
+    static final int RETURN = 0xB1;
+    static final int GETFIELD = 0xB4;
+    static final int PUTFIELD = 0xB5;
+    static final int INVOKEVIRTUAL = 0xB6;
+    static final int INVOKESPECIAL = 0xB7;
+    static final int CHECKCAST = 0xC0;
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final int maxStack;
+    final int maxLocals;
+
+    Code(int maxStack, int maxLocals) {
+      this.maxStack = maxStack;
+      this.maxLocals = maxLocals;
+    }
+
+    Code aload(int local) {
+      // aload_0 to aload_3
+      bytes.write(ALOAD_0 + local);
+      return this;
+    }
+
+    Code pushInt(int value) {
+      if (value >= 0 && value <= 5) {
+        bytes.write(ICONST_0 + value);
+      } else if (value <= Byte.MAX_VALUE) {
+        bytes.write(BIPUSH);
+        bytes.write(value);
+      } else {
+        bytes.write(SIPUSH);
+        writeShort(value);
+      }
+      return this;
+    }
+
+    Code ldc(int constantIndex) {
+      if (constantIndex <= 0xFF) {
+        bytes.write(LDC);
+        bytes.write(constantIndex);
+      } else {
+        bytes.write(LDC_W);
+        writeShort(constantIndex);
+      }
+      return this;
+    }
+
+    Code op(int opcode) {
+      bytes.write(opcode);
+      return this;
+    }
+
+    Code op(int opcode, int constantIndex) {
+      bytes.write(opcode);
+      writeShort(constantIndex);
+      return this;
+    }
+
+    private void writeShort(int value) {
+      bytes.write((value >>> 8) & 0xFF);
+      bytes.write(value & 0xFF);
+    }
+
+    byte[] toByteArray() {
+      return bytes.toByteArray();
+    }
+  }
+}
@@ -0,0 +1,29 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.pattern.codegen;
+
+/**
+ * A compiled form of a converter chain. Implementations are generated by
+ * {@link ConverterChainCompiler}.
+ * 
+ * @since 0.9.31
+ */
+abstract public class ConverterChain<E> {
+
+  /**
+   * Write the output of each converter in the chain to <code>buf</code>, in
+   * order.
+   */
+  abstract public void write(StringBuilder buf, E event);
+}
@@ -0,0 +1,63 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.pattern.codegen;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Defines a single generated class. Classes referenced by the generated class
+ * are resolved against the classes registered with {@link #addKnownClass},
+ * and then against the class loader of logback-core.
+ * 
+ * <p>Each generated class has its own loader so that it can be unloaded once
+ * the layout using it is discarded.
+ */
+class ConverterChainClassLoader extends ClassLoader {
+
+  final Map<String, Class<?>> knownClasses = new HashMap<String, Class<?>>();
+
+  ConverterChainClassLoader() {
+    super(ConverterChain.class.getClassLoader());
+  }
+
+  /**
+   * Register a class which the generated class may reference.
+   * 
+   * @return false if a different class with the same name is already
+   *         registered
+   */
+  boolean addKnownClass(Class<?> clazz) {
+    Class<?> existing = knownClasses.get(clazz.getName());
+    if (existing == null) {
+      knownClasses.put(clazz.getName(), clazz);
+      return true;
+    }
+    return existing == clazz;
+  }
+
+  Class<?> define(String className, byte[] bytecode) {
+    return defineClass(className, bytecode, 0, bytecode.length);
+  }
+
+  @Override
+  protected synchronized Class<?> loadClass(String name, boolean resolve)
+      throws ClassNotFoundException {
+    Class<?> clazz = knownClasses.get(name);
+    if (clazz != null) {
+      return clazz;
+    }
+    return super.loadClass(name, resolve);
+  }
+}
@@ -0,0 +1,241 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.pattern.codegen;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ch.qos.logback.core.pattern.Converter;
+import ch.qos.logback.core.pattern.LiteralConverter;
+import ch.qos.logback.core.pattern.codegen.ClassFileWriter.Code;
+import ch.qos.logback.core.spi.ContextAwareBase;
+
+/**
+ * Compiles a chain of converters into a generated subclass of
+ * {@link ConverterChain}.
+ * 
+ * <p>In the generated class, consecutive literals are fused into a single
+ * string constant appended directly to the output buffer. Each of the other
+ * converters is held in a field typed with the converter's own class, so
+ * that each one is invoked from its own call site, without the megamorphic
+ * dispatch performed when walking the chain.
+ * 
+ * <p>For the pattern "%level [%thread] %msg%n", the generated class is
+ * roughly equivalent to:
+ * 
+ * <pre>
+ * public final class GeneratedConverterChain$1 extends ConverterChain {
+ *   final LevelConverter c0;
+ *   final ThreadConverter c1;
+ *   final MessageConverter c2;
+ *   final LineSeparatorConverter c3;
+ * 
+ *   public void write(StringBuilder buf, Object event) {
+ *     c0.write(buf, event);
+ *     buf.append(&quot; [&quot;);
+ *     c1.write(buf, event);
+ *     buf.append(&quot;] &quot;);
+ *     c2.write(buf, event);
+ *     c3.write(buf, event);
+ *   }
+ * }
+ * </pre>
+ * 
+ * @since 0.9.31
+ */
+public class ConverterChainCompiler<E> extends ContextAwareBase {
+
+  static final String PACKAGE_PREFIX = "ch.qos.logback.core.pattern.codegen.";
+  static final String CLASS_NAME_PREFIX = PACKAGE_PREFIX
+      + "GeneratedConverterChain$";
+  static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+
+  // a constant string may not exceed 65535 bytes in modified UTF-8
+  static final int MAX_LITERAL_CHUNK_LENGTH = 16 * 1024;
+
+  static final String CONVERTER_CHAIN = internalName(ConverterChain.class);
+  static final String CONVERTER = internalName(Converter.class);
+  static final String STRING_BUILDER = internalName(StringBuilder.class);
+
+  static final String WRITE_DESC = "(L" + STRING_BUILDER
+      + ";Ljava/lang/Object;)V";
+  static final String APPEND_DESC = "(Ljava/lang/String;)L" + STRING_BUILDER
+      + ";";
+  static final String CONSTRUCTOR_DESC = "([L" + CONVERTER + ";)V";
+
+  /**
+   * Compile the converter chain starting at <code>head</code>. The converters
+   * should be started beforehand.
+   * 
+   * @return the compiled chain, or null if compilation failed.
+   */
+  public ConverterChain<E> compile(Converter<E> head) {
+    try {
+      return doCompile(head);
+    } catch (Exception e) {
+      addWarn("Failed to compile converter chain", e);
+    } catch (LinkageError e) {
+      addWarn("Failed to load compiled converter chain", e);
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  ConverterChain<E> doCompile(Converter<E> head) throws Exception {
+    List<Object> elements = fuseLiterals(head);
+    List<Converter<E>> converters = new ArrayList<Converter<E>>();
+    for (Object o : elements) {
+      if (o instanceof Converter) {
+        converters.add((Converter<E>) o);
+      }
+    }
+    if (converters.size() > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("Too many converters: "
+          + converters.size());
+    }
+
+    ConverterChainClassLoader classLoader = new ConverterChainClassLoader();
+    classLoader.addKnownClass(ConverterChain.class);
+    classLoader.addKnownClass(Converter.class);
+
+    String className = CLASS_NAME_PREFIX + CLASS_COUNTER.incrementAndGet();
+    String internalClassName = className.replace('.', '/');
+    ClassFileWriter cfw = new ClassFileWriter(internalClassName,
+        CONVERTER_CHAIN);
+
+    String[] fieldTypes = new String[converters.size()];
+    for (int i = 0; i < fieldTypes.length; i++) {
+      Class<?> converterClass = converters.get(i).getClass();
+      if (isAccessible(converterClass)
+          && classLoader.addKnownClass(converterClass)) {
+        fieldTypes[i] = internalName(converterClass);
+      } else {
+        fieldTypes[i] = CONVERTER;
+      }
+      cfw.addField(ClassFileWriter.ACC_FINAL, fieldName(i), "L" + fieldTypes[i]
+          + ";");
+    }
+
+    cfw.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", CONSTRUCTOR_DESC,
+        constructorCode(cfw, internalClassName, fieldTypes));
+    cfw.addMethod(ClassFileWriter.ACC_PUBLIC, "write", WRITE_DESC, writeCode(
+        cfw, internalClassName, fieldTypes, elements));
+
+    byte[] bytecode = cfw.toByteArray(ClassFileWriter.ACC_PUBLIC
+        | ClassFileWriter.ACC_FINAL | ClassFileWriter.ACC_SUPER);
+    Class<?> generated = classLoader.define(className, bytecode);
+    Constructor<?> constructor = generated.getConstructor(Converter[].class);
+    Converter[] converterArray = converters.toArray(new Converter[converters
+        .size()]);
+    return (ConverterChain<E>) constructor
+        .newInstance(new Object[] { converterArray });
+  }
+
+  /**
+   * Return the elements of the chain, where literals are replaced by their
+   * value and consecutive literals are concatenated.
+   */
+  List<Object> fuseLiterals(Converter<E> head) {
+    List<Object> elements = new ArrayList<Object>();
+    StringBuilder literal = new StringBuilder();
+    for (Converter<E> c = head; c != null; c = c.getNext()) {
+      if (c instanceof LiteralConverter) {
+        literal.append(c.convert(null));
+      } else {
+        if (literal.length() > 0) {
+          elements.add(literal.toString());
+          literal.setLength(0);
+        }
+        elements.add(c);
+      }
+    }
+    if (literal.length() > 0) {
+      elements.add(literal.toString());
+    }
+    return elements;
+  }
+
+  private Code constructorCode(ClassFileWriter cfw, String className,
+      String[] fieldTypes) throws Exception {
+    Code code = new Code(3, 2);
+    code.aload(0);
+    code.op(Code.INVOKESPECIAL, cfw.methodRef(CONVERTER_CHAIN, "<init>",
+        "()V"));
+    for (int i = 0; i < fieldTypes.length; i++) {
+      // this.ci = (Ti) converters[i];
+      code.aload(0).aload(1).pushInt(i).op(Code.AALOAD);
+      if (!CONVERTER.equals(fieldTypes[i])) {
+        code.op(Code.CHECKCAST, cfw.classRef(fieldTypes[i]));
+      }
+      code.op(Code.PUTFIELD, cfw.fieldRef(className, fieldName(i), "L"
+          + fieldTypes[i] + ";"));
+    }
+    code.op(Code.RETURN);
+    return code;
+  }
+
+  private Code writeCode(ClassFileWriter cfw, String className,
+      String[] fieldTypes, List<Object> elements) throws Exception {
+    Code code = new Code(3, 3);
+    int appendIndex = cfw.methodRef(STRING_BUILDER, "append", APPEND_DESC);
+    int converterIndex = 0;
+    for (Object o : elements) {
+      if (o instanceof String) {
+        String literal = (String) o;
+        for (int start = 0; start < literal.length(); start += MAX_LITERAL_CHUNK_LENGTH) {
+          int end = Math.min(literal.length(), start
+              + MAX_LITERAL_CHUNK_LENGTH);
+          // buf.append(literal);
+          code.aload(1).ldc(cfw.string(literal.substring(start, end)));
+          code.op(Code.INVOKEVIRTUAL, appendIndex).op(Code.POP);
+        }
+      } else {
+        // ci.write(buf, event);
+        String fieldType = fieldTypes[converterIndex];
+        code.aload(0).op(Code.GETFIELD, cfw.fieldRef(className,
+            fieldName(converterIndex), "L" + fieldType + ";"));
+        code.aload(1).aload(2);
+        code.op(Code.INVOKEVIRTUAL, cfw.methodRef(fieldType, "write",
+            WRITE_DESC));
+        converterIndex++;
+      }
+    }
+    code.op(Code.RETURN);
+    return code;
+  }
+
+  /**
+   * A converter class can be referenced by generated code only if it and
+   * all its enclosing classes are public.
+   */
+  static boolean isAccessible(Class<?> clazz) {
+    for (Class<?> c = clazz; c != null; c = c.getEnclosingClass()) {
+      if (!Modifier.isPublic(c.getModifiers())) {
+        return false;
+      }
+    }
+    return !clazz.isAnonymousClass() && !clazz.isLocalClass();
+  }
+
+  static String internalName(Class<?> clazz) {
+    return clazz.getName().replace('.', '/');
+  }
+
+  static String fieldName(int i) {
+    return "c" + i;
+  }
+}
@@ -35,12 +35,17 @@ abstract public class ResilientOutputStreamBase extends OutputStream {
   protected OutputStream os;
   protected boolean presumedClean = true;
 
+  private boolean released = false;
+
   final private boolean isPresumedInError() {
     // existence of recoveryCoordinator indicates failed state
     return (recoveryCoordinator != null && !presumedClean);
   }
 
   public void write(byte b[], int off, int len) {
+    if (released) {
+      reacquire();
+    }
     if (isPresumedInError()) {
       if (!recoveryCoordinator.isTooSoon()) {
         attemptRecovery();
@@ -58,6 +63,9 @@ abstract public class ResilientOutputStreamBase extends OutputStream {
 
   @Override
   public void write(int b) {
+    if (released) {
+      reacquire();
+    }
     if (isPresumedInError()) {
       if (!recoveryCoordinator.isTooSoon()) {
         attemptRecovery();
@@ -74,7 +82,7 @@ abstract public class ResilientOutputStreamBase extends OutputStream {
 
   @Override
   public void flush() {
-    if (os != null) {
+    if (os != null && !released) {
       try {
         os.flush();
         postSuccessfulWrite();
@@ -108,11 +116,59 @@ abstract public class ResilientOutputStreamBase extends OutputStream {
 
   @Override
   public void close() throws IOException {
+    released = false;
     if (os != null) {
       os.close();
     }
   }
 
+  /**
+   * Close the underlying output stream in order to release the resources it
+   * holds, typically a file descriptor, while keeping this stream usable. The
+   * underlying stream is re-opened by the next write.
+   * 
+   * <p>Callers are responsible for synchronizing this call with writes.
+   * 
+   * @since 0.9.31
+   */
+  public void release() {
+    if (released || os == null) {
+      return;
+    }
+    try {
+      os.flush();
+      os.close();
+    } catch (IOException e) {
+      addStatusIfCountNotOverLimit(new ErrorStatus("Failed to release "
+          + getDescription(), this, e));
+    }
+    released = true;
+  }
+
+  /**
+   * Re-open the underlying output stream if it was previously released.
+   * 
+   * @since 0.9.31
+   */
+  public void reacquire() {
+    if (!released) {
+      return;
+    }
+    released = false;
+    try {
+      os = openNewOutputStream();
+    } catch (IOException e) {
+      postIOFailure(e);
+    }
+  }
+
+  /**
+   * @since 0.9.31
+   */
+  public boolean isReleased() {
+    return released;
+  }
+
   void attemptRecovery() {
     try {
       close();
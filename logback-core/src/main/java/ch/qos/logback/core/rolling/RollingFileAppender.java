@@ -18,6 +18,7 @@ import java.io.IOException;
 
 import static ch.qos.logback.core.CoreConstants.CODES_URL;
 import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.metrics.AppenderMetrics;
 import ch.qos.logback.core.rolling.helper.CompressionMode;
 /**
  * <code>RollingFileAppender</code> extends {@link FileAppender} to backup the
@@ -106,7 +107,9 @@ public class RollingFileAppender<E> extends FileAppender<E> {
    * Implemented by delegating most of the rollover work to a rolling policy.
    */
   public void rollover() {
+    AppenderMetrics m = getMetrics();
     synchronized (lock) {
+      long start = (m == null) ? 0 : System.nanoTime();
       // Note: This method needs to be synchronized because it needs exclusive
       // access while it closes and then re-opens the target file.
       //
@@ -133,6 +136,9 @@ public class RollingFileAppender<E> extends FileAppender<E> {
       } catch (IOException e) {
         addError("setFile(" + fileName + ", false) call failed.", e);
       }
+      if (m != null) {
+        m.recordRollover(System.nanoTime() - start);
+      }
     }
   }
 
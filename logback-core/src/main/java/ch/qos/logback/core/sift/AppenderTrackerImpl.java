@@ -13,216 +13,377 @@
  */
 package ch.qos.logback.core.sift;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import ch.qos.logback.core.Appender;
 import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.FileAppender;
 
 /**
- * Track appenders by a key. When an appender is not used for
- * longer than THRESHOLD, stop it.
+ * Track appenders by a key. When an appender is not used for longer than
+ * THRESHOLD, stop it.
+ *
+ * <p>Lookups of existing keys do not acquire any lock. The number of tracked
+ * appenders can be capped with {@link #setMaxAppenderCount(int)}, in which
+ * case the least recently used appenders are stopped and removed. The number
+ * of files held open by tracked {@link FileAppender} instances can be capped
+ * with {@link #setMaxOpenFiles(int)}, in which case the files of least
+ * recently used file appenders are released. A released file is transparently
+ * re-opened when its appender is looked up again.
+ *
+ * <p>An appender can be leased with {@link #acquire(String, long)} for the
+ * duration of a call. An appender removed while leased is stopped only once
+ * its last lease is released.
+ *
  * @author Ceki Gulcu
  */
 public class AppenderTrackerImpl<E> implements AppenderTracker<E> {
 
-  Map<String, Entry> map = new HashMap<String, Entry>();
- 
-  Entry head; // least recently used entries are towards the head
-  Entry tail; // most recently used entries are towards the tail
+  final ConcurrentMap<String, Entry> map = new ConcurrentHashMap<String, Entry>();
+
+  // file backed entries whose file is open, in (approximate) order of opening
+  final ConcurrentLinkedQueue<Entry> openFileQueue = new ConcurrentLinkedQueue<Entry>();
+  final AtomicInteger openFileCount = new AtomicInteger();
+
+  final AtomicLong lastCheck = new AtomicLong(0);
+  final AtomicLong sequence = new AtomicLong(0);
+
+  static final int EVICTION_BATCH_DIVISOR = 10;
 
-  long lastCheck = 0;
+  int maxAppenderCount = Integer.MAX_VALUE;
+  int maxOpenFiles = Integer.MAX_VALUE;
 
   AppenderTrackerImpl() {
-    head = new Entry(null, null, 0);
-    tail = head;
   }
 
+  public void put(String key, Appender<E> value, long timestamp) {
+    putEntry(key, value, timestamp, false);
+  }
+
+  /**
+   * Track an appender and lease it, or lease the appender already tracked
+   * under the same key.
+   *
+   * @return the leased entry, or null if the appender tracked under the same
+   *         key was concurrently removed
+   */
+  Entry putAndAcquire(String key, Appender<E> value, long timestamp) {
+    return putEntry(key, value, timestamp, true);
+  }
 
-  public synchronized void put(String key, Appender<E> value, long timestamp) {
-    Entry entry = map.get(key);
-    if (entry == null) {
-      entry = new Entry(key, value, timestamp);
-      map.put(key, entry);
+  private Entry putEntry(String key, Appender<E> value, long timestamp,
+      boolean leased) {
+    Entry entry = new Entry(key, value, timestamp, sequence.getAndIncrement(),
+        leased);
+    Entry existing = map.putIfAbsent(key, entry);
+    if (existing != null) {
+      if (leased && !existing.acquire()) {
+        return null;
+      }
+      existing.touch(timestamp);
+      return existing;
     }
-    moveToTail(entry);
+    if (entry.fileBacked) {
+      markFileAsOpen(entry);
+    }
+    if (map.size() > maxAppenderCount) {
+      stopLeastRecentlyUsedAppenders(entry);
+    }
+    return entry;
   }
 
-  public synchronized Appender<E> get(String key, long timestamp) {
+  public Appender<E> get(String key, long timestamp) {
     Entry existing = map.get(key);
     if (existing == null) {
       return null;
-    } else {
-      existing.setTimestamp(timestamp);
-      moveToTail(existing);
-      return existing.value;
+    }
+    touch(existing, timestamp);
+    return existing.value;
+  }
+
+  /**
+   * Lease the appender tracked under the given key. The appender will not be
+   * stopped before the returned entry is {@link Entry#release() released}.
+   *
+   * @return the leased entry, or null if no appender is tracked under the key
+   */
+  Entry acquire(String key, long timestamp) {
+    Entry existing = map.get(key);
+    if (existing == null || !existing.acquire()) {
+      return null;
+    }
+    touch(existing, timestamp);
+    return existing;
+  }
+
+  private void touch(Entry entry, long timestamp) {
+    entry.touch(timestamp);
+    if (entry.fileBacked && !entry.fileOpen) {
+      markFileAsOpen(entry);
     }
   }
 
-  
-  public synchronized void stopStaleAppenders(long now) {
-    if (lastCheck + CoreConstants.MILLIS_IN_ONE_SECOND > now) {
+  public void stopStaleAppenders(long now) {
+    long last = lastCheck.get();
+    if (last + CoreConstants.MILLIS_IN_ONE_SECOND > now) {
       return;
     }
-    lastCheck = now;
-    while (head.value != null && isEntryStale(head,now)) {
-      Appender<E> appender = head.value;
-      appender.stop();
-      removeHead();
+    // only one thread needs to perform the check
+    if (!lastCheck.compareAndSet(last, now)) {
+      return;
+    }
+    for (Entry entry : map.values()) {
+      if (isEntryStale(entry, now)) {
+        stopAndRemove(entry);
+      }
     }
-  } 
+  }
 
   /**
    * @since 0.9.19
    * @param key
    */
-  public synchronized void stopAndRemoveNow(String key) {
-    Entry e = head;
-    Entry found = null;
-    while (e != tail) {
-      if(key.equals(e.key)) {
-        found = e;
-        break;
-      }
-      e = e.next;
-    }
-    if(found != null) {
-      rearrangePreexistingLinks(e);
-      map.remove(key);
-      Appender<E> appender = e.value;
-      appender.stop();
+  public void stopAndRemoveNow(String key) {
+    Entry found = map.get(key);
+    if (found != null) {
+      stopAndRemove(found);
     }
   }
-  
+
   public List<String> keyList() {
     List<String> result = new LinkedList<String>();
-    Entry e = head;
-    while (e != tail) {
+    for (Entry e : entriesInAccessOrder()) {
       result.add(e.key);
-      e = e.next;
     }
     return result;
   }
-  
-  
-  final private boolean isEntryStale(Entry entry, long now) {
-    return ((entry.timestamp + THRESHOLD) < now);
+
+  public List<Appender<E>> valueList() {
+    List<Appender<E>> result = new LinkedList<Appender<E>>();
+    for (Entry e : entriesInAccessOrder()) {
+      result.add(e.value);
+    }
+    return result;
+  }
+
+  /**
+   * The maximum number of appenders tracked at any given time. Once this limit
+   * is exceeded, the least recently used appenders are stopped and removed.
+   *
+   * @since 0.9.31
+   */
+  public void setMaxAppenderCount(int maxAppenderCount) {
+    this.maxAppenderCount = maxAppenderCount;
+  }
+
+  public int getMaxAppenderCount() {
+    return maxAppenderCount;
+  }
+
+  /**
+   * The maximum number of files held open by tracked {@link FileAppender}
+   * instances. Once this limit is exceeded, the files of the least recently
+   * used file appenders are released.
+   *
+   * @since 0.9.31
+   */
+  public void setMaxOpenFiles(int maxOpenFiles) {
+    this.maxOpenFiles = maxOpenFiles;
+  }
+
+  public int getMaxOpenFiles() {
+    return maxOpenFiles;
+  }
+
+  /**
+   * @return the number of files currently held open by tracked appenders
+   * @since 0.9.31
+   */
+  public int getOpenFileCount() {
+    return openFileCount.get();
   }
 
-  
-  private void removeHead() {
-    // System.out.println("RemoveHead called");
-    map.remove(head.key);
-    head = head.next;
-    head.prev = null;
+  final private boolean isEntryStale(Entry entry, long now) {
+    return ((entry.timestamp + THRESHOLD) < now);
   }
 
-  private void moveToTail(Entry e) {
-    rearrangePreexistingLinks(e);
-    rearrangeTailLinks(e);
+  private List<Entry> entriesInAccessOrder() {
+    List<Entry> entryList = new ArrayList<Entry>(map.values());
+    Collections.sort(entryList, ACCESS_ORDER);
+    return entryList;
   }
 
-  private void rearrangePreexistingLinks(Entry e) {
-    if (e.prev != null) {
-      e.prev.next = e.next;
+  private void stopAndRemove(Entry entry) {
+    if (!map.remove(entry.key, entry)) {
+      // already removed by another thread
+      return;
     }
-    if (e.next != null) {
-      e.next.prev = e.prev;
+    boolean wasOpen;
+    synchronized (entry) {
+      entry.removed = true;
+      wasOpen = entry.fileOpen;
+      entry.fileOpen = false;
     }
-    if (head == e) {
-      head = e.next;
+    if (wasOpen) {
+      openFileCount.decrementAndGet();
+      openFileQueue.remove(entry);
     }
+    entry.retire();
   }
 
-  private void rearrangeTailLinks(Entry e) {
-    if (head == tail) {
-      head = e;
-    }
-    Entry preTail = tail.prev;
-    if (preTail != null) {
-      preTail.next = e;
+  /**
+   * Evict least recently used appenders in batches of about a tenth of the
+   * maximum count, so that sorting the entries is amortized over the keys
+   * added until the next eviction.
+   */
+  private void stopLeastRecentlyUsedAppenders(Entry exempt) {
+    int target = maxAppenderCount - maxAppenderCount / EVICTION_BATCH_DIVISOR;
+    List<Entry> entryList = entriesInAccessOrder();
+    int excess = entryList.size() - target;
+    for (Entry e : entryList) {
+      if (excess <= 0) {
+        return;
+      }
+      if (e != exempt) {
+        stopAndRemove(e);
+        excess--;
+      }
     }
-    e.prev = preTail;
-    e.next = tail;
-    tail.prev = e;
   }
 
-  public void dump() {
-    Entry e = head;
-    System.out.print("N:");
-    while (e != null) {
-      // System.out.print(e+"->");
-      System.out.print(e.key + ", ");
-      e = e.next;
+  private void markFileAsOpen(Entry entry) {
+    synchronized (entry) {
+      if (entry.fileOpen || entry.removed) {
+        return;
+      }
+      entry.fileOpen = true;
+    }
+    openFileQueue.offer(entry);
+    if (openFileCount.incrementAndGet() > maxOpenFiles) {
+      releaseLeastRecentlyUsedFile(entry);
     }
-    System.out.println();
   }
 
-
-
-  public List<Appender<E>> valueList() {
-    List<Appender<E>> result = new LinkedList<Appender<E>>();
-    Entry e = head;
-    while (e != tail) {
-      result.add(e.value);
-      e = e.next;
+  /**
+   * Release the file of a file appender which was not recently used. Recency
+   * is approximated by a second-chance (clock) scan over the open files.
+   */
+  private void releaseLeastRecentlyUsedFile(Entry exempt) {
+    int attempts = 2 * openFileCount.get() + 1;
+    while (attempts-- > 0) {
+      Entry candidate = openFileQueue.poll();
+      if (candidate == null) {
+        return;
+      }
+      if (candidate == exempt || candidate.referenced) {
+        candidate.referenced = false;
+        openFileQueue.offer(candidate);
+        continue;
+      }
+      synchronized (candidate) {
+        if (!candidate.fileOpen) {
+          continue;
+        }
+        candidate.fileOpen = false;
+      }
+      openFileCount.decrementAndGet();
+      ((FileAppender<E>) candidate.value).releaseFile();
+      return;
     }
-    return result;
   }
-  
+
+  final Comparator<Entry> ACCESS_ORDER = new Comparator<Entry>() {
+    public int compare(Entry e0, Entry e1) {
+      if (e0.timestamp != e1.timestamp) {
+        return e0.timestamp < e1.timestamp ? -1 : 1;
+      }
+      if (e0.sequence != e1.sequence) {
+        return e0.sequence < e1.sequence ? -1 : 1;
+      }
+      return 0;
+    }
+  };
+
   // ================================================================
-  private class Entry {
-    Entry next;
-    Entry prev;
+  class Entry {
+    final String key;
+    final Appender<E> value;
+    final long sequence;
+    final boolean fileBacked;
+
+    // twice the number of leases, plus one once the entry is retired
+    final AtomicInteger leaseState;
+
+    volatile long timestamp;
+    // set on access, cleared by the open file budget's clock hand
+    volatile boolean referenced = true;
 
-    String key;
-    Appender<E> value;
-    long timestamp;
+    // written while holding this entry's monitor
+    volatile boolean fileOpen;
+    boolean removed;
 
-    Entry(String k, Appender<E> v, long timestamp) {
+    Entry(String k, Appender<E> v, long timestamp, long sequence,
+        boolean leased) {
       this.key = k;
       this.value = v;
       this.timestamp = timestamp;
+      this.sequence = sequence;
+      this.fileBacked = (v instanceof FileAppender);
+      this.leaseState = new AtomicInteger(leased ? 2 : 0);
     }
 
-//    public long getTimestamp() {
-//      return timestamp;
-//    }
+    boolean acquire() {
+      while (true) {
+        int state = leaseState.get();
+        if ((state & 1) != 0) {
+          return false;
+        }
+        if (leaseState.compareAndSet(state, state + 2)) {
+          return true;
+        }
+      }
+    }
 
-    public void setTimestamp(long timestamp) {
-      this.timestamp = timestamp;
+    void release() {
+      // the last lease of a retired entry stops its appender
+      if (leaseState.addAndGet(-2) == 1) {
+        value.stop();
+      }
     }
 
-    @Override
-    public int hashCode() {
-      final int prime = 31;
-      int result = 1;
-      result = prime * result + ((key == null) ? 0 : key.hashCode());
-      return result;
+    // stop the appender now, or when its last lease is released
+    void retire() {
+      while (true) {
+        int state = leaseState.get();
+        if ((state & 1) != 0) {
+          return;
+        }
+        if (leaseState.compareAndSet(state, state | 1)) {
+          if (state == 0) {
+            value.stop();
+          }
+          return;
+        }
+      }
     }
 
-    @Override
-    public boolean equals(Object obj) {
-      if (this == obj)
-        return true;
-      if (obj == null)
-        return false;
-      if (getClass() != obj.getClass())
-        return false;
-      final Entry other = (Entry) obj;
-      if (key == null) {
-        if (other.key != null)
-          return false;
-      } else if (!key.equals(other.key))
-        return false;
-      if (value == null) {
-        if (other.value != null)
-          return false;
-      } else if (!value.equals(other.value))
-        return false;
-      return true;
+    void touch(long timestamp) {
+      // timestamps never move backwards, even when threads race
+      if (timestamp > this.timestamp) {
+        this.timestamp = timestamp;
+      }
+      if (!referenced) {
+        referenced = true;
+      }
     }
 
     @Override
@@ -13,11 +13,16 @@
  */
 package ch.qos.logback.core.sift;
 
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
 import ch.qos.logback.core.Appender;
-import ch.qos.logback.core.AppenderBase;
 import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
 import ch.qos.logback.core.helpers.NOPAppender;
 import ch.qos.logback.core.joran.spi.JoranException;
+import ch.qos.logback.core.util.ExecutorServiceUtil;
 
 /**
  * This appender serves as the base class for actual SiftingAppenders
@@ -26,16 +31,27 @@ import ch.qos.logback.core.joran.spi.JoranException;
  * depending on discriminating values supplied by event currently being
  * processed. The built appender is specified as part of a configuration file.
  * 
+ * <p>Events are dispatched to existing nested appenders without locking. Only
+ * the construction of new nested appenders is serialized.
+ * 
  * @author Ceki Gulcu
  */
 public abstract class SiftingAppenderBase<E> extends
-    AppenderBase<E> {
+    UnsynchronizedAppenderBase<E> {
 
   protected AppenderTracker<E> appenderTracker = new AppenderTrackerImpl<E>();
   AppenderFactoryBase<E> appenderFactory;
 
   Discriminator<E> discriminator;
 
+  int maxAppenderCount = Integer.MAX_VALUE;
+  int maxOpenFiles = Integer.MAX_VALUE;
+
+  ScheduledFuture<?> staleAppenderCheckFuture;
+  // set while stale appenders are checked in the background, in which case
+  // access times are taken from the wall clock used by the checks
+  volatile boolean staleAppendersCheckedInBackground = false;
+
   public void setAppenderFactory(AppenderFactoryBase<E> appenderFactory) {
     this.appenderFactory = appenderFactory;
   }
@@ -52,15 +68,48 @@ public abstract class SiftingAppenderBase<E> extends
       errors++;
     }
     if (errors == 0) {
+      if (appenderTracker instanceof AppenderTrackerImpl) {
+        AppenderTrackerImpl<E> trackerImpl = (AppenderTrackerImpl<E>) appenderTracker;
+        trackerImpl.setMaxAppenderCount(maxAppenderCount);
+        trackerImpl.setMaxOpenFiles(maxOpenFiles);
+      }
+      scheduleStaleAppenderCheck();
       super.start();
     }
   }
 
+  // stale appenders are stopped in the background so that appenders for keys
+  // which no longer receive events do not linger until the next event arrives
+  private void scheduleStaleAppenderCheck() {
+    Runnable staleAppenderCheck = new Runnable() {
+      public void run() {
+        appenderTracker.stopStaleAppenders(System.currentTimeMillis());
+      }
+    };
+    ScheduledExecutorService executorService = ExecutorServiceUtil
+        .getScheduledExecutorService(context);
+    if (executorService == null) {
+      addInfo("Context does not provide a scheduled executor service, "
+          + "stale appenders will be checked on incoming events only");
+      return;
+    }
+    staleAppenderCheckFuture = executorService.scheduleAtFixedRate(
+        staleAppenderCheck, CoreConstants.MILLIS_IN_ONE_SECOND,
+        CoreConstants.MILLIS_IN_ONE_SECOND, TimeUnit.MILLISECONDS);
+    staleAppendersCheckedInBackground = true;
+  }
+
   @Override
   public void stop() {
+    staleAppendersCheckedInBackground = false;
+    if (staleAppenderCheckFuture != null) {
+      staleAppenderCheckFuture.cancel(false);
+      staleAppenderCheckFuture = null;
+    }
     for (Appender<E> appender : appenderTracker.valueList()) {
       appender.stop();
     }
+    super.stop();
   }
 
   abstract protected long getTimestamp(E event);
@@ -72,28 +121,106 @@ public abstract class SiftingAppenderBase<E> extends
     }
 
     String discriminatingValue = discriminator.getDiscriminatingValue(event);
-    long timestamp = getTimestamp(event);
-    
+    // event timestamps may lag the wall clock, e.g. for received events, and
+    // must not be compared with the times of the background check
+    boolean checkedInBackground = staleAppendersCheckedInBackground;
+    long timestamp = checkedInBackground ? System.currentTimeMillis()
+        : getTimestamp(event);
+
+    if (appenderTracker instanceof AppenderTrackerImpl) {
+      appendLeased((AppenderTrackerImpl<E>) appenderTracker,
+          discriminatingValue, timestamp, checkedInBackground, event);
+      return;
+    }
+
     Appender<E> appender = appenderTracker.get(discriminatingValue, timestamp);
     if (appender == null) {
-      try {
-        appender = appenderFactory.buildAppender(context, discriminatingValue);
-        if (appender == null) {
-          appender = buildNOPAppender(discriminatingValue);
-        }
-        appenderTracker.put(discriminatingValue, appender, timestamp);
-
-      } catch (JoranException e) {
-        addError("Failed to build appender for [" + discriminatingValue + "]",
-            e);
+      appender = buildAndTrackAppender(discriminatingValue, timestamp);
+      if (appender == null) {
         return;
       }
     }
-    appenderTracker.stopStaleAppenders(timestamp);
-    
+    if (!checkedInBackground) {
+      // returns immediately unless a check is due
+      appenderTracker.stopStaleAppenders(timestamp);
+    }
     appender.doAppend(event);
   }
 
+  // The nested appender is leased while the event is appended, so that it is
+  // not stopped by a concurrent eviction before the event is written.
+  private void appendLeased(AppenderTrackerImpl<E> tracker,
+      String discriminatingValue, long timestamp, boolean checkedInBackground,
+      E event) {
+    AppenderTrackerImpl<E>.Entry entry = tracker.acquire(discriminatingValue,
+        timestamp);
+    if (entry == null) {
+      entry = buildAndAcquireAppender(tracker, discriminatingValue, timestamp);
+      if (entry == null) {
+        return;
+      }
+    }
+    try {
+      if (!checkedInBackground) {
+        // returns immediately unless a check is due
+        tracker.stopStaleAppenders(timestamp);
+      }
+      entry.value.doAppend(event);
+    } finally {
+      entry.release();
+    }
+  }
+
+  // Appenders are built while holding a lock so that a given key is never
+  // assigned more than one appender. Lookups of existing keys do not lock.
+  private synchronized AppenderTrackerImpl<E>.Entry buildAndAcquireAppender(
+      AppenderTrackerImpl<E> tracker, String discriminatingValue,
+      long timestamp) {
+    AppenderTrackerImpl<E>.Entry entry = tracker.acquire(discriminatingValue,
+        timestamp);
+    if (entry != null) {
+      return entry;
+    }
+    Appender<E> appender = buildAppender(discriminatingValue);
+    if (appender == null) {
+      return null;
+    }
+    entry = tracker.putAndAcquire(discriminatingValue, appender, timestamp);
+    if (entry == null || entry.value != appender) {
+      // an appender was tracked for the same key behind our back
+      appender.stop();
+    }
+    return entry;
+  }
+
+  private synchronized Appender<E> buildAndTrackAppender(
+      String discriminatingValue, long timestamp) {
+    Appender<E> appender = appenderTracker.get(discriminatingValue, timestamp);
+    if (appender != null) {
+      return appender;
+    }
+    appender = buildAppender(discriminatingValue);
+    if (appender != null) {
+      appenderTracker.put(discriminatingValue, appender, timestamp);
+    }
+    return appender;
+  }
+
+  private Appender<E> buildAppender(String discriminatingValue) {
+    try {
+      Appender<E> appender = appenderFactory.buildAppender(context,
+          discriminatingValue);
+      if (appender == null) {
+        appender = buildNOPAppender(discriminatingValue);
+      }
+      return appender;
+    } catch (JoranException e) {
+      addError("Failed to build appender for [" + discriminatingValue + "]",
+          e);
+      return null;
+    }
+  }
+
   public Discriminator<E> getDiscriminator() {
     return discriminator;
   }
@@ -128,6 +255,36 @@ public abstract class SiftingAppenderBase<E> extends
     return appenderTracker;
   }
 
+  /**
+   * The maximum number of nested appenders alive at any given time. When this
+   * limit is exceeded, the least recently used nested appenders are stopped.
+   * 
+   * @since 0.9.31
+   */
+  public void setMaxAppenderCount(int maxAppenderCount) {
+    this.maxAppenderCount = maxAppenderCount;
+  }
+
+  public int getMaxAppenderCount() {
+    return maxAppenderCount;
+  }
+
+  /**
+   * The maximum number of files held open by nested file appenders. When this
+   * limit is exceeded, the files of the least recently used nested file
+   * appenders are closed. A closed file is re-opened when its appender is
+   * needed again.
+   * 
+   * @since 0.9.31
+   */
+  public void setMaxOpenFiles(int maxOpenFiles) {
+    this.maxOpenFiles = maxOpenFiles;
+  }
+
+  public int getMaxOpenFiles() {
+    return maxOpenFiles;
+  }
+
   public String getDiscriminatorKey() {
     if (discriminator != null) {
       return discriminator.getKey();
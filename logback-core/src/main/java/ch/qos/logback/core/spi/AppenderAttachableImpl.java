@@ -154,6 +154,26 @@ public class AppenderAttachableImpl<E> implements AppenderAttachable<E> {
     }
   }
 
+  /**
+   * Remove all previously attached appenders without stopping them. Since
+   * the appenders are removed under the write lock, any call to
+   * {@link #appendLoopOnAppenders} in progress completes before this method
+   * returns.
+   * 
+   * @return the removed appenders
+   * @since 0.9.31
+   */
+  public List<Appender<E>> detachAllAppenders() {
+    w.lock();
+    try {
+      List<Appender<E>> detached = new ArrayList<Appender<E>>(appenderList);
+      appenderList.clear();
+      return detached;
+    } finally {
+      w.unlock();
+    }
+  }
+
   /**
    * Remove the appender passed as parameter form the list of attached
    * appenders.
@@ -81,12 +81,21 @@ abstract public class ViewStatusMessagesServletBase extends HttpServlet {
     }
     output.append(buf);
     output.append("</table>");
+    printAdditionalContent(output, req);
     output.append("</body>\r\n");
     output.append("</html>\r\n");
     output.flush();
     output.close();
   }
 
+  /**
+   * Print content following the status messages. This implementation does
+   * nothing.
+   */
+  protected void printAdditionalContent(PrintWriter output,
+      HttpServletRequest req) {
+  }
+
   public void printCSS(String localRef, PrintWriter output) {
     output.append("  <STYLE TYPE=\"text/css\">\r\n");
     output.append("    .warn  { font-weight: bold; color: #FF6600;} \r\n"); // orange
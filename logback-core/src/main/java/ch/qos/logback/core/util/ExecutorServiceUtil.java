@@ -0,0 +1,72 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.util;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.CoreConstants;
+
+/**
+ * Creates, looks up and shuts down the executor services running the
+ * periodic house-keeping tasks of a context.
+ * 
+ * @since 0.9.31
+ */
+public class ExecutorServiceUtil {
+
+  /**
+   * Return the executor service shared by the components of
+   * <code>context</code>, either the one of a {@link ContextBase} or the one
+   * stored under {@link CoreConstants#SCHEDULED_EXECUTOR_SERVICE_KEY}.
+   * 
+   * @return the shared executor service, null if the context provides none
+   */
+  static public ScheduledExecutorService getScheduledExecutorService(
+      Context context) {
+    if (context instanceof ContextBase) {
+      return ((ContextBase) context).getScheduledExecutorService();
+    }
+    return (ScheduledExecutorService) context
+        .getObject(CoreConstants.SCHEDULED_EXECUTOR_SERVICE_KEY);
+  }
+
+  /**
+   * @return a new scheduled executor service running its tasks on a single
+   *         daemon thread named after the given context
+   */
+  static public ScheduledExecutorService newScheduledExecutorService(
+      final String contextName) {
+    return Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "logback-scheduler-" + contextName);
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+  /**
+   * Shut down the given executor service, if any, cancelling its pending
+   * tasks.
+   */
+  static public void shutdown(ScheduledExecutorService executorService) {
+    if (executorService != null) {
+      executorService.shutdownNow();
+    }
+  }
+}
@@ -29,6 +29,7 @@ import org.junit.runners.Suite.SuiteClasses;
   ch.qos.logback.core.rolling.PackageTest.class,
   ch.qos.logback.core.sift.PackageTest.class, 
   ch.qos.logback.core.encoder.PackageTest.class,
-  ch.qos.logback.core.recovery.PackageTest.class})
+  ch.qos.logback.core.recovery.PackageTest.class,
+  ch.qos.logback.core.metrics.PackageTest.class})
 public class AllCoreTest {
 }
@@ -63,4 +63,68 @@ public class BasicStatusManagerTest {
     }
     assertEquals(witness, statusList);
   }
+
+  @Test
+  public void concurrentAdds() throws InterruptedException {
+    bsm.setMaxStatusesPerOriginPerSecond(0);
+    final int perThread = 1000;
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final Object origin = new Object();
+      threads[t] = new Thread() {
+        public void run() {
+          for (int i = 0; i < perThread; i++) {
+            bsm.add(new ErrorStatus("" + i, origin));
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+    assertEquals(threads.length * perThread, bsm.getCount());
+    assertEquals(MAX_HEADER_COUNT + TAIL_SIZE, bsm.getCopyOfStatusList().size());
+  }
+
+  @Test
+  public void statusesAreRateLimitedPerOrigin() {
+    bsm.setMaxStatusesPerOriginPerSecond(10);
+    Object other = new Object();
+    for (int i = 0; i < 100; i++) {
+      bsm.add(new ErrorStatus("" + i, this));
+    }
+    bsm.add(new ErrorStatus("other", other));
+    List<Status> statusList = bsm.getCopyOfStatusList();
+    assertEquals(11, statusList.size());
+    assertEquals("other", statusList.get(10).getMessage());
+
+    // once the window is over, the number of suppressed statuses is reported
+    bsm.getOriginRate(this).windowStart -= CoreConstants.MILLIS_IN_ONE_SECOND;
+    bsm.add(new ErrorStatus("again", this));
+    statusList = bsm.getCopyOfStatusList();
+    assertEquals(13, statusList.size());
+    assertEquals("90 status messages from this origin were suppressed",
+        statusList.get(11).getMessage());
+    assertEquals("again", statusList.get(12).getMessage());
+    // suppressed statuses are counted, the warning reporting them is not
+    assertEquals(102, bsm.getCount());
+  }
+
+  @Test
+  public void noRateLimitingByDefault() {
+    for (int i = 0; i < 2000; i++) {
+      bsm.add(new ErrorStatus("" + i, this));
+    }
+    assertEquals(2000, bsm.getCount());
+    assertEquals("1999", bsm.getCopyOfStatusList().get(MAX_HEADER_COUNT + TAIL_SIZE - 1).getMessage());
+  }
+
+  @Test
+  public void clear() {
+    bsm.add(new ErrorStatus("hello", this));
+    bsm.clear();
+    assertEquals(0, bsm.getCount());
+    assertEquals(0, bsm.getCopyOfStatusList().size());
+  }
 }
@@ -127,4 +127,29 @@ public class FileAppenderTest extends AbstractAppenderTest<Object> {
     assertTrue(file.exists());
     assertTrue("failed to delete " + file.getAbsolutePath(), file.delete());
   }
+
+  @Test
+  public void releasedFileIsReopenedInAppendMode() {
+    String filename = CoreTestConstants.OUTPUT_DIR_PREFIX + diff + "released.txt";
+    File file = new File(filename);
+    FileAppender<Object> appender = new FileAppender<Object>();
+    appender.setEncoder(new DummyEncoder<Object>());
+    appender.setAppend(false);
+    appender.setFile(filename);
+    appender.setName("releasedFile");
+    appender.setContext(context);
+    appender.start();
+
+    appender.doAppend(new Object());
+    appender.releaseFile();
+    assertTrue(appender.isFileReleased());
+    assertTrue(appender.isStarted());
+
+    appender.doAppend(new Object());
+    assertFalse(appender.isFileReleased());
+    appender.stop();
+
+    assertEquals(2 * DummyEncoder.DUMMY.length(), file.length());
+    assertTrue("failed to delete " + file.getAbsolutePath(), file.delete());
+  }
 }
@@ -0,0 +1,61 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.helpers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class TransformTest {
+
+  String appendEscapingTags(CharSequence input) {
+    StringBuilder buf = new StringBuilder("x");
+    Transform.appendEscapingTags(buf, input);
+    return buf.toString();
+  }
+
+  String appendEscapingCDATA(String input) {
+    StringBuilder buf = new StringBuilder("x");
+    Transform.appendEscapingCDATA(buf, input);
+    return buf.toString();
+  }
+
+  @Test
+  public void escapeTags() {
+    String s = "no tags";
+    assertSame(s, Transform.escapeTags(s));
+    assertNull(Transform.escapeTags((String) null));
+    assertEquals("&lt;b&gt;x&lt;/b&gt;", Transform.escapeTags("<b>x</b>"));
+    assertEquals("a&lt;&gt;b", Transform.escapeTags(new StringBuffer("a<>b")));
+  }
+
+  @Test
+  public void appendEscapingTags() {
+    assertEquals("xabc", appendEscapingTags("abc"));
+    assertEquals("x", appendEscapingTags(""));
+    assertEquals("xnull", appendEscapingTags(null));
+    assertEquals("x&lt;", appendEscapingTags("<"));
+    assertEquals("x&lt;a&gt; &amp; &lt;/a&gt;", appendEscapingTags("<a> &amp; </a>"));
+  }
+
+  @Test
+  public void appendEscapingCDATA() {
+    assertEquals("xabc", appendEscapingCDATA("abc"));
+    assertEquals("x", appendEscapingCDATA(null));
+    assertEquals("xa]]>]]&gt;<![CDATA[b", appendEscapingCDATA("a]]>b"));
+    assertEquals("x]]>]]&gt;<![CDATA[]]>]]&gt;<![CDATA[", appendEscapingCDATA("]]>]]>"));
+  }
+}
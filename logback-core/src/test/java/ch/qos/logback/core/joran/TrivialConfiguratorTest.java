@@ -38,7 +38,9 @@ import ch.qos.logback.core.joran.action.Action;
 import ch.qos.logback.core.joran.action.ext.IncAction;
 import ch.qos.logback.core.joran.spi.JoranException;
 import ch.qos.logback.core.joran.spi.Pattern;
+import ch.qos.logback.core.joran.util.ConfigurationSnapshotStore;
 import ch.qos.logback.core.status.Status;
+import ch.qos.logback.core.status.StatusChecker;
 import ch.qos.logback.core.status.TrivialStatusListener;
 import ch.qos.logback.core.testUtil.RandomUtil;
 import ch.qos.logback.core.util.CoreTestConstants;
@@ -101,6 +103,29 @@ public class TrivialConfiguratorTest {
     assertTrue(s0.getMessage().startsWith(CoreConstants.XML_PARSING));
   }
 
+  @Test
+  public void snapshotIsReplayed() throws Exception {
+    String snapshotDir = CoreTestConstants.OUTPUT_DIR_PREFIX + "snapshot-"
+        + RandomUtil.getPositiveInt();
+    System.setProperty(ConfigurationSnapshotStore.SNAPSHOT_DIR_PROPERTY,
+        snapshotDir);
+    try {
+      int oldBeginCount = IncAction.beginCount;
+      String filename = CoreTestConstants.TEST_DIR_PREFIX + "input/joran/"
+          + "inc.xml";
+      doTest(filename);
+      assertEquals(1, new File(snapshotDir).list().length);
+
+      context = new ContextBase();
+      doTest(filename);
+      assertEquals(oldBeginCount + 2, IncAction.beginCount);
+      StatusChecker checker = new StatusChecker(context);
+      assertTrue(checker.containsMatch("Replaying configuration snapshot"));
+    } finally {
+      System.clearProperty(ConfigurationSnapshotStore.SNAPSHOT_DIR_PROPERTY);
+    }
+  }
+
   @Test
   public void lbcore105() throws IOException, JoranException {
     String jarEntry = "buzz.xml";
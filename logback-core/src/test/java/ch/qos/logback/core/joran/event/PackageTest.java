@@ -18,6 +18,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({SaxEventRecorderTest.class, InPlayFireTest.class})
+@SuiteClasses({SaxEventRecorderTest.class, InPlayFireTest.class,
+    SaxEventSerializerTest.class})
 public class PackageTest {
 }
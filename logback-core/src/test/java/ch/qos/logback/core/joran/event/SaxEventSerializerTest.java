@@ -0,0 +1,106 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.joran.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.Test;
+import org.xml.sax.Attributes;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.util.CoreTestConstants;
+
+public class SaxEventSerializerTest {
+
+  Context context = new ContextBase();
+
+  List<SaxEvent> record(String filename) throws Exception {
+    SaxEventRecorder recorder = new SaxEventRecorder();
+    recorder.setContext(context);
+    FileInputStream fis = new FileInputStream(CoreTestConstants.TEST_DIR_PREFIX
+        + "input/joran/" + filename);
+    recorder.recordEvents(fis);
+    fis.close();
+    return recorder.getSaxEventList();
+  }
+
+  List<SaxEvent> roundTrip(List<SaxEvent> eventList) throws Exception {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(baos);
+    SaxEventSerializer.write(eventList, out);
+    out.close();
+    return SaxEventSerializer.read(new DataInputStream(
+        new ByteArrayInputStream(baos.toByteArray())));
+  }
+
+  @Test
+  public void eventsSurviveRoundTrip() throws Exception {
+    List<SaxEvent> original = record("event1.xml");
+    List<SaxEvent> copy = roundTrip(original);
+
+    assertEquals(original.size(), copy.size());
+    for (int i = 0; i < original.size(); i++) {
+      SaxEvent o = original.get(i);
+      SaxEvent c = copy.get(i);
+      assertEquals(o.getClass(), c.getClass());
+      assertEquals(o.toString(), c.toString());
+      assertEquals(o.getQName(), c.getQName());
+      assertEquals(o.getLocalName(), c.getLocalName());
+      assertEquals(o.getNamespaceURI(), c.getNamespaceURI());
+      assertEquals(o.getLocator().getSystemId(), c.getLocator().getSystemId());
+      if (o instanceof StartEvent) {
+        assertEquals(((StartEvent) o).pattern, ((StartEvent) c).pattern);
+      }
+      if (o instanceof BodyEvent) {
+        assertEquals(((BodyEvent) o).getText(), ((BodyEvent) c).getText());
+      }
+    }
+  }
+
+  @Test
+  public void attributesSurviveRoundTrip() throws Exception {
+    List<SaxEvent> copy = roundTrip(record("attributesEvent.xml"));
+    assertTrue(copy.get(0) instanceof StartEvent);
+    Attributes attributes = ((StartEvent) copy.get(0)).getAttributes();
+    assertEquals(1, attributes.getLength());
+    assertEquals("increment", attributes.getQName(0));
+    assertEquals("1", attributes.getValue("increment"));
+  }
+
+  @Test
+  public void implausibleEventCountIsRejected() throws Exception {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(baos);
+    out.writeInt(Integer.MAX_VALUE);
+    out.close();
+    try {
+      SaxEventSerializer.read(new DataInputStream(new ByteArrayInputStream(
+          baos.toByteArray())));
+      fail("expected an IOException");
+    } catch (IOException e) {
+      assertTrue(e.getMessage().startsWith("Invalid count"));
+    }
+  }
+}
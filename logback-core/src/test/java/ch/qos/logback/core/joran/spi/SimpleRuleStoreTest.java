@@ -213,6 +213,51 @@ public class SimpleRuleStoreTest {
     }
   }
 
+  @Test
+  public void partialTailMatch() throws Exception {
+    srs.addRule(new Pattern("*/if/then"), new XAction());
+
+    for (String s : cc.combinations("a/b/then")) {
+      List r = srs.matchActions(new Pattern(s));
+      assertNotNull(r);
+      assertEquals(1, r.size());
+      assertTrue(r.get(0) instanceof XAction);
+    }
+  }
+
+  @Test
+  public void middleMatch() throws Exception {
+    srs.addRule(new Pattern("*/b/*"), new XAction(1));
+    srs.addRule(new Pattern("*/b/c/*"), new XAction(2));
+
+    List r = srs.matchActions(new Pattern("a/b/c/d"));
+    assertNotNull(r);
+    assertEquals(2, ((XAction) r.get(0)).id);
+
+    r = srs.matchActions(new Pattern("a/b/x/d"));
+    assertNotNull(r);
+    assertEquals(1, ((XAction) r.get(0)).id);
+
+    assertNull(srs.matchActions(new Pattern("a/x/c/d")));
+  }
+
+  @Test
+  public void rulesAddedAfterLookupAreMatched() throws Exception {
+    srs.addRule(new Pattern("a/*"), new XAction(1));
+    List r = srs.matchActions(new Pattern("a/b/c"));
+    assertEquals(1, ((XAction) r.get(0)).id);
+
+    srs.addRule(new Pattern("a/b/*"), new XAction(2));
+    r = srs.matchActions(new Pattern("a/b/c"));
+    assertEquals(2, ((XAction) r.get(0)).id);
+
+    srs.addRule(new Pattern("*/c"), new XAction(3));
+    for (String s : cc.combinations("a/b/c")) {
+      r = srs.matchActions(new Pattern(s));
+      assertEquals(3, ((XAction) r.get(0)).id);
+    }
+  }
+
   class XAction extends Action {
     int id = 0;
 
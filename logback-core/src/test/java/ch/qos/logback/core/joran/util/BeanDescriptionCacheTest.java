@@ -0,0 +1,99 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.joran.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.util.AggregationType;
+
+public class BeanDescriptionCacheTest {
+
+  ContextBase context = new ContextBase();
+  BeanDescriptionCache cache = BeanDescriptionCache.of(context);
+
+  @Test
+  public void sameClassYieldsSameDescription() throws Exception {
+    BeanDescription bd0 = cache.getBeanDescription(House.class);
+    BeanDescription bd1 = cache.getBeanDescription(House.class);
+    assertSame(bd0, bd1);
+    assertEquals(House.class, bd0.getBeanClass());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void settersOnTheSameContextShareTheirDescription() {
+    PropertySetter setter0 = new PropertySetter(new House());
+    setter0.setContext(context);
+    setter0.setProperty("count", "10");
+
+    PropertySetter setter1 = new PropertySetter(new House());
+    setter1.setContext(context);
+    setter1.setProperty("count", "20");
+
+    assertEquals(1, cache.size());
+    assertSame(setter0.beanDescription, setter1.beanDescription);
+  }
+
+  @Test
+  public void contextsDoNotShareDescriptions() throws Exception {
+    Context other = new ContextBase();
+    assertNotSame(cache.getBeanDescription(House.class), BeanDescriptionCache
+        .of(other).getBeanDescription(House.class));
+  }
+
+  @Test
+  public void cacheSurvivesReset() throws Exception {
+    BeanDescription bd = cache.getBeanDescription(House.class);
+    context.reset();
+    assertSame(bd, BeanDescriptionCache.of(context).getBeanDescription(
+        House.class));
+  }
+
+  @Test
+  public void aggregationTypesAreStable() throws Exception {
+    BeanDescription bd = cache.getBeanDescription(House.class);
+    for (int i = 0; i < 2; i++) {
+      assertEquals(AggregationType.AS_COMPLEX_PROPERTY, bd
+          .getAggregationType("door"));
+      assertEquals(AggregationType.AS_BASIC_PROPERTY, bd
+          .getAggregationType("Count"));
+      assertEquals(AggregationType.AS_COMPLEX_PROPERTY_COLLECTION, bd
+          .getAggregationType("window"));
+      assertEquals(AggregationType.NOT_FOUND, bd
+          .getAggregationType("nonExistent"));
+    }
+  }
+
+  @Test
+  public void implicitClassesAreStable() throws Exception {
+    BeanDescription bd = cache.getBeanDescription(House.class);
+    for (int i = 0; i < 2; i++) {
+      assertEquals(Door.class, bd.getImplicitClass("door",
+          AggregationType.AS_COMPLEX_PROPERTY));
+      assertEquals(SwimmingPoolImpl.class, bd.getImplicitClass(
+          "swimmingPool", AggregationType.AS_COMPLEX_PROPERTY));
+      assertEquals(LargeSwimmingPoolImpl.class, bd.getImplicitClass(
+          "largeSwimmingPool", AggregationType.AS_COMPLEX_PROPERTY_COLLECTION));
+      assertNull(bd.getImplicitClass("nonExistent",
+          AggregationType.AS_COMPLEX_PROPERTY));
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.joran.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.joran.event.SaxEvent;
+import ch.qos.logback.core.joran.event.SaxEventRecorder;
+import ch.qos.logback.core.status.Status;
+import ch.qos.logback.core.status.StatusChecker;
+import ch.qos.logback.core.testUtil.RandomUtil;
+import ch.qos.logback.core.util.CoreTestConstants;
+
+public class ConfigurationSnapshotStoreTest {
+
+  Context context = new ContextBase();
+  StatusChecker checker = new StatusChecker(context);
+  int diff = RandomUtil.getPositiveInt();
+  File dir = new File(CoreTestConstants.OUTPUT_DIR_PREFIX + "snapshot-" + diff);
+  ConfigurationSnapshotStore store = new ConfigurationSnapshotStore(context,
+      dir);
+
+  URL url;
+  byte[] content = "<x><inc increment='1'/></x>".getBytes();
+  List<SaxEvent> eventList;
+
+  @Before
+  public void setUp() throws Exception {
+    url = new File(dir, "config.xml").toURI().toURL();
+    SaxEventRecorder recorder = new SaxEventRecorder();
+    recorder.setContext(context);
+    recorder.recordEvents(new ByteArrayInputStream(content));
+    eventList = recorder.getSaxEventList();
+  }
+
+  @Test
+  public void missingSnapshot() {
+    assertNull(store.load(url, content));
+  }
+
+  @Test
+  public void savedSnapshotIsLoaded() {
+    store.save(url, content, eventList);
+    List<SaxEvent> loaded = store.load(url, content);
+    assertNotNull(loaded);
+    assertEquals(eventList.size(), loaded.size());
+    assertEquals(eventList.toString(), loaded.toString());
+    assertTrue(checker.isErrorFree(0));
+  }
+
+  @Test
+  public void modifiedContentInvalidatesSnapshot() {
+    store.save(url, content, eventList);
+    byte[] modified = "<x><inc increment='2'/></x>".getBytes();
+    assertNull(store.load(url, modified));
+  }
+
+  @Test
+  public void otherURLsDoNotShareSnapshots() throws Exception {
+    store.save(url, content, eventList);
+    URL otherURL = new File(dir, "other.xml").toURI().toURL();
+    assertNull(store.load(otherURL, content));
+  }
+
+  @Test
+  public void corruptedSnapshotIsIgnored() throws Exception {
+    store.save(url, content, eventList);
+    FileOutputStream fos = new FileOutputStream(store.getSnapshotFile(url));
+    fos.write(new byte[] { 0, 1, 2 });
+    fos.close();
+    assertNull(store.load(url, content));
+    assertEquals(Status.WARN, checker.getHighestLevel(0));
+  }
+
+  @Test
+  public void emptyEventListIsSaved() {
+    List<SaxEvent> empty = new ArrayList<SaxEvent>();
+    store.save(url, content, empty);
+    assertEquals(0, store.load(url, content).size());
+  }
+
+  @Test
+  public void noTemporaryFileIsLeftBehind() {
+    store.save(url, content, eventList);
+    store.save(url, content, eventList);
+    String[] names = dir.list();
+    assertEquals(1, names.length);
+    assertEquals(store.getSnapshotFile(url).getName(), names[0]);
+  }
+}
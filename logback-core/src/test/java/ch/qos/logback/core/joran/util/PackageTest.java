@@ -18,6 +18,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses( { PropertySetterTest.class })
+@SuiteClasses( { PropertySetterTest.class, BeanDescriptionCacheTest.class,
+    ConfigurationSnapshotStoreTest.class })
 public class PackageTest {
 }
@@ -0,0 +1,116 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.EchoEncoder;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+public class AppenderMetricsTest {
+
+  Context context = new ContextBase();
+  AppenderMetrics metrics = new AppenderMetrics();
+  ByteArrayOutputStream baos = new ByteArrayOutputStream();
+  OutputStreamAppender<Object> osa = new OutputStreamAppender<Object>();
+
+  @Before
+  public void setUp() {
+    EchoEncoder<Object> encoder = new EchoEncoder<Object>();
+    encoder.setContext(context);
+    encoder.start();
+    osa.setContext(context);
+    osa.setEncoder(encoder);
+    osa.setOutputStream(baos);
+    osa.addFilter(new Filter<Object>() {
+      @Override
+      public FilterReply decide(Object event) {
+        return "deny".equals(event) ? FilterReply.DENY : FilterReply.NEUTRAL;
+      }
+    });
+    osa.start();
+  }
+
+  @Test
+  public void unsynchronizedAppender() {
+    osa.doAppend("not recorded");
+    osa.setMetrics(metrics);
+    osa.doAppend("hello");
+    osa.doAppend("deny");
+    osa.doAppend("world");
+
+    assertEquals(2, metrics.getAppendedCount());
+    assertEquals(1, metrics.getDeniedCount());
+    assertEquals(0, metrics.getFailedCount());
+    assertEquals(("hello" + "world").length() + 2
+        * CoreConstants.LINE_SEPARATOR.length(), metrics.getBytesWritten());
+    assertTrue(metrics.getAppendTimeMax() >= metrics.getAppendTimeP50());
+    assertEquals(2, metrics.encodeTime.getCount());
+    assertEquals(2, metrics.lockWaitTime.getCount());
+  }
+
+  @Test
+  public void detachedMetricsAreNoLongerUpdated() {
+    osa.setMetrics(metrics);
+    osa.doAppend("hello");
+    osa.setMetrics(null);
+    assertNull(osa.getMetrics());
+    osa.doAppend("world");
+    assertEquals(1, metrics.getAppendedCount());
+  }
+
+  @Test
+  public void synchronizedAppender() {
+    AppenderBase<Object> failing = new AppenderBase<Object>() {
+      @Override
+      protected void append(Object eventObject) {
+        if ("fail".equals(eventObject)) {
+          throw new IllegalStateException("failing as requested");
+        }
+      }
+    };
+    failing.setContext(context);
+    failing.start();
+    failing.setMetrics(metrics);
+    failing.doAppend("hello");
+    failing.doAppend("fail");
+
+    assertEquals(1, metrics.getAppendedCount());
+    assertEquals(1, metrics.getFailedCount());
+    assertEquals(2, metrics.lockWaitTime.getCount());
+  }
+
+  @Test
+  public void reset() {
+    osa.setMetrics(metrics);
+    osa.doAppend("hello");
+    metrics.reset();
+    assertEquals(0, metrics.getAppendedCount());
+    assertEquals(0, metrics.getBytesWritten());
+    assertEquals(0, metrics.getAppendTimeMax());
+  }
+}
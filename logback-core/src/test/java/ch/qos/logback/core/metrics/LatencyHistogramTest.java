@@ -0,0 +1,94 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  LatencyHistogram histogram = new LatencyHistogram(4);
+
+  @Test
+  public void bucketsCoverAllValues() {
+    int previous = -1;
+    for (long v = 0; v < 100000; v++) {
+      int index = LatencyHistogram.bucketIndex(v);
+      assertTrue(index == previous || index == previous + 1);
+      assertTrue(v <= LatencyHistogram.highestValueInBucket(index));
+      previous = index;
+    }
+    assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram
+        .bucketIndex(Long.MAX_VALUE));
+    assertEquals(LatencyHistogram.MAX_VALUE, LatencyHistogram
+        .highestValueInBucket(LatencyHistogram.BUCKET_COUNT - 1));
+  }
+
+  @Test
+  public void relativeErrorIsBounded() {
+    for (long v = 1; v < LatencyHistogram.MAX_VALUE; v = v * 3 + 1) {
+      long reported = LatencyHistogram.highestValueInBucket(LatencyHistogram
+          .bucketIndex(v));
+      assertTrue((reported - v) / (double) v <= 1.0 / 16);
+    }
+  }
+
+  @Test
+  public void percentiles() {
+    assertEquals(0, histogram.getValueAtPercentile(99));
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(i);
+    }
+    histogram.record(-1);
+    assertEquals(100, histogram.getCount());
+    assertEquals(51, histogram.getValueAtPercentile(50));
+    assertEquals(95, histogram.getValueAtPercentile(95));
+    assertEquals(99, histogram.getValueAtPercentile(99));
+    assertEquals(103, histogram.getValueAtPercentile(100));
+  }
+
+  @Test
+  public void addAndReset() {
+    LatencyHistogram other = new LatencyHistogram();
+    histogram.record(5);
+    other.add(histogram);
+    other.add(histogram);
+    assertEquals(2, other.getCount());
+    assertEquals(5, other.getValueAtPercentile(100));
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+  }
+
+  @Test
+  public void stripedCounterIsExactOnceQuiescent() throws InterruptedException {
+    final StripedCounter counter = new StripedCounter(8);
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread() {
+        public void run() {
+          for (int j = 0; j < 10000; j++) {
+            counter.increment();
+          }
+        }
+      };
+      threads[i].start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+    assertEquals(40000, counter.sum());
+  }
+}
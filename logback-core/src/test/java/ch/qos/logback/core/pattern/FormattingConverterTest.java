@@ -0,0 +1,104 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.pattern;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class FormattingConverterTest {
+
+  static class StringConverter extends FormattingConverter<String> {
+    public String convert(String event) {
+      return event;
+    }
+  }
+
+  static class AppendingConverter extends FormattingConverter<String> {
+    public String convert(String event) {
+      return appendToString(event);
+    }
+
+    @Override
+    public void append(StringBuilder buf, String event) {
+      buf.append(event);
+    }
+  }
+
+  static class UpperCaseConverter extends AppendingConverter {
+    @Override
+    public String convert(String event) {
+      return event.toUpperCase();
+    }
+  }
+
+  String write(FormattingConverter<String> converter, FormatInfo formatInfo,
+      String event) {
+    converter.setFormattingInfo(formatInfo);
+    // the converter must only touch what it appends
+    StringBuilder buf = new StringBuilder("[");
+    converter.write(buf, event);
+    return buf.append(']').toString();
+  }
+
+  void verify(String expected, FormatInfo formatInfo, String event) {
+    assertEquals(expected, write(new StringConverter(), formatInfo, event));
+    assertEquals(expected, write(new AppendingConverter(), formatInfo, event));
+  }
+
+  @Test
+  public void noFormatting() {
+    verify("[abc]", null, "abc");
+  }
+
+  @Test
+  public void padding() {
+    verify("[  abc]", new FormatInfo(5, Integer.MAX_VALUE, true, true), "abc");
+    verify("[abc  ]", new FormatInfo(5, Integer.MAX_VALUE, false, true), "abc");
+    verify("[abc]", new FormatInfo(3, Integer.MAX_VALUE, true, true), "abc");
+    verify("[                                   abc]", new FormatInfo(38,
+        Integer.MAX_VALUE, true, true), "abc");
+  }
+
+  @Test
+  public void truncation() {
+    verify("[cde]", new FormatInfo(0, 3, true, true), "abcde");
+    verify("[abc]", new FormatInfo(0, 3, true, false), "abcde");
+    verify("[abcde]", new FormatInfo(0, 5, true, false), "abcde");
+  }
+
+  @Test
+  public void nullValue() {
+    assertEquals("[null]", write(new StringConverter(), null, null));
+    assertEquals("[   ]", write(new StringConverter(), new FormatInfo(3,
+        Integer.MAX_VALUE), null));
+    assertEquals("[]", write(new StringConverter(), new FormatInfo(0, 3), null));
+  }
+
+  @Test
+  public void convertBridge() {
+    assertEquals("abc", new AppendingConverter().convert("abc"));
+  }
+
+  @Test
+  public void convertOverriddenBelowAppend() {
+    assertEquals(false, new AppendingConverter().convertOverridden);
+    // the result of the check is cached per class, not per instance
+    for (int i = 0; i < 2; i++) {
+      UpperCaseConverter converter = new UpperCaseConverter();
+      assertEquals(true, converter.convertOverridden);
+      assertEquals("[ABC]", write(converter, null, "abc"));
+    }
+  }
+}
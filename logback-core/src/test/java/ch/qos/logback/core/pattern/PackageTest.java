@@ -18,6 +18,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({SpacePadderTest.class, ch.qos.logback.core.pattern.parser.PackageTest.class})
+@SuiteClasses({SpacePadderTest.class, FormattingConverterTest.class, ch.qos.logback.core.pattern.parser.PackageTest.class,
+    ch.qos.logback.core.pattern.codegen.PackageTest.class})
 public class PackageTest  {
 }
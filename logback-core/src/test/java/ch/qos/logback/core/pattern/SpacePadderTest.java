@@ -104,4 +104,19 @@ public class SpacePadderTest {
     
   }
 
+  @Test
+  public void spacePadAt() {
+    StringBuilder buf = new StringBuilder("xabc");
+    SpacePadder.spacePadAt(buf, 1, 2);
+    assertEquals("x  abc", buf.toString());
+
+    buf = new StringBuilder("xabc");
+    SpacePadder.spacePadAt(buf, 1, 0);
+    assertEquals("xabc", buf.toString());
+
+    buf = new StringBuilder("abc");
+    SpacePadder.spacePadAt(buf, 0, 33);
+    assertEquals("                                 abc", buf.toString());
+  }
+
 }
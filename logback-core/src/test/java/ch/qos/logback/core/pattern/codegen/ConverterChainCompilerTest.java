@@ -0,0 +1,151 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.core.pattern.codegen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.pattern.Converter;
+import ch.qos.logback.core.pattern.Converter123;
+import ch.qos.logback.core.pattern.ConverterHello;
+import ch.qos.logback.core.pattern.DynamicConverter;
+import ch.qos.logback.core.pattern.FormatInfo;
+import ch.qos.logback.core.pattern.LiteralConverter;
+import ch.qos.logback.core.status.StatusChecker;
+import ch.qos.logback.core.status.Status;
+
+public class ConverterChainCompilerTest {
+
+  Context context = new ContextBase();
+  ConverterChainCompiler<Object> compiler = new ConverterChainCompiler<Object>();
+
+  // not accessible from generated code
+  static class EventConverter extends DynamicConverter<Object> {
+    public String convert(Object event) {
+      return String.valueOf(event);
+    }
+  }
+
+  @Before
+  public void setUp() {
+    compiler.setContext(context);
+  }
+
+  @SuppressWarnings("unchecked")
+  Converter<Object> chain(Converter... converters) {
+    for (int i = 0; i < converters.length - 1; i++) {
+      converters[i].setNext(converters[i + 1]);
+    }
+    return converters[0];
+  }
+
+  String interpret(Converter<Object> head, Object event) {
+    StringBuilder buf = new StringBuilder();
+    for (Converter<Object> c = head; c != null; c = c.getNext()) {
+      c.write(buf, event);
+    }
+    return buf.toString();
+  }
+
+  String compileAndWrite(Converter<Object> head, Object event) {
+    ConverterChain<Object> compiled = compiler.compile(head);
+    assertNotNull(compiled);
+    StringBuilder buf = new StringBuilder();
+    compiled.write(buf, event);
+    return buf.toString();
+  }
+
+  @Test
+  public void literalsAreFused() {
+    Converter<Object> head = chain(new LiteralConverter<Object>("a"),
+        new LiteralConverter<Object>("b"), new Converter123(),
+        new LiteralConverter<Object>("c"));
+    List<Object> elements = compiler.fuseLiterals(head);
+    assertEquals(3, elements.size());
+    assertEquals("ab", elements.get(0));
+    assertTrue(elements.get(1) instanceof Converter123);
+    assertEquals("c", elements.get(2));
+    assertEquals("ab123c", compileAndWrite(head, "e"));
+  }
+
+  @Test
+  public void compiledMatchesInterpreted() {
+    DynamicConverter<Object> padded = new EventConverter();
+    padded.setFormattingInfo(new FormatInfo(6, 8, true, true));
+    Converter<Object> head = chain(new ConverterHello(),
+        new LiteralConverter<Object>(" ["), new EventConverter(),
+        new LiteralConverter<Object>("] "), padded, new Converter123());
+    for (Object event : new Object[] { "x", "a long event", null }) {
+      assertEquals(interpret(head, event), compileAndWrite(head, event));
+    }
+  }
+
+  @Test
+  public void onlyLiterals() {
+    Converter<Object> head = chain(new LiteralConverter<Object>("only"));
+    assertEquals("only", compileAndWrite(head, "e"));
+  }
+
+  @Test
+  public void fieldsAreTypedWithAccessibleConverterClasses() throws Exception {
+    Converter<Object> head = chain(new Converter123(), new EventConverter());
+    ConverterChain<Object> compiled = compiler.compile(head);
+    Class<?> generated = compiled.getClass();
+    assertEquals(Converter123.class, generated.getDeclaredField("c0").getType());
+    assertEquals(Converter.class, generated.getDeclaredField("c1").getType());
+  }
+
+  @Test
+  public void eachChainHasItsOwnClassLoader() {
+    Converter<Object> head = chain(new Converter123());
+    ConverterChain<Object> c0 = compiler.compile(head);
+    ConverterChain<Object> c1 = compiler.compile(head);
+    assertNotSame(c0.getClass(), c1.getClass());
+    assertNotSame(c0.getClass().getClassLoader(), c1.getClass()
+        .getClassLoader());
+  }
+
+  @Test
+  public void longLiteral() {
+    StringBuilder literal = new StringBuilder();
+    while (literal.length() < 3 * ConverterChainCompiler.MAX_LITERAL_CHUNK_LENGTH) {
+      literal.append("été ");
+    }
+    Converter<Object> head = chain(new LiteralConverter<Object>(literal
+        .toString()), new Converter123());
+    assertEquals(literal + "123", compileAndWrite(head, "e"));
+  }
+
+  @Test
+  public void failureIsReported() {
+    Converter[] converters = new Converter[Short.MAX_VALUE + 1];
+    for (int i = 0; i < converters.length; i++) {
+      converters[i] = new Converter123();
+    }
+    assertNull(compiler.compile(chain(converters)));
+    StatusChecker checker = new StatusChecker(context);
+    assertTrue(checker.containsMatch(Status.WARN,
+        "Failed to compile converter chain"));
+  }
+}
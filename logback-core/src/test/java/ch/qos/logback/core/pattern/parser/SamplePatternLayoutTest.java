@@ -20,6 +20,7 @@ import org.junit.Test;
 import ch.qos.logback.core.Context;
 import ch.qos.logback.core.ContextBase;
 import ch.qos.logback.core.pattern.PatternLayoutBase;
+import ch.qos.logback.core.status.StatusChecker;
 
 
 public class SamplePatternLayoutTest extends AbstractPatternLayoutBaseTest<Object> {
@@ -87,4 +88,18 @@ public class SamplePatternLayoutTest extends AbstractPatternLayoutBaseTest<Objec
   public Context getContext() {
     return  context;
   }
+
+  @Test
+  public void compileToBytecode() {
+    PatternLayoutBase<Object> plb = getPatternLayoutBase();
+    Context context = new ContextBase();
+    plb.setContext(context);
+    plb.setPattern("x(%OTT\\)y %-5OTT|");
+    plb.setCompileToBytecode(true);
+    plb.start();
+    assertEquals("x(123)y 123  |", plb.doLayout(new Object()));
+    StatusChecker checker = new StatusChecker(context);
+    assertTrue(checker.isErrorFree(0));
+    assertFalse(checker.containsMatch("Falling back"));
+  }
 }
@@ -23,7 +23,11 @@ import org.junit.Test;
 
 import ch.qos.logback.core.Context;
 import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.DummyEncoder;
 import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.testUtil.RandomUtil;
+import ch.qos.logback.core.util.CoreTestConstants;
 
 public class AppenderTrackerTest {
 
@@ -76,5 +80,110 @@ public class AppenderTrackerTest {
     assertFalse(la.isStarted());
     appenderTracker.get(key, now++);
     assertNull(appenderTracker.get(key, now++));
-  }     
+  }
+
+  @Test
+  public void leastRecentlyUsedAppenderIsStoppedWhenCountExceeded() {
+    AppenderTrackerImpl<Object> tracker = new AppenderTrackerImpl<Object>();
+    tracker.setMaxAppenderCount(2);
+    long now = 3000;
+    ListAppender<Object> a = buildListAppender();
+    ListAppender<Object> b = buildListAppender();
+    ListAppender<Object> c = buildListAppender();
+    tracker.put("a", a, now++);
+    tracker.put("b", b, now++);
+    // "a" becomes more recently used than "b"
+    tracker.get("a", now++);
+    tracker.put("c", c, now++);
+
+    assertEquals(2, tracker.keyList().size());
+    assertTrue(a.isStarted());
+    assertFalse(b.isStarted());
+    assertTrue(c.isStarted());
+    assertNull(tracker.get("b", now++));
+  }
+
+  @Test
+  public void leastRecentlyUsedAppendersAreEvictedInBatches() {
+    AppenderTrackerImpl<Object> tracker = new AppenderTrackerImpl<Object>();
+    tracker.setMaxAppenderCount(20);
+    long now = 3000;
+    ListAppender<Object>[] appenders = new ListAppender[21];
+    for (int i = 0; i < appenders.length; i++) {
+      appenders[i] = buildListAppender();
+      tracker.put("k" + i, appenders[i], now++);
+    }
+    assertEquals(18, tracker.keyList().size());
+    assertFalse(appenders[0].isStarted());
+    assertFalse(appenders[2].isStarted());
+    assertTrue(appenders[3].isStarted());
+    assertTrue(appenders[20].isStarted());
+  }
+
+  @Test
+  public void leasedAppenderIsStoppedOnRelease() {
+    AppenderTrackerImpl<Object> tracker = new AppenderTrackerImpl<Object>();
+    long now = 3000;
+    tracker.put(key, la, now);
+    AppenderTrackerImpl<Object>.Entry entry = tracker.acquire(key, now);
+    assertEquals(la, entry.value);
+
+    tracker.stopAndRemoveNow(key);
+    assertTrue(la.isStarted());
+    assertNull(tracker.acquire(key, now));
+
+    entry.release();
+    assertFalse(la.isStarted());
+  }
+
+  @Test
+  public void filesAreReleasedWhenOpenFileBudgetExceeded() {
+    AppenderTrackerImpl<Object> tracker = new AppenderTrackerImpl<Object>();
+    tracker.setMaxOpenFiles(2);
+    int diff = RandomUtil.getPositiveInt();
+    long now = 3000;
+    FileAppender<Object>[] appenders = new FileAppender[4];
+    for (int i = 0; i < appenders.length; i++) {
+      appenders[i] = buildFileAppender(diff + "-" + i);
+      tracker.put("k" + i, appenders[i], now++);
+      appenders[i].doAppend(new Object());
+    }
+    assertEquals(2, tracker.getOpenFileCount());
+    int releasedCount = 0;
+    for (FileAppender<Object> fa : appenders) {
+      assertTrue(fa.isStarted());
+      if (fa.isFileReleased()) {
+        releasedCount++;
+      }
+    }
+    assertEquals(2, releasedCount);
+
+    // looking up an appender whose file was released re-opens it
+    assertTrue(appenders[0].isFileReleased());
+    assertEquals(appenders[0], tracker.get("k0", now++));
+    appenders[0].doAppend(new Object());
+    assertFalse(appenders[0].isFileReleased());
+    assertEquals(2, tracker.getOpenFileCount());
+
+    for (int i = 0; i < appenders.length; i++) {
+      tracker.stopAndRemoveNow("k" + i);
+    }
+    assertEquals(0, tracker.getOpenFileCount());
+  }
+
+  ListAppender<Object> buildListAppender() {
+    ListAppender<Object> listAppender = new ListAppender<Object>();
+    listAppender.setContext(context);
+    listAppender.start();
+    return listAppender;
+  }
+
+  FileAppender<Object> buildFileAppender(String suffix) {
+    FileAppender<Object> fa = new FileAppender<Object>();
+    fa.setContext(context);
+    fa.setEncoder(new DummyEncoder<Object>());
+    fa.setFile(CoreTestConstants.OUTPUT_DIR_PREFIX + "tracker-" + suffix + ".log");
+    fa.start();
+    return fa;
+  }
 }
@@ -0,0 +1,256 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.perf;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Compares two sets of JMH results written in CSV format, e.g. by
+ * <code>java -jar benchmarks.jar -rf csv -rff current.csv</code>, and prints
+ * one line per benchmark, sorted by benchmark name, mode, thread count and
+ * parameters so that reports of successive runs can be diffed.
+ * 
+ * <p>
+ * A benchmark is deemed to have regressed when its score worsened by more
+ * than the threshold, 5% by default, and by more than the sum of the score
+ * errors of both runs. Higher scores are better in throughput mode and worse
+ * in all other modes. The exit status is 1 if at least one benchmark
+ * regressed, so that the comparison can fail a build.
+ * 
+ * <pre>
+ * java -cp benchmarks.jar ch.qos.logback.perf.BaselineComparison baseline.csv current.csv [thresholdPercent]
+ * </pre>
+ */
+public class BaselineComparison {
+
+  static final double DEFAULT_THRESHOLD_PERCENT = 5.0;
+
+  static final String REGRESSION = "REGRESSION";
+  static final String IMPROVEMENT = "improvement";
+
+  final Map<String, Result> baseline;
+  final Map<String, Result> current;
+  final double thresholdPercent;
+
+  int regressionCount;
+
+  public BaselineComparison(Map<String, Result> baseline,
+      Map<String, Result> current, double thresholdPercent) {
+    this.baseline = baseline;
+    this.current = current;
+    this.thresholdPercent = thresholdPercent;
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2 || args.length > 3) {
+      System.err.println("Usage: java " + BaselineComparison.class.getName()
+          + " baseline.csv current.csv [thresholdPercent]");
+      System.exit(2);
+    }
+    double threshold = DEFAULT_THRESHOLD_PERCENT;
+    if (args.length == 3) {
+      threshold = Double.parseDouble(args[2]);
+    }
+    BaselineComparison comparison = new BaselineComparison(read(args[0]),
+        read(args[1]), threshold);
+    comparison.print(System.out);
+    System.exit(comparison.getRegressionCount() > 0 ? 1 : 0);
+  }
+
+  public int getRegressionCount() {
+    return regressionCount;
+  }
+
+  public void print(PrintStream out) {
+    regressionCount = 0;
+    TreeSet<String> keys = new TreeSet<String>(baseline.keySet());
+    keys.addAll(current.keySet());
+    out.println(String.format(Locale.ENGLISH, "%-80s %14s %14s %9s  %s", "Benchmark",
+        "Baseline", "Current", "Change", "Verdict"));
+    for (String key : keys) {
+      Result b = baseline.get(key);
+      Result c = current.get(key);
+      if (b == null) {
+        out.println(String.format(Locale.ENGLISH, "%-80s %14s %14s %9s  %s", key, "-",
+            format(c), "-", "new"));
+      } else if (c == null) {
+        out.println(String.format(Locale.ENGLISH, "%-80s %14s %14s %9s  %s", key, format(b),
+            "-", "-", "removed"));
+      } else {
+        String verdict = verdict(b, c);
+        if (REGRESSION.equals(verdict)) {
+          regressionCount++;
+        }
+        out.println(String.format(Locale.ENGLISH, "%-80s %14s %14s %+8.1f%%  %s", key,
+            format(b), format(c), changePercent(b, c), verdict));
+      }
+    }
+    out.println(regressionCount + " regression(s) beyond " + thresholdPercent
+        + "%");
+  }
+
+  static String format(Result r) {
+    return String.format(Locale.ENGLISH, "%.3f", r.score) + " " + r.unit;
+  }
+
+  static double changePercent(Result b, Result c) {
+    if (b.score == 0) {
+      return 0;
+    }
+    return (c.score - b.score) * 100 / b.score;
+  }
+
+  String verdict(Result b, Result c) {
+    double delta = c.score - b.score;
+    double error = errorOrZero(b) + errorOrZero(c);
+    if (Math.abs(delta) <= error
+        || Math.abs(changePercent(b, c)) <= thresholdPercent) {
+      return "";
+    }
+    boolean better = b.isThroughput() ? delta > 0 : delta < 0;
+    return better ? IMPROVEMENT : REGRESSION;
+  }
+
+  static double errorOrZero(Result r) {
+    return Double.isNaN(r.error) ? 0 : r.error;
+  }
+
+  /**
+   * @return the results of a JMH CSV file, keyed by benchmark name, mode,
+   *         thread count and parameters
+   */
+  public static Map<String, Result> read(String fileName) throws IOException {
+    Map<String, Result> results = new TreeMap<String, Result>();
+    BufferedReader reader = new BufferedReader(new InputStreamReader(
+        new FileInputStream(fileName), "UTF-8"));
+    try {
+      String line = reader.readLine();
+      if (line == null) {
+        return results;
+      }
+      List<String> header = parseLine(line);
+      while ((line = reader.readLine()) != null) {
+        if (line.trim().length() == 0) {
+          continue;
+        }
+        List<String> fields = parseLine(line);
+        Result r = new Result(header, fields);
+        results.put(r.key, r);
+      }
+    } finally {
+      reader.close();
+    }
+    return results;
+  }
+
+  static List<String> parseLine(String line) {
+    List<String> fields = new ArrayList<String>();
+    StringBuilder sb = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c == '"') {
+          if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+            sb.append('"');
+            i++;
+          } else {
+            quoted = false;
+          }
+        } else {
+          sb.append(c);
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(sb.toString());
+        sb.setLength(0);
+      } else {
+        sb.append(c);
+      }
+    }
+    fields.add(sb.toString());
+    return fields;
+  }
+
+  /**
+   * A line of a JMH CSV file.
+   */
+  public static class Result {
+    final String key;
+    final String mode;
+    final double score;
+    final double error;
+    final String unit;
+
+    Result(List<String> header, List<String> fields) {
+      StringBuilder keyBuilder = new StringBuilder();
+      String mode = null;
+      String threads = null;
+      double score = Double.NaN;
+      double error = Double.NaN;
+      String unit = "";
+      StringBuilder params = new StringBuilder();
+      for (int i = 0; i < header.size() && i < fields.size(); i++) {
+        String column = header.get(i);
+        String value = fields.get(i);
+        if ("Benchmark".equals(column)) {
+          keyBuilder.append(value);
+        } else if ("Mode".equals(column)) {
+          mode = value;
+        } else if ("Threads".equals(column)) {
+          threads = value;
+        } else if ("Score".equals(column)) {
+          score = parseDouble(value);
+        } else if (column.startsWith("Score Error")) {
+          error = parseDouble(value);
+        } else if ("Unit".equals(column)) {
+          unit = value;
+        } else if (column.startsWith("Param: ") && value.length() > 0) {
+          params.append(params.length() == 0 ? "" : ",");
+          params.append(column.substring("Param: ".length())).append('=')
+              .append(value);
+        }
+      }
+      keyBuilder.append(' ').append(mode).append(" t=").append(threads);
+      if (params.length() > 0) {
+        keyBuilder.append(" [").append(params).append(']');
+      }
+      this.key = keyBuilder.toString();
+      this.mode = mode;
+      this.score = score;
+      this.error = error;
+      this.unit = unit;
+    }
+
+    static double parseDouble(String value) {
+      // some locales write decimal commas
+      return Double.parseDouble(value.trim().replace(',', '.'));
+    }
+
+    boolean isThroughput() {
+      return "thrpt".equals(mode);
+    }
+  }
+}
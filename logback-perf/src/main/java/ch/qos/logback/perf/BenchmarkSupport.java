@@ -0,0 +1,121 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.perf;
+
+import java.io.File;
+import java.io.OutputStream;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.status.StatusChecker;
+import ch.qos.logback.core.util.StatusPrinter;
+
+/**
+ * Fixtures shared by the benchmarks of this module.
+ */
+public class BenchmarkSupport {
+
+  public static final String DEFAULT_PATTERN = "%d %-5level [%thread] %logger{36} - %msg%n";
+  public static final String LOGGER_NAME = "ch.qos.logback.perf.sample.SampleService";
+
+  /**
+   * @return a started context whose loggers have no appenders
+   */
+  public static LoggerContext newContext() {
+    LoggerContext lc = new LoggerContext();
+    lc.setName("perf");
+    lc.start();
+    return lc;
+  }
+
+  public static LoggingEvent newEvent(LoggerContext lc, Throwable t) {
+    Logger logger = lc.getLogger(LOGGER_NAME);
+    LoggingEvent le = new LoggingEvent(Logger.FQCN, logger, Level.INFO,
+        "Processed request {} in {} ms", t, new Object[] { "GET /index.html",
+            Integer.valueOf(42) });
+    // render the message once, as the first appender would
+    le.getFormattedMessage();
+    return le;
+  }
+
+  public static PatternLayoutEncoder newEncoder(LoggerContext lc,
+      String pattern) {
+    PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(lc);
+    encoder.setPattern(pattern);
+    encoder.start();
+    return encoder;
+  }
+
+  /**
+   * @return a fresh directory, under java.io.tmpdir, for files written by
+   *         benchmarks
+   */
+  public static File newOutputDirectory(String name) {
+    File dir = new File(System.getProperty("java.io.tmpdir"), "logback-perf"
+        + File.separator + name + "-" + System.nanoTime());
+    if (!dir.mkdirs()) {
+      throw new IllegalStateException("Failed to create " + dir);
+    }
+    return dir;
+  }
+
+  public static void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+
+  /**
+   * Fail if components of the context reported errors while being set up, as
+   * a misconfigured benchmark measures nothing of interest.
+   */
+  public static void checkNoErrors(LoggerContext lc) {
+    if (!new StatusChecker(lc).isErrorFree(0)) {
+      StatusPrinter.print(lc);
+      throw new IllegalStateException("Errors occurred while setting up ["
+          + lc.getName() + "]");
+    }
+  }
+
+  /**
+   * An output stream discarding its input, counting the bytes written so that
+   * the work of encoders cannot be optimized away.
+   */
+  public static class CountingNullOutputStream extends OutputStream {
+
+    long count;
+
+    @Override
+    public void write(int b) {
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      count += len;
+    }
+
+    public long getCount() {
+      return count;
+    }
+  }
+}
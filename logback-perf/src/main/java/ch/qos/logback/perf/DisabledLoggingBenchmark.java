@@ -0,0 +1,100 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.perf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+/**
+ * The cost of logging statements disabled by the level of their logger, with
+ * 0, 1 or 3 turbo filters whose decision cannot be known in advance.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class DisabledLoggingBenchmark {
+
+  @Param( { "0", "1", "3" })
+  int turboFilterCount;
+
+  LoggerContext lc;
+  Logger logger;
+  Object arg = "arg";
+
+  @Setup
+  public void setUp() {
+    lc = BenchmarkSupport.newContext();
+    for (int i = 0; i < turboFilterCount; i++) {
+      TurboFilter filter = new NeutralTurboFilter();
+      filter.setContext(lc);
+      filter.start();
+      lc.addTurboFilter(filter);
+    }
+    logger = lc.getLogger(BenchmarkSupport.LOGGER_NAME);
+    logger.setLevel(Level.INFO);
+  }
+
+  @TearDown
+  public void tearDown() {
+    lc.stop();
+  }
+
+  @Benchmark
+  public void debug() {
+    logger.debug("disabled");
+  }
+
+  @Benchmark
+  public void debugOneArg() {
+    logger.debug("disabled {}", arg);
+  }
+
+  @Benchmark
+  public boolean isDebugEnabled() {
+    return logger.isDebugEnabled();
+  }
+
+  /**
+   * Stands for filters inspecting the MDC or the arguments of each call.
+   */
+  public static class NeutralTurboFilter extends TurboFilter {
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level,
+        String format, Object[] params, Throwable t) {
+      return FilterReply.NEUTRAL;
+    }
+  }
+}
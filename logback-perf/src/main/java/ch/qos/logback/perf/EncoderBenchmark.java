@@ -0,0 +1,72 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.perf;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.perf.BenchmarkSupport.CountingNullOutputStream;
+
+/**
+ * Conversion of an event into bytes by {@link PatternLayoutEncoder}, the
+ * bytes being written to a stream which discards them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class EncoderBenchmark {
+
+  LoggerContext lc;
+  PatternLayoutEncoder encoder;
+  CountingNullOutputStream os = new CountingNullOutputStream();
+  LoggingEvent event;
+
+  @Setup
+  public void setUp() throws IOException {
+    lc = BenchmarkSupport.newContext();
+    encoder = BenchmarkSupport.newEncoder(lc, BenchmarkSupport.DEFAULT_PATTERN);
+    encoder.init(os);
+    event = BenchmarkSupport.newEvent(lc, null);
+    BenchmarkSupport.checkNoErrors(lc);
+  }
+
+  @TearDown
+  public void tearDown() {
+    lc.stop();
+  }
+
+  @Benchmark
+  public long doEncode() throws IOException {
+    encoder.doEncode(event);
+    return os.getCount();
+  }
+}
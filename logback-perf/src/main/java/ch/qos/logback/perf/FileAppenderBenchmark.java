@@ -0,0 +1,107 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.perf;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.FileAppender;
+
+/**
+ * Throughput of a {@link FileAppender} shared by 1 to 32 threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class FileAppenderBenchmark {
+
+  LoggerContext lc;
+  File dir;
+  FileAppender<ILoggingEvent> appender;
+
+  @Setup
+  public void setUp() {
+    lc = BenchmarkSupport.newContext();
+    dir = BenchmarkSupport.newOutputDirectory("file");
+    appender = new FileAppender<ILoggingEvent>();
+    appender.setContext(lc);
+    appender.setName("FILE");
+    appender.setAppend(false);
+    appender.setFile(new File(dir, "file.log").getAbsolutePath());
+    appender.setEncoder(BenchmarkSupport.newEncoder(lc,
+        BenchmarkSupport.DEFAULT_PATTERN));
+    appender.start();
+    BenchmarkSupport.checkNoErrors(lc);
+  }
+
+  @TearDown
+  public void tearDown() {
+    appender.stop();
+    lc.stop();
+    BenchmarkSupport.delete(dir);
+  }
+
+  @State(Scope.Thread)
+  public static class EventState {
+    LoggingEvent event;
+
+    @Setup
+    public void setUp(FileAppenderBenchmark benchmark) {
+      event = BenchmarkSupport.newEvent(benchmark.lc, null);
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void append1Thread(EventState state) {
+    appender.doAppend(state.event);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void append4Threads(EventState state) {
+    appender.doAppend(state.event);
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void append16Threads(EventState state) {
+    appender.doAppend(state.event);
+  }
+
+  @Benchmark
+  @Threads(32)
+  public void append32Threads(EventState state) {
+    appender.doAppend(state.event);
+  }
+}
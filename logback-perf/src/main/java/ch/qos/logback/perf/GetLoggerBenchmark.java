@@ -0,0 +1,78 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.perf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+
+/**
+ * Lookups of existing loggers, by name and by class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class GetLoggerBenchmark {
+
+  LoggerContext lc;
+
+  @Setup
+  public void setUp() {
+    lc = BenchmarkSupport.newContext();
+    // a few hundred loggers, as in a typical application
+    for (int i = 0; i < 500; i++) {
+      lc.getLogger("com.example.module" + (i % 20) + ".Service" + i);
+    }
+    lc.getLogger(BenchmarkSupport.LOGGER_NAME);
+    lc.getLogger(GetLoggerBenchmark.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    lc.stop();
+  }
+
+  @Benchmark
+  public Logger byName() {
+    return lc.getLogger(BenchmarkSupport.LOGGER_NAME);
+  }
+
+  @Benchmark
+  public Logger byClass() {
+    return lc.getLogger(GetLoggerBenchmark.class);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Logger byName4Threads() {
+    return lc.getLogger(BenchmarkSupport.LOGGER_NAME);
+  }
+}
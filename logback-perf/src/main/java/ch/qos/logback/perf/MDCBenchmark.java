@@ -0,0 +1,81 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.perf;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+
+/**
+ * Operations on the MDC of a thread already holding a few entries.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class MDCBenchmark {
+
+  @Param( { "0", "4", "16" })
+  int initialSize;
+
+  LogbackMDCAdapter mdcAdapter;
+  int counter;
+
+  @Setup
+  public void setUp() {
+    mdcAdapter = new LogbackMDCAdapter();
+    for (int i = 0; i < initialSize; i++) {
+      mdcAdapter.put("key" + i, "value" + i);
+    }
+    mdcAdapter.put("requestId", "0");
+  }
+
+  @Benchmark
+  public void put() {
+    // the same key with a new value, as done on each request
+    mdcAdapter.put("requestId", (++counter & 1) == 0 ? "even" : "odd");
+  }
+
+  @Benchmark
+  public String get() {
+    return mdcAdapter.get("requestId");
+  }
+
+  @Benchmark
+  public void putAndRemove() {
+    mdcAdapter.put("transient", "value");
+    mdcAdapter.remove("transient");
+  }
+
+  @Benchmark
+  public Map<?, ?> getPropertyMap() {
+    // invoked for every event created while the MDC is not empty
+    return mdcAdapter.getPropertyMap();
+  }
+}
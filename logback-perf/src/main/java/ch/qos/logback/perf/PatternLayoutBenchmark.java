@@ -0,0 +1,80 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.perf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+/**
+ * Rendering of an event by {@link PatternLayout} with commonly used patterns,
+ * by the interpreted converter chain and by the chain compiled to bytecode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class PatternLayoutBenchmark {
+
+  @Param( { BenchmarkSupport.DEFAULT_PATTERN,
+      "%-4relative [%thread] %-5level %logger{35} - %msg %n",
+      "%date{ISO8601} %level %logger %mdc - %msg%n", "%msg%n" })
+  String pattern;
+
+  @Param( { "false", "true" })
+  boolean compileToBytecode;
+
+  LoggerContext lc;
+  PatternLayout layout;
+  LoggingEvent event;
+
+  @Setup
+  public void setUp() {
+    lc = BenchmarkSupport.newContext();
+    layout = new PatternLayout();
+    layout.setContext(lc);
+    layout.setPattern(pattern);
+    layout.setCompileToBytecode(compileToBytecode);
+    layout.start();
+    event = BenchmarkSupport.newEvent(lc, null);
+    BenchmarkSupport.checkNoErrors(lc);
+  }
+
+  @TearDown
+  public void tearDown() {
+    lc.stop();
+  }
+
+  @Benchmark
+  public String doLayout() {
+    return layout.doLayout(event);
+  }
+}
@@ -0,0 +1,114 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.perf;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.rolling.FixedWindowRollingPolicy;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.rolling.SizeBasedTriggeringPolicy;
+
+/**
+ * Throughput of a {@link RollingFileAppender} rolling over every megabyte
+ * while several threads append to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class RollingFileAppenderBenchmark {
+
+  LoggerContext lc;
+  File dir;
+  RollingFileAppender<ILoggingEvent> appender;
+
+  @Setup
+  public void setUp() {
+    lc = BenchmarkSupport.newContext();
+    dir = BenchmarkSupport.newOutputDirectory("rolling");
+    appender = new RollingFileAppender<ILoggingEvent>();
+    appender.setContext(lc);
+    appender.setName("ROLLING");
+    appender.setFile(new File(dir, "rolling.log").getAbsolutePath());
+    appender.setEncoder(BenchmarkSupport.newEncoder(lc,
+        BenchmarkSupport.DEFAULT_PATTERN));
+
+    FixedWindowRollingPolicy rollingPolicy = new FixedWindowRollingPolicy();
+    rollingPolicy.setContext(lc);
+    rollingPolicy.setFileNamePattern(new File(dir, "rolling.%i.log")
+        .getAbsolutePath());
+    rollingPolicy.setMinIndex(1);
+    rollingPolicy.setMaxIndex(3);
+    rollingPolicy.setParent(appender);
+    rollingPolicy.start();
+
+    SizeBasedTriggeringPolicy<ILoggingEvent> triggeringPolicy = new SizeBasedTriggeringPolicy<ILoggingEvent>();
+    triggeringPolicy.setContext(lc);
+    triggeringPolicy.setMaxFileSize("1MB");
+    triggeringPolicy.start();
+
+    appender.setRollingPolicy(rollingPolicy);
+    appender.setTriggeringPolicy(triggeringPolicy);
+    appender.start();
+    BenchmarkSupport.checkNoErrors(lc);
+  }
+
+  @TearDown
+  public void tearDown() {
+    appender.stop();
+    lc.stop();
+    BenchmarkSupport.delete(dir);
+  }
+
+  @State(Scope.Thread)
+  public static class EventState {
+    LoggingEvent event;
+
+    @Setup
+    public void setUp(RollingFileAppenderBenchmark benchmark) {
+      event = BenchmarkSupport.newEvent(benchmark.lc, null);
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void append1Thread(EventState state) {
+    appender.doAppend(state.event);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void append8Threads(EventState state) {
+    appender.doAppend(state.event);
+  }
+}
@@ -0,0 +1,87 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.perf;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.net.LoggingEventPreSerializationTransformer;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.perf.BenchmarkSupport.CountingNullOutputStream;
+
+/**
+ * Serialization of events as performed by
+ * {@link ch.qos.logback.classic.net.SocketAppender}, the stream being reset
+ * at the same frequency.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class SerializationBenchmark {
+
+  @Param( { "false", "true" })
+  boolean withThrowable;
+
+  LoggerContext lc;
+  LoggingEventPreSerializationTransformer pst = new LoggingEventPreSerializationTransformer();
+  CountingNullOutputStream os = new CountingNullOutputStream();
+  ObjectOutputStream oos;
+  LoggingEvent event;
+  int counter;
+
+  @Setup
+  public void setUp() throws IOException {
+    lc = BenchmarkSupport.newContext();
+    Throwable t = withThrowable ? new IllegalStateException("test") : null;
+    event = BenchmarkSupport.newEvent(lc, t);
+    event.prepareForDeferredProcessing();
+    oos = new ObjectOutputStream(os);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    oos.close();
+    lc.stop();
+  }
+
+  @Benchmark
+  public long writeObject() throws IOException {
+    oos.writeObject(pst.transform(event));
+    oos.flush();
+    if (++counter >= CoreConstants.OOS_RESET_FREQUENCY) {
+      counter = 0;
+      oos.reset();
+    }
+    return os.getCount();
+  }
+}
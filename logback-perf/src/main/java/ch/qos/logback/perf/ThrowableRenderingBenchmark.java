@@ -0,0 +1,92 @@
+/**
+ * Logback: the reliable, generic, fast and flexible logging framework.
+ * Copyright (C) 1999-2011, QOS.ch. All rights reserved.
+ *
+ * This program and the accompanying materials are dual-licensed under
+ * either the terms of the Eclipse Public License v1.0 as published by
+ * the Eclipse Foundation
+ *
+ *   or (per the licensee's choosing)
+ *
+ * under the terms of the GNU Lesser General Public License version 2.1
+ * as published by the Free Software Foundation.
+ */
+package ch.qos.logback.perf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.PatternLayout;
+import ch.qos.logback.classic.spi.LoggingEvent;
+
+/**
+ * Creation of events carrying a throwable and rendering of their stack
+ * traces.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+public class ThrowableRenderingBenchmark {
+
+  @Param( { "%msg%n%ex", "%msg%n%xEx", "%msg%n%ex{short}" })
+  String pattern;
+
+  @Param( { "10", "50" })
+  int depth;
+
+  LoggerContext lc;
+  PatternLayout layout;
+  Throwable throwable;
+  LoggingEvent event;
+
+  @Setup
+  public void setUp() {
+    lc = BenchmarkSupport.newContext();
+    layout = new PatternLayout();
+    layout.setContext(lc);
+    layout.setPattern(pattern);
+    layout.start();
+    throwable = new IllegalStateException("wrapper", nest(depth));
+    event = BenchmarkSupport.newEvent(lc, throwable);
+    BenchmarkSupport.checkNoErrors(lc);
+  }
+
+  @TearDown
+  public void tearDown() {
+    lc.stop();
+  }
+
+  static Exception nest(int depth) {
+    if (depth == 0) {
+      return new RuntimeException("root cause");
+    }
+    return nest(depth - 1);
+  }
+
+  @Benchmark
+  public LoggingEvent newEvent() {
+    // builds the throwable proxy
+    return BenchmarkSupport.newEvent(lc, throwable);
+  }
+
+  @Benchmark
+  public String render() {
+    return layout.doLayout(event);
+  }
+}